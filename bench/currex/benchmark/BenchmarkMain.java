@@ -0,0 +1,21 @@
+package currex.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Runs the benchmarks matching the first argument (all by default) with the gc profiler, so every result
+// reports allocation per operation (gc.alloc.rate.norm) next to the throughput.
+// bench/pom.xml builds it with src, `mvn -B package exec:exec -Dbenchmark=<regex>` runs it.
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : BenchmarkMain.class.getPackageName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,122 @@
+package currex.benchmark;
+
+// Generates benchmark inputs whose size grows with a single parameter
+public final class InputGenerator {
+
+    private InputGenerator() {
+    }
+
+    // size functions with a handful of statements each, all called from main
+    public static String longScript(int size) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("main() {\n");
+        for (int i = 0; i < size; i++) {
+            builder.append("    print(function").append(i).append("(").append(i).append("));\n");
+        }
+        builder.append("}\n\n");
+        for (int i = 0; i < size; i++) {
+            builder.append("int function").append(i).append("(int n) {\n")
+                    .append("    int result = n * 2 + ").append(i).append(";\n")
+                    .append("    float ratio = 1.5 * 2.25;\n")
+                    .append("    currency amount = ").append(i).append(".25 PLN;\n")
+                    .append("    string label = \"function").append(i).append("\";\n")
+                    .append("    if (result > 10 && n != 0) {\n")
+                    .append("        result = result - 1;\n")
+                    .append("    }\n")
+                    .append("    else {\n")
+                    .append("        result = result + 1;\n")
+                    .append("    }\n")
+                    .append("    // comment ").append(i).append("\n")
+                    .append("    return result;\n")
+                    .append("}\n\n");
+        }
+        return builder.toString();
+    }
+
+    // size statements made almost only of operators, every one and two character operator appears on each line
+    public static String operatorScript(int size) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("main() {\n");
+        for (int i = 0; i < size; i++) {
+            builder.append("    b=(a+b)*(c-d)/e>=f&&g<=h||!(i==j)&&k!=l||m<n&&o>p;\n")
+                    .append("    c=-a->PLN;r=[x,y].z@w;\n");
+        }
+        builder.append("}\n");
+        return builder.toString();
+    }
+
+    // one expression nested depth levels deep, alternating operators of every precedence level
+    public static String deepExpression(int depth) {
+        String[] operators = {" + ", " * ", " - ", " / "};
+        StringBuilder builder = new StringBuilder();
+        builder.append("main() {\n    int x = ");
+        for (int i = 0; i < depth; i++) {
+            builder.append("(").append(i + 1).append(operators[i % operators.length]);
+        }
+        builder.append("1");
+        builder.append(")".repeat(depth));
+        builder.append(";\n    print(x);\n}\n");
+        return builder.toString();
+    }
+
+    // size x size table of currencies named CA, CB, ..., diagonal rates equal to 1
+    public static String wideTable(int size) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            builder.append(i == 0 ? "" : " ").append(currencyName(i));
+        }
+        builder.append(";\n");
+        for (int from = 0; from < size; from++) {
+            builder.append(currencyName(from));
+            for (int to = 0; to < size; to++) {
+                builder.append(" ").append(from == to ? "1" : "1." + ((from * 31 + to * 17) % 100));
+            }
+            builder.append(";\n");
+        }
+        return builder.toString();
+    }
+
+    // a while loop with iterations rounds of integer, float and currency arithmetic and a conversion
+    public static String loopProgram(int iterations) {
+        return "main() {\n" +
+                "    int i = 0;\n" +
+                "    int total = 0;\n" +
+                "    float f = 0.0;\n" +
+                "    currency amount = 0.0 " + currencyName(0) + ";\n" +
+                "    currency step = 0.25 " + currencyName(0) + ";\n" +
+                "    currency converted = 0.0 " + currencyName(1) + ";\n" +
+                "    while (i < " + iterations + ") {\n" +
+                "        total = total + i / 2;\n" +
+                "        f = f + 0.5;\n" +
+                "        amount = amount + step * step;\n" +
+                "        converted = amount -> " + currencyName(1) + ";\n" +
+                "        i = i + 1;\n" +
+                "    }\n" +
+                "    print(total);\n" +
+                "    print(f);\n" +
+                "    print(converted);\n" +
+                "}\n";
+    }
+
+    // a while loop printing a number and a string on every one of its iterations
+    public static String printLoop(int iterations) {
+        return "main() {\n" +
+                "    int i = 0;\n" +
+                "    while (i < " + iterations + ") {\n" +
+                "        print(i);\n" +
+                "        print(\"line\");\n" +
+                "        i = i + 1;\n" +
+                "    }\n" +
+                "}\n";
+    }
+
+    public static String currencyName(int index) {
+        StringBuilder name = new StringBuilder();
+        int rest = index;
+        do {
+            name.insert(0, (char) ('A' + rest % 26));
+            rest = rest / 26 - 1;
+        } while (rest >= 0);
+        return "C" + name;
+    }
+}
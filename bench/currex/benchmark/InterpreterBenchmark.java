@@ -0,0 +1,48 @@
+package currex.benchmark;
+
+import currex.Engine;
+import currex.RunOptions;
+import currex.interpreter.builtin.ConversionTable;
+import currex.interpreter.error.InterpreterErrorHandler;
+import currex.lexer.Lexer;
+import currex.output.NullSink;
+import currex.parser.Parser;
+import currex.parser.TableParser;
+import currex.source.Source;
+import currex.structure.components.Program;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class InterpreterBenchmark {
+    @Param({"interpreter", "nodes", "vm"})
+    public String engine;
+    @Param({"100", "10000"})
+    public int iterations;
+    @Param({"false", "true"})
+    public boolean fixedPoint;
+    private Program program;
+    private ConversionTable conversionTable;
+    private Engine selectedEngine;
+
+    @Setup
+    public void setUp() throws Exception {
+        program = new Parser(new Lexer(new Source(new StringReader(InputGenerator.loopProgram(iterations))))).parse();
+        String table = InputGenerator.wideTable(2);
+        conversionTable = new ConversionTable(new TableParser(new Lexer(new Source(new StringReader(table)))).parse());
+        selectedEngine = Engine.fromName(engine);
+    }
+
+    @Benchmark
+    public void run() throws Exception {
+        selectedEngine.create(conversionTable, NullSink.INSTANCE, new InterpreterErrorHandler(),
+                RunOptions.DEFAULT.withFixedPoint(fixedPoint)).run(program);
+    }
+}
@@ -0,0 +1,64 @@
+package currex.benchmark;
+
+import currex.lexer.Lexer;
+import currex.lexer.TokenStream;
+import currex.source.Source;
+import currex.token.Token;
+import currex.token.TokenType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LexerBenchmark {
+    @Param({"10", "100", "1000"})
+    public int functions;
+    // operators is operator-dense input which stresses operator recognition
+    @Param({"script", "operators"})
+    public String input;
+    private String script;
+    private char[] chars;
+
+    @Setup
+    public void setUp() {
+        script = input.equals("operators") ?
+                InputGenerator.operatorScript(functions) : InputGenerator.longScript(functions);
+        chars = script.toCharArray();
+    }
+
+    @Benchmark
+    public void fetchTokens(Blackhole blackhole) throws Exception {
+        fetchAll(new Lexer(new Source(new StringReader(script))), blackhole);
+    }
+
+    @Benchmark
+    public void fetchTokensFromArray(Blackhole blackhole) throws Exception {
+        fetchAll(new Lexer(new Source(chars)), blackhole);
+    }
+
+    @Benchmark
+    public TokenStream fetchTokensPacked() throws Exception {
+        Lexer lexer = new Lexer(new Source(chars));
+        TokenStream tokens = new TokenStream();
+        int index = lexer.fetchTokenInto(tokens);
+        while (tokens.type(index) != TokenType.EOF) {
+            index = lexer.fetchTokenInto(tokens);
+        }
+        return tokens;
+    }
+
+    private static void fetchAll(Lexer lexer, Blackhole blackhole) throws Exception {
+        Token token = lexer.fetchToken();
+        while (token.getTokenType() != TokenType.EOF) {
+            blackhole.consume(token);
+            token = lexer.fetchToken();
+        }
+    }
+}
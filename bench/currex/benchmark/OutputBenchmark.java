@@ -0,0 +1,57 @@
+package currex.benchmark;
+
+import currex.Engine;
+import currex.interpreter.CurrencyArithmetic;
+import currex.interpreter.builtin.ConversionTable;
+import currex.interpreter.error.InterpreterErrorHandler;
+import currex.lexer.Lexer;
+import currex.output.BufferedSink;
+import currex.output.NullSink;
+import currex.output.OutputSink;
+import currex.output.PrintStreamSink;
+import currex.parser.Parser;
+import currex.parser.TableParser;
+import currex.source.Source;
+import currex.structure.components.Program;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OutputBenchmark {
+    @Param({"interpreter", "vm"})
+    public String engine;
+    // every sink writes to a discarding stream, null skips the writing itself
+    @Param({"stream", "buffered", "null"})
+    public String output;
+    private Program program;
+    private ConversionTable conversionTable;
+    private Engine selectedEngine;
+
+    @Setup
+    public void setUp() throws Exception {
+        program = new Parser(new Lexer(new Source(new StringReader(InputGenerator.printLoop(10000))))).parse();
+        String table = InputGenerator.wideTable(2);
+        conversionTable = new ConversionTable(new TableParser(new Lexer(new Source(new StringReader(table)))).parse());
+        selectedEngine = Engine.fromName(engine);
+    }
+
+    @Benchmark
+    public void run() throws Exception {
+        OutputSink printer = switch (output) {
+            case "stream" -> new PrintStreamSink(new PrintStream(OutputStream.nullOutputStream(), true));
+            case "buffered" -> new BufferedSink(OutputStream.nullOutputStream());
+            default -> NullSink.INSTANCE;
+        };
+        selectedEngine.create(conversionTable, printer, new CurrencyArithmetic(conversionTable),
+                new InterpreterErrorHandler()).run(program);
+    }
+}
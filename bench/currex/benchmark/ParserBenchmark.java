@@ -0,0 +1,87 @@
+package currex.benchmark;
+
+import currex.lexer.Lexer;
+import currex.parser.IncrementalParser;
+import currex.parser.ParallelParser;
+import currex.parser.Parser;
+import currex.source.Source;
+import currex.structure.components.Program;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ParserBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class LongScript {
+        @Param({"10", "100", "1000"})
+        public int functions;
+        private String script;
+
+        @Setup
+        public void setUp() {
+            script = InputGenerator.longScript(functions);
+        }
+    }
+
+    // every level of nesting still takes a few frames, the default stack holds several hundred levels
+    @State(Scope.Benchmark)
+    public static class DeepExpression {
+        @Param({"10", "100", "300", "800"})
+        public int depth;
+        private String script;
+
+        @Setup
+        public void setUp() {
+            script = InputGenerator.deepExpression(depth);
+        }
+    }
+
+    // a one character edit in the middle function of a long script, parsed incrementally
+    @State(Scope.Benchmark)
+    public static class EditedScript {
+        @Param({"10", "100", "1000"})
+        public int functions;
+        private IncrementalParser parser;
+        private int offset;
+        private boolean edited;
+
+        @Setup
+        public void setUp() throws Exception {
+            String script = InputGenerator.longScript(functions);
+            parser = new IncrementalParser(script);
+            offset = script.indexOf("n * 2", script.indexOf("int function" + functions / 2 + "(")) + "n * ".length();
+        }
+    }
+
+    private static Program parse(String script) throws Exception {
+        return new Parser(new Lexer(new Source(new StringReader(script)))).parse();
+    }
+
+    @Benchmark
+    public Program parseLongScript(LongScript input) throws Exception {
+        return parse(input.script);
+    }
+
+    @Benchmark
+    public Program parseLongScriptParallel(LongScript input) throws Exception {
+        return new ParallelParser().parse(input.script.toCharArray());
+    }
+
+    @Benchmark
+    public Program parseEdit(EditedScript input) throws Exception {
+        input.edited = !input.edited;
+        return input.parser.edit(input.offset, 1, input.edited ? "3" : "2");
+    }
+
+    @Benchmark
+    public Program parseDeepExpression(DeepExpression input) throws Exception {
+        return parse(input.script);
+    }
+}
@@ -0,0 +1,33 @@
+package currex.benchmark;
+
+import currex.interpreter.builtin.ConversionTable;
+import currex.lexer.Lexer;
+import currex.parser.TableParser;
+import currex.source.Source;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TableBenchmark {
+    // CurrexConfig.MAX_CONVERSION_TABLE_SIZE is the widest table the language accepts
+    @Param({"2", "3", "5"})
+    public int currencies;
+    private String table;
+
+    @Setup
+    public void setUp() {
+        table = InputGenerator.wideTable(currencies);
+    }
+
+    @Benchmark
+    public ConversionTable loadTable() throws Exception {
+        return new ConversionTable(new TableParser(new Lexer(new Source(new StringReader(table)))).parse());
+    }
+}
@@ -0,0 +1,74 @@
+package currex;
+
+import currex.interpreter.builtin.ConversionTable;
+import currex.interpreter.error.InterpreterErrorHandler;
+import currex.output.BufferedSink;
+import currex.structure.components.Program;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// Runs one program against many conversion tables in parallel. Every run gets its own engine and output
+// buffer, the results come back in the order of the tables.
+public class BatchExecutor implements AutoCloseable {
+    private final Engine engine;
+    private final RunOptions options;
+    private final ForkJoinPool pool;
+
+    public BatchExecutor(Engine engine, RunOptions options) {
+        this(engine, options, Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchExecutor(Engine engine, RunOptions options, int parallelism) {
+        this.engine = engine;
+        this.options = options;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    public List<Result> run(Program program, List<ConversionTable> conversionTables) throws InterruptedException {
+        List<Future<Result>> futures = new ArrayList<>(conversionTables.size());
+        for (ConversionTable conversionTable : conversionTables) {
+            futures.add(pool.submit(() -> runOne(program, conversionTable)));
+        }
+        List<Result> results = new ArrayList<>(futures.size());
+        for (Future<Result> future : futures) {
+            try {
+                results.add(future.get());
+            }
+            catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private Result runOne(Program program, ConversionTable conversionTable) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BufferedSink printer = new BufferedSink(output);
+        Exception error = null;
+        try {
+            // errors are reported in the output of their run, pool threads never print to System.out
+            engine.create(conversionTable, printer, new InterpreterErrorHandler(printer), options).run(program);
+        }
+        catch (Exception e) {
+            error = e;
+        }
+        return new Result(conversionTable, output.toString(), error);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    // error is null when the run finished normally, output holds everything printed before it stopped
+    public record Result(ConversionTable conversionTable, String output, Exception error) {
+        public boolean isSuccessful() {
+            return error == null;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package currex;
+
+import currex.interpreter.builtin.ConversionTable;
+import currex.interpreter.error.ErrorHandler;
+import currex.interpreter.error.InterpreterErrorHandler;
+import currex.lexer.Lexer;
+import currex.output.OutputSink;
+import currex.output.PrintStreamSink;
+import currex.parser.ParallelParser;
+import currex.parser.TableParser;
+import currex.source.Source;
+import currex.structure.components.Program;
+
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Keeps parsed programs and conversion tables for a long-lived JVM. Files are parsed once per content
+// hash and read again only when their size or modification time changes.
+public class CurrexRuntime {
+    private final Engine engine;
+    private final ErrorHandler errorHandler;
+    private final RunOptions options;
+    private final Map<Path, CachedFile<Program>> programFiles = new ConcurrentHashMap<>();
+    private final Map<Path, CachedFile<ConversionTable>> tableFiles = new ConcurrentHashMap<>();
+    private final Map<String, Program> programs = new ConcurrentHashMap<>();
+    private final Map<String, ConversionTable> tables = new ConcurrentHashMap<>();
+
+    public CurrexRuntime() {
+        this(Engine.INTERPRETER, RunOptions.DEFAULT);
+    }
+
+    public CurrexRuntime(Engine engine, RunOptions options) {
+        this(engine, new InterpreterErrorHandler(), options);
+    }
+
+    // every run reports its errors through errorHandler
+    public CurrexRuntime(Engine engine, ErrorHandler errorHandler, RunOptions options) {
+        this.engine = engine;
+        this.errorHandler = errorHandler;
+        this.options = options;
+    }
+
+    public Script load(Path program) throws Exception {
+        Path path = program.toAbsolutePath().normalize();
+        getProgram(path);
+        return new Script(path);
+    }
+
+    public ConversionTable loadTable(Path table) throws Exception {
+        Path path = table.toAbsolutePath().normalize();
+        return get(path, tableFiles, tables, CurrexRuntime::parseTable);
+    }
+
+    public void run(Program program, ConversionTable conversionTable, PrintStream printer) throws Exception {
+        run(program, conversionTable, new PrintStreamSink(printer));
+    }
+
+    public void run(Program program, ConversionTable conversionTable, OutputSink printer) throws Exception {
+        engine.create(conversionTable, printer, errorHandler, options).run(program);
+    }
+
+    Program getProgram(Path path) throws Exception {
+        return get(path, programFiles, programs, CurrexRuntime::parseProgram);
+    }
+
+    private <T> T get(Path path, Map<Path, CachedFile<T>> files, Map<String, T> parsed,
+                      FileParser<T> parser) throws Exception {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        CachedFile<T> cached = files.get(path);
+        if (cached != null && cached.isCurrent(attributes)) {
+            return cached.value();
+        }
+        byte[] content = Files.readAllBytes(path);
+        String hash = hash(content);
+        T value = parsed.get(hash);
+        if (value == null) {
+            value = parser.parse(new String(content, Charset.defaultCharset()));
+            T previous = parsed.putIfAbsent(hash, value);
+            if (previous != null) {
+                value = previous;
+            }
+        }
+        files.put(path, new CachedFile<>(attributes.lastModifiedTime(), attributes.size(), value));
+        return value;
+    }
+
+    private static String hash(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    private static Program parseProgram(String content) throws Exception {
+        return new ParallelParser().parse(content.toCharArray());
+    }
+
+    private static ConversionTable parseTable(String content) throws Exception {
+        return new ConversionTable(new TableParser(new Lexer(new Source(content.toCharArray()))).parse());
+    }
+
+    private interface FileParser<T> {
+        T parse(String content) throws Exception;
+    }
+
+    private record CachedFile<T>(FileTime modified, long size, T value) {
+        boolean isCurrent(BasicFileAttributes attributes) {
+            return modified.equals(attributes.lastModifiedTime()) && size == attributes.size();
+        }
+    }
+
+    // A loaded program file, every run picks up the current content of the file
+    public class Script {
+        private final Path path;
+
+        private Script(Path path) {
+            this.path = path;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public Program getProgram() throws Exception {
+            return CurrexRuntime.this.getProgram(path);
+        }
+
+        public void run(ConversionTable conversionTable, PrintStream printer) throws Exception {
+            CurrexRuntime.this.run(getProgram(), conversionTable, printer);
+        }
+
+        public void run(ConversionTable conversionTable, OutputSink printer) throws Exception {
+            CurrexRuntime.this.run(getProgram(), conversionTable, printer);
+        }
+    }
+}
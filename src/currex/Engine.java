@@ -0,0 +1,68 @@
+package currex;
+
+import currex.interpreter.CurrencyArithmetic;
+import currex.interpreter.Interpretable;
+import currex.interpreter.Interpreter;
+import currex.interpreter.builtin.ConversionTable;
+import currex.interpreter.error.ErrorHandler;
+import currex.interpreter.error.InterpreterErrorHandler;
+import currex.node.NodeInterpreter;
+import currex.output.OutputSink;
+import currex.output.PrintStreamSink;
+import currex.vm.VirtualMachine;
+
+import java.io.PrintStream;
+
+// Execution engines which can run a parsed program, selected in Main with --engine=<name>
+public enum Engine {
+    INTERPRETER("interpreter"),
+    NODES("nodes"),
+    VM("vm");
+
+    private final String name;
+
+    Engine(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Interpretable create(ConversionTable conversionTable, PrintStream printer) {
+        return create(conversionTable, printer, new CurrencyArithmetic(conversionTable));
+    }
+
+    public Interpretable create(ConversionTable conversionTable, PrintStream printer, CurrencyArithmetic currencies) {
+        return create(conversionTable, new PrintStreamSink(printer), currencies, new InterpreterErrorHandler());
+    }
+
+    public Interpretable create(ConversionTable conversionTable, OutputSink printer, CurrencyArithmetic currencies,
+                                ErrorHandler errorHandler) {
+        return create(conversionTable, printer, currencies, errorHandler, RunOptions.DEFAULT.optimizing());
+    }
+
+    public Interpretable create(ConversionTable conversionTable, OutputSink printer,
+                                ErrorHandler errorHandler, RunOptions options) {
+        return create(conversionTable, printer, options.createArithmetic(conversionTable, errorHandler), errorHandler,
+                options.optimizing());
+    }
+
+    private Interpretable create(ConversionTable conversionTable, OutputSink printer, CurrencyArithmetic currencies,
+                                 ErrorHandler errorHandler, boolean optimizing) {
+        return switch (this) {
+            case INTERPRETER -> new Interpreter(conversionTable, printer, currencies, errorHandler, optimizing);
+            case NODES -> new NodeInterpreter(conversionTable, printer, currencies, errorHandler, optimizing);
+            case VM -> new VirtualMachine(conversionTable, printer, currencies, errorHandler, optimizing);
+        };
+    }
+
+    public static Engine fromName(String name) {
+        for (Engine engine : values()) {
+            if (engine.name.equals(name)) {
+                return engine;
+            }
+        }
+        throw new IllegalArgumentException("UNKNOWN ENGINE " + name + "!");
+    }
+}
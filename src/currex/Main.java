@@ -1,43 +1,75 @@
 package currex;
 
-import currex.interpreter.Interpreter;
 import currex.interpreter.builtin.ConversionTable;
-import currex.lexer.Lexer;
-import currex.parser.Parser;
-import currex.parser.TableParser;
-import currex.source.Source;
-import currex.structure.components.Program;
-import currex.structure.table.TableStatement;
-
-import java.io.FileReader;
+import currex.interpreter.error.InterpreterErrorHandler;
+import currex.output.BufferedSink;
+import currex.output.NullSink;
+import currex.output.OutputSink;
+import currex.output.PrintStreamSink;
+
 import java.io.PrintStream;
-import java.io.Reader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class Main {
+    private static final String OPTION_PREFIX = "--";
+    private static final String ENGINE_OPTION = "engine";
+    private static final String FIXED_POINT_OPTION = "fixed-point";
+    private static final String OUTPUT_OPTION = "output";
+    private static final String NO_OPTIMIZE_OPTION = "no-optimize";
+    private static final String FUSED_ROUNDING_OPTION = "fused-rounding";
 
+    // usage: [--engine=interpreter|nodes|vm] [--fixed-point] [--output=buffered|stream|null]
+    //        [--no-optimize] [--fused-rounding]
+    //        program_file conversion_table_file
     public static void main(String[] args) {
         try {
-            String inputFilename = args[0];
-            PrintStream printer = new PrintStream(System.out);
-            Reader reader = new FileReader(inputFilename);
-            Source source = new Source(reader);
-            Lexer lexer = new Lexer(source);
-            Parser parser = new Parser(lexer);
-            Program program = parser.parse();
-
-            String conversionTableFilename = args[1];
-            Reader conversionTableReader = new FileReader(conversionTableFilename);
-            Source conversionTableSource = new Source(conversionTableReader);
-            Lexer tableLexer = new Lexer(conversionTableSource);
-            TableParser tableParser = new TableParser(tableLexer);
-            TableStatement table = tableParser.parse();
-            ConversionTable conversionTable = new ConversionTable(table);
-
-            Interpreter interpreter = new Interpreter(conversionTable, printer);
-            interpreter.run(program);
+            Map<String, String> options = new HashMap<>();
+            List<String> files = new ArrayList<>();
+            parseArguments(args, options, files);
+
+            Engine engine = Engine.fromName(options.getOrDefault(ENGINE_OPTION, Engine.INTERPRETER.getName()));
+            OutputSink printer = createOutput(options.getOrDefault(OUTPUT_OPTION, "buffered"));
+            RunOptions runOptions = RunOptions.DEFAULT
+                    .withFixedPoint(options.containsKey(FIXED_POINT_OPTION))
+                    .withOptimizing(!options.containsKey(NO_OPTIMIZE_OPTION))
+                    .withFusedRounding(options.containsKey(FUSED_ROUNDING_OPTION));
+            CurrexRuntime runtime = new CurrexRuntime(engine, new InterpreterErrorHandler(printer), runOptions);
+            CurrexRuntime.Script script = runtime.load(Path.of(files.get(0)));
+            ConversionTable conversionTable = runtime.loadTable(Path.of(files.get(1)));
+            script.run(conversionTable, printer);
 
         } catch (Exception e) {
             System.out.println(e.getMessage());
         }
     }
+
+    private static OutputSink createOutput(String name) {
+        return switch (name) {
+            case "buffered" -> new BufferedSink(System.out);
+            case "stream" -> new PrintStreamSink(new PrintStream(System.out));
+            case "null" -> NullSink.INSTANCE;
+            default -> throw new IllegalArgumentException("UNKNOWN OUTPUT " + name + "!");
+        };
+    }
+
+    private static void parseArguments(String[] args, Map<String, String> options, List<String> files) {
+        for (String arg : args) {
+            if (arg.startsWith(OPTION_PREFIX)) {
+                int separator = arg.indexOf('=');
+                if (separator == -1) {
+                    options.put(arg.substring(OPTION_PREFIX.length()), "true");
+                }
+                else {
+                    options.put(arg.substring(OPTION_PREFIX.length(), separator), arg.substring(separator + 1));
+                }
+            }
+            else {
+                files.add(arg);
+            }
+        }
+    }
 }
@@ -0,0 +1,28 @@
+package currex;
+
+import currex.interpreter.CurrencyArithmetic;
+import currex.interpreter.builtin.ConversionTable;
+import currex.interpreter.error.ErrorHandler;
+
+// Settings of a run, shared by Main, CurrexRuntime and BatchExecutor. fixedPoint keeps currency values as
+// FixedPoint units, optimizing runs currex.optimizer.Optimizer on the program before it is executed and
+// fusedRounding rounds conversion chains joined by the optimizer once instead of after every conversion.
+public record RunOptions(boolean fixedPoint, boolean optimizing, boolean fusedRounding) {
+    public static final RunOptions DEFAULT = new RunOptions(false, true, false);
+
+    public RunOptions withFixedPoint(boolean fixedPoint) {
+        return new RunOptions(fixedPoint, optimizing, fusedRounding);
+    }
+
+    public RunOptions withOptimizing(boolean optimizing) {
+        return new RunOptions(fixedPoint, optimizing, fusedRounding);
+    }
+
+    public RunOptions withFusedRounding(boolean fusedRounding) {
+        return new RunOptions(fixedPoint, optimizing, fusedRounding);
+    }
+
+    public CurrencyArithmetic createArithmetic(ConversionTable conversionTable, ErrorHandler errorHandler) {
+        return new CurrencyArithmetic(conversionTable, fixedPoint, fusedRounding, errorHandler);
+    }
+}
@@ -0,0 +1,22 @@
+package currex.compiler;
+
+import currex.structure.primitives.PrimitiveType;
+
+import java.util.Map;
+
+// callerVariables holds, for the calls of the function, the slots of its live variables which callees read by name
+public record CompiledFunction(String name, PrimitiveType returnType, int[] parameterBanks,
+                               int registerCount, int[] code, Map<Integer, Map<String, Integer>> callerVariables) {
+    public static final int NOT_FOUND = -1;
+
+    public int returnBank() {
+        return Compiler.bankOf(returnType);
+    }
+
+    // slot of the variable while the call at the instruction runs
+    public int slotAt(int call, String name) {
+        Map<String, Integer> variables = callerVariables.get(call);
+        Integer slot = variables == null ? null : variables.get(name);
+        return slot == null ? NOT_FOUND : slot;
+    }
+}
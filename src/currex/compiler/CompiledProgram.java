@@ -0,0 +1,8 @@
+package currex.compiler;
+
+public record CompiledProgram(CompiledFunction[] functions, Object[] constants, int mainFunction) {
+
+    public CompiledFunction getMainFunction() {
+        return functions[mainFunction];
+    }
+}
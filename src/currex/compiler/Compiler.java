@@ -0,0 +1,95 @@
+package currex.compiler;
+
+import currex.interpreter.error.ErrorHandler;
+import currex.interpreter.error.InterpreterErrorHandler;
+import currex.interpreter.error.InvalidFunctionCallError;
+import currex.interpreter.error.MainFunctionNotDefinedError;
+import currex.resolver.CallerVariables;
+import currex.structure.components.FunctionDefinition;
+import currex.structure.components.Program;
+import currex.structure.primitives.PrimitiveType;
+import currex.utils.CurrexConfig;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Lowers a resolved program to register code. Functions are compiled depth first from main,
+// the first time a call to them is compiled, so functions which are never called are skipped
+// and errors are reported in the order the tree-walking interpreter would reach them.
+public class Compiler {
+    private final ErrorHandler errorHandler;
+    private final Map<String, FunctionDefinition> functionDefinitions = new HashMap<>();
+    private final Map<String, Integer> functionIndices = new HashMap<>();
+    private final List<CompiledFunction> functions = new ArrayList<>();
+    private final List<Object> constants = new ArrayList<>();
+    private final Map<Object, Integer> constantIndices = new HashMap<>();
+    private CallerVariables callerVariables;
+
+    public Compiler() {
+        this(new InterpreterErrorHandler());
+    }
+
+    public Compiler(ErrorHandler errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    public CompiledProgram compile(Program program) throws Exception {
+        functionDefinitions.putAll(program.functionDefinitions());
+        callerVariables = new CallerVariables(program);
+        FunctionDefinition main = functionDefinitions.get(CurrexConfig.MAIN_FUNCTION_NAME);
+        if (main == null) {
+            errorHandler.handleInterpreterError(new MainFunctionNotDefinedError("MAIN FUNCTION WAS NOT DEFINED!"));
+        }
+        else if (!main.parameters().isEmpty()) {
+            errorHandler.handleInterpreterError(new InvalidFunctionCallError(
+                    "INVALID NUMBER OF ARGUMENTS FOR FUNCTION " + main.name() +
+                            " EXPECTED: " + main.parameters().size() + " BUT RECEIVED: 0!"));
+        }
+        int mainIndex = functionIndex(main);
+        return new CompiledProgram(functions.toArray(new CompiledFunction[0]), constants.toArray(), mainIndex);
+    }
+
+    public static int bankOf(PrimitiveType type) {
+        return switch (type) {
+            case INTEGER, BOOL -> Opcode.INT_BANK;
+            case FLOAT -> Opcode.FLOAT_BANK;
+            case STRING, CURRENCY -> Opcode.REF_BANK;
+            case NONE -> -1;
+        };
+    }
+
+    ErrorHandler getErrorHandler() {
+        return errorHandler;
+    }
+
+    CallerVariables getCallerVariables() {
+        return callerVariables;
+    }
+
+    FunctionDefinition getFunction(String name) {
+        return functionDefinitions.get(name);
+    }
+
+    int functionIndex(FunctionDefinition functionDefinition) throws Exception {
+        Integer index = functionIndices.get(functionDefinition.name());
+        if (index == null) {
+            index = functions.size();
+            functionIndices.put(functionDefinition.name(), index);
+            functions.add(null);
+            functions.set(index, new FunctionCompiler(this, functionDefinition).compile());
+        }
+        return index;
+    }
+
+    int constant(Object value) {
+        Integer index = constantIndices.get(value);
+        if (index == null) {
+            index = constants.size();
+            constants.add(value);
+            constantIndices.put(value, index);
+        }
+        return index;
+    }
+}
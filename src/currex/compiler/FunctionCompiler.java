@@ -0,0 +1,749 @@
+package currex.compiler;
+
+import currex.interpreter.builtin.GetBalanceMethod;
+import currex.interpreter.builtin.GetCurrencyMethod;
+import currex.interpreter.builtin.PrintFunction;
+import currex.interpreter.error.*;
+import currex.structure.components.Block;
+import currex.structure.components.FunctionDefinition;
+import currex.structure.components.Parameter;
+import currex.structure.components.Program;
+import currex.structure.components.VariableSlot;
+import currex.structure.expressions.*;
+import currex.structure.primitives.*;
+import currex.structure.statements.*;
+import currex.visitor.Visitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Compiles the body of a single function. Variable slots are used as registers directly,
+// temporaries are allocated above them and released after every statement. As in the interpreter,
+// a return leaves only the innermost block, so it ends the function only when nothing follows that block,
+// and names not declared in the function are read from the variables live at the calls of the callers.
+class FunctionCompiler implements Visitor {
+    private static final String PRINT_FUNCTION_NAME = "print";
+
+    private final Compiler compiler;
+    private final FunctionDefinition function;
+    private final ErrorHandler errorHandler;
+    private final PrimitiveType[] slotTypes;
+    private final String[] slotNames;
+    private final Map<Integer, Map<String, Integer>> callerVariables = new HashMap<>();
+    private List<Integer> blockExits = new ArrayList<>();
+    private boolean tailBlock;
+    private boolean tailStatement;
+    private int[] code = new int[16 * Opcode.WIDTH];
+    private int codeSize = 0;
+    private int nextRegister;
+    private int registerCount;
+    private int resultRegister;
+    private PrimitiveType resultType;
+
+    FunctionCompiler(Compiler compiler, FunctionDefinition function) {
+        this.compiler = compiler;
+        this.function = function;
+        this.errorHandler = compiler.getErrorHandler();
+        int frameSize = Math.max(function.frameSize(), function.parameters().size());
+        this.slotTypes = new PrimitiveType[frameSize];
+        this.slotNames = new String[frameSize];
+        this.nextRegister = frameSize;
+        this.registerCount = frameSize;
+    }
+
+    CompiledFunction compile() throws Exception {
+        List<Parameter> parameters = function.parameters();
+        int[] parameterBanks = new int[parameters.size()];
+        for (int i = 0; i < parameters.size(); i++) {
+            PrimitiveType type = parameterType(parameters.get(i));
+            slotTypes[slot(parameters.get(i), i)] = type;
+            slotNames[slot(parameters.get(i), i)] = parameters.get(i).name();
+            parameterBanks[i] = Compiler.bankOf(type);
+        }
+        tailStatement = true;
+        function.block().accept(this);
+        emit(function.returnType() == PrimitiveType.NONE ? Opcode.RETURN_VOID : Opcode.MISSING_RETURN, 0, 0, 0);
+        return new CompiledFunction(function.name(), function.returnType(), parameterBanks,
+                registerCount, Arrays.copyOf(code, codeSize), callerVariables);
+    }
+
+    @Override
+    public void visit(Program program) {
+    }
+
+    @Override
+    public void visit(Block block) throws Exception {
+        boolean inTail = tailStatement;
+        boolean outerTailBlock = tailBlock;
+        List<Integer> outerExits = blockExits;
+        tailBlock = inTail;
+        blockExits = new ArrayList<>();
+        List<Statement> statements = block.statementList();
+        for (int i = 0; i < statements.size(); i++) {
+            Statement statement = statements.get(i);
+            int firstTemporary = nextRegister;
+            boolean last = inTail && i == statements.size() - 1;
+            tailStatement = last;
+            statement.accept(this);
+            if (last) {
+                returnLastValue(statement);
+            }
+            nextRegister = firstTemporary;
+        }
+        for (int exit : blockExits) {
+            patchJump(exit);
+        }
+        Arrays.fill(slotNames, block.scopeStart(), block.scopeEnd(), null);
+        blockExits = outerExits;
+        tailBlock = outerTailBlock;
+        tailStatement = inTail;
+    }
+
+    @Override
+    public void visit(FunctionDefinition functionDefinition) {
+    }
+
+    @Override
+    public void visit(Parameter parameter) {
+    }
+
+    @Override
+    public void visit(DeclarationStatement declarationStatement) throws Exception {
+        compileValue(declarationStatement.expression());
+        if (resultType != declarationStatement.type()) {
+            errorHandler.handleInterpreterError(new InvalidVariableTypeError("INVALID VARIABLE OF TYPE " +
+                    resultType.name() + "!"));
+        }
+        slotTypes[declarationStatement.slot()] = declarationStatement.type();
+        slotNames[declarationStatement.slot()] = declarationStatement.name();
+        emitMove(declarationStatement.type(), declarationStatement.slot(), resultRegister);
+    }
+
+    @Override
+    public void visit(AssignmentStatement assignmentStatement) throws Exception {
+        if (assignmentStatement.left().getClass() != IdentifierExpression.class) {
+            assignmentStatement.left().accept(this);
+            compileValue(assignmentStatement.right());
+            return;
+        }
+        IdentifierExpression identifier = (IdentifierExpression) assignmentStatement.left();
+        int slot = variableSlot(identifier);
+        PrimitiveType variableType = slot == VariableSlot.UNRESOLVED ? callerType(identifier) : slotTypes[slot];
+        compileValue(assignmentStatement.right());
+        if (resultType != variableType) {
+            errorHandler.handleInterpreterError(new InvalidVariableTypeError(
+                    "VARIABLE " + identifier.name() + " WITH TYPE " + variableType +
+                            " CANNOT BE ASSIGNED WITH VALUE OF TYPE " + resultType + "!"));
+        }
+        if (slot != VariableSlot.UNRESOLVED) {
+            emitMove(variableType, slot, resultRegister);
+            return;
+        }
+        int opcode = switch (Compiler.bankOf(variableType)) {
+            case Opcode.INT_BANK -> Opcode.STORE_CALLER_INT;
+            case Opcode.FLOAT_BANK -> Opcode.STORE_CALLER_FLOAT;
+            default -> Opcode.STORE_CALLER_REF;
+        };
+        emit(opcode, resultRegister, compiler.constant(identifier.name()), 0);
+    }
+
+    @Override
+    public void visit(ReturnStatement returnStatement) throws Exception {
+        PrimitiveType returnType = function.returnType();
+        if (returnStatement.expression() == null) {
+            // the interpreter goes on after a return without a value
+            if (returnType != PrimitiveType.NONE) {
+                errorHandler.handleInterpreterError(InvalidReturnValueError.NO_RETURN_VALUE);
+            }
+            return;
+        }
+        returnStatement.expression().accept(this);
+        if (returnType != PrimitiveType.NONE && resultType != returnType) {
+            errorHandler.handleInterpreterError(new InvalidReturnValueError("INVALID RETURN TYPE, EXPECTED " +
+                    returnType.name() + " BUT GOT " + resultType.name() + " INSTEAD!"));
+        }
+        if (!tailBlock) {
+            // the rest of the function runs after the block, overwriting the returned value
+            blockExits.add(emit(Opcode.JUMP, 0, 0, 0));
+        }
+        else if (returnType == PrimitiveType.NONE) {
+            emit(Opcode.RETURN_VOID, 0, 0, 0);
+        }
+        else {
+            emitReturn(resultRegister);
+        }
+    }
+
+    @Override
+    public void visit(WhileStatement whileStatement) throws Exception {
+        int conditionStart = instructionCount();
+        int exitJump = compileCondition(whileStatement.expression());
+        tailStatement = false;
+        whileStatement.block().accept(this);
+        emit(Opcode.JUMP, conditionStart, 0, 0);
+        patchJump(exitJump);
+    }
+
+    @Override
+    public void visit(IfStatement ifStatement) throws Exception {
+        List<ElseStatement> elseStatements = ifStatement.conditionalStatements();
+        int[] endJumps = new int[elseStatements.size()];
+        int endJumpCount = 0;
+        for (int i = 0; i < elseStatements.size(); i++) {
+            ElseStatement elseStatement = elseStatements.get(i);
+            if (elseStatement.expression() == null) {
+                // a condition-less branch only runs when it is the last one
+                if (i == elseStatements.size() - 1) {
+                    elseStatement.block().accept(this);
+                }
+                continue;
+            }
+            int nextBranchJump = compileCondition(elseStatement.expression());
+            elseStatement.block().accept(this);
+            endJumps[endJumpCount++] = emit(Opcode.JUMP, 0, 0, 0);
+            patchJump(nextBranchJump);
+        }
+        for (int i = 0; i < endJumpCount; i++) {
+            patchJump(endJumps[i]);
+        }
+    }
+
+    @Override
+    public void visit(ElseStatement elseStatement) {
+    }
+
+    @Override
+    public void visit(OrExpression orExpression) throws Exception {
+        compileLogical(orExpression.left(), orExpression.right(), Opcode.JUMP_IF_TRUE, "OR");
+    }
+
+    @Override
+    public void visit(AndExpression andExpression) throws Exception {
+        compileLogical(andExpression.left(), andExpression.right(), Opcode.JUMP_IF_FALSE, "AND");
+    }
+
+    @Override
+    public void visit(GreaterExpression greaterExpression) throws Exception {
+        compileOrdering(greaterExpression.left(), greaterExpression.right(),
+                Opcode.GT_INT, Opcode.GT_FLOAT, Opcode.GT_CUR);
+    }
+
+    @Override
+    public void visit(LesserExpression lesserExpression) throws Exception {
+        compileOrdering(lesserExpression.left(), lesserExpression.right(),
+                Opcode.LT_INT, Opcode.LT_FLOAT, Opcode.LT_CUR);
+    }
+
+    @Override
+    public void visit(EqualExpression equalExpression) throws Exception {
+        compileEquality(equalExpression.left(), equalExpression.right(),
+                Opcode.EQ_INT, Opcode.EQ_FLOAT, Opcode.EQ_CUR, Opcode.EQ_STR);
+    }
+
+    @Override
+    public void visit(NotEqualExpression notEqualExpression) throws Exception {
+        compileEquality(notEqualExpression.left(), notEqualExpression.right(),
+                Opcode.NE_INT, Opcode.NE_FLOAT, Opcode.NE_CUR, Opcode.NE_STR);
+    }
+
+    @Override
+    public void visit(GreaterOrEqualExpression greaterOrEqualExpression) throws Exception {
+        compileOrdering(greaterOrEqualExpression.left(), greaterOrEqualExpression.right(),
+                Opcode.GE_INT, Opcode.GE_FLOAT, Opcode.GE_CUR);
+    }
+
+    @Override
+    public void visit(LesserOrEqualExpression lesserOrEqualExpression) throws Exception {
+        compileOrdering(lesserOrEqualExpression.left(), lesserOrEqualExpression.right(),
+                Opcode.LE_INT, Opcode.LE_FLOAT, Opcode.LE_CUR);
+    }
+
+    @Override
+    public void visit(AdditionExpression additionExpression) throws Exception {
+        compileArithmetic(additionExpression.left(), additionExpression.right(),
+                Opcode.ADD_INT, Opcode.ADD_FLOAT, Opcode.ADD_CUR, Opcode.CONCAT_STR, "CANNOT ADD %s TO %s!");
+    }
+
+    @Override
+    public void visit(SubtractionExpression subtractionExpression) throws Exception {
+        compileArithmetic(subtractionExpression.left(), subtractionExpression.right(),
+                Opcode.SUB_INT, Opcode.SUB_FLOAT, Opcode.SUB_CUR, -1, "CANNOT SUBTRACT %s FROM %s!");
+    }
+
+    @Override
+    public void visit(MultiplicationExpression multiplicationExpression) throws Exception {
+        compileArithmetic(multiplicationExpression.left(), multiplicationExpression.right(),
+                Opcode.MUL_INT, Opcode.MUL_FLOAT, Opcode.MUL_CUR, -1, "CANNOT MULTIPLY %s BY %s!");
+    }
+
+    @Override
+    public void visit(DivisionExpression divisionExpression) throws Exception {
+        compileArithmetic(divisionExpression.left(), divisionExpression.right(),
+                Opcode.DIV_INT, Opcode.DIV_FLOAT, Opcode.DIV_CUR, -1, "CANNOT DIVIDE %s BY %s!");
+    }
+
+    @Override
+    public void visit(CurrencyCastExpression currencyCastExpression) throws Exception {
+        compileCurrencyTarget(currencyCastExpression.left(), currencyCastExpression.right(),
+                Opcode.CAST, Opcode.CAST_DYNAMIC, "CURRENCY CASTING CANNOT BE APPLIED TO NON-CURRENCY VALUES!");
+    }
+
+    @Override
+    public void visit(CurrencyConversionExpression currencyConversionExpression) throws Exception {
+        compileCurrencyTarget(currencyConversionExpression.left(), currencyConversionExpression.right(),
+                Opcode.CONVERT, Opcode.CONVERT_DYNAMIC, "CURRENCY CONVERSION CANNOT BE APPLIED TO NON-CURRENCY VALUES!");
+    }
+
+    @Override
+    public void visit(ConversionChainExpression conversionChainExpression) throws Exception {
+        compileValue(conversionChainExpression.left());
+        if (resultType != PrimitiveType.CURRENCY) {
+            errorHandler.handleInterpreterError(new IncompatibleTypesError(
+                    "CURRENCY CONVERSION CANNOT BE APPLIED TO NON-CURRENCY VALUES!"));
+        }
+        int destination = allocateRegister();
+        emit(Opcode.CONVERT_CHAIN, destination, resultRegister, compiler.constant(conversionChainExpression.chain()));
+        setResult(destination, PrimitiveType.CURRENCY);
+    }
+
+    @Override
+    public void visit(NegationExpression negationExpression) throws Exception {
+        compileValue(negationExpression.expression());
+        if (resultType != PrimitiveType.BOOL) {
+            errorHandler.handleInterpreterError(new IncompatibleTypesError("NEGATION NOT POSSIBLE FOR TYPE" +
+                    resultType.name() + "!"));
+        }
+        int destination = allocateRegister();
+        emit(Opcode.NOT, destination, resultRegister, 0);
+        setResult(destination, PrimitiveType.BOOL);
+    }
+
+    @Override
+    public void visit(MinusExpression minusExpression) throws Exception {
+        compileValue(minusExpression.expression());
+        int opcode = switch (resultType) {
+            case INTEGER -> Opcode.NEG_INT;
+            case FLOAT -> Opcode.NEG_FLOAT;
+            case CURRENCY -> Opcode.NEG_CUR;
+            default -> -1;
+        };
+        if (opcode == -1) {
+            errorHandler.handleInterpreterError(new IncompatibleTypesError("NEGATION NOT POSSIBLE FOR TYPE" +
+                    resultType.name() + "!"));
+        }
+        int destination = allocateRegister();
+        emit(opcode, destination, resultRegister, 0);
+        setResult(destination, resultType);
+    }
+
+    @Override
+    public void visit(AccessExpression accessExpression) throws Exception {
+        compileValue(accessExpression.left());
+        if (resultType != PrimitiveType.CURRENCY) {
+            errorHandler.handleInterpreterError(new InvalidVariableTypeError("METHODS ARE NOT APPLICABLE TO NON-CURRENCY VALUES!"));
+        }
+        if (accessExpression.right().getClass() != FunctionCallExpression.class) {
+            errorHandler.handleInterpreterError(new InvalidMethodCallError("ONLY METHOD CALLS ARE ALLOWED!"));
+        }
+        String methodName = ((FunctionCallExpression) accessExpression.right()).name();
+        int destination = allocateRegister();
+        switch (methodName) {
+            case "getBalance" -> {
+                emit(Opcode.BALANCE, destination, resultRegister, 0);
+                setResult(destination, PrimitiveType.FLOAT);
+            }
+            case "getCurrency" -> {
+                emit(Opcode.CURRENCY_NAME, destination, resultRegister, 0);
+                setResult(destination, PrimitiveType.STRING);
+            }
+            default -> errorHandler.handleInterpreterError(new FunctionDoesNotExistError(
+                    "METHOD WITH NAME " + methodName + " DOES NOT EXIST!"));
+        }
+    }
+
+    @Override
+    public void visit(FunctionCallExpression functionCallExpression) throws Exception {
+        List<Expression> arguments = functionCallExpression.arguments();
+        FunctionDefinition callee = compiler.getFunction(functionCallExpression.name());
+        if (callee == null && functionCallExpression.name().equals(PRINT_FUNCTION_NAME) && arguments.size() == 1) {
+            compileValue(arguments.get(0));
+            int text = allocateRegister();
+            emitToString(text, resultRegister, resultType);
+            emit(Opcode.PRINT, text, 0, 0);
+            setResult(text, PrimitiveType.NONE);
+            return;
+        }
+        if (callee == null) {
+            errorHandler.handleInterpreterError(new FunctionDoesNotExistError("NO FUNCTION WITH THIS NAME ERROR"));
+        }
+        if (callee.parameters().size() != arguments.size()) {
+            errorHandler.handleInterpreterError(new InvalidFunctionCallError(
+                    "INVALID NUMBER OF ARGUMENTS FOR FUNCTION " +
+                            callee.name() +
+                            " EXPECTED: " + callee.parameters().size() +
+                            " BUT RECEIVED: " + arguments.size() + "!"
+            ));
+        }
+        int firstArgument = nextRegister;
+        for (int i = 0; i < arguments.size(); i++) {
+            allocateRegister();
+        }
+        for (int i = 0; i < arguments.size(); i++) {
+            Parameter parameter = callee.parameters().get(i);
+            compileValue(arguments.get(i));
+            if (parameter.type() == PrimitiveType.NONE) {
+                emitToString(firstArgument + i, resultRegister, resultType);
+            }
+            else if (resultType != parameter.type()) {
+                errorHandler.handleInterpreterError(new InvalidVariableTypeError("INVALID TYPE PROVIDED FOR PARAMETER " +
+                        parameter.name()));
+            }
+            else {
+                emitMove(resultType, firstArgument + i, resultRegister);
+            }
+        }
+        int functionIndex = compiler.functionIndex(callee);
+        int destination = callee.returnType() == PrimitiveType.NONE ? 0 : allocateRegister();
+        int call = emit(Opcode.CALL, destination, functionIndex, firstArgument);
+        Map<String, Integer> visibleVariables = liveSlots(compiler.getCallerVariables().names());
+        if (!visibleVariables.isEmpty()) {
+            callerVariables.put(call, visibleVariables);
+        }
+        setResult(destination, callee.returnType());
+    }
+
+    @Override
+    public void visit(IdentifierExpression identifierExpression) throws Exception {
+        int slot = variableSlot(identifierExpression);
+        if (slot != VariableSlot.UNRESOLVED) {
+            setResult(slot, slotTypes[slot]);
+            return;
+        }
+        PrimitiveType type = callerType(identifierExpression);
+        int opcode = switch (Compiler.bankOf(type)) {
+            case Opcode.INT_BANK -> Opcode.LOAD_CALLER_INT;
+            case Opcode.FLOAT_BANK -> Opcode.LOAD_CALLER_FLOAT;
+            default -> Opcode.LOAD_CALLER_REF;
+        };
+        int destination = allocateRegister();
+        emit(opcode, destination, compiler.constant(identifierExpression.name()), 0);
+        setResult(destination, type);
+    }
+
+    @Override
+    public void visit(IntPrimitive intPrimitive) {
+        int destination = allocateRegister();
+        emit(Opcode.LOAD_INT, destination, intPrimitive.value(), 0);
+        setResult(destination, PrimitiveType.INTEGER);
+    }
+
+    @Override
+    public void visit(FloatPrimitive floatPrimitive) {
+        int destination = allocateRegister();
+        emit(Opcode.LOAD_FLOAT, destination, compiler.constant(floatPrimitive.value()), 0);
+        setResult(destination, PrimitiveType.FLOAT);
+    }
+
+    @Override
+    public void visit(StringPrimitive stringPrimitive) {
+        int destination = allocateRegister();
+        emit(Opcode.LOAD_REF, destination, compiler.constant(stringPrimitive.value()), 0);
+        setResult(destination, PrimitiveType.STRING);
+    }
+
+    @Override
+    public void visit(BoolPrimitive boolPrimitive) {
+        int destination = allocateRegister();
+        emit(Opcode.LOAD_INT, destination, boolPrimitive.value() ? 1 : 0, 0);
+        setResult(destination, PrimitiveType.BOOL);
+    }
+
+    @Override
+    public void visit(CurrencyPrimitive currencyPrimitive) {
+        int destination = allocateRegister();
+        emit(Opcode.LOAD_REF, destination, compiler.constant(currencyPrimitive), 0);
+        setResult(destination, PrimitiveType.CURRENCY);
+    }
+
+    @Override
+    public void visit(PrintFunction printFunction) {
+    }
+
+    @Override
+    public void visit(GetBalanceMethod getBalanceMethod) {
+    }
+
+    @Override
+    public void visit(GetCurrencyMethod getCurrencyMethod) {
+    }
+
+    // the value left by the last statement is the result of a function which runs off its end
+    private void returnLastValue(Statement statement) {
+        PrimitiveType returnType = function.returnType();
+        if (returnType == PrimitiveType.NONE) {
+            return;
+        }
+        if (statement instanceof DeclarationStatement declaration && declaration.type() == returnType) {
+            emitReturn(declaration.slot());
+        }
+        else if (statement instanceof Expression && resultType == returnType) {
+            emitReturn(resultRegister);
+        }
+    }
+
+    // slot of a variable of this function, a name outside of its scope can still be live after inlining
+    private int variableSlot(IdentifierExpression identifier) {
+        if (identifier.slot() != VariableSlot.UNRESOLVED) {
+            return identifier.slot();
+        }
+        for (int slot = slotNames.length - 1; slot >= 0; slot--) {
+            if (identifier.name().equals(slotNames[slot])) {
+                return slot;
+            }
+        }
+        return VariableSlot.UNRESOLVED;
+    }
+
+    private PrimitiveType callerType(IdentifierExpression identifier) throws Exception {
+        Set<PrimitiveType> types = compiler.getCallerVariables().typesOf(function.name(), identifier.name());
+        if (types.isEmpty()) {
+            errorHandler.handleInterpreterError(new VariableDoesNotExistError(
+                    "VARIABLE " + identifier.name() + " DOES NOT EXIST IN ANY CONTEXT!"));
+        }
+        if (types.size() > 1) {
+            errorHandler.handleInterpreterError(new InvalidVariableTypeError(
+                    "VARIABLE " + identifier.name() + " READ BY FUNCTION " + function.name() +
+                            " HAS DIFFERENT TYPES IN ITS CALLERS, THE VM ENGINE CANNOT RUN IT!"));
+        }
+        return types.iterator().next();
+    }
+
+    // the innermost live slot of each of the names, as the interpreter finds them in a frame
+    private Map<String, Integer> liveSlots(Set<String> names) {
+        Map<String, Integer> slots = new LinkedHashMap<>();
+        for (int slot = slotNames.length - 1; slot >= 0; slot--) {
+            if (slotNames[slot] != null && names.contains(slotNames[slot])) {
+                slots.putIfAbsent(slotNames[slot], slot);
+            }
+        }
+        return slots;
+    }
+
+    private void compileValue(Expression expression) throws Exception {
+        expression.accept(this);
+        if (resultType == PrimitiveType.NONE) {
+            errorHandler.handleInterpreterError(new InvalidReturnValueError(
+                    "CANNOT ASSIGN A VALUE FROM FUNCTION WITHOUT A RETURN VALUE!"));
+        }
+    }
+
+    // returns the position of the jump taken when the condition is false
+    private int compileCondition(Expression condition) throws Exception {
+        compileValue(condition);
+        if (resultType != PrimitiveType.BOOL) {
+            errorHandler.handleInterpreterError(new InvalidBoolValueError(
+                    "EVALUATED EXPRESSION DOES NOT GIVE A BOOL VALUE!"));
+        }
+        return emit(Opcode.JUMP_IF_FALSE, resultRegister, 0, 0);
+    }
+
+    private void compileLogical(Expression left, Expression right, int shortCircuitJump, String operator) throws Exception {
+        int destination = allocateRegister();
+        compileValue(left);
+        if (resultType != PrimitiveType.BOOL) {
+            errorHandler.handleInterpreterError(new InvalidBoolValueError(operator + " STATEMENT CANNOT BE EVALUATED!"));
+        }
+        emitMove(PrimitiveType.BOOL, destination, resultRegister);
+        int jump = emit(shortCircuitJump, destination, 0, 0);
+        compileValue(right);
+        if (resultType != PrimitiveType.BOOL) {
+            errorHandler.handleInterpreterError(new InvalidBoolValueError(operator + " STATEMENT CANNOT BE EVALUATED!"));
+        }
+        emitMove(PrimitiveType.BOOL, destination, resultRegister);
+        patchJump(jump);
+        setResult(destination, PrimitiveType.BOOL);
+    }
+
+    private void compileArithmetic(Expression left, Expression right, int intOpcode, int floatOpcode,
+                                   int currencyOpcode, int stringOpcode, String errorFormat) throws Exception {
+        compileValue(left);
+        int leftRegister = resultRegister;
+        PrimitiveType leftType = resultType;
+        compileValue(right);
+        int opcode = -1;
+        if (leftType == resultType) {
+            opcode = switch (leftType) {
+                case INTEGER -> intOpcode;
+                case FLOAT -> floatOpcode;
+                case CURRENCY -> currencyOpcode;
+                case STRING -> stringOpcode;
+                default -> -1;
+            };
+        }
+        if (opcode == -1) {
+            errorHandler.handleInterpreterError(new IncompatibleTypesError(
+                    String.format(errorFormat, leftType.name(), resultType.name())));
+        }
+        int destination = allocateRegister();
+        emit(opcode, destination, leftRegister, resultRegister);
+        setResult(destination, leftType);
+    }
+
+    private void compileEquality(Expression left, Expression right, int intOpcode, int floatOpcode,
+                                 int currencyOpcode, int stringOpcode) throws Exception {
+        compileValue(left);
+        int leftRegister = resultRegister;
+        PrimitiveType leftType = resultType;
+        compileValue(right);
+        int opcode = -1;
+        if (leftType == resultType) {
+            opcode = switch (leftType) {
+                case INTEGER, BOOL -> intOpcode;
+                case FLOAT -> floatOpcode;
+                case CURRENCY -> currencyOpcode;
+                case STRING -> stringOpcode;
+                default -> -1;
+            };
+        }
+        compileComparison(opcode, leftRegister, leftType);
+    }
+
+    private void compileOrdering(Expression left, Expression right, int intOpcode, int floatOpcode,
+                                 int currencyOpcode) throws Exception {
+        compileValue(left);
+        int leftRegister = resultRegister;
+        PrimitiveType leftType = resultType;
+        compileValue(right);
+        int opcode = -1;
+        if (leftType == resultType) {
+            opcode = switch (leftType) {
+                case INTEGER -> intOpcode;
+                case FLOAT -> floatOpcode;
+                case CURRENCY -> currencyOpcode;
+                default -> -1;
+            };
+        }
+        compileComparison(opcode, leftRegister, leftType);
+    }
+
+    private void compileComparison(int opcode, int leftRegister, PrimitiveType leftType) throws Exception {
+        if (opcode == -1) {
+            errorHandler.handleInterpreterError(new IncompatibleTypesError("TYPE " + leftType +
+                    " CANNOT BE COMPARED WITH TYPE " + resultType + "!"));
+        }
+        int destination = allocateRegister();
+        emit(opcode, destination, leftRegister, resultRegister);
+        setResult(destination, PrimitiveType.BOOL);
+    }
+
+    private void compileCurrencyTarget(Expression left, Expression right, int staticOpcode, int dynamicOpcode,
+                                       String nonCurrencyMessage) throws Exception {
+        compileValue(left);
+        if (resultType != PrimitiveType.CURRENCY) {
+            errorHandler.handleInterpreterError(new IncompatibleTypesError(nonCurrencyMessage));
+        }
+        int currencyRegister = resultRegister;
+        int destination = allocateRegister();
+        if (right instanceof CurrencyPrimitive target && target.getCurrency() != null) {
+            emit(staticOpcode, destination, currencyRegister, compiler.constant(target.getCurrency()));
+        }
+        else if (right instanceof StringPrimitive name) {
+            errorHandler.handleInterpreterError(new InvalidCurrencyNameError("CURRENCY " +
+                    name.value() + " IS NOT CORRECT"));
+        }
+        else {
+            compileValue(right);
+            if (resultType == PrimitiveType.STRING) {
+                // no string names a currency, the interpreter reports the value once it is computed
+                emit(Opcode.INVALID_CURRENCY, resultRegister, 0, 0);
+            }
+            else if (resultType != PrimitiveType.CURRENCY) {
+                errorHandler.handleInterpreterError(new InvalidCurrencyNameError(
+                        "CONVERTION VALUE CANNOT BE OF TYPE " + resultType.name()));
+            }
+            else {
+                emit(dynamicOpcode, destination, currencyRegister, resultRegister);
+            }
+        }
+        setResult(destination, PrimitiveType.CURRENCY);
+    }
+
+    private void emitToString(int destination, int source, PrimitiveType type) {
+        int opcode = switch (type) {
+            case INTEGER -> Opcode.INT_TO_STRING;
+            case FLOAT -> Opcode.FLOAT_TO_STRING;
+            case BOOL -> Opcode.BOOL_TO_STRING;
+            default -> Opcode.REF_TO_STRING;
+        };
+        emit(opcode, destination, source, 0);
+    }
+
+    private void emitReturn(int source) {
+        int opcode = switch (Compiler.bankOf(function.returnType())) {
+            case Opcode.INT_BANK -> Opcode.RETURN_INT;
+            case Opcode.FLOAT_BANK -> Opcode.RETURN_FLOAT;
+            default -> Opcode.RETURN_REF;
+        };
+        emit(opcode, source, 0, 0);
+    }
+
+    private void emitMove(PrimitiveType type, int destination, int source) {
+        if (destination == source) {
+            return;
+        }
+        int opcode = switch (Compiler.bankOf(type)) {
+            case Opcode.INT_BANK -> Opcode.MOVE_INT;
+            case Opcode.FLOAT_BANK -> Opcode.MOVE_FLOAT;
+            default -> Opcode.MOVE_REF;
+        };
+        emit(opcode, destination, source, 0);
+    }
+
+    // returns the index of the emitted instruction
+    private int emit(int opcode, int a, int b, int c) {
+        if (codeSize + Opcode.WIDTH > code.length) {
+            code = Arrays.copyOf(code, code.length * 2);
+        }
+        code[codeSize] = opcode;
+        code[codeSize + 1] = a;
+        code[codeSize + 2] = b;
+        code[codeSize + 3] = c;
+        codeSize += Opcode.WIDTH;
+        return codeSize / Opcode.WIDTH - 1;
+    }
+
+    private void patchJump(int instruction) {
+        int position = instruction * Opcode.WIDTH;
+        int targetOperand = code[position] == Opcode.JUMP ? 1 : 2;
+        code[position + targetOperand] = instructionCount();
+    }
+
+    private int instructionCount() {
+        return codeSize / Opcode.WIDTH;
+    }
+
+    private int allocateRegister() {
+        int register = nextRegister++;
+        registerCount = Math.max(registerCount, nextRegister);
+        return register;
+    }
+
+    private void setResult(int register, PrimitiveType type) {
+        resultRegister = register;
+        resultType = type;
+    }
+
+    private static PrimitiveType parameterType(Parameter parameter) {
+        // untyped parameters receive the printed form of their argument
+        return parameter.type() == PrimitiveType.NONE ? PrimitiveType.STRING : parameter.type();
+    }
+
+    private static int slot(Parameter parameter, int position) {
+        return parameter.slot() == VariableSlot.UNRESOLVED ? position : parameter.slot();
+    }
+}
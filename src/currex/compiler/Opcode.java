@@ -0,0 +1,114 @@
+package currex.compiler;
+
+// Every instruction takes Opcode.WIDTH ints: the opcode followed by up to three operands.
+// Registers are split into an int bank (INTEGER and BOOL), a double bank (FLOAT)
+// and a reference bank (STRING as String, CURRENCY as CurrencyPrimitive).
+public final class Opcode {
+    public static final int WIDTH = 4;
+
+    // a = destination, b = immediate or constant index
+    public static final int LOAD_INT = 0;
+    public static final int LOAD_FLOAT = 1;
+    public static final int LOAD_REF = 2;
+
+    // a = destination, b = source
+    public static final int MOVE_INT = 3;
+    public static final int MOVE_FLOAT = 4;
+    public static final int MOVE_REF = 5;
+
+    // a = destination, b = left, c = right
+    public static final int ADD_INT = 6;
+    public static final int SUB_INT = 7;
+    public static final int MUL_INT = 8;
+    public static final int DIV_INT = 9;
+    public static final int ADD_FLOAT = 10;
+    public static final int SUB_FLOAT = 11;
+    public static final int MUL_FLOAT = 12;
+    public static final int DIV_FLOAT = 13;
+    public static final int ADD_CUR = 14;
+    public static final int SUB_CUR = 15;
+    public static final int MUL_CUR = 16;
+    public static final int DIV_CUR = 17;
+    public static final int CONCAT_STR = 18;
+
+    // a = destination, b = operand
+    public static final int NEG_INT = 19;
+    public static final int NEG_FLOAT = 20;
+    public static final int NEG_CUR = 21;
+    public static final int NOT = 22;
+
+    // a = destination (int bank), b = left, c = right
+    public static final int EQ_INT = 23;
+    public static final int NE_INT = 24;
+    public static final int GT_INT = 25;
+    public static final int LT_INT = 26;
+    public static final int GE_INT = 27;
+    public static final int LE_INT = 28;
+    public static final int EQ_FLOAT = 29;
+    public static final int NE_FLOAT = 30;
+    public static final int GT_FLOAT = 31;
+    public static final int LT_FLOAT = 32;
+    public static final int GE_FLOAT = 33;
+    public static final int LE_FLOAT = 34;
+    public static final int EQ_CUR = 35;
+    public static final int NE_CUR = 36;
+    public static final int GT_CUR = 37;
+    public static final int LT_CUR = 38;
+    public static final int GE_CUR = 39;
+    public static final int LE_CUR = 40;
+    public static final int EQ_STR = 41;
+    public static final int NE_STR = 42;
+
+    // a = destination, b = currency, c = constant index of the target Currency
+    public static final int CAST = 43;
+    public static final int CONVERT = 44;
+    // a = destination, b = currency, c = register holding a currency of the target
+    public static final int CAST_DYNAMIC = 45;
+    public static final int CONVERT_DYNAMIC = 46;
+    // a = destination, b = currency, c = constant index of the ConversionChain
+    public static final int CONVERT_CHAIN = 47;
+
+    // a = destination, b = currency
+    public static final int BALANCE = 48;
+    public static final int CURRENCY_NAME = 49;
+
+    // a = destination (reference bank), b = source
+    public static final int INT_TO_STRING = 50;
+    public static final int FLOAT_TO_STRING = 51;
+    public static final int BOOL_TO_STRING = 52;
+    public static final int REF_TO_STRING = 53;
+
+    // a = target instruction / a = condition, b = target instruction
+    public static final int JUMP = 54;
+    public static final int JUMP_IF_FALSE = 55;
+    public static final int JUMP_IF_TRUE = 56;
+
+    // a = destination, b = function index, c = first argument register
+    public static final int CALL = 57;
+    // a = returned register
+    public static final int RETURN_INT = 58;
+    public static final int RETURN_FLOAT = 59;
+    public static final int RETURN_REF = 60;
+    public static final int RETURN_VOID = 61;
+    public static final int MISSING_RETURN = 62;
+
+    // a = string to print
+    public static final int PRINT = 63;
+
+    // a = destination / a = source, b = constant index of the name of a variable of the callers
+    public static final int LOAD_CALLER_INT = 64;
+    public static final int LOAD_CALLER_FLOAT = 65;
+    public static final int LOAD_CALLER_REF = 66;
+    public static final int STORE_CALLER_INT = 67;
+    public static final int STORE_CALLER_FLOAT = 68;
+    public static final int STORE_CALLER_REF = 69;
+
+    // a = string used as the target currency of a cast or conversion
+    public static final int INVALID_CURRENCY = 70;
+
+    public static final int INT_BANK = 0;
+    public static final int FLOAT_BANK = 1;
+    public static final int REF_BANK = 2;
+
+    private Opcode() {}
+}
@@ -0,0 +1,24 @@
+package currex.diagnostic;
+
+import currex.token.Position;
+
+// An error found while reading a script, together with the place where it was found.
+// Errors of a running program have no position.
+public record Diagnostic(Exception error, Position position) {
+
+    public String getMessage() {
+        return error.getMessage();
+    }
+
+    @Override
+    public String toString() {
+        if (position == null) {
+            return error.getMessage();
+        }
+        return "An error has occured in line "
+                + position.getRow()
+                + " in column "
+                + position.getColumn() + ":\n"
+                + error.getMessage();
+    }
+}
@@ -0,0 +1,224 @@
+package currex.interpreter;
+
+import currex.interpreter.builtin.ConversionChain;
+import currex.interpreter.builtin.ConversionTable;
+import currex.interpreter.builtin.Currency;
+import currex.interpreter.error.IncompatibleTypesError;
+import currex.interpreter.error.ErrorHandler;
+import currex.interpreter.error.InterpreterErrorHandler;
+import currex.interpreter.error.InvalidCurrencyNameError;
+import currex.interpreter.error.ZeroDivisionError;
+import currex.structure.primitives.CurrencyPrimitive;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Currency operations shared by the engines. In fixed-point mode values are kept as FixedPoint units
+// and BigDecimal is only used for values and results which do not fit, with the same rounding.
+// With fused rounding a conversion chain multiplies by the product of its rates and rounds once,
+// otherwise every hop is rounded like a conversion of its own.
+public class CurrencyArithmetic {
+    private final ConversionTable conversionTable;
+    private final ErrorHandler errorHandler;
+    private final boolean fixedPoint;
+    private final boolean fusedRounding;
+    // rates as unscaled * 10^-scale, a negative scale marks a rate FixedPoint cannot use
+    private final long[] rateUnscaled;
+    private final int[] rateScales;
+
+    public CurrencyArithmetic(ConversionTable conversionTable) {
+        this(conversionTable, false);
+    }
+
+    public CurrencyArithmetic(ConversionTable conversionTable, boolean fixedPoint) {
+        this(conversionTable, fixedPoint, new InterpreterErrorHandler());
+    }
+
+    public CurrencyArithmetic(ConversionTable conversionTable, boolean fixedPoint, ErrorHandler errorHandler) {
+        this(conversionTable, fixedPoint, false, errorHandler);
+    }
+
+    public CurrencyArithmetic(ConversionTable conversionTable, boolean fixedPoint, boolean fusedRounding,
+                              ErrorHandler errorHandler) {
+        this.conversionTable = conversionTable;
+        this.errorHandler = errorHandler;
+        this.fixedPoint = fixedPoint;
+        this.fusedRounding = fusedRounding;
+        int size = conversionTable.size();
+        this.rateUnscaled = new long[fixedPoint ? size * size : 0];
+        this.rateScales = new int[fixedPoint ? size * size : 0];
+        if (fixedPoint) {
+            prepareRates(size);
+        }
+    }
+
+    public boolean isFixedPoint() {
+        return fixedPoint;
+    }
+
+    public boolean isFusedRounding() {
+        return fusedRounding;
+    }
+
+    public CurrencyPrimitive add(CurrencyPrimitive left, CurrencyPrimitive right) throws Exception {
+        checkSameCurrency(left, right, "CANNOT ADD %s TO %s!");
+        if (fixedPoint && left.hasUnits() && right.hasUnits()) {
+            long units = FixedPoint.add(left.getUnits(), right.getUnits());
+            if (units != FixedPoint.OVERFLOW) {
+                return left.withUnits(units);
+            }
+        }
+        return left.withValue(round(left.getValue().add(right.getValue())));
+    }
+
+    public CurrencyPrimitive subtract(CurrencyPrimitive left, CurrencyPrimitive right) throws Exception {
+        checkSameCurrency(left, right, "CANNOT SUBTRACT %s FROM %s!");
+        if (fixedPoint && left.hasUnits() && right.hasUnits()) {
+            long units = FixedPoint.subtract(left.getUnits(), right.getUnits());
+            if (units != FixedPoint.OVERFLOW) {
+                return left.withUnits(units);
+            }
+        }
+        return left.withValue(round(left.getValue().subtract(right.getValue())));
+    }
+
+    public CurrencyPrimitive multiply(CurrencyPrimitive left, CurrencyPrimitive right) throws Exception {
+        checkSameCurrency(left, right, "CANNOT MULTIPLY %s BY %s!");
+        if (fixedPoint && left.hasUnits() && right.hasUnits()) {
+            long units = FixedPoint.multiply(left.getUnits(), right.getUnits());
+            if (units != FixedPoint.OVERFLOW) {
+                return left.withUnits(units);
+            }
+        }
+        return left.withValue(round(left.getValue().multiply(right.getValue())));
+    }
+
+    public CurrencyPrimitive divide(CurrencyPrimitive left, CurrencyPrimitive right) throws Exception {
+        boolean fixed = fixedPoint && left.hasUnits() && right.hasUnits();
+        if (fixed ? right.getUnits() == 0 : right.getValue().signum() == 0) {
+            errorHandler.handleInterpreterError(ZeroDivisionError.DIVISION_BY_ZERO);
+        }
+        checkSameCurrency(left, right, "CANNOT DIVIDE %s BY %s!");
+        if (fixed && left.getScale() >= 0) {
+            long units = FixedPoint.divide(left.getUnits(), right.getUnits(), left.getScale());
+            if (units != FixedPoint.OVERFLOW) {
+                return left.withUnits(units);
+            }
+        }
+        return left.withValue(round(left.getValue().divide(right.getValue(), RoundingMode.HALF_DOWN)));
+    }
+
+    // not rounded, so only values which already have FixedPoint.SCALE stay in units
+    public CurrencyPrimitive negate(CurrencyPrimitive value) {
+        if (fixedPoint && value.getScale() == FixedPoint.SCALE && value.hasUnits()) {
+            return value.withUnits(FixedPoint.negate(value.getUnits()));
+        }
+        return value.withValue(value.getValue().negate());
+    }
+
+    // BigDecimal.equals, so values with different scales are not equal
+    public boolean equal(CurrencyPrimitive left, CurrencyPrimitive right) {
+        if (!left.hasSameCurrency(right)) {
+            return false;
+        }
+        if (fixedPoint && left.getScale() == right.getScale() && left.hasUnits() && right.hasUnits()) {
+            return left.getUnits() == right.getUnits();
+        }
+        return left.getValue().equals(right.getValue());
+    }
+
+    public int compare(CurrencyPrimitive left, CurrencyPrimitive right) throws Exception {
+        if (!left.hasSameCurrency(right)) {
+            errorHandler.handleInterpreterError(new InvalidCurrencyNameError(
+                    "CURRENCY " + left.getName() + " CANNOT BE COMPARED TO " + right.getName()
+            ));
+        }
+        if (fixedPoint && left.hasUnits() && right.hasUnits()) {
+            return Long.compare(left.getUnits(), right.getUnits());
+        }
+        return left.getValue().compareTo(right.getValue());
+    }
+
+    public CurrencyPrimitive cast(CurrencyPrimitive value, Currency targetCurrency) {
+        return value.withCurrency(targetCurrency);
+    }
+
+    public CurrencyPrimitive convert(CurrencyPrimitive value, Currency targetCurrency) throws Exception {
+        Currency fromCurrency = currencyOf(value);
+        if (!fromCurrency.isBound() || !targetCurrency.isBound() ||
+                Double.isNaN(conversionTable.rate(fromCurrency, targetCurrency))) {
+            errorHandler.handleInterpreterError(new InvalidCurrencyNameError(
+                    "CURRENCY " + value.getName() + " CANNOT BE CONVERTED TO " + targetCurrency + "!"
+            ));
+        }
+        if (fixedPoint && value.hasUnits()) {
+            int rateIndex = fromCurrency.id() * conversionTable.size() + targetCurrency.id();
+            if (rateScales[rateIndex] >= 0) {
+                long units = FixedPoint.convert(value.getUnits(), rateUnscaled[rateIndex], rateScales[rateIndex]);
+                if (units != FixedPoint.OVERFLOW) {
+                    return new CurrencyPrimitive(units, targetCurrency);
+                }
+            }
+        }
+        BigDecimal rate = BigDecimal.valueOf(conversionTable.rate(fromCurrency, targetCurrency));
+        return new CurrencyPrimitive(round(value.getValue().multiply(rate)), targetCurrency);
+    }
+
+    // the same result as converting to every target in turn, unless rounding is fused
+    public CurrencyPrimitive convert(CurrencyPrimitive value, ConversionChain chain) throws Exception {
+        if (fusedRounding) {
+            BigDecimal rate = chain.compositeRate(currencyOf(value));
+            if (rate != null) {
+                return new CurrencyPrimitive(round(value.getValue().multiply(rate)), chain.target());
+            }
+        }
+        // the first hop reports a value it cannot convert
+        CurrencyPrimitive result = convert(value, chain.target(0));
+        for (int hop = 1; hop < chain.size(); hop++) {
+            if (fixedPoint) {
+                result = convert(result, chain.target(hop));
+            }
+            else {
+                result = new CurrencyPrimitive(round(result.getValue().multiply(chain.rate(hop))), chain.target(hop));
+            }
+        }
+        return result;
+    }
+
+    public Currency currencyOf(CurrencyPrimitive value) {
+        return value.getCurrency() != null ? value.getCurrency() : conversionTable.getOrCreateCurrency(value.getName());
+    }
+
+    private void checkSameCurrency(CurrencyPrimitive left, CurrencyPrimitive right, String errorFormat) throws Exception {
+        if (!left.hasSameCurrency(right)) {
+            errorHandler.handleInterpreterError(new IncompatibleTypesError(
+                    String.format(errorFormat, left.getName(), right.getName())));
+        }
+    }
+
+    // the rates exactly as BigDecimal.valueOf(rate) sees them
+    private void prepareRates(int size) {
+        for (int from = 0; from < size; from++) {
+            for (int to = 0; to < size; to++) {
+                int index = from * size + to;
+                rateScales[index] = -1;
+                double rate = conversionTable.rate(from, to);
+                if (Double.isNaN(rate)) {
+                    continue;
+                }
+                BigDecimal decimal = BigDecimal.valueOf(rate);
+                if (decimal.scale() < 0) {
+                    decimal = decimal.setScale(0);
+                }
+                if (FixedPoint.isScaleSupported(decimal.scale()) && decimal.unscaledValue().bitLength() < Long.SIZE) {
+                    rateUnscaled[index] = decimal.unscaledValue().longValue();
+                    rateScales[index] = decimal.scale();
+                }
+            }
+        }
+    }
+
+    private static BigDecimal round(BigDecimal value) {
+        return value.setScale(10, RoundingMode.HALF_DOWN);
+    }
+}
@@ -0,0 +1,139 @@
+package currex.interpreter;
+
+import java.math.BigDecimal;
+
+// Currency amounts as longs counting 10^-SCALE units. Every operation rounds exactly like the BigDecimal
+// code it replaces (HALF_DOWN at SCALE) and returns OVERFLOW when the result does not fit, so the caller
+// can redo it with BigDecimal.
+public final class FixedPoint {
+    public static final int SCALE = 10;
+    public static final long OVERFLOW = Long.MIN_VALUE;
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private FixedPoint() {
+    }
+
+    public static long fromDecimal(BigDecimal value) {
+        int scale = value.scale();
+        if (scale > SCALE || SCALE - scale >= POWERS_OF_TEN.length || value.precision() >= POWERS_OF_TEN.length) {
+            return OVERFLOW;
+        }
+        return multiplyExact(value.unscaledValue().longValue(), POWERS_OF_TEN[SCALE - scale]);
+    }
+
+    public static BigDecimal toDecimal(long units) {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    public static long add(long left, long right) {
+        long result = left + right;
+        if (((left ^ result) & (right ^ result)) < 0) {
+            return OVERFLOW;
+        }
+        return result;
+    }
+
+    public static long subtract(long left, long right) {
+        long result = left - right;
+        if (((left ^ right) & (left ^ result)) < 0) {
+            return OVERFLOW;
+        }
+        return result;
+    }
+
+    public static long negate(long value) {
+        return -value;
+    }
+
+    public static long multiply(long left, long right) {
+        return multiplyAndDivide(left, right, POWERS_OF_TEN[SCALE]);
+    }
+
+    // left has leftScale digits, the quotient is rounded to them first like BigDecimal.divide(right, HALF_DOWN) does
+    public static long divide(long left, long right, int leftScale) {
+        long quotient = multiplyAndDivide(left / POWERS_OF_TEN[SCALE - leftScale], POWERS_OF_TEN[SCALE], right);
+        return quotient == OVERFLOW ? OVERFLOW : multiplyExact(quotient, POWERS_OF_TEN[SCALE - leftScale]);
+    }
+
+    // rate is rateUnscaled * 10^-rateScale, the product keeps SCALE digits
+    public static long convert(long value, long rateUnscaled, int rateScale) {
+        return multiplyAndDivide(value, rateUnscaled, POWERS_OF_TEN[rateScale]);
+    }
+
+    public static boolean isScaleSupported(int scale) {
+        return scale >= 0 && scale < POWERS_OF_TEN.length;
+    }
+
+    // left * right / divisor rounded HALF_DOWN, computed on the 128 bit product
+    private static long multiplyAndDivide(long left, long right, long divisor) {
+        boolean negative = (left < 0) != (right < 0) != (divisor < 0);
+        long a = Math.abs(left);
+        long b = Math.abs(right);
+        long d = Math.abs(divisor);
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        if (Long.compareUnsigned(high, d) >= 0) {
+            return OVERFLOW;
+        }
+        long quotient = divideUnsigned(high, low, d);
+        long remainder = low - quotient * d;
+        if (Long.compareUnsigned(remainder, d - remainder) > 0) {
+            quotient++;
+        }
+        if (quotient < 0) {
+            return OVERFLOW;
+        }
+        return negative ? -quotient : quotient;
+    }
+
+    private static long multiplyExact(long left, long right) {
+        long high = Math.multiplyHigh(left, right);
+        long low = left * right;
+        if (high != (low >> 63) || low == OVERFLOW) {
+            return OVERFLOW;
+        }
+        return low;
+    }
+
+    // unsigned high:low / divisor for high < divisor, long division in 32 bit digits (Hacker's Delight, divlu)
+    private static long divideUnsigned(long high, long low, long divisor) {
+        final long base = 1L << 32;
+        int shift = Long.numberOfLeadingZeros(divisor);
+        long v = divisor << shift;
+        long v1 = v >>> 32;
+        long v0 = v & 0xFFFFFFFFL;
+        long u32 = shift == 0 ? high : (high << shift) | (low >>> (64 - shift));
+        long u10 = low << shift;
+        long u1 = u10 >>> 32;
+        long u0 = u10 & 0xFFFFFFFFL;
+
+        long q1 = Long.divideUnsigned(u32, v1);
+        long rest = u32 - q1 * v1;
+        while (Long.compareUnsigned(q1, base) >= 0 || Long.compareUnsigned(q1 * v0, base * rest + u1) > 0) {
+            q1--;
+            rest += v1;
+            if (Long.compareUnsigned(rest, base) >= 0) {
+                break;
+            }
+        }
+
+        long u21 = u32 * base + u1 - q1 * v;
+        long q0 = Long.divideUnsigned(u21, v1);
+        rest = u21 - q0 * v1;
+        while (Long.compareUnsigned(q0, base) >= 0 || Long.compareUnsigned(q0 * v0, base * rest + u0) > 0) {
+            q0--;
+            rest += v1;
+            if (Long.compareUnsigned(rest, base) >= 0) {
+                break;
+            }
+        }
+        return q1 * base + q0;
+    }
+}
@@ -0,0 +1,51 @@
+package currex.interpreter;
+
+import java.util.Arrays;
+
+// Variables of a single function call, addressed by the slots assigned in ScopeResolver
+public class Frame {
+    public static final int NOT_FOUND = -1;
+
+    private final Value[] values;
+    private final String[] names;
+    private final Frame caller;
+
+    public Frame(int size, Frame caller) {
+        this.values = new Value[size];
+        this.names = new String[size];
+        this.caller = caller;
+    }
+
+    public Frame getCaller() {
+        return caller;
+    }
+
+    public Value get(int slot) {
+        return values[slot];
+    }
+
+    public void set(int slot, Value value) {
+        values[slot] = value;
+    }
+
+    public void declare(int slot, String name, Value value) {
+        names[slot] = name;
+        values[slot] = value;
+    }
+
+    public void clear(int from, int to) {
+        if (from < to) {
+            Arrays.fill(values, from, to, null);
+        }
+    }
+
+    // innermost live slot holding the variable, used for names not visible lexically
+    public int indexOf(String name) {
+        for (int slot = values.length - 1; slot >= 0; slot--) {
+            if (values[slot] != null && name.equals(names[slot])) {
+                return slot;
+            }
+        }
+        return NOT_FOUND;
+    }
+}
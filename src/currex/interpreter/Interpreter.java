@@ -2,10 +2,16 @@ package currex.interpreter;
 
 import currex.interpreter.builtin.*;
 import currex.interpreter.error.*;
+import currex.optimizer.Optimizer;
+import currex.output.OutputSink;
+import currex.output.PrintStreamSink;
+import currex.resolver.ProgramResolver;
+import currex.resolver.ScopeResolver;
 import currex.structure.components.Block;
 import currex.structure.components.FunctionDefinition;
 import currex.structure.components.Parameter;
 import currex.structure.components.Program;
+import currex.structure.components.VariableSlot;
 import currex.structure.expressions.*;
 import currex.structure.primitives.*;
 import currex.structure.statements.*;
@@ -14,37 +20,64 @@ import currex.utils.CurrexLimits;
 import currex.visitor.Visitor;
 
 import java.io.PrintStream;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class Interpreter implements Interpretable, Visitor {
-    private final ContextManager contextManager = new ContextManager();
-    private final Map<String, FunctionDefinition> functionDefinitions = new HashMap<>(Functions.FUNCTIONS);
+    private final Map<String, FunctionDefinition> functionDefinitions = new HashMap<>();
+    // the functions of the program by position, for calls bound by the type checker
+    private FunctionDefinition[] functions = new FunctionDefinition[0];
     private final ConversionTable conversionTable;
-    private final PrintStream printer;
-    private final InterpreterErrorHandler errorHandler;
+    private final OutputSink printer;
+    private final ErrorHandler errorHandler;
+    private final CurrencyArithmetic currencies;
+    private final boolean optimizing;
+    private Frame frame = null;
     private Value lastResult = null;
     private boolean isReturn = false;
     private boolean isIfStatement = false;
 
 
     public Interpreter(ConversionTable conversionTable, PrintStream printer) {
+        this(conversionTable, printer, new CurrencyArithmetic(conversionTable));
+    }
+
+    public Interpreter(ConversionTable conversionTable, PrintStream printer, CurrencyArithmetic currencies) {
+        this(conversionTable, new PrintStreamSink(printer), currencies, new InterpreterErrorHandler(), true);
+    }
+
+    public Interpreter(ConversionTable conversionTable, OutputSink printer, CurrencyArithmetic currencies,
+                       ErrorHandler errorHandler, boolean optimizing) {
         this.conversionTable = conversionTable;
         this.printer = printer;
-        this.errorHandler = new InterpreterErrorHandler();
+        this.errorHandler = errorHandler;
+        this.currencies = currencies;
+        this.optimizing = optimizing;
     }
 
     @Override
     public void run(Program program) throws Exception {
-        visit(program);
+        ScopeResolver scopeResolver = new ScopeResolver(errorHandler);
+        for (FunctionDefinition builtin : Functions.FUNCTIONS.values()) {
+            functionDefinitions.put(builtin.name(), scopeResolver.rewrite(builtin));
+        }
+        try {
+            Program resolvedProgram = new ProgramResolver(conversionTable, errorHandler).resolve(program);
+            if (optimizing) {
+                resolvedProgram = new Optimizer(conversionTable, currencies.isFixedPoint(),
+                        currencies.isFusedRounding()).optimize(resolvedProgram);
+            }
+            visit(resolvedProgram);
+        } finally {
+            printer.flush();
+        }
     }
 
     @Override
     public void visit(Program program) throws Exception {
         functionDefinitions.putAll(program.functionDefinitions());
+        functions = program.functionDefinitions().values().toArray(new FunctionDefinition[0]);
         FunctionCallExpression main = new FunctionCallExpression(CurrexConfig.MAIN_FUNCTION_NAME, List.of());
 
         main.accept(this);
@@ -59,6 +92,7 @@ public class Interpreter implements Interpretable, Visitor {
                 break;
             }
         }
+        frame.clear(block.scopeStart(), block.scopeEnd());
     }
 
     @Override
@@ -81,7 +115,7 @@ public class Interpreter implements Interpretable, Visitor {
             errorHandler.handleInterpreterError(new InvalidVariableTypeError("INVALID VARIABLE OF TYPE " +
                     lastResult.valueType().name() + "!"));
         }
-        contextManager.addVariable(declarationStatement.name(), new Value(
+        frame.declare(declarationStatement.slot(), declarationStatement.name(), new Value(
                 declarationStatement.type(), lastResult.value()));
     }
 
@@ -92,8 +126,7 @@ public class Interpreter implements Interpretable, Visitor {
         if (lastResult != null) {
             Value rightValue = copyLastResult();
             if (assignmentStatement.left().getClass() == IdentifierExpression.class) {
-                String variableName = ((IdentifierExpression) assignmentStatement.left()).name();
-                contextManager.updateVariable(variableName, rightValue);
+                updateVariable((IdentifierExpression) assignmentStatement.left(), rightValue);
             }
         }
         else {
@@ -121,13 +154,11 @@ public class Interpreter implements Interpretable, Visitor {
                     "EVALUATED EXPRESSION DOES NOT GIVE A BOOL VALUE!"
             ));
         }
-        Boolean checkValue = (Boolean) check.value();
+        boolean checkValue = asBoolean(check);
         while (checkValue) {
-            contextManager.addContext(new Context());
             whileStatement.block().accept(this);
-            contextManager.removeCurrentContext();
             whileStatement.expression().accept(this);
-            checkValue = (Boolean) lastResult.value();
+            checkValue = asBoolean(lastResult);
         }
     }
 
@@ -135,18 +166,17 @@ public class Interpreter implements Interpretable, Visitor {
     public void visit(IfStatement ifStatement) throws Exception {
         List<ElseStatement> elseStatements = ifStatement.conditionalStatements();
         for (int i = 0; i < elseStatements.size(); i++) {
-            if (isIfStatement) {
-                isIfStatement = false;
-                break;
-            }
             ElseStatement elseStatement = elseStatements.get(i);
             if (elseStatement.expression() != null) {
                 elseStatement.accept(this);
+                // set once the branch has run, so the if statements inside it start without it
+                if (isIfStatement) {
+                    isIfStatement = false;
+                    break;
+                }
             }
             else if (i == elseStatements.size() - 1) {
-                contextManager.addContext(new Context());
                 elseStatement.block().accept(this);
-                contextManager.removeCurrentContext();
             }
         }
     }
@@ -160,12 +190,9 @@ public class Interpreter implements Interpretable, Visitor {
                     "EVALUATED EXPRESSION DOES NOT GIVE A BOOL VALUE!"
             ));
         }
-        Boolean leftBool = (Boolean) check.value();
-        if (leftBool) {
-            isIfStatement = true;
-            contextManager.addContext(new Context());
+        if (asBoolean(check)) {
             elseStatement.block().accept(this);
-            contextManager.removeCurrentContext();
+            isIfStatement = true;
         }
     }
 
@@ -174,8 +201,7 @@ public class Interpreter implements Interpretable, Visitor {
         orExpression.left().accept(this);
         Value left = copyLastResult();
         if (left.valueType() == PrimitiveType.BOOL) {
-            BoolPrimitive leftBool = (BoolPrimitive) left.value();
-            if (leftBool.value()) {
+            if (asBoolean(left)) {
                 lastResult = new Value(PrimitiveType.BOOL, true);
                 return;
             }
@@ -183,8 +209,7 @@ public class Interpreter implements Interpretable, Visitor {
         orExpression.right().accept(this);
         Value right = copyLastResult();
         if (right.valueType() == PrimitiveType.BOOL) {
-            Boolean rightBool = (Boolean) right.value();
-            if (rightBool) {
+            if (asBoolean(right)) {
                 lastResult = new Value(PrimitiveType.BOOL, true);
             }
             else {
@@ -200,8 +225,7 @@ public class Interpreter implements Interpretable, Visitor {
         andExpression.left().accept(this);
         Value left = copyLastResult();
         if (left.valueType() == PrimitiveType.BOOL) {
-            Boolean leftBool = (Boolean) left.value();
-            if (!leftBool) {
+            if (!asBoolean(left)) {
                 lastResult = new Value(PrimitiveType.BOOL, false);
                 return;
             }
@@ -209,8 +233,7 @@ public class Interpreter implements Interpretable, Visitor {
         andExpression.right().accept(this);
         Value right = copyLastResult();
         if (right.valueType() == PrimitiveType.BOOL) {
-            Boolean rightBool = (Boolean) right.value();
-            if (rightBool) {
+            if (asBoolean(right)) {
                 lastResult = new Value(PrimitiveType.BOOL, true);
             }
             else {
@@ -227,38 +250,7 @@ public class Interpreter implements Interpretable, Visitor {
         Value left = copyLastResult();
         equalExpression.right().accept(this);
         Value right = copyLastResult();
-        if (left.valueType() == PrimitiveType.INTEGER && right.valueType() == PrimitiveType.INTEGER) {
-            IntPrimitive leftValue = (IntPrimitive) left.value();
-            IntPrimitive rightValue = (IntPrimitive) right.value();
-            lastResult = new Value(PrimitiveType.BOOL, (leftValue.value().equals(rightValue.value())));
-        }
-        else if (left.valueType() == PrimitiveType.BOOL && right.valueType() == PrimitiveType.BOOL) {
-            BoolPrimitive leftBool = (BoolPrimitive) left.value();
-            BoolPrimitive rightBool = (BoolPrimitive) right.value();
-            lastResult = new Value(PrimitiveType.BOOL, (leftBool.value() == rightBool.value()));
-        }
-        else if (left.valueType() == PrimitiveType.FLOAT && right.valueType() == PrimitiveType.FLOAT) {
-            FloatPrimitive leftValue = (FloatPrimitive) left.value();
-            FloatPrimitive rightValue = (FloatPrimitive) right.value();
-            lastResult = new Value(PrimitiveType.BOOL, (leftValue.value().equals(rightValue.value())));
-        }
-        else if (left.valueType() == PrimitiveType.CURRENCY && right.valueType() == PrimitiveType.CURRENCY) {
-            CurrencyPrimitive currencyLeft = (CurrencyPrimitive) left.value();
-            CurrencyPrimitive currencyRight = (CurrencyPrimitive) right.value();
-            lastResult = new Value(PrimitiveType.BOOL, (
-                    currencyLeft.getName().equals(currencyRight.getName()) &&
-                            currencyLeft.getValue().equals(currencyRight.getValue())));
-        }
-        else if (left.valueType() == PrimitiveType.STRING && right.valueType() == PrimitiveType.STRING) {
-            StringPrimitive leftValue = (StringPrimitive) left.value();
-            StringPrimitive rightValue = (StringPrimitive) right.value();
-            lastResult = new Value(PrimitiveType.BOOL, (
-                    leftValue.value().equals(rightValue.value())));
-        }
-        else {
-            errorHandler.handleInterpreterError(new IncompatibleTypesError("TYPE " + left.valueType() +
-                    " CANNOT BE COMPARED WITH TYPE " + right.valueType() + "!"));
-        }
+        lastResult = new Value(PrimitiveType.BOOL, areEqual(equalExpression.operandType(), left, right));
     }
 
     @Override
@@ -267,38 +259,7 @@ public class Interpreter implements Interpretable, Visitor {
         Value left = copyLastResult();
         notEqualExpression.right().accept(this);
         Value right = copyLastResult();
-        if (left.valueType() == PrimitiveType.INTEGER && right.valueType() == PrimitiveType.INTEGER) {
-            IntPrimitive leftValue = (IntPrimitive) left.value();
-            IntPrimitive rightValue = (IntPrimitive) right.value();
-            lastResult = new Value(PrimitiveType.BOOL, (!leftValue.value().equals(rightValue.value())));
-        }
-        else if (left.valueType() == PrimitiveType.BOOL && right.valueType() == PrimitiveType.BOOL) {
-            BoolPrimitive leftBool = (BoolPrimitive) left.value();
-            BoolPrimitive rightBool = (BoolPrimitive) right.value();
-            lastResult = new Value(PrimitiveType.BOOL, (!leftBool.value() == rightBool.value()));
-        }
-        else if (left.valueType() == PrimitiveType.FLOAT && right.valueType() == PrimitiveType.FLOAT) {
-            FloatPrimitive leftValue = (FloatPrimitive) left.value();
-            FloatPrimitive rightValue = (FloatPrimitive) right.value();
-            lastResult = new Value(PrimitiveType.BOOL, (!leftValue.value().equals(rightValue.value())));
-        }
-        else if (left.valueType() == PrimitiveType.CURRENCY && right.valueType() == PrimitiveType.CURRENCY) {
-            CurrencyPrimitive currencyLeft = (CurrencyPrimitive) left.value();
-            CurrencyPrimitive currencyRight = (CurrencyPrimitive) right.value();
-            lastResult = new Value(PrimitiveType.BOOL, (
-                    !currencyLeft.getName().equals(currencyRight.getName()) ||
-                            !currencyLeft.getValue().equals(currencyRight.getValue())));
-        }
-        else if (left.valueType() == PrimitiveType.STRING && right.valueType() == PrimitiveType.STRING) {
-            StringPrimitive leftValue = (StringPrimitive) left.value();
-            StringPrimitive rightValue = (StringPrimitive) right.value();
-            lastResult = new Value(PrimitiveType.BOOL, (
-                    !leftValue.value().equals(rightValue.value())));
-        }
-        else {
-            errorHandler.handleInterpreterError(new IncompatibleTypesError("TYPE " + left.valueType() +
-                    " CANNOT BE COMPARED WITH TYPE " + right.valueType() + "!"));
-        }
+        lastResult = new Value(PrimitiveType.BOOL, !areEqual(notEqualExpression.operandType(), left, right));
     }
 
     @Override
@@ -307,32 +268,7 @@ public class Interpreter implements Interpretable, Visitor {
         Value left = copyLastResult();
         greaterExpression.right().accept(this);
         Value right = copyLastResult();
-        if (left.valueType() == PrimitiveType.INTEGER && right.valueType() == PrimitiveType.INTEGER) {
-            IntPrimitive leftValue = (IntPrimitive) left.value();
-            IntPrimitive rightValue = (IntPrimitive) right.value();
-            lastResult = new Value(PrimitiveType.BOOL, (leftValue.value() > rightValue.value()));
-        }
-        else if (left.valueType() == PrimitiveType.FLOAT && right.valueType() == PrimitiveType.FLOAT) {
-            FloatPrimitive leftValue = (FloatPrimitive) left.value();
-            FloatPrimitive rightValue = (FloatPrimitive) right.value();
-            lastResult = new Value(PrimitiveType.BOOL, (leftValue.value() > rightValue.value()));
-        }
-        else if (left.valueType() == PrimitiveType.CURRENCY && right.valueType() == PrimitiveType.CURRENCY) {
-            CurrencyPrimitive currencyLeft = (CurrencyPrimitive) left.value();
-            CurrencyPrimitive currencyRight = (CurrencyPrimitive) right.value();
-            if (!currencyLeft.getName().equals(currencyRight.getName())) {
-                errorHandler.handleInterpreterError(new InvalidCurrencyNameError(
-                        "CURRENCY " + currencyLeft.getName() + " CANNOT BE COMPARED TO " + currencyRight.getName()
-                ));
-            }
-            int comparison = currencyLeft.getValue().compareTo(currencyRight.getValue());
-            lastResult = new Value(PrimitiveType.BOOL, (
-                    currencyLeft.getName().equals(currencyRight.getName()) && (comparison > 0)));
-        }
-        else {
-            errorHandler.handleInterpreterError(new IncompatibleTypesError("TYPE " + left.valueType() +
-                    " CANNOT BE COMPARED WITH TYPE " + right.valueType() + "!"));
-        }
+        lastResult = new Value(PrimitiveType.BOOL, compare(greaterExpression.operandType(), left, right) > 0);
     }
 
     @Override
@@ -341,32 +277,7 @@ public class Interpreter implements Interpretable, Visitor {
         Value left = copyLastResult();
         lesserExpression.right().accept(this);
         Value right = copyLastResult();
-        if (left.valueType() == PrimitiveType.INTEGER && right.valueType() == PrimitiveType.INTEGER) {
-            IntPrimitive leftValue = (IntPrimitive) left.value();
-            IntPrimitive rightValue = (IntPrimitive) right.value();
-            lastResult = new Value(PrimitiveType.BOOL, (leftValue.value() < rightValue.value()));
-        }
-        else if (left.valueType() == PrimitiveType.FLOAT && right.valueType() == PrimitiveType.FLOAT) {
-            FloatPrimitive leftValue = (FloatPrimitive) left.value();
-            FloatPrimitive rightValue = (FloatPrimitive) right.value();
-            lastResult = new Value(PrimitiveType.BOOL, (leftValue.value() < rightValue.value()));
-        }
-        else if (left.valueType() == PrimitiveType.CURRENCY && right.valueType() == PrimitiveType.CURRENCY) {
-            CurrencyPrimitive currencyLeft = (CurrencyPrimitive) left.value();
-            CurrencyPrimitive currencyRight = (CurrencyPrimitive) right.value();
-            int comparison = currencyLeft.getValue().compareTo(currencyRight.getValue());
-            if (!currencyLeft.getName().equals(currencyRight.getName())) {
-                errorHandler.handleInterpreterError(new InvalidCurrencyNameError(
-                        "CURRENCY " + currencyLeft.getName() + " CANNOT BE COMPARED TO " + currencyRight.getName()
-                ));
-            }
-            lastResult = new Value(PrimitiveType.BOOL, (
-                    currencyLeft.getName().equals(currencyRight.getName()) && (comparison < 0)));
-        }
-        else {
-            errorHandler.handleInterpreterError(new IncompatibleTypesError("TYPE " + left.valueType() +
-                    " CANNOT BE COMPARED WITH TYPE " + right.valueType() + "!"));
-        }
+        lastResult = new Value(PrimitiveType.BOOL, compare(lesserExpression.operandType(), left, right) < 0);
     }
 
     @Override
@@ -375,32 +286,7 @@ public class Interpreter implements Interpretable, Visitor {
         Value left = copyLastResult();
         greaterOrEqualExpression.right().accept(this);
         Value right = copyLastResult();
-        if (left.valueType() == PrimitiveType.INTEGER && right.valueType() == PrimitiveType.INTEGER) {
-            IntPrimitive leftValue = (IntPrimitive) left.value();
-            IntPrimitive rightValue = (IntPrimitive) right.value();
-            lastResult = new Value(PrimitiveType.BOOL, (leftValue.value() >= rightValue.value()));
-        }
-        else if (left.valueType() == PrimitiveType.FLOAT && right.valueType() == PrimitiveType.FLOAT) {
-            FloatPrimitive leftValue = (FloatPrimitive) left.value();
-            FloatPrimitive rightValue = (FloatPrimitive) right.value();
-            lastResult = new Value(PrimitiveType.BOOL, (leftValue.value() >= rightValue.value()));
-        }
-        else if (left.valueType() == PrimitiveType.CURRENCY && right.valueType() == PrimitiveType.CURRENCY) {
-            CurrencyPrimitive currencyLeft = (CurrencyPrimitive) left.value();
-            CurrencyPrimitive currencyRight = (CurrencyPrimitive) right.value();
-            int comparison = currencyLeft.getValue().compareTo(currencyRight.getValue());
-            if (!currencyLeft.getName().equals(currencyRight.getName())) {
-                errorHandler.handleInterpreterError(new InvalidCurrencyNameError(
-                        "CURRENCY " + currencyLeft.getName() + " CANNOT BE COMPARED TO " + currencyRight.getName()
-                ));
-            }
-            lastResult = new Value(PrimitiveType.BOOL, (
-                    currencyLeft.getName().equals(currencyRight.getName()) && (comparison >= 0)));
-        }
-        else {
-            errorHandler.handleInterpreterError(new IncompatibleTypesError("TYPE " + left.valueType() +
-                    " CANNOT BE COMPARED WITH TYPE " + right.valueType() + "!"));
-        }
+        lastResult = new Value(PrimitiveType.BOOL, compare(greaterOrEqualExpression.operandType(), left, right) >= 0);
     }
 
     @Override
@@ -409,32 +295,7 @@ public class Interpreter implements Interpretable, Visitor {
         Value left = copyLastResult();
         lesserOrEqualExpression.right().accept(this);
         Value right = copyLastResult();
-        if (left.valueType() == PrimitiveType.INTEGER && right.valueType() == PrimitiveType.INTEGER) {
-            IntPrimitive leftValue = (IntPrimitive) left.value();
-            IntPrimitive rightValue = (IntPrimitive) right.value();
-            lastResult = new Value(PrimitiveType.BOOL, (leftValue.value() <= rightValue.value()));
-        }
-        else if (left.valueType() == PrimitiveType.FLOAT && right.valueType() == PrimitiveType.FLOAT) {
-            FloatPrimitive leftValue = (FloatPrimitive) left.value();
-            FloatPrimitive rightValue = (FloatPrimitive) right.value();
-            lastResult = new Value(PrimitiveType.BOOL, (leftValue.value() <= rightValue.value()));
-        }
-        else if (left.valueType() == PrimitiveType.CURRENCY && right.valueType() == PrimitiveType.CURRENCY) {
-            CurrencyPrimitive currencyLeft = (CurrencyPrimitive) left.value();
-            CurrencyPrimitive currencyRight = (CurrencyPrimitive) right.value();
-            if (!currencyLeft.getName().equals(currencyRight.getName())) {
-                errorHandler.handleInterpreterError(new InvalidCurrencyNameError(
-                        "CURRENCY " + currencyLeft.getName() + " CANNOT BE COMPARED TO " + currencyRight.getName()
-                ));
-            }
-            int comparison = currencyLeft.getValue().compareTo(currencyRight.getValue());
-            lastResult = new Value(PrimitiveType.BOOL, (
-                    currencyLeft.getName().equals(currencyRight.getName()) && (comparison <= 0)));
-        }
-        else {
-            errorHandler.handleInterpreterError(new IncompatibleTypesError("TYPE " + left.valueType() +
-                    " CANNOT BE COMPARED WITH TYPE " + right.valueType() + "!"));
-        }
+        lastResult = new Value(PrimitiveType.BOOL, compare(lesserOrEqualExpression.operandType(), left, right) <= 0);
     }
 
     @Override
@@ -443,43 +304,30 @@ public class Interpreter implements Interpretable, Visitor {
         Value left = copyLastResult();
         additionExpression.right().accept(this);
         Value right = copyLastResult();
-        if (left.valueType() == PrimitiveType.INTEGER && right.valueType() == PrimitiveType.INTEGER) {
-            IntPrimitive leftValue = (IntPrimitive) left.value();
-            IntPrimitive rightValue = (IntPrimitive) right.value();
-            if (CurrexLimits.INTEGER_MAX_VALUE - leftValue.value() < rightValue.value()) {
-                errorHandler.handleInterpreterError(new OverflowError("INTEGER VALUE IS TOO BIG!"));
-            }
-            lastResult = new Value(PrimitiveType.INTEGER, new IntPrimitive(leftValue.value() + rightValue.value()));
-        }
-        else if ((left.valueType() == PrimitiveType.INTEGER || left.valueType() == PrimitiveType.FLOAT) &&
-                (right.valueType() == PrimitiveType.INTEGER || right.valueType() == PrimitiveType.FLOAT)) {
-            FloatPrimitive leftValue = (FloatPrimitive) left.value();
-            FloatPrimitive rightValue = (FloatPrimitive) right.value();
-            lastResult = new Value(PrimitiveType.FLOAT, new FloatPrimitive(leftValue.value() + rightValue.value()));
-        }
-        else if (left.valueType() == PrimitiveType.STRING && right.valueType() == PrimitiveType.STRING) {
-            StringPrimitive leftValue = (StringPrimitive) left.value();
-            StringPrimitive rightValue = (StringPrimitive) right.value();
-            String result = leftValue.value().substring(0, leftValue.value().length()-1) +
-                    rightValue.value().substring(1);
-            lastResult = new Value(PrimitiveType.STRING, new StringPrimitive(result));
-        }
-        else if (left.valueType() == PrimitiveType.CURRENCY && right.valueType() == PrimitiveType.CURRENCY) {
-            CurrencyPrimitive currencyLeft = (CurrencyPrimitive) left.value();
-            CurrencyPrimitive currencyRight = (CurrencyPrimitive) right.value();
-            if (currencyLeft.getName().equals(currencyRight.getName())) {
-                BigDecimal currencyValue = currencyLeft.getValue().add(currencyRight.getValue());
-                currencyValue = currencyValue.setScale(10, RoundingMode.HALF_DOWN);
-                CurrencyPrimitive primitive = new CurrencyPrimitive(currencyValue, currencyLeft.getName());
-                lastResult = new Value(PrimitiveType.CURRENCY, primitive);
-            }
-            else {
-                errorHandler.handleInterpreterError(new IncompatibleTypesError("CANNOT ADD " +
-                        currencyLeft.getName() + " TO " + currencyRight.getName() + "!"));
-            }
-        }
-        else {
-            errorHandler.handleInterpreterError(new IncompatibleTypesError("CANNOT ADD " +
+        switch (operandType(additionExpression.operandType(), left, right)) {
+            case INTEGER -> {
+                int leftValue = ((IntPrimitive) left.value()).value();
+                int rightValue = ((IntPrimitive) right.value()).value();
+                if (CurrexLimits.INTEGER_MAX_VALUE - leftValue < rightValue) {
+                    errorHandler.handleInterpreterError(OverflowError.INTEGER_TOO_BIG);
+                }
+                lastResult = new Value(PrimitiveType.INTEGER, new IntPrimitive(leftValue + rightValue));
+            }
+            case FLOAT -> {
+                FloatPrimitive leftValue = (FloatPrimitive) left.value();
+                FloatPrimitive rightValue = (FloatPrimitive) right.value();
+                lastResult = new Value(PrimitiveType.FLOAT, new FloatPrimitive(leftValue.value() + rightValue.value()));
+            }
+            case STRING -> {
+                StringPrimitive leftValue = (StringPrimitive) left.value();
+                StringPrimitive rightValue = (StringPrimitive) right.value();
+                String result = leftValue.value().substring(0, leftValue.value().length()-1) +
+                        rightValue.value().substring(1);
+                lastResult = new Value(PrimitiveType.STRING, new StringPrimitive(result));
+            }
+            case CURRENCY -> lastResult = new Value(PrimitiveType.CURRENCY,
+                    currencies.add((CurrencyPrimitive) left.value(), (CurrencyPrimitive) right.value()));
+            default -> errorHandler.handleInterpreterError(new IncompatibleTypesError("CANNOT ADD " +
                     left.valueType().name() + " TO " + right.valueType().name() + "!"));
         }
     }
@@ -490,33 +338,20 @@ public class Interpreter implements Interpretable, Visitor {
         Value left = copyLastResult();
         subtractionExpression.right().accept(this);
         Value right = copyLastResult();
-        if (left.valueType() == PrimitiveType.INTEGER && right.valueType() == PrimitiveType.INTEGER) {
-            IntPrimitive leftValue = (IntPrimitive) left.value();
-            IntPrimitive rightValue = (IntPrimitive) right.value();
-            lastResult = new Value(PrimitiveType.INTEGER, new IntPrimitive(leftValue.value() - rightValue.value()));
-        }
-        else if ((left.valueType() == PrimitiveType.INTEGER || left.valueType() == PrimitiveType.FLOAT) &&
-                (right.valueType() == PrimitiveType.INTEGER || right.valueType() == PrimitiveType.FLOAT)) {
-            FloatPrimitive leftValue = (FloatPrimitive) left.value();
-            FloatPrimitive rightValue = (FloatPrimitive) right.value();
-            lastResult = new Value(PrimitiveType.FLOAT, new FloatPrimitive(leftValue.value() - rightValue.value()));
-        }
-        else if (left.valueType() == PrimitiveType.CURRENCY && right.valueType() == PrimitiveType.CURRENCY) {
-            CurrencyPrimitive currencyLeft = (CurrencyPrimitive) left.value();
-            CurrencyPrimitive currencyRight = (CurrencyPrimitive) right.value();
-            if (currencyLeft.getName().equals(currencyRight.getName())) {
-                BigDecimal currencyValue = currencyLeft.getValue().subtract(currencyRight.getValue());
-                currencyValue = currencyValue.setScale(10, RoundingMode.HALF_DOWN);
-                CurrencyPrimitive primitive = new CurrencyPrimitive(currencyValue, currencyLeft.getName());
-                lastResult = new Value(PrimitiveType.CURRENCY, primitive);
-            }
-            else {
-                errorHandler.handleInterpreterError(new IncompatibleTypesError("CANNOT SUBTRACT " +
-                        currencyLeft.getName() + " FROM " + currencyRight.getName() + "!"));
-            }
-        }
-        else {
-            errorHandler.handleInterpreterError(new IncompatibleTypesError("CANNOT SUBTRACT " +
+        switch (operandType(subtractionExpression.operandType(), left, right)) {
+            case INTEGER -> {
+                IntPrimitive leftValue = (IntPrimitive) left.value();
+                IntPrimitive rightValue = (IntPrimitive) right.value();
+                lastResult = new Value(PrimitiveType.INTEGER, new IntPrimitive(leftValue.value() - rightValue.value()));
+            }
+            case FLOAT -> {
+                FloatPrimitive leftValue = (FloatPrimitive) left.value();
+                FloatPrimitive rightValue = (FloatPrimitive) right.value();
+                lastResult = new Value(PrimitiveType.FLOAT, new FloatPrimitive(leftValue.value() - rightValue.value()));
+            }
+            case CURRENCY -> lastResult = new Value(PrimitiveType.CURRENCY,
+                    currencies.subtract((CurrencyPrimitive) left.value(), (CurrencyPrimitive) right.value()));
+            default -> errorHandler.handleInterpreterError(new IncompatibleTypesError("CANNOT SUBTRACT " +
                     left.valueType().name() + " FROM " + right.valueType().name() + "!"));
         }
     }
@@ -527,37 +362,23 @@ public class Interpreter implements Interpretable, Visitor {
         Value left = copyLastResult();
         multiplicationExpression.right().accept(this);
         Value right = copyLastResult();
-        if (left.valueType() == PrimitiveType.INTEGER && right.valueType() == PrimitiveType.INTEGER) {
-            IntPrimitive leftValue = (IntPrimitive) left.value();
-            IntPrimitive rightValue = (IntPrimitive) right.value();
-            if (leftValue.value() != 0 &&
-                    CurrexLimits.INTEGER_MAX_VALUE / leftValue.value() < rightValue.value()) {
-                errorHandler.handleInterpreterError(new OverflowError("INTEGER VALUE IS TOO BIG!"));
-            }
-            lastResult = new Value(PrimitiveType.INTEGER, new IntPrimitive(leftValue.value() * rightValue.value()));
-        }
-        else if ((left.valueType() == PrimitiveType.INTEGER || left.valueType() == PrimitiveType.FLOAT) &&
-                (right.valueType() == PrimitiveType.INTEGER || right.valueType() == PrimitiveType.FLOAT)) {
-            FloatPrimitive leftValue = (FloatPrimitive) left.value();
-            FloatPrimitive rightValue = (FloatPrimitive) right.value();
-            lastResult = new Value(PrimitiveType.FLOAT, new FloatPrimitive(leftValue.value() * rightValue.value()));
-        }
-        else if (left.valueType() == PrimitiveType.CURRENCY && right.valueType() == PrimitiveType.CURRENCY) {
-            CurrencyPrimitive currencyLeft = (CurrencyPrimitive) left.value();
-            CurrencyPrimitive currencyRight = (CurrencyPrimitive) right.value();
-            if (currencyLeft.getName().equals(currencyRight.getName())) {
-                BigDecimal currencyValue = currencyLeft.getValue().multiply(currencyRight.getValue());
-                currencyValue = currencyValue.setScale(10, RoundingMode.HALF_DOWN);
-                CurrencyPrimitive primitive = new CurrencyPrimitive(currencyValue, currencyLeft.getName());
-                lastResult = new Value(PrimitiveType.CURRENCY, primitive);
+        switch (operandType(multiplicationExpression.operandType(), left, right)) {
+            case INTEGER -> {
+                int leftValue = ((IntPrimitive) left.value()).value();
+                int rightValue = ((IntPrimitive) right.value()).value();
+                if (leftValue != 0 && CurrexLimits.INTEGER_MAX_VALUE / leftValue < rightValue) {
+                    errorHandler.handleInterpreterError(OverflowError.INTEGER_TOO_BIG);
+                }
+                lastResult = new Value(PrimitiveType.INTEGER, new IntPrimitive(leftValue * rightValue));
             }
-            else {
-                errorHandler.handleInterpreterError(new IncompatibleTypesError("CANNOT MULTIPLY " +
-                        currencyLeft.getName() + " BY " + currencyRight.getName() + "!"));
+            case FLOAT -> {
+                FloatPrimitive leftValue = (FloatPrimitive) left.value();
+                FloatPrimitive rightValue = (FloatPrimitive) right.value();
+                lastResult = new Value(PrimitiveType.FLOAT, new FloatPrimitive(leftValue.value() * rightValue.value()));
             }
-        }
-        else {
-            errorHandler.handleInterpreterError(new IncompatibleTypesError("CANNOT MULTIPLY " +
+            case CURRENCY -> lastResult = new Value(PrimitiveType.CURRENCY,
+                    currencies.multiply((CurrencyPrimitive) left.value(), (CurrencyPrimitive) right.value()));
+            default -> errorHandler.handleInterpreterError(new IncompatibleTypesError("CANNOT MULTIPLY " +
                     left.valueType().name() + " BY " + right.valueType().name() + "!"));
         }
     }
@@ -568,42 +389,26 @@ public class Interpreter implements Interpretable, Visitor {
         Value left = copyLastResult();
         divisionExpression.right().accept(this);
         Value right = copyLastResult();
-        if (left.valueType() == PrimitiveType.INTEGER && right.valueType() == PrimitiveType.INTEGER) {
-            IntPrimitive leftValue = (IntPrimitive) left.value();
-            IntPrimitive rightValue = (IntPrimitive) right.value();
-            if (rightValue.value().equals(0)) {
-                errorHandler.handleInterpreterError(new ZeroDivisionError("UNHANDLED DIVISION BY ZERO!"));
-            }
-            lastResult = new Value(PrimitiveType.INTEGER, new IntPrimitive(leftValue.value() / rightValue.value()));
-        }
-        else if ((left.valueType() == PrimitiveType.INTEGER || left.valueType() == PrimitiveType.FLOAT) &&
-                (right.valueType() == PrimitiveType.INTEGER || right.valueType() == PrimitiveType.FLOAT)) {
-            FloatPrimitive leftValue = (FloatPrimitive) left.value();
-            FloatPrimitive rightValue = (FloatPrimitive) right.value();
-            if (rightValue.value().equals(0.0)) {
-                errorHandler.handleInterpreterError(new ZeroDivisionError("UNHANDLED DIVISION BY ZERO!"));
-            }
-            lastResult = new Value(PrimitiveType.FLOAT, new FloatPrimitive(leftValue.value() / rightValue.value()));
-        }
-        else if (left.valueType() == PrimitiveType.CURRENCY && right.valueType() == PrimitiveType.CURRENCY) {
-            CurrencyPrimitive currencyLeft = (CurrencyPrimitive) left.value();
-            CurrencyPrimitive currencyRight = (CurrencyPrimitive) right.value();
-            if (currencyRight.getValue().equals(BigDecimal.valueOf(0.0))) {
-                errorHandler.handleInterpreterError(new ZeroDivisionError("UNHANDLED DIVISION BY ZERO!"));
-            }
-            if (currencyLeft.getName().equals(currencyRight.getName())) {
-                BigDecimal currencyValue = currencyLeft.getValue().divide(currencyRight.getValue(), RoundingMode.HALF_DOWN);
-                currencyValue = currencyValue.setScale(10, RoundingMode.HALF_DOWN);
-                CurrencyPrimitive primitive = new CurrencyPrimitive(currencyValue, currencyLeft.getName());
-                lastResult = new Value(PrimitiveType.CURRENCY, primitive);
+        switch (operandType(divisionExpression.operandType(), left, right)) {
+            case INTEGER -> {
+                int leftValue = ((IntPrimitive) left.value()).value();
+                int rightValue = ((IntPrimitive) right.value()).value();
+                if (rightValue == 0) {
+                    errorHandler.handleInterpreterError(ZeroDivisionError.DIVISION_BY_ZERO);
+                }
+                lastResult = new Value(PrimitiveType.INTEGER, new IntPrimitive(leftValue / rightValue));
             }
-            else {
-                errorHandler.handleInterpreterError(new IncompatibleTypesError("CANNOT DIVIDE " +
-                        currencyLeft.getName() + " BY " + currencyRight.getName() + "!"));
+            case FLOAT -> {
+                FloatPrimitive leftValue = (FloatPrimitive) left.value();
+                FloatPrimitive rightValue = (FloatPrimitive) right.value();
+                if (rightValue.value().equals(0.0)) {
+                    errorHandler.handleInterpreterError(ZeroDivisionError.DIVISION_BY_ZERO);
+                }
+                lastResult = new Value(PrimitiveType.FLOAT, new FloatPrimitive(leftValue.value() / rightValue.value()));
             }
-        }
-        else {
-            errorHandler.handleInterpreterError(new IncompatibleTypesError("CANNOT DIVIDE " +
+            case CURRENCY -> lastResult = new Value(PrimitiveType.CURRENCY,
+                    currencies.divide((CurrencyPrimitive) left.value(), (CurrencyPrimitive) right.value()));
+            default -> errorHandler.handleInterpreterError(new IncompatibleTypesError("CANNOT DIVIDE " +
                     left.valueType().name() + " BY " + right.valueType().name() + "!"));
         }
     }
@@ -616,25 +421,8 @@ public class Interpreter implements Interpretable, Visitor {
         Value right = copyLastResult();
         if (left.valueType() == PrimitiveType.CURRENCY) {
             CurrencyPrimitive leftValue = (CurrencyPrimitive) left.value();
-            String rightValue = "";
-            if (right.valueType() == PrimitiveType.STRING) {
-                try {
-                    rightValue = (String) right.value();
-                } catch (ClassCastException e) {
-                    errorHandler.handleInterpreterError(new InvalidCurrencyNameError("CURRENCY " +
-                            right.value() + " IS NOT CORRECT"));
-                }
-            }
-            else if (right.valueType() == PrimitiveType.CURRENCY) {
-                CurrencyPrimitive rightCurrency = (CurrencyPrimitive) right.value();
-                rightValue = rightCurrency.getName();
-            }
-            else {
-                errorHandler.handleInterpreterError(new InvalidCurrencyNameError(
-                        "CONVERTION VALUE CANNOT BE OF TYPE " + right.valueType().name()
-                ));
-            }
-            lastResult = new Value(PrimitiveType.CURRENCY, new CurrencyPrimitive(leftValue.getValue(), rightValue));
+            Currency targetCurrency = resolveTargetCurrency(right);
+            lastResult = new Value(PrimitiveType.CURRENCY, currencies.cast(leftValue, targetCurrency));
         }
         else {
             errorHandler.handleInterpreterError(new IncompatibleTypesError(
@@ -650,30 +438,21 @@ public class Interpreter implements Interpretable, Visitor {
         Value right = copyLastResult();
         if (left.valueType() == PrimitiveType.CURRENCY) {
             CurrencyPrimitive leftValue = (CurrencyPrimitive) left.value();
-            String rightValue = "";
-            if (right.valueType() == PrimitiveType.STRING) {
-                try {
-                    rightValue = (String) right.value();
-                } catch (ClassCastException e) {
-                    errorHandler.handleInterpreterError(new InvalidCurrencyNameError("CURRENCY " +
-                            right.value() + " IS NOT CORRECT"));
-                }
-            }
-            else if (right.valueType() == PrimitiveType.CURRENCY) {
-                CurrencyPrimitive rightCurrency = (CurrencyPrimitive) right.value();
-                rightValue = rightCurrency.getName();
-            }
-            else {
-                errorHandler.handleInterpreterError(new InvalidCurrencyNameError(
-                        "CONVERTION VALUE CANNOT BE OF TYPE " + right.valueType().name()
-                ));
-            }
-            int conversionRateColumn = conversionTable.getColumnCurrencies().indexOf(rightValue);
-            int conversionRateRow = conversionTable.getRowCurrencies().indexOf(leftValue.getName());
-            Double conversionRate = conversionTable.getConversionTable().get(conversionRateRow).get(conversionRateColumn);
-            BigDecimal currencyValue = leftValue.getValue().multiply(BigDecimal.valueOf(conversionRate));
-            currencyValue = currencyValue.setScale(10, RoundingMode.HALF_DOWN);
-            lastResult = new Value(PrimitiveType.CURRENCY, new CurrencyPrimitive(currencyValue, rightValue));
+            Currency targetCurrency = resolveTargetCurrency(right);
+            lastResult = new Value(PrimitiveType.CURRENCY, currencies.convert(leftValue, targetCurrency));
+        }
+        else {
+            errorHandler.handleInterpreterError(new IncompatibleTypesError("CURRENCY CONVERSION CANNOT BE APPLIED TO NON-CURRENCY VALUES!"));
+        }
+    }
+
+    @Override
+    public void visit(ConversionChainExpression conversionChainExpression) throws Exception {
+        conversionChainExpression.left().accept(this);
+        Value left = copyLastResult();
+        if (left.valueType() == PrimitiveType.CURRENCY) {
+            lastResult = new Value(PrimitiveType.CURRENCY,
+                    currencies.convert((CurrencyPrimitive) left.value(), conversionChainExpression.chain()));
         }
         else {
             errorHandler.handleInterpreterError(new IncompatibleTypesError("CURRENCY CONVERSION CANNOT BE APPLIED TO NON-CURRENCY VALUES!"));
@@ -685,8 +464,7 @@ public class Interpreter implements Interpretable, Visitor {
         negationExpression.expression().accept(this);
         Value result = copyLastResult();
         if (result.valueType() == PrimitiveType.BOOL) {
-            BoolPrimitive boolValue = (BoolPrimitive) result.value();
-            lastResult = new Value(PrimitiveType.BOOL, !boolValue.value());
+            lastResult = new Value(PrimitiveType.BOOL, !asBoolean(result));
         }
         else {
             errorHandler.handleInterpreterError(new IncompatibleTypesError("NEGATION NOT POSSIBLE FOR TYPE" +
@@ -698,21 +476,12 @@ public class Interpreter implements Interpretable, Visitor {
     public void visit(MinusExpression minusExpression) throws Exception {
         minusExpression.expression().accept(this);
         Value result = copyLastResult();
-        if (result.valueType() == PrimitiveType.INTEGER) {
-            IntPrimitive intValue = (IntPrimitive) result.value();
-            lastResult = new Value(result.valueType(), -intValue.value());
-        }
-        else if (result.valueType() == PrimitiveType.FLOAT) {
-            FloatPrimitive floatValue = (FloatPrimitive) result.value();
-            lastResult = new Value(result.valueType(), -floatValue.value());
-        }
-        else if (result.valueType() == PrimitiveType.CURRENCY) {
-            CurrencyPrimitive currencyValue = (CurrencyPrimitive) result.value();
-            BigDecimal value = currencyValue.getValue().negate();
-            lastResult = new Value(result.valueType(), new CurrencyPrimitive(value, currencyValue.getName()));
-        }
-        else {
-            errorHandler.handleInterpreterError(new IncompatibleTypesError("NEGATION NOT POSSIBLE FOR TYPE" +
+        PrimitiveType type = minusExpression.operandType() != null ? minusExpression.operandType() : result.valueType();
+        switch (type) {
+            case INTEGER -> lastResult = new Value(type, new IntPrimitive(-((IntPrimitive) result.value()).value()));
+            case FLOAT -> lastResult = new Value(type, new FloatPrimitive(-((FloatPrimitive) result.value()).value()));
+            case CURRENCY -> lastResult = new Value(type, currencies.negate((CurrencyPrimitive) result.value()));
+            default -> errorHandler.handleInterpreterError(new IncompatibleTypesError("NEGATION NOT POSSIBLE FOR TYPE" +
                     result.valueType().name() + "!"));
         }
     }
@@ -737,19 +506,21 @@ public class Interpreter implements Interpretable, Visitor {
                 ));
                 return;
             }
-            FunctionDefinition tempFunc = new FunctionDefinition(function.returnType(),
-                    function.name(),
-                    List.of(new Parameter(PrimitiveType.CURRENCY, "currencyBalance")),
-                    function.block());
-            contextManager.addContext(new Context());
-            contextManager.addVariable("currencyBalance", left);
-            tempFunc.block().accept(this);
-            contextManager.removeCurrentContext();
+            // methods receive the accessed currency as their only variable
+            Frame methodFrame = new Frame(Math.max(function.frameSize(), 1), frame);
+            methodFrame.declare(0, "currencyBalance", left);
+            frame = methodFrame;
+            function.block().accept(this);
+            frame = methodFrame.getCaller();
         }
     }
 
     @Override
     public void visit(FunctionCallExpression functionCallExpression) throws Exception {
+        if (functionCallExpression.function() != VariableSlot.UNRESOLVED) {
+            call(functions[functionCallExpression.function()], functionCallExpression.arguments(), true);
+            return;
+        }
         if (!functionDefinitions.containsKey(functionCallExpression.name())) {
             if (functionCallExpression.name().equals(CurrexConfig.MAIN_FUNCTION_NAME)) {
                 errorHandler.handleInterpreterError(new MainFunctionNotDefinedError("MAIN FUNCTION WAS NOT DEFINED!"));
@@ -765,21 +536,27 @@ public class Interpreter implements Interpretable, Visitor {
                             " BUT RECEIVED: " + functionCallExpression.arguments().size() + "!"
             ));
         }
-        List<Expression> functionArguments = functionCallExpression.arguments();
-        contextManager.addContext(new Context());
+        call(functionDefinition, functionCallExpression.arguments(), false);
+    }
+
+    // checked calls have as many arguments as parameters, each of the type of its parameter
+    private void call(FunctionDefinition functionDefinition, List<Expression> functionArguments,
+                      boolean checked) throws Exception {
+        Frame calleeFrame = new Frame(Math.max(functionDefinition.frameSize(), functionArguments.size()), frame);
         for (int i = 0; i < functionArguments.size(); i++) {
             functionArguments.get(i).accept(this);
             Parameter param = functionDefinition.parameters().get(i);
             if (param.type() == PrimitiveType.NONE) {
-                contextManager.addVariable(param.name(), new Value(PrimitiveType.STRING, lastResult.value().toString()));
+                calleeFrame.declare(param.slot(), param.name(), new Value(PrimitiveType.STRING, lastResult.value().toString()));
             }
-            else if (lastResult.valueType() != param.type()) {
+            else if (!checked && lastResult.valueType() != param.type()) {
                 errorHandler.handleInterpreterError(new InvalidVariableTypeError("INVALID TYPE PROVIDED FOR PARAMETER " + param.name()));
             }
             else {
-                contextManager.addVariable(param.name(), new Value(param.type(), lastResult.value()));
+                calleeFrame.declare(param.slot(), param.name(), new Value(param.type(), lastResult.value()));
             }
         }
+        frame = calleeFrame;
         functionDefinition.block().accept(this);
         if (functionDefinition.returnType() == PrimitiveType.NONE) {
             lastResult = null;
@@ -789,19 +566,14 @@ public class Interpreter implements Interpretable, Visitor {
                     functionDefinition.returnType().name() + " BUT GOT " + lastResult.valueType().name() + " INSTEAD!"));
         }
         else if (lastResult.value() == null) {
-            errorHandler.handleInterpreterError(new InvalidReturnValueError("NO RETURN VALUE SPECIFIED!"));
+            errorHandler.handleInterpreterError(InvalidReturnValueError.NO_RETURN_VALUE);
         }
-        contextManager.removeCurrentContext();
+        frame = calleeFrame.getCaller();
     }
 
     @Override
     public void visit(IdentifierExpression identifierExpression) throws Exception {
-        if (conversionTable.getColumnCurrencies().contains(identifierExpression.name())) {
-            BigDecimal temporaryValue = BigDecimal.valueOf(0.0);
-            lastResult = new Value(PrimitiveType.CURRENCY, new CurrencyPrimitive(temporaryValue, identifierExpression.name()));
-            return;
-        }
-        Value value = contextManager.fetchVariable(identifierExpression.name());
+        Value value = fetchVariable(identifierExpression);
         if (value == null) {
             errorHandler.handleInterpreterError(new VariableDoesNotExistError(
                     "VARIABLE " + identifierExpression.name() + " DOES NOT EXIST IN ANY CONTEXT!"
@@ -839,22 +611,145 @@ public class Interpreter implements Interpretable, Visitor {
 
     @Override
     public void visit(PrintFunction printFunction) throws Exception {
-        Value valueToPrint = contextManager.fetchVariable("valueToPrint");
+        // builtins receive their argument in the first slot
+        Value valueToPrint = frame.get(0);
         printer.println(valueToPrint.value().toString());
     }
 
     @Override
     public void visit(GetBalanceMethod getBalanceMethod) throws Exception {
-        CurrencyPrimitive balance = (CurrencyPrimitive) contextManager.fetchVariable("currencyBalance").value();
+        CurrencyPrimitive balance = (CurrencyPrimitive) frame.get(0).value();
         lastResult = new Value(PrimitiveType.FLOAT, balance.getValue());
     }
 
     @Override
     public void visit(GetCurrencyMethod getCurrencyMethod) throws Exception {
-        CurrencyPrimitive balance = (CurrencyPrimitive) contextManager.fetchVariable("currencyBalance").value();
+        CurrencyPrimitive balance = (CurrencyPrimitive) frame.get(0).value();
         lastResult = new Value(PrimitiveType.STRING, balance.getName());
     }
 
+    private Value fetchVariable(IdentifierExpression identifier) {
+        if (identifier.slot() != VariableSlot.UNRESOLVED) {
+            return frame.get(identifier.slot());
+        }
+        for (Frame current = frame; current != null; current = current.getCaller()) {
+            int slot = current.indexOf(identifier.name());
+            if (slot != Frame.NOT_FOUND) {
+                return current.get(slot);
+            }
+        }
+        return null;
+    }
+
+    private void updateVariable(IdentifierExpression identifier, Value newValue) throws Exception {
+        Frame owner = frame;
+        int slot = identifier.slot();
+        if (slot == VariableSlot.UNRESOLVED) {
+            while (owner != null && (slot = owner.indexOf(identifier.name())) == Frame.NOT_FOUND) {
+                owner = owner.getCaller();
+            }
+        }
+        Value previous = owner == null ? null : owner.get(slot);
+        if (previous == null) {
+            errorHandler.handleInterpreterError(new VariableDoesNotExistError(
+                    "VARIABLE " + identifier.name() + " DOES NOT EXIST IN ANY CONTEXT!"
+            ));
+        }
+        else if (previous.valueType() != newValue.valueType()) {
+            errorHandler.handleInterpreterError(new InvalidVariableTypeError(
+                    "VARIABLE " + identifier.name() + " WITH TYPE " + previous.valueType() +
+                    " CANNOT BE ASSIGNED WITH VALUE " + newValue.value() + " WITH TYPE " + newValue.valueType() + "!"
+            ));
+        }
+        else {
+            owner.set(slot, newValue);
+        }
+    }
+
+    private Currency resolveTargetCurrency(Value target) throws Exception {
+        if (target.valueType() == PrimitiveType.CURRENCY) {
+            CurrencyPrimitive targetCurrency = (CurrencyPrimitive) target.value();
+            if (targetCurrency.getCurrency() != null) {
+                return targetCurrency.getCurrency();
+            }
+            return conversionTable.getOrCreateCurrency(targetCurrency.getName());
+        }
+        if (target.valueType() == PrimitiveType.STRING && target.value() instanceof String name) {
+            return conversionTable.getOrCreateCurrency(name);
+        }
+        if (target.valueType() == PrimitiveType.STRING) {
+            errorHandler.handleInterpreterError(new InvalidCurrencyNameError("CURRENCY " +
+                    target.value() + " IS NOT CORRECT"));
+        }
+        errorHandler.handleInterpreterError(new InvalidCurrencyNameError(
+                "CONVERTION VALUE CANNOT BE OF TYPE " + target.valueType().name()
+        ));
+        return null;
+    }
+
+    // operand types proven by the TypeChecker are used as they are, operands of variables found
+    // in calling frames are only typed at runtime and have to match each other
+    private PrimitiveType operandType(PrimitiveType staticType, Value left, Value right) {
+        if (staticType != null) {
+            return staticType;
+        }
+        return left.valueType() == right.valueType() ? left.valueType() : PrimitiveType.NONE;
+    }
+
+    private boolean areEqual(PrimitiveType staticType, Value left, Value right) throws Exception {
+        switch (operandType(staticType, left, right)) {
+            case INTEGER -> {
+                return ((IntPrimitive) left.value()).value().equals(((IntPrimitive) right.value()).value());
+            }
+            case BOOL -> {
+                return asBoolean(left) == asBoolean(right);
+            }
+            case FLOAT -> {
+                return ((FloatPrimitive) left.value()).value().equals(((FloatPrimitive) right.value()).value());
+            }
+            case CURRENCY -> {
+                return currencies.equal((CurrencyPrimitive) left.value(), (CurrencyPrimitive) right.value());
+            }
+            case STRING -> {
+                return ((StringPrimitive) left.value()).value().equals(((StringPrimitive) right.value()).value());
+            }
+            default -> {
+                errorHandler.handleInterpreterError(new IncompatibleTypesError("TYPE " + left.valueType() +
+                        " CANNOT BE COMPARED WITH TYPE " + right.valueType() + "!"));
+                return false;
+            }
+        }
+    }
+
+    private int compare(PrimitiveType staticType, Value left, Value right) throws Exception {
+        switch (operandType(staticType, left, right)) {
+            case INTEGER -> {
+                return Integer.compare(((IntPrimitive) left.value()).value(), ((IntPrimitive) right.value()).value());
+            }
+            case FLOAT -> {
+                double leftValue = ((FloatPrimitive) left.value()).value();
+                double rightValue = ((FloatPrimitive) right.value()).value();
+                return leftValue < rightValue ? -1 : (leftValue > rightValue ? 1 : 0);
+            }
+            case CURRENCY -> {
+                return currencies.compare((CurrencyPrimitive) left.value(), (CurrencyPrimitive) right.value());
+            }
+            default -> {
+                errorHandler.handleInterpreterError(new IncompatibleTypesError("TYPE " + left.valueType() +
+                        " CANNOT BE COMPARED WITH TYPE " + right.valueType() + "!"));
+                return 0;
+            }
+        }
+    }
+
+    // bool literals hold a BoolPrimitive, comparisons and logical operators a Boolean
+    private boolean asBoolean(Value value) {
+        if (value.value() instanceof BoolPrimitive boolPrimitive) {
+            return boolPrimitive.value();
+        }
+        return (Boolean) value.value();
+    }
+
     private Value copyLastResult() {
         Value lastResultCopy = lastResult;
         lastResult = null;
@@ -1,5 +0,0 @@
-package currex.interpreter;
-
-public record Variable(String name, Value value) {
-
-}
\ No newline at end of file
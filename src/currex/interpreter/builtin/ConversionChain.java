@@ -0,0 +1,80 @@
+package currex.interpreter.builtin;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Conversions to currencies known before the program runs, one hop per target. The first hop converts
+// from the currency of the value, every other hop from the previous target, so their rates are read from
+// the table only once. compositeRates holds, per source currency, the product of the rates of all hops,
+// used when the whole chain is converted with a single rounding.
+public class ConversionChain {
+    private final Currency[] targets;
+    // rates[hop] converts targets[hop - 1] to targets[hop], rates[0] is unused
+    private final BigDecimal[] rates;
+    // null for sources the first hop has no rate from
+    private final BigDecimal[] compositeRates;
+
+    private ConversionChain(Currency[] targets, BigDecimal[] rates, BigDecimal[] compositeRates) {
+        this.targets = targets;
+        this.rates = rates;
+        this.compositeRates = compositeRates;
+    }
+
+    // null when the table has no rate for one of the hops after the first
+    static ConversionChain create(ConversionTable conversionTable, List<Currency> targets) {
+        Currency[] hops = targets.toArray(new Currency[0]);
+        for (Currency target : hops) {
+            if (!target.isBound()) {
+                return null;
+            }
+        }
+        BigDecimal[] rates = new BigDecimal[hops.length];
+        BigDecimal chainRate = BigDecimal.ONE;
+        for (int hop = 1; hop < hops.length; hop++) {
+            double rate = conversionTable.rate(hops[hop - 1], hops[hop]);
+            if (Double.isNaN(rate)) {
+                return null;
+            }
+            rates[hop] = BigDecimal.valueOf(rate);
+            chainRate = chainRate.multiply(rates[hop]);
+        }
+        BigDecimal[] compositeRates = new BigDecimal[conversionTable.size()];
+        for (int from = 0; from < compositeRates.length; from++) {
+            double rate = conversionTable.rate(from, hops[0].id());
+            if (!Double.isNaN(rate)) {
+                compositeRates[from] = BigDecimal.valueOf(rate).multiply(chainRate);
+            }
+        }
+        return new ConversionChain(hops, rates, compositeRates);
+    }
+
+    public int size() {
+        return targets.length;
+    }
+
+    public Currency target(int hop) {
+        return targets[hop];
+    }
+
+    public Currency target() {
+        return targets[targets.length - 1];
+    }
+
+    public BigDecimal rate(int hop) {
+        return rates[hop];
+    }
+
+    // null when the first hop cannot convert from the given currency
+    public BigDecimal compositeRate(Currency from) {
+        return from.isBound() ? compositeRates[from.id()] : null;
+    }
+
+    public List<Currency> targets() {
+        return List.of(targets);
+    }
+
+    @Override
+    public String toString() {
+        return String.join(" -> ", targets().stream().map(Currency::name).toList());
+    }
+}
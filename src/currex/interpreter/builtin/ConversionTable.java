@@ -7,60 +7,126 @@ import currex.structure.table.ConversionRowExpression;
 import currex.structure.table.CurrencyIdentifierExpression;
 import currex.structure.table.TableStatement;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+// read-only once built, so it can be shared by engines running at the same time. Conversion chains are
+// built on first use and kept for every later run with the table.
 public class ConversionTable {
+    public static final int UNKNOWN_CURRENCY = -1;
+
     private final List<String> columnCurrencies = new ArrayList<>();
     private final List<String> rowCurrencies = new ArrayList<>();
-    private final List<List<Double>> conversionTable = new ArrayList<>();
-    private final InterpreterErrorHandler errorHandler = new InterpreterErrorHandler();
+    private final Map<String, Currency> currencies = new HashMap<>();
+    // rates[from * size + to], ids are the header (column) positions of the currencies
+    private final double[] rates;
+    private final int size;
+    private final Map<List<Currency>, ConversionChain> chains = new ConcurrentHashMap<>();
 
     public ConversionTable(TableStatement currencyTable) throws Exception {
+        InterpreterErrorHandler errorHandler = new InterpreterErrorHandler();
         for (CurrencyIdentifierExpression currencyName : currencyTable.currencyRow().currencyNames()) {
-            putColumnCurrency(currencyName.name());
+            currencies.putIfAbsent(currencyName.name(), new Currency(columnCurrencies.size(), currencyName.name()));
+            columnCurrencies.add(currencyName.name());
         }
+        size = columnCurrencies.size();
+        rates = new double[size * size];
+        Arrays.fill(rates, Double.NaN);
         for (ConversionRowExpression conversionRow : currencyTable.conversionRows()) {
             String currentCurrency = conversionRow.currencyName().name();
-            putRowCurrency(currentCurrency);
+            rowCurrencies.add(currentCurrency);
+            int from = getCurrencyId(currentCurrency);
             int columnIndex = 0;
-            List<Double> conversionList = new ArrayList<>();
             for (ConversionRateExpression rate : conversionRow.currencyRates()) {
-                if (currentCurrency.equals(columnCurrencies.get(columnIndex))) {
-                    if (rate.conversion() != 1.0) {
+                if (columnIndex < size) {
+                    if (currentCurrency.equals(columnCurrencies.get(columnIndex)) && rate.conversion() != 1.0) {
                         errorHandler.handleInterpreterError(new InvalidCurrencyRateError("CURRENCY RATE " +
                                 "FOR CURRENCY " + currentCurrency + " IS EQUAL TO " +
                                 rate.conversion() + " AND NOT TO 1!"));
                     }
+                    if (from != UNKNOWN_CURRENCY) {
+                        rates[from * size + columnIndex] = rate.conversion();
+                    }
                 }
                 columnIndex++;
-                conversionList.add(rate.conversion());
             }
-            putConversionRow(conversionList);
         }
     }
 
-    public void putColumnCurrency(String currency) {
-        columnCurrencies.add(currency);
+    public int getCurrencyId(String currency) {
+        Currency handle = currencies.get(currency);
+        return handle == null ? UNKNOWN_CURRENCY : handle.id();
+    }
+
+    // returns null for currencies which are not declared in the table header
+    public Currency getCurrency(String currency) {
+        return currencies.get(currency);
+    }
+
+    public Currency getOrCreateCurrency(String currency) {
+        Currency handle = currencies.get(currency);
+        return handle == null ? new Currency(UNKNOWN_CURRENCY, currency) : handle;
+    }
+
+    public boolean containsCurrency(String currency) {
+        return currencies.containsKey(currency);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // returns NaN when the table does not define a rate for the given pair
+    public double rate(int from, int to) {
+        return rates[from * size + to];
     }
 
-    public void putRowCurrency(String currency) {
-        rowCurrencies.add(currency);
+    public double rate(Currency from, Currency to) {
+        return rates[from.id() * size + to.id()];
     }
 
-    public void putConversionRow(List<Double> currencyRow) {
-        conversionTable.add(currencyRow);
+    // null when the table has no rate for one of the hops after the first
+    public ConversionChain chain(List<Currency> targets) {
+        return chains.computeIfAbsent(List.copyOf(targets), key -> ConversionChain.create(this, key));
     }
 
     public List<String> getColumnCurrencies() {
-        return columnCurrencies;
+        return Collections.unmodifiableList(columnCurrencies);
     }
 
     public List<String> getRowCurrencies() {
-        return rowCurrencies;
+        return Collections.unmodifiableList(rowCurrencies);
     }
 
+    // rows of currencies missing from the header have no rates in the matrix, they read as NaN
     public List<List<Double>> getConversionTable() {
-        return conversionTable;
+        return new AbstractList<>() {
+            @Override
+            public List<Double> get(int row) {
+                int from = getCurrencyId(rowCurrencies.get(row));
+                return new AbstractList<>() {
+                    @Override
+                    public Double get(int column) {
+                        return from == UNKNOWN_CURRENCY ? Double.NaN : rate(from, column);
+                    }
+
+                    @Override
+                    public int size() {
+                        return size;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return rowCurrencies.size();
+            }
+        };
     }
 }
@@ -0,0 +1,14 @@
+package currex.interpreter.builtin;
+
+// Canonical currency handle, one instance per name so that currencies compare by identity
+public record Currency(int id, String name) {
+
+    public boolean isBound() {
+        return id != ConversionTable.UNKNOWN_CURRENCY;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
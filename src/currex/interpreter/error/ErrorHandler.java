@@ -0,0 +1,8 @@
+package currex.interpreter.error;
+
+// Receives the errors of a program while it is resolved and run. The engines, resolvers and the compiler
+// only depend on this interface, InterpreterErrorHandler is the implementation they use by default.
+public interface ErrorHandler {
+    // must throw, the exception or one of its own, the engines do not continue past an error
+    void handleInterpreterError(Exception exception) throws Exception;
+}
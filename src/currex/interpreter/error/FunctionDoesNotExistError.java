@@ -1,6 +1,6 @@
 package currex.interpreter.error;
 
-public class FunctionDoesNotExistError extends Exception {
+public class FunctionDoesNotExistError extends InterpreterError {
     public FunctionDoesNotExistError(String message) {
         super(message);
     }
@@ -1,6 +1,6 @@
 package currex.interpreter.error;
 
-public class IncompatibleTypesError extends Exception {
+public class IncompatibleTypesError extends InterpreterError {
     public IncompatibleTypesError(String message) {
         super(message);
     }
@@ -0,0 +1,9 @@
+package currex.interpreter.error;
+
+// Base of the errors raised while checking and running a program. They are reported by their message only,
+// so no stack trace is captured, and errors with a fixed message are thrown as shared instances.
+public abstract class InterpreterError extends Exception {
+    protected InterpreterError(String message) {
+        super(message, null, false, false);
+    }
+}
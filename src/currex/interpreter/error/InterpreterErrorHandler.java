@@ -1,10 +1,52 @@
 package currex.interpreter.error;
 
-public class InterpreterErrorHandler {
-    public InterpreterErrorHandler() {}
+import currex.diagnostic.Diagnostic;
+import currex.output.OutputSink;
 
+import java.util.List;
+
+// Default ErrorHandler. Errors of a running program have no position, they are reported by their message
+// and then thrown.
+public class InterpreterErrorHandler implements ErrorHandler {
+    private final boolean reporting;
+    private final List<Diagnostic> diagnostics;
+    private final OutputSink output;
+
+    public InterpreterErrorHandler() {
+        this(true);
+    }
+
+    // without reporting the error is only thrown
+    public InterpreterErrorHandler(boolean reporting) {
+        this.reporting = reporting;
+        this.diagnostics = null;
+        this.output = null;
+    }
+
+    // reports between the lines the program printed, a buffered sink would otherwise show the error first
+    public InterpreterErrorHandler(OutputSink output) {
+        this.reporting = true;
+        this.diagnostics = null;
+        this.output = output;
+    }
+
+    // collects every error instead of printing it
+    public InterpreterErrorHandler(List<Diagnostic> diagnostics) {
+        this.reporting = false;
+        this.diagnostics = diagnostics;
+        this.output = null;
+    }
+
+    @Override
     public void handleInterpreterError(Exception exception) throws Exception {
-        System.out.println(exception.getMessage());
+        if (output != null) {
+            output.println(exception.getMessage());
+        } else if (reporting) {
+            System.out.println(exception.getMessage());
+        }
+        if (diagnostics != null) {
+            diagnostics.add(new Diagnostic(exception, null));
+        }
         throw exception;
     }
 }
@@ -1,6 +1,6 @@
 package currex.interpreter.error;
 
-public class InvalidBoolValueError extends Exception {
+public class InvalidBoolValueError extends InterpreterError {
     public InvalidBoolValueError(String message) {
         super(message);
     }
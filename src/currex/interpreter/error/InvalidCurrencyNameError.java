@@ -1,6 +1,6 @@
 package currex.interpreter.error;
 
-public class InvalidCurrencyNameError extends Exception {
+public class InvalidCurrencyNameError extends InterpreterError {
     public InvalidCurrencyNameError(String message) {
         super(message);
     }
@@ -1,6 +1,6 @@
 package currex.interpreter.error;
 
-public class InvalidFunctionCallError extends Exception {
+public class InvalidFunctionCallError extends InterpreterError {
     public InvalidFunctionCallError(String message) {
         super(message);
     }
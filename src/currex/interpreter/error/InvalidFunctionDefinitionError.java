@@ -1,6 +1,6 @@
 package currex.interpreter.error;
 
-public class InvalidFunctionDefinitionError extends Exception {
+public class InvalidFunctionDefinitionError extends InterpreterError {
     public InvalidFunctionDefinitionError(String message) {
         super(message);
     }
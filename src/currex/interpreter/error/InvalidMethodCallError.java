@@ -1,6 +1,6 @@
 package currex.interpreter.error;
 
-public class InvalidMethodCallError extends Exception {
+public class InvalidMethodCallError extends InterpreterError {
     public InvalidMethodCallError(String message) {
         super(message);
     }
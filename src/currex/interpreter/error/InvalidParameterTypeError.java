@@ -1,6 +1,6 @@
 package currex.interpreter.error;
 
-public class InvalidParameterTypeError extends Exception {
+public class InvalidParameterTypeError extends InterpreterError {
     public InvalidParameterTypeError(String message) {
         super(message);
     }
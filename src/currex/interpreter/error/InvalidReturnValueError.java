@@ -1,6 +1,8 @@
 package currex.interpreter.error;
 
-public class InvalidReturnValueError extends Exception {
+public class InvalidReturnValueError extends InterpreterError {
+    public static final InvalidReturnValueError NO_RETURN_VALUE = new InvalidReturnValueError("NO RETURN VALUE SPECIFIED!");
+
     public InvalidReturnValueError(String message) {
         super(message);
     }
@@ -1,6 +1,6 @@
 package currex.interpreter.error;
 
-public class InvalidVariableTypeError extends Exception {
+public class InvalidVariableTypeError extends InterpreterError {
     public InvalidVariableTypeError(String message) {
         super(message);
     }
@@ -1,6 +1,6 @@
 package currex.interpreter.error;
 
-public class MainFunctionNotDefinedError extends Exception {
+public class MainFunctionNotDefinedError extends InterpreterError {
     public MainFunctionNotDefinedError(String message) {
         super(message);
     }
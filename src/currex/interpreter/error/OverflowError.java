@@ -1,6 +1,8 @@
 package currex.interpreter.error;
 
-public class OverflowError extends Exception {
+public class OverflowError extends InterpreterError {
+    public static final OverflowError INTEGER_TOO_BIG = new OverflowError("INTEGER VALUE IS TOO BIG!");
+
     public OverflowError(String message) {
         super(message);
     }
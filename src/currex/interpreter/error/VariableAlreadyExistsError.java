@@ -1,6 +1,6 @@
 package currex.interpreter.error;
 
-public class VariableAlreadyExistsError extends Exception {
+public class VariableAlreadyExistsError extends InterpreterError {
     public VariableAlreadyExistsError(String message) {
         super(message);
     }
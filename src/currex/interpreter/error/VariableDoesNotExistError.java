@@ -1,6 +1,6 @@
 package currex.interpreter.error;
 
-public class VariableDoesNotExistError extends Exception {
+public class VariableDoesNotExistError extends InterpreterError {
     public VariableDoesNotExistError(String message) {
         super(message);
     }
@@ -1,6 +1,8 @@
 package currex.interpreter.error;
 
-public class ZeroDivisionError extends Exception {
+public class ZeroDivisionError extends InterpreterError {
+    public static final ZeroDivisionError DIVISION_BY_ZERO = new ZeroDivisionError("UNHANDLED DIVISION BY ZERO!");
+
     public ZeroDivisionError(String message) {
         super(message);
     }
@@ -5,26 +5,79 @@ import currex.source.Source;
 import currex.token.*;
 import currex.utils.CurrexLimits;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Arrays;
 
+// Every tryBuild method describes the token it recognised in the fields below. fetchToken() turns that
+// into a Token object, fetchTokenInto() appends it to a TokenStream without allocating.
 public class Lexer {
+    private static final int LITERAL_SCALE = 10;
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L,
+            10_000_000L, 100_000_000L, 1_000_000_000L, 10_000_000_000L};
+
     private final Source source;
-    private Character currentChar;
-    private Token token;
+    private char currentChar;
+    private boolean started;
     private LexerErrorHandler errorHandler;
+    private SymbolTable symbols;
+
+    private TokenType tokenType;
+    private int tokenStart;
+    private int tokenRow;
+    private int tokenColumn;
+    private int tokenInteger;
+    private long tokenUnscaled;
+    private int tokenScale;
+    private int tokenSymbol;
+    private char[] text = new char[CurrexLimits.MAX_STRING_LENGTH + 2];
+    private int textLength;
 
     public Lexer(Source source) {
+        this(source, new SymbolTable());
+    }
+
+    public Lexer(Source source, SymbolTable symbols) {
+        this(source, symbols, new LexerErrorHandler());
+    }
+
+    public Lexer(Source source, SymbolTable symbols, LexerErrorHandler errorHandler) {
         this.source = source;
-        this.currentChar = null;
-        this.token = null;
-        this.errorHandler = new LexerErrorHandler();
+        this.currentChar = Source.EOF;
+        this.started = false;
+        this.errorHandler = errorHandler;
+        this.symbols = symbols;
     }
 
     public Token fetchToken() throws Exception {
-        if (currentChar == null) {
+        lexToken();
+        Position position = new Position(tokenRow, tokenColumn);
+        return switch (tokenType) {
+            case INTEGER_VALUE -> new IntegerToken(position, tokenInteger);
+            case FLOAT_VALUE -> new FloatToken(position, tokenUnscaled, tokenScale);
+            case IDENTIFIER, STRING_VALUE -> new StringToken(position, symbols.name(tokenSymbol), tokenType);
+            case COMMENT -> new StringToken(position, new String(text, 0, textLength), tokenType);
+            default -> tokenType.compareTo(TokenType.UNKNOWN) >= 0 ?
+                    new ErrorToken(position, tokenType) : new Token(position, tokenType);
+        };
+    }
+
+    // identifiers and strings are interned in the symbol table of the stream
+    public int fetchTokenInto(TokenStream tokens) throws Exception {
+        symbols = tokens.symbols();
+        lexToken();
+        int index = tokens.add(tokenType, tokenStart, source.offset() - tokenStart, tokenRow, tokenColumn);
+        switch (tokenType) {
+            case INTEGER_VALUE -> tokens.setIntValue(index, tokenInteger);
+            case FLOAT_VALUE -> tokens.setFloatValue(index, tokenUnscaled, tokenScale);
+            case IDENTIFIER, STRING_VALUE -> tokens.setSymbol(index, tokenSymbol);
+            default -> {
+            }
+        }
+        return index;
+    }
+
+    private void lexToken() throws Exception {
+        if (!started) {
+            started = true;
             nextCharacter();
         }
 
@@ -37,61 +90,56 @@ public class Lexer {
             tryBuildString() ||
             tryBuildComment() ||
             tryBuildOperator()) {
-            return token;
+            return;
         }
         nextCharacter();
         if (source.isStreamEnd()) {
-            return new Token(new Position(source.getPosition()), TokenType.EOF);
+            startToken();
+            tokenType = TokenType.EOF;
+            return;
         }
         errorHandler.handleLexerError(new UnknownTokenError("UNKNOWN TOKEN FOUND!"),
                 new Position(source.getPosition()));
-        return new ErrorToken(new Position(source.getPosition()), TokenType.UNKNOWN);
+        startToken();
+        tokenType = TokenType.UNKNOWN;
     }
 
     private boolean tryBuildOperator() throws Exception {
-        if (!LexerMapping.singleCharacterOperatorsMap.containsKey(currentChar)
-                && currentChar != '&' && currentChar != '|') {
+        if (!LexerMapping.hasClass(currentChar, LexerMapping.OPERATOR_START)) {
             return false;
         }
 
-        Set<Character> possibleFirstSigns = LexerMapping.twoCharacterOperatorsMap.keySet()
-                .stream().map(operator -> operator.charAt(0))
-                .collect(Collectors.toSet());
-        Set<Character> possibleLastSigns = LexerMapping.twoCharacterOperatorsMap.keySet()
-            .stream().map(operator -> operator.charAt(1))
-            .collect(Collectors.toSet());
-
         char firstSign = currentChar;
-        Position tokenPosition = new Position(source.getPosition());
-        Character nextSign = source.Peek();
+        startToken();
+        char nextSign = source.peek(1);
 
-        if (possibleFirstSigns.contains(firstSign) && possibleLastSigns.contains(nextSign)) {
-            return buildDoubleSignedOperator(firstSign, nextSign, tokenPosition);
+        if (LexerMapping.hasClass(firstSign, LexerMapping.PAIR_FIRST) &&
+                LexerMapping.hasClass(nextSign, LexerMapping.PAIR_SECOND)) {
+            return buildDoubleSignedOperator(firstSign, nextSign);
         } else if ((firstSign == '&' || firstSign == '|') && firstSign != nextSign) {
             errorHandler.handleLexerError(new MissingSecondCharacterError("MISSING SECOND CHARACTER ERROR!"),
                     new Position(source.getPosition()));
-            token = new ErrorToken(tokenPosition, TokenType.MISSING_SECOND_CHARACTER_ERROR);
+            tokenType = TokenType.MISSING_SECOND_CHARACTER_ERROR;
             return true;
         } else {
-            return buildSingleSignedOperator(firstSign, tokenPosition);
+            return buildSingleSignedOperator(firstSign);
         }
     }
 
-    private boolean buildDoubleSignedOperator(char first, char second, Position position) {
-        StringBuilder operator = new StringBuilder();
-        operator.append(first).append(second);
+    private boolean buildDoubleSignedOperator(char first, char second) {
+        TokenType operator = LexerMapping.twoCharacterOperator(first, second);
         nextCharacter();
-        if (LexerMapping.twoCharacterOperatorsMap.containsKey(operator.toString())) {
+        if (operator != null) {
             nextCharacter();
-            token = new Token(position, LexerMapping.twoCharacterOperatorsMap.get(operator.toString()));
+            tokenType = operator;
             return true;
         }
         return false;
     }
 
-    private boolean buildSingleSignedOperator(char character, Position position) {
+    private boolean buildSingleSignedOperator(char character) {
         nextCharacter();
-        token = new Token(position, LexerMapping.singleCharacterOperatorsMap.get(character));
+        tokenType = LexerMapping.singleCharacterOperator(character);
         return true;
     }
 
@@ -101,7 +149,7 @@ public class Lexer {
         }
 
         int integerValue = currentChar - '0';
-        Position tokenPosition = new Position(source.getPosition());
+        startToken();
         nextCharacter();
         while (Character.isDigit(currentChar)) {
             int charValue = currentChar - '0';
@@ -110,7 +158,7 @@ public class Lexer {
             } else {
                 errorHandler.handleLexerError(new TooBigIntegerError("INTEGER IS TOO BIG!"),
                         new Position(source.getPosition()));
-                token = new ErrorToken(tokenPosition, TokenType.TOO_BIG_INTEGER_ERROR);
+                tokenType = TokenType.TOO_BIG_INTEGER_ERROR;
                 return true;
             }
             nextCharacter();
@@ -128,49 +176,76 @@ public class Lexer {
                 } else {
                     errorHandler.handleLexerError(new FloatingPointError("FLOAT NUMBER IS TOO BIG!"),
                             new Position(source.getPosition()));
-                    token = new ErrorToken(tokenPosition, TokenType.FLOATING_POINT_ERROR);
+                    tokenType = TokenType.FLOATING_POINT_ERROR;
                     return true;
                 }
                 nextCharacter();
             }
-            double totalValue = integerValue + decimalValue / Math.pow(10, decimalCounter);
-            BigDecimal toRound = new BigDecimal(Double.toString(totalValue));
-            totalValue = toRound.setScale(10, RoundingMode.HALF_UP).doubleValue();
-            token = new FloatToken(tokenPosition, totalValue);
+            tokenType = TokenType.FLOAT_VALUE;
+            buildFloat(integerValue, decimalValue, decimalCounter);
         } else {
-            token = new IntegerToken(tokenPosition, integerValue);
+            tokenType = TokenType.INTEGER_VALUE;
+            tokenInteger = integerValue;
         }
         return true;
     }
 
+    // Rounds the fraction half up to LITERAL_SCALE places and drops trailing zeros, keeping one decimal place.
+    // The few literals which do not fit in a long with that many places keep fewer of them.
+    private void buildFloat(int integerValue, long decimalValue, int decimalCounter) {
+        int scale = Math.min(decimalCounter, LITERAL_SCALE);
+        while (integerValue > Long.MAX_VALUE / POWERS_OF_TEN[scale] - 1) {
+            scale--;
+        }
+        long fraction = roundHalfUp(decimalValue, decimalCounter - scale);
+        while (scale > 1 && fraction % 10 == 0) {
+            fraction /= 10;
+            scale--;
+        }
+        if (scale == 0) {
+            scale = 1;
+        }
+        tokenUnscaled = integerValue * POWERS_OF_TEN[scale] + fraction;
+        tokenScale = scale;
+    }
+
+    private static long roundHalfUp(long value, int digits) {
+        if (digits <= 0) {
+            return value;
+        }
+        long divisor = POWERS_OF_TEN[digits];
+        return value / divisor + (value % divisor * 2 >= divisor ? 1 : 0);
+    }
+
     private boolean tryBuildIdentifier() throws Exception {
         if (!Character.isLetter(currentChar) && currentChar != '_') {
             return false;
         }
 
-        StringBuilder identifier = new StringBuilder();
-        identifier.append(currentChar);
-        Position tokenPosition = new Position(source.getPosition());
+        textLength = 0;
+        appendText(currentChar);
+        startToken();
         nextCharacter();
 
         while ((Character.isLetterOrDigit(currentChar) || currentChar == '_')
-                && identifier.length() <= CurrexLimits.MAX_IDENTIFIER_LENGTH) {
-            identifier.append(currentChar);
+                && textLength <= CurrexLimits.MAX_IDENTIFIER_LENGTH) {
+            appendText(currentChar);
             nextCharacter();
-            if (identifier.length() == CurrexLimits.MAX_IDENTIFIER_LENGTH && !source.isStreamEnd()) {
+            if (textLength == CurrexLimits.MAX_IDENTIFIER_LENGTH && !source.isStreamEnd()) {
                 errorHandler.handleLexerError(new IdentifierTooLongError("TOO LONG IDENTIFIER!"),
                         new Position(source.getPosition()));
-                token = new ErrorToken(tokenPosition, TokenType.TOO_LONG_IDENTIFIER_ERROR);
+                tokenType = TokenType.TOO_LONG_IDENTIFIER_ERROR;
                 return true;
             }
         }
 
-        String tokenValue = identifier.toString();
-        if (LexerMapping.keywordMap.containsKey(tokenValue)) {
-            token = new Token(tokenPosition, LexerMapping.keywordMap.get(tokenValue));
-        } else {
-            token = new StringToken(tokenPosition, tokenValue, TokenType.IDENTIFIER);
+        TokenType keyword = LexerMapping.keyword(text, 0, textLength);
+        if (keyword != null) {
+            tokenType = keyword;
+            return true;
         }
+        tokenSymbol = symbols.intern(text, 0, textLength);
+        tokenType = TokenType.IDENTIFIER;
         return true;
     }
 
@@ -179,28 +254,29 @@ public class Lexer {
             return false;
         }
 
-        StringBuilder stringLiteral = new StringBuilder();
-        stringLiteral.append(currentChar);
-        Position tokenPosition = new Position(source.getPosition());
+        textLength = 0;
+        appendText(currentChar);
+        startToken();
         nextCharacter();
         boolean isFinished = false;
 
         while (!isFinished) {
-            stringLiteral.append(currentChar);
-            if (stringLiteral.toString().length() > CurrexLimits.MAX_STRING_LENGTH) {
+            appendText(currentChar);
+            if (textLength > CurrexLimits.MAX_STRING_LENGTH) {
                 errorHandler.handleLexerError(new StringTooLongError("TOO LONG STRING!"),
                         new Position(source.getPosition()));
-                token = new ErrorToken(tokenPosition, TokenType.TOO_LONG_STRING_ERROR);
+                tokenType = TokenType.TOO_LONG_STRING_ERROR;
                 isFinished = true;
-            } else if (currentChar == '\"' && stringLiteral.charAt(stringLiteral.length()-2) != '\\') {
-                token = new StringToken(tokenPosition, stringLiteral.toString(), TokenType.STRING_VALUE);
+            } else if (currentChar == '\"' && text[textLength - 2] != '\\') {
+                tokenSymbol = symbols.intern(text, 0, textLength);
+                tokenType = TokenType.STRING_VALUE;
                 isFinished = true;
-            } else if (currentChar == 'n' && stringLiteral.charAt(stringLiteral.length()-2) == '\\') {
-                stringLiteral.deleteCharAt(stringLiteral.length()-1);
-                stringLiteral.deleteCharAt(stringLiteral.length()-1);
-                stringLiteral.append('\n');
-            } else if (currentChar == '\"' && stringLiteral.charAt(stringLiteral.length()-2) == '\\') {
-                stringLiteral.deleteCharAt(stringLiteral.length()-2);
+            } else if (currentChar == 'n' && text[textLength - 2] == '\\') {
+                textLength -= 2;
+                appendText('\n');
+            } else if (currentChar == '\"' && text[textLength - 2] == '\\') {
+                text[textLength - 2] = text[textLength - 1];
+                textLength--;
             }
             nextCharacter();
         }
@@ -212,26 +288,39 @@ public class Lexer {
             return false;
         }
 
-        Position tokenPosition = new Position(source.getPosition());
-        StringBuilder comment = new StringBuilder();
-        comment.append(currentChar);
+        startToken();
+        textLength = 0;
+        appendText(currentChar);
         nextCharacter();
-        comment.append(currentChar);
+        appendText(currentChar);
 
         if (currentChar == '/') {
-            while (currentChar != '\n' && currentChar != '\r' && source.Peek() != (char)-1) {
+            while (currentChar != '\n' && currentChar != '\r' && source.peek(1) != Source.EOF) {
                 nextCharacter();
-                comment.append(currentChar);
+                appendText(currentChar);
             }
-                token = new StringToken(tokenPosition, comment.toString(), TokenType.COMMENT);
+                tokenType = TokenType.COMMENT;
         } else {
-                token = new Token(tokenPosition, TokenType.SLASH);
+                tokenType = TokenType.SLASH;
         }
         return true;
     }
 
+    private void startToken() {
+        tokenStart = source.offset();
+        tokenRow = source.getPosition().getRow();
+        tokenColumn = source.getPosition().getColumn();
+    }
+
+    private void appendText(char character) {
+        if (textLength == text.length) {
+            text = Arrays.copyOf(text, text.length * 2);
+        }
+        text[textLength++] = character;
+    }
+
     private void nextCharacter() {
         source.readChar();
-        currentChar = source.getCurrentChar();
+        currentChar = source.current();
     }
 }
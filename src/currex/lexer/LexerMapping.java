@@ -52,4 +52,103 @@ public class LexerMapping {
             entry("true", TokenType.TRUE),
             entry("false", TokenType.FALSE)
     );
+
+    public static final int ASCII_SIZE = 128;
+    // character classes, a character can belong to several of them
+    public static final byte OPERATOR_START = 1;
+    public static final byte PAIR_FIRST = 2;
+    public static final byte PAIR_SECOND = 4;
+
+    private static final byte[] characterClasses = new byte[ASCII_SIZE];
+    private static final TokenType[] singleCharacterOperators = new TokenType[ASCII_SIZE];
+    // [first * ASCII_SIZE + second]
+    private static final TokenType[] twoCharacterOperators = new TokenType[ASCII_SIZE * ASCII_SIZE];
+
+    static {
+        for (Map.Entry<Character, TokenType> operator : singleCharacterOperatorsMap.entrySet()) {
+            singleCharacterOperators[operator.getKey()] = operator.getValue();
+            characterClasses[operator.getKey()] |= OPERATOR_START;
+        }
+        for (Map.Entry<String, TokenType> operator : twoCharacterOperatorsMap.entrySet()) {
+            char first = operator.getKey().charAt(0);
+            char second = operator.getKey().charAt(1);
+            twoCharacterOperators[first * ASCII_SIZE + second] = operator.getValue();
+            characterClasses[first] |= PAIR_FIRST;
+            characterClasses[second] |= PAIR_SECOND;
+        }
+        // the logical operators only exist as pairs, but a single one is still lexed as an operator (and an error)
+        characterClasses['&'] |= OPERATOR_START;
+        characterClasses['|'] |= OPERATOR_START;
+    }
+
+    public static boolean hasClass(char character, byte characterClass) {
+        return character < ASCII_SIZE && (characterClasses[character] & characterClass) != 0;
+    }
+
+    // null when the character is not an operator on its own
+    public static TokenType singleCharacterOperator(char character) {
+        return character < ASCII_SIZE ? singleCharacterOperators[character] : null;
+    }
+
+    // null when the two characters do not form an operator
+    public static TokenType twoCharacterOperator(char first, char second) {
+        return first < ASCII_SIZE && second < ASCII_SIZE ? twoCharacterOperators[first * ASCII_SIZE + second] : null;
+    }
+
+    // Keywords are found by a perfect hash of their length, first and last character. The multipliers
+    // are searched for once, so that no two keywords share a slot.
+    private static final int KEYWORD_SLOTS = 16;
+    private static final char[][] keywordNames = new char[KEYWORD_SLOTS][];
+    private static final TokenType[] keywordTypes = new TokenType[KEYWORD_SLOTS];
+    private static int firstMultiplier;
+    private static int lastMultiplier;
+
+    static {
+        search:
+        for (firstMultiplier = 1; firstMultiplier < ASCII_SIZE; firstMultiplier++) {
+            for (lastMultiplier = 0; lastMultiplier < ASCII_SIZE; lastMultiplier++) {
+                boolean[] taken = new boolean[KEYWORD_SLOTS];
+                boolean collision = false;
+                for (String keyword : keywordMap.keySet()) {
+                    int slot = keywordSlot(keyword.toCharArray(), 0, keyword.length());
+                    collision |= taken[slot];
+                    taken[slot] = true;
+                }
+                if (!collision) {
+                    break search;
+                }
+            }
+        }
+        if (firstMultiplier == ASCII_SIZE) {
+            throw new IllegalStateException("NO PERFECT HASH FOR KEYWORDS!");
+        }
+        for (Map.Entry<String, TokenType> keyword : keywordMap.entrySet()) {
+            int slot = keywordSlot(keyword.getKey().toCharArray(), 0, keyword.getKey().length());
+            keywordNames[slot] = keyword.getKey().toCharArray();
+            keywordTypes[slot] = keyword.getValue();
+        }
+    }
+
+    // null when the characters are not a keyword
+    public static TokenType keyword(char[] chars, int offset, int length) {
+        if (length == 0) {
+            return null;
+        }
+        int slot = keywordSlot(chars, offset, length);
+        char[] candidate = keywordNames[slot];
+        if (candidate == null || candidate.length != length) {
+            return null;
+        }
+        for (int i = 0; i < length; i++) {
+            if (candidate[i] != chars[offset + i]) {
+                return null;
+            }
+        }
+        return keywordTypes[slot];
+    }
+
+    private static int keywordSlot(char[] chars, int offset, int length) {
+        return (chars[offset] * firstMultiplier + chars[offset + length - 1] * lastMultiplier + length)
+                & (KEYWORD_SLOTS - 1);
+    }
 }
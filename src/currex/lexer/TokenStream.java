@@ -0,0 +1,164 @@
+package currex.lexer;
+
+import currex.token.*;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+// Tokens packed into parallel arrays, addressed by index. The payload holds the value of integer
+// tokens and the unscaled value of float tokens, identifiers and string literals hold a SymbolTable symbol.
+public class TokenStream {
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+    private static final int INITIAL_CAPACITY = 256;
+    public static final int NO_SYMBOL = -1;
+
+    private final SymbolTable symbols;
+    private int size;
+    private int[] types = new int[INITIAL_CAPACITY];
+    private int[] starts = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private int[] rows = new int[INITIAL_CAPACITY];
+    private int[] columns = new int[INITIAL_CAPACITY];
+    private long[] payloads = new long[INITIAL_CAPACITY];
+    private int[] scales = new int[INITIAL_CAPACITY];
+    private int[] symbolIds = new int[INITIAL_CAPACITY];
+
+    public TokenStream() {
+        this(new SymbolTable());
+    }
+
+    public TokenStream(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    public int add(TokenType type, int start, int length, int row, int column) {
+        if (size == types.length) {
+            grow();
+        }
+        types[size] = type.ordinal();
+        starts[size] = start;
+        lengths[size] = length;
+        rows[size] = row;
+        columns[size] = column;
+        payloads[size] = 0;
+        scales[size] = 0;
+        symbolIds[size] = NO_SYMBOL;
+        return size++;
+    }
+
+    // for tokens which were not lexed from a source, e.g. by a mocked lexer
+    public int add(Token token) {
+        Position position = token.getPosition();
+        int index = add(token.getTokenType(), -1, 0, position.getRow(), position.getColumn());
+        Object value = token.getValue();
+        if (value instanceof Integer integer) {
+            setIntValue(index, integer);
+        }
+        else if (token instanceof FloatToken number) {
+            setFloatValue(index, number.getUnscaledValue(), number.getScale());
+        }
+        else if (value instanceof String text) {
+            setSymbol(index, symbols.intern(text));
+        }
+        return index;
+    }
+
+    public void setIntValue(int index, int value) {
+        payloads[index] = value;
+    }
+
+    public void setFloatValue(int index, long unscaledValue, int scale) {
+        payloads[index] = unscaledValue;
+        scales[index] = scale;
+    }
+
+    public void setSymbol(int index, int symbol) {
+        symbolIds[index] = symbol;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public TokenType type(int index) {
+        return TOKEN_TYPES[types[index]];
+    }
+
+    public int start(int index) {
+        return starts[index];
+    }
+
+    public int length(int index) {
+        return lengths[index];
+    }
+
+    public int row(int index) {
+        return rows[index];
+    }
+
+    public int column(int index) {
+        return columns[index];
+    }
+
+    public int intValue(int index) {
+        return (int) payloads[index];
+    }
+
+    public double floatValue(int index) {
+        return FloatToken.toDouble(payloads[index], scales[index]);
+    }
+
+    // the exact value of a float literal
+    public BigDecimal decimalValue(int index) {
+        return BigDecimal.valueOf(payloads[index], scales[index]);
+    }
+
+    public int symbol(int index) {
+        return symbolIds[index];
+    }
+
+    // null for tokens without a symbol, comments are not interned
+    public String text(int index) {
+        return symbolIds[index] == NO_SYMBOL ? null : symbols.name(symbolIds[index]);
+    }
+
+    // the value Token.getValue() would return for this token
+    public Object value(int index) {
+        return switch (type(index)) {
+            case INTEGER_VALUE -> intValue(index);
+            case FLOAT_VALUE -> floatValue(index);
+            default -> text(index);
+        };
+    }
+
+    public Position position(int index) {
+        return new Position(rows[index], columns[index]);
+    }
+
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    public Token toToken(int index) {
+        TokenType type = type(index);
+        Position position = position(index);
+        return switch (type) {
+            case INTEGER_VALUE -> new IntegerToken(position, intValue(index));
+            case FLOAT_VALUE -> new FloatToken(position, payloads[index], scales[index]);
+            case IDENTIFIER, STRING_VALUE, COMMENT -> new StringToken(position, text(index), type);
+            default -> type.compareTo(TokenType.UNKNOWN) >= 0 ? new ErrorToken(position, type) : new Token(position, type);
+        };
+    }
+
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        rows = Arrays.copyOf(rows, capacity);
+        columns = Arrays.copyOf(columns, capacity);
+        payloads = Arrays.copyOf(payloads, capacity);
+        scales = Arrays.copyOf(scales, capacity);
+        symbolIds = Arrays.copyOf(symbolIds, capacity);
+    }
+}
@@ -1,16 +1,38 @@
 package currex.lexer.error;
 
+import currex.diagnostic.Diagnostic;
 import currex.token.Position;
 
+import java.util.List;
+
 public class LexerErrorHandler {
-    public LexerErrorHandler() {}
+    private final boolean reporting;
+    private final List<Diagnostic> diagnostics;
+
+    public LexerErrorHandler() {
+        this(true);
+    }
+
+    // a silent handler only throws, the caller decides what to report
+    public LexerErrorHandler(boolean reporting) {
+        this.reporting = reporting;
+        this.diagnostics = null;
+    }
+
+    // collects the errors without throwing, the lexer then returns an error token and goes on lexing
+    public LexerErrorHandler(List<Diagnostic> diagnostics) {
+        this.reporting = false;
+        this.diagnostics = diagnostics;
+    }
 
     public void handleLexerError(Exception exception, Position position) throws Exception {
-        System.out.println("An error has occured in line "
-                + position.getRow()
-                + " in column "
-                + position.getColumn() + ":\n"
-                + exception.getMessage());
+        if (reporting) {
+            System.out.println(new Diagnostic(exception, position));
+        }
+        if (diagnostics != null) {
+            diagnostics.add(new Diagnostic(exception, position));
+            return;
+        }
         throw exception;
     }
 }
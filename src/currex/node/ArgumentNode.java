@@ -0,0 +1,8 @@
+package currex.node;
+
+@FunctionalInterface
+public interface ArgumentNode {
+
+    // evaluates the argument in the caller frame and stores it in its parameter slot of the callee frame
+    void pass(NodeFrame caller, NodeFrame callee) throws Exception;
+}
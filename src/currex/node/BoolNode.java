@@ -0,0 +1,7 @@
+package currex.node;
+
+@FunctionalInterface
+public interface BoolNode {
+
+    boolean execute(NodeFrame frame) throws Exception;
+}
@@ -0,0 +1,27 @@
+package currex.node;
+
+import java.util.Map;
+
+public class CallNode {
+    private final FunctionNode callee;
+    private final ArgumentNode[] arguments;
+    private final Map<String, Integer> callerVariables;
+
+    public CallNode(FunctionNode callee, ArgumentNode[] arguments, Map<String, Integer> callerVariables) {
+        this.callee = callee;
+        this.arguments = arguments;
+        this.callerVariables = callerVariables;
+    }
+
+    // returns the frame of the finished call, its return fields hold the returned value
+    public NodeFrame execute(NodeFrame frame) throws Exception {
+        NodeFrame calleeFrame = callee.newFrame();
+        for (ArgumentNode argument : arguments) {
+            argument.pass(frame, calleeFrame);
+        }
+        calleeFrame.caller = frame;
+        calleeFrame.callerVariables = callerVariables;
+        callee.call(calleeFrame);
+        return calleeFrame;
+    }
+}
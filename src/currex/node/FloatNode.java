@@ -0,0 +1,7 @@
+package currex.node;
+
+@FunctionalInterface
+public interface FloatNode {
+
+    double execute(NodeFrame frame) throws Exception;
+}
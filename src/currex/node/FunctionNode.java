@@ -0,0 +1,43 @@
+package currex.node;
+
+import currex.interpreter.error.ErrorHandler;
+import currex.interpreter.error.InvalidReturnValueError;
+import currex.structure.primitives.PrimitiveType;
+
+public class FunctionNode {
+    private final String name;
+    private final PrimitiveType returnType;
+    private final int frameSize;
+    private final ErrorHandler errorHandler;
+    // assigned once the body is built, calls compiled before that (recursion) see the final body
+    private StatementNode body;
+
+    public FunctionNode(String name, PrimitiveType returnType, int frameSize, ErrorHandler errorHandler) {
+        this.name = name;
+        this.returnType = returnType;
+        this.frameSize = frameSize;
+        this.errorHandler = errorHandler;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public PrimitiveType getReturnType() {
+        return returnType;
+    }
+
+    public NodeFrame newFrame() {
+        return new NodeFrame(frameSize);
+    }
+
+    void setBody(StatementNode body) {
+        this.body = body;
+    }
+
+    public void call(NodeFrame frame) throws Exception {
+        if (!body.execute(frame) && returnType != PrimitiveType.NONE) {
+            errorHandler.handleInterpreterError(InvalidReturnValueError.NO_RETURN_VALUE);
+        }
+    }
+}
@@ -0,0 +1,1064 @@
+package currex.node;
+
+import currex.interpreter.CurrencyArithmetic;
+import currex.interpreter.builtin.ConversionChain;
+import currex.interpreter.builtin.Currency;
+import currex.interpreter.builtin.GetBalanceMethod;
+import currex.interpreter.builtin.GetCurrencyMethod;
+import currex.interpreter.builtin.PrintFunction;
+import currex.interpreter.error.*;
+import currex.output.OutputSink;
+import currex.structure.components.Block;
+import currex.structure.components.FunctionDefinition;
+import currex.structure.components.Parameter;
+import currex.structure.components.Program;
+import currex.structure.components.VariableSlot;
+import currex.structure.expressions.*;
+import currex.structure.primitives.*;
+import currex.structure.statements.*;
+import currex.utils.CurrexLimits;
+import currex.visitor.Visitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Builds the nodes of a single function. The operation of every node is picked here from the static
+// types of its operands, so executing a node never inspects the type of a value. Returns and names
+// declared in no enclosing scope behave as in the interpreter, see currex.compiler.FunctionCompiler.
+class FunctionNodeBuilder implements Visitor {
+    private static final String PRINT_FUNCTION_NAME = "print";
+
+    private final NodeTreeBuilder treeBuilder;
+    private final FunctionDefinition function;
+    private final CurrencyArithmetic currencies;
+    private final OutputSink printer;
+    private final ErrorHandler errorHandler;
+    private final PrimitiveType[] slotTypes;
+    private final String[] slotNames;
+    private boolean tailStatement;
+    private StatementNode statementResult;
+    private TypedNode expressionResult;
+
+    FunctionNodeBuilder(NodeTreeBuilder treeBuilder, FunctionDefinition function) {
+        this.treeBuilder = treeBuilder;
+        this.function = function;
+        this.currencies = treeBuilder.getCurrencies();
+        this.printer = treeBuilder.getPrinter();
+        this.errorHandler = treeBuilder.getErrorHandler();
+        this.slotTypes = new PrimitiveType[Math.max(function.frameSize(), function.parameters().size())];
+        this.slotNames = new String[slotTypes.length];
+    }
+
+    StatementNode build() throws Exception {
+        List<Parameter> parameters = function.parameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            slotTypes[i] = parameterType(parameters.get(i));
+            slotNames[i] = parameters.get(i).name();
+        }
+        tailStatement = true;
+        return buildBlock(function.block());
+    }
+
+    @Override
+    public void visit(Program program) {
+    }
+
+    @Override
+    public void visit(Block block) throws Exception {
+        boolean inTail = tailStatement;
+        List<Statement> statementList = block.statementList();
+        List<StatementNode> statements = new ArrayList<>(statementList.size());
+        for (int i = 0; i < statementList.size(); i++) {
+            boolean last = inTail && i == statementList.size() - 1;
+            tailStatement = last;
+            statements.add(last ? buildLastStatement(statementList.get(i)) : buildStatement(statementList.get(i)));
+        }
+        Arrays.fill(slotNames, block.scopeStart(), block.scopeEnd(), null);
+        tailStatement = inTail;
+        StatementNode[] body = statements.toArray(new StatementNode[0]);
+        // a return leaves only the innermost block, the function ends with it when nothing follows the block
+        statementResult = frame -> {
+            for (StatementNode statement : body) {
+                if (statement.execute(frame)) {
+                    return inTail;
+                }
+            }
+            return false;
+        };
+    }
+
+    @Override
+    public void visit(FunctionDefinition functionDefinition) {
+    }
+
+    @Override
+    public void visit(Parameter parameter) {
+    }
+
+    @Override
+    public void visit(DeclarationStatement declarationStatement) throws Exception {
+        TypedNode value = buildValue(declarationStatement.expression());
+        if (value.type() != declarationStatement.type()) {
+            errorHandler.handleInterpreterError(new InvalidVariableTypeError("INVALID VARIABLE OF TYPE " +
+                    value.type().name() + "!"));
+        }
+        slotTypes[declarationStatement.slot()] = declarationStatement.type();
+        slotNames[declarationStatement.slot()] = declarationStatement.name();
+        statementResult = store(declarationStatement.slot(), value);
+    }
+
+    @Override
+    public void visit(AssignmentStatement assignmentStatement) throws Exception {
+        if (assignmentStatement.left().getClass() != IdentifierExpression.class) {
+            StatementNode left = evaluate(build(assignmentStatement.left()));
+            StatementNode right = evaluate(buildValue(assignmentStatement.right()));
+            statementResult = frame -> left.execute(frame) || right.execute(frame);
+            return;
+        }
+        IdentifierExpression identifier = (IdentifierExpression) assignmentStatement.left();
+        int slot = variableSlot(identifier);
+        PrimitiveType variableType = slot == VariableSlot.UNRESOLVED ? callerType(identifier) : slotTypes[slot];
+        TypedNode value = buildValue(assignmentStatement.right());
+        if (value.type() != variableType) {
+            errorHandler.handleInterpreterError(new InvalidVariableTypeError(
+                    "VARIABLE " + identifier.name() + " WITH TYPE " + variableType +
+                            " CANNOT BE ASSIGNED WITH VALUE OF TYPE " + value.type() + "!"));
+        }
+        statementResult = slot == VariableSlot.UNRESOLVED ? storeInCaller(identifier.name(), value) : store(slot, value);
+    }
+
+    @Override
+    public void visit(ReturnStatement returnStatement) throws Exception {
+        PrimitiveType returnType = function.returnType();
+        if (returnStatement.expression() == null) {
+            // the interpreter goes on after a return without a value
+            if (returnType != PrimitiveType.NONE) {
+                errorHandler.handleInterpreterError(InvalidReturnValueError.NO_RETURN_VALUE);
+            }
+            statementResult = frame -> false;
+            return;
+        }
+        TypedNode value = build(returnStatement.expression());
+        if (returnType == PrimitiveType.NONE) {
+            StatementNode evaluation = evaluate(value);
+            statementResult = frame -> {
+                evaluation.execute(frame);
+                return true;
+            };
+            return;
+        }
+        if (value.type() != returnType) {
+            errorHandler.handleInterpreterError(new InvalidReturnValueError("INVALID RETURN TYPE, EXPECTED " +
+                    returnType.name() + " BUT GOT " + value.type().name() + " INSTEAD!"));
+        }
+        statementResult = returnValue(value);
+    }
+
+    @Override
+    public void visit(WhileStatement whileStatement) throws Exception {
+        BoolNode condition = buildCondition(whileStatement.expression());
+        tailStatement = false;
+        StatementNode body = buildBlock(whileStatement.block());
+        statementResult = frame -> {
+            while (condition.execute(frame)) {
+                if (body.execute(frame)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    @Override
+    public void visit(IfStatement ifStatement) throws Exception {
+        List<ElseStatement> elseStatements = ifStatement.conditionalStatements();
+        List<BoolNode> conditions = new ArrayList<>();
+        List<StatementNode> branches = new ArrayList<>();
+        StatementNode otherwise = null;
+        for (int i = 0; i < elseStatements.size(); i++) {
+            ElseStatement elseStatement = elseStatements.get(i);
+            if (elseStatement.expression() != null) {
+                conditions.add(buildCondition(elseStatement.expression()));
+                branches.add(buildBlock(elseStatement.block()));
+            }
+            else if (i == elseStatements.size() - 1) {
+                // a condition-less branch only runs when it is the last one
+                otherwise = buildBlock(elseStatement.block());
+            }
+        }
+        BoolNode[] branchConditions = conditions.toArray(new BoolNode[0]);
+        StatementNode[] branchBodies = branches.toArray(new StatementNode[0]);
+        StatementNode elseBody = otherwise;
+        statementResult = frame -> {
+            for (int i = 0; i < branchConditions.length; i++) {
+                if (branchConditions[i].execute(frame)) {
+                    return branchBodies[i].execute(frame);
+                }
+            }
+            return elseBody != null && elseBody.execute(frame);
+        };
+    }
+
+    @Override
+    public void visit(ElseStatement elseStatement) {
+    }
+
+    @Override
+    public void visit(OrExpression orExpression) throws Exception {
+        BoolNode left = buildLogicalOperand(orExpression.left(), "OR");
+        BoolNode right = buildLogicalOperand(orExpression.right(), "OR");
+        setResult(PrimitiveType.BOOL, (BoolNode) frame -> left.execute(frame) || right.execute(frame));
+    }
+
+    @Override
+    public void visit(AndExpression andExpression) throws Exception {
+        BoolNode left = buildLogicalOperand(andExpression.left(), "AND");
+        BoolNode right = buildLogicalOperand(andExpression.right(), "AND");
+        setResult(PrimitiveType.BOOL, (BoolNode) frame -> left.execute(frame) && right.execute(frame));
+    }
+
+    @Override
+    public void visit(GreaterExpression greaterExpression) throws Exception {
+        TypedNode left = buildValue(greaterExpression.left());
+        TypedNode right = buildValue(greaterExpression.right());
+        BoolNode node = switch (comparedType(left, right, false)) {
+            case INTEGER -> {
+                IntNode l = left.asInt(), r = right.asInt();
+                yield frame -> l.execute(frame) > r.execute(frame);
+            }
+            case FLOAT -> {
+                FloatNode l = left.asFloat(), r = right.asFloat();
+                yield frame -> l.execute(frame) > r.execute(frame);
+            }
+            default -> {
+                RefNode l = left.asRef(), r = right.asRef();
+                yield frame -> compareCurrencies(l.execute(frame), r.execute(frame)) > 0;
+            }
+        };
+        setResult(PrimitiveType.BOOL, node);
+    }
+
+    @Override
+    public void visit(LesserExpression lesserExpression) throws Exception {
+        TypedNode left = buildValue(lesserExpression.left());
+        TypedNode right = buildValue(lesserExpression.right());
+        BoolNode node = switch (comparedType(left, right, false)) {
+            case INTEGER -> {
+                IntNode l = left.asInt(), r = right.asInt();
+                yield frame -> l.execute(frame) < r.execute(frame);
+            }
+            case FLOAT -> {
+                FloatNode l = left.asFloat(), r = right.asFloat();
+                yield frame -> l.execute(frame) < r.execute(frame);
+            }
+            default -> {
+                RefNode l = left.asRef(), r = right.asRef();
+                yield frame -> compareCurrencies(l.execute(frame), r.execute(frame)) < 0;
+            }
+        };
+        setResult(PrimitiveType.BOOL, node);
+    }
+
+    @Override
+    public void visit(EqualExpression equalExpression) throws Exception {
+        setResult(PrimitiveType.BOOL, buildEquality(equalExpression.left(), equalExpression.right()));
+    }
+
+    @Override
+    public void visit(NotEqualExpression notEqualExpression) throws Exception {
+        BoolNode equality = buildEquality(notEqualExpression.left(), notEqualExpression.right());
+        setResult(PrimitiveType.BOOL, (BoolNode) frame -> !equality.execute(frame));
+    }
+
+    @Override
+    public void visit(GreaterOrEqualExpression greaterOrEqualExpression) throws Exception {
+        TypedNode left = buildValue(greaterOrEqualExpression.left());
+        TypedNode right = buildValue(greaterOrEqualExpression.right());
+        BoolNode node = switch (comparedType(left, right, false)) {
+            case INTEGER -> {
+                IntNode l = left.asInt(), r = right.asInt();
+                yield frame -> l.execute(frame) >= r.execute(frame);
+            }
+            case FLOAT -> {
+                FloatNode l = left.asFloat(), r = right.asFloat();
+                yield frame -> l.execute(frame) >= r.execute(frame);
+            }
+            default -> {
+                RefNode l = left.asRef(), r = right.asRef();
+                yield frame -> compareCurrencies(l.execute(frame), r.execute(frame)) >= 0;
+            }
+        };
+        setResult(PrimitiveType.BOOL, node);
+    }
+
+    @Override
+    public void visit(LesserOrEqualExpression lesserOrEqualExpression) throws Exception {
+        TypedNode left = buildValue(lesserOrEqualExpression.left());
+        TypedNode right = buildValue(lesserOrEqualExpression.right());
+        BoolNode node = switch (comparedType(left, right, false)) {
+            case INTEGER -> {
+                IntNode l = left.asInt(), r = right.asInt();
+                yield frame -> l.execute(frame) <= r.execute(frame);
+            }
+            case FLOAT -> {
+                FloatNode l = left.asFloat(), r = right.asFloat();
+                yield frame -> l.execute(frame) <= r.execute(frame);
+            }
+            default -> {
+                RefNode l = left.asRef(), r = right.asRef();
+                yield frame -> compareCurrencies(l.execute(frame), r.execute(frame)) <= 0;
+            }
+        };
+        setResult(PrimitiveType.BOOL, node);
+    }
+
+    @Override
+    public void visit(AdditionExpression additionExpression) throws Exception {
+        TypedNode left = buildValue(additionExpression.left());
+        TypedNode right = buildValue(additionExpression.right());
+        PrimitiveType type = arithmeticType(left, right, true, "CANNOT ADD %s TO %s!");
+        Object node = switch (type) {
+            case INTEGER -> {
+                IntNode l = left.asInt(), r = right.asInt();
+                yield (IntNode) frame -> addIntegers(l.execute(frame), r.execute(frame));
+            }
+            case FLOAT -> {
+                FloatNode l = left.asFloat(), r = right.asFloat();
+                yield (FloatNode) frame -> l.execute(frame) + r.execute(frame);
+            }
+            case STRING -> {
+                RefNode l = left.asRef(), r = right.asRef();
+                yield (RefNode) frame -> concatenate((String) l.execute(frame), (String) r.execute(frame));
+            }
+            default -> {
+                RefNode l = left.asRef(), r = right.asRef();
+                yield (RefNode) frame -> currencies.add((CurrencyPrimitive) l.execute(frame),
+                        (CurrencyPrimitive) r.execute(frame));
+            }
+        };
+        setResult(type, node);
+    }
+
+    @Override
+    public void visit(SubtractionExpression subtractionExpression) throws Exception {
+        TypedNode left = buildValue(subtractionExpression.left());
+        TypedNode right = buildValue(subtractionExpression.right());
+        PrimitiveType type = arithmeticType(left, right, false, "CANNOT SUBTRACT %s FROM %s!");
+        Object node = switch (type) {
+            case INTEGER -> {
+                IntNode l = left.asInt(), r = right.asInt();
+                yield (IntNode) frame -> l.execute(frame) - r.execute(frame);
+            }
+            case FLOAT -> {
+                FloatNode l = left.asFloat(), r = right.asFloat();
+                yield (FloatNode) frame -> l.execute(frame) - r.execute(frame);
+            }
+            default -> {
+                RefNode l = left.asRef(), r = right.asRef();
+                yield (RefNode) frame -> currencies.subtract((CurrencyPrimitive) l.execute(frame),
+                        (CurrencyPrimitive) r.execute(frame));
+            }
+        };
+        setResult(type, node);
+    }
+
+    @Override
+    public void visit(MultiplicationExpression multiplicationExpression) throws Exception {
+        TypedNode left = buildValue(multiplicationExpression.left());
+        TypedNode right = buildValue(multiplicationExpression.right());
+        PrimitiveType type = arithmeticType(left, right, false, "CANNOT MULTIPLY %s BY %s!");
+        Object node = switch (type) {
+            case INTEGER -> {
+                IntNode l = left.asInt(), r = right.asInt();
+                yield (IntNode) frame -> multiplyIntegers(l.execute(frame), r.execute(frame));
+            }
+            case FLOAT -> {
+                FloatNode l = left.asFloat(), r = right.asFloat();
+                yield (FloatNode) frame -> l.execute(frame) * r.execute(frame);
+            }
+            default -> {
+                RefNode l = left.asRef(), r = right.asRef();
+                yield (RefNode) frame -> currencies.multiply((CurrencyPrimitive) l.execute(frame),
+                        (CurrencyPrimitive) r.execute(frame));
+            }
+        };
+        setResult(type, node);
+    }
+
+    @Override
+    public void visit(DivisionExpression divisionExpression) throws Exception {
+        TypedNode left = buildValue(divisionExpression.left());
+        TypedNode right = buildValue(divisionExpression.right());
+        PrimitiveType type = arithmeticType(left, right, false, "CANNOT DIVIDE %s BY %s!");
+        Object node = switch (type) {
+            case INTEGER -> {
+                IntNode l = left.asInt(), r = right.asInt();
+                yield (IntNode) frame -> divideIntegers(l.execute(frame), r.execute(frame));
+            }
+            case FLOAT -> {
+                FloatNode l = left.asFloat(), r = right.asFloat();
+                yield (FloatNode) frame -> divideFloats(l.execute(frame), r.execute(frame));
+            }
+            default -> {
+                RefNode l = left.asRef(), r = right.asRef();
+                yield (RefNode) frame -> currencies.divide((CurrencyPrimitive) l.execute(frame),
+                        (CurrencyPrimitive) r.execute(frame));
+            }
+        };
+        setResult(type, node);
+    }
+
+    @Override
+    public void visit(CurrencyCastExpression currencyCastExpression) throws Exception {
+        RefNode value = buildCurrencyOperand(currencyCastExpression.left(),
+                "CURRENCY CASTING CANNOT BE APPLIED TO NON-CURRENCY VALUES!");
+        Expression right = currencyCastExpression.right();
+        if (right instanceof CurrencyPrimitive target && target.getCurrency() != null) {
+            Currency currency = target.getCurrency();
+            setResult(PrimitiveType.CURRENCY, (RefNode) frame ->
+                    currencies.cast((CurrencyPrimitive) value.execute(frame), currency));
+            return;
+        }
+        RefNode target = buildTargetCurrency(right);
+        setResult(PrimitiveType.CURRENCY, (RefNode) frame -> currencies.cast((CurrencyPrimitive) value.execute(frame),
+                currencies.currencyOf((CurrencyPrimitive) target.execute(frame))));
+    }
+
+    @Override
+    public void visit(CurrencyConversionExpression currencyConversionExpression) throws Exception {
+        RefNode value = buildCurrencyOperand(currencyConversionExpression.left(),
+                "CURRENCY CONVERSION CANNOT BE APPLIED TO NON-CURRENCY VALUES!");
+        Expression right = currencyConversionExpression.right();
+        if (right instanceof CurrencyPrimitive target && target.getCurrency() != null) {
+            Currency currency = target.getCurrency();
+            setResult(PrimitiveType.CURRENCY, (RefNode) frame ->
+                    currencies.convert((CurrencyPrimitive) value.execute(frame), currency));
+            return;
+        }
+        RefNode target = buildTargetCurrency(right);
+        setResult(PrimitiveType.CURRENCY, (RefNode) frame -> currencies.convert((CurrencyPrimitive) value.execute(frame),
+                currencies.currencyOf((CurrencyPrimitive) target.execute(frame))));
+    }
+
+    @Override
+    public void visit(ConversionChainExpression conversionChainExpression) throws Exception {
+        RefNode value = buildCurrencyOperand(conversionChainExpression.left(),
+                "CURRENCY CONVERSION CANNOT BE APPLIED TO NON-CURRENCY VALUES!");
+        ConversionChain chain = conversionChainExpression.chain();
+        setResult(PrimitiveType.CURRENCY, (RefNode) frame -> currencies.convert((CurrencyPrimitive) value.execute(frame), chain));
+    }
+
+    @Override
+    public void visit(NegationExpression negationExpression) throws Exception {
+        TypedNode value = buildValue(negationExpression.expression());
+        if (value.type() != PrimitiveType.BOOL) {
+            errorHandler.handleInterpreterError(new IncompatibleTypesError("NEGATION NOT POSSIBLE FOR TYPE" +
+                    value.type().name() + "!"));
+        }
+        BoolNode operand = value.asBool();
+        setResult(PrimitiveType.BOOL, (BoolNode) frame -> !operand.execute(frame));
+    }
+
+    @Override
+    public void visit(MinusExpression minusExpression) throws Exception {
+        TypedNode value = buildValue(minusExpression.expression());
+        Object node = switch (value.type()) {
+            case INTEGER -> {
+                IntNode operand = value.asInt();
+                yield (IntNode) frame -> -operand.execute(frame);
+            }
+            case FLOAT -> {
+                FloatNode operand = value.asFloat();
+                yield (FloatNode) frame -> -operand.execute(frame);
+            }
+            case CURRENCY -> {
+                RefNode operand = value.asRef();
+                yield (RefNode) frame -> currencies.negate((CurrencyPrimitive) operand.execute(frame));
+            }
+            default -> null;
+        };
+        if (node == null) {
+            errorHandler.handleInterpreterError(new IncompatibleTypesError("NEGATION NOT POSSIBLE FOR TYPE" +
+                    value.type().name() + "!"));
+        }
+        setResult(value.type(), node);
+    }
+
+    @Override
+    public void visit(AccessExpression accessExpression) throws Exception {
+        TypedNode value = buildValue(accessExpression.left());
+        if (value.type() != PrimitiveType.CURRENCY) {
+            errorHandler.handleInterpreterError(new InvalidVariableTypeError("METHODS ARE NOT APPLICABLE TO NON-CURRENCY VALUES!"));
+        }
+        if (accessExpression.right().getClass() != FunctionCallExpression.class) {
+            errorHandler.handleInterpreterError(new InvalidMethodCallError("ONLY METHOD CALLS ARE ALLOWED!"));
+        }
+        RefNode currency = value.asRef();
+        String methodName = ((FunctionCallExpression) accessExpression.right()).name();
+        switch (methodName) {
+            case "getBalance" -> setResult(PrimitiveType.FLOAT, (FloatNode) frame ->
+                    ((CurrencyPrimitive) currency.execute(frame)).getValue().doubleValue());
+            case "getCurrency" -> setResult(PrimitiveType.STRING, (RefNode) frame ->
+                    ((CurrencyPrimitive) currency.execute(frame)).getName());
+            default -> errorHandler.handleInterpreterError(new FunctionDoesNotExistError(
+                    "METHOD WITH NAME " + methodName + " DOES NOT EXIST!"));
+        }
+    }
+
+    @Override
+    public void visit(FunctionCallExpression functionCallExpression) throws Exception {
+        List<Expression> arguments = functionCallExpression.arguments();
+        FunctionDefinition callee = treeBuilder.getFunctionDefinition(functionCallExpression.name());
+        if (callee == null && functionCallExpression.name().equals(PRINT_FUNCTION_NAME) && arguments.size() == 1) {
+            RefNode text = toText(buildValue(arguments.get(0)));
+            setResult(PrimitiveType.NONE, (RefNode) frame -> {
+                printer.println(String.valueOf(text.execute(frame)));
+                return null;
+            });
+            return;
+        }
+        if (callee == null) {
+            errorHandler.handleInterpreterError(new FunctionDoesNotExistError("NO FUNCTION WITH THIS NAME ERROR"));
+        }
+        if (callee.parameters().size() != arguments.size()) {
+            errorHandler.handleInterpreterError(new InvalidFunctionCallError(
+                    "INVALID NUMBER OF ARGUMENTS FOR FUNCTION " +
+                            callee.name() +
+                            " EXPECTED: " + callee.parameters().size() +
+                            " BUT RECEIVED: " + arguments.size() + "!"
+            ));
+        }
+        ArgumentNode[] argumentNodes = new ArgumentNode[arguments.size()];
+        for (int i = 0; i < arguments.size(); i++) {
+            Parameter parameter = callee.parameters().get(i);
+            TypedNode argument = buildValue(arguments.get(i));
+            if (parameter.type() == PrimitiveType.NONE) {
+                argument = new TypedNode(PrimitiveType.STRING, toText(argument));
+            }
+            else if (argument.type() != parameter.type()) {
+                errorHandler.handleInterpreterError(new InvalidVariableTypeError("INVALID TYPE PROVIDED FOR PARAMETER " +
+                        parameter.name()));
+            }
+            argumentNodes[i] = pass(i, argument);
+        }
+        CallNode call = new CallNode(treeBuilder.function(callee), argumentNodes,
+                liveSlots(treeBuilder.getCallerVariables().names()));
+        Object node = switch (callee.returnType()) {
+            case INTEGER -> (IntNode) frame -> call.execute(frame).returnInt;
+            case BOOL -> (BoolNode) frame -> call.execute(frame).returnInt != 0;
+            case FLOAT -> (FloatNode) frame -> call.execute(frame).returnFloat;
+            case NONE -> (RefNode) frame -> {
+                call.execute(frame);
+                return null;
+            };
+            default -> (RefNode) frame -> call.execute(frame).returnRef;
+        };
+        setResult(callee.returnType(), node);
+    }
+
+    @Override
+    public void visit(IdentifierExpression identifierExpression) throws Exception {
+        int slot = variableSlot(identifierExpression);
+        if (slot == VariableSlot.UNRESOLVED) {
+            PrimitiveType type = callerType(identifierExpression);
+            setResult(type, loadFromCaller(identifierExpression.name(), type));
+            return;
+        }
+        setResult(slotTypes[slot], load(slot, slotTypes[slot]));
+    }
+
+    @Override
+    public void visit(IntPrimitive intPrimitive) {
+        int value = intPrimitive.value();
+        setResult(PrimitiveType.INTEGER, (IntNode) frame -> value);
+    }
+
+    @Override
+    public void visit(FloatPrimitive floatPrimitive) {
+        double value = floatPrimitive.value();
+        setResult(PrimitiveType.FLOAT, (FloatNode) frame -> value);
+    }
+
+    @Override
+    public void visit(StringPrimitive stringPrimitive) {
+        String value = stringPrimitive.value();
+        setResult(PrimitiveType.STRING, (RefNode) frame -> value);
+    }
+
+    @Override
+    public void visit(BoolPrimitive boolPrimitive) {
+        boolean value = boolPrimitive.value();
+        setResult(PrimitiveType.BOOL, (BoolNode) frame -> value);
+    }
+
+    @Override
+    public void visit(CurrencyPrimitive currencyPrimitive) {
+        setResult(PrimitiveType.CURRENCY, (RefNode) frame -> currencyPrimitive);
+    }
+
+    @Override
+    public void visit(PrintFunction printFunction) {
+    }
+
+    @Override
+    public void visit(GetBalanceMethod getBalanceMethod) {
+    }
+
+    @Override
+    public void visit(GetCurrencyMethod getCurrencyMethod) {
+    }
+
+    private StatementNode buildBlock(Block block) throws Exception {
+        block.accept(this);
+        return statementResult;
+    }
+
+    // the value left by the last statement is the result of a function which runs off its end
+    private StatementNode buildLastStatement(Statement statement) throws Exception {
+        PrimitiveType returnType = function.returnType();
+        if (returnType != PrimitiveType.NONE && statement instanceof Expression expression) {
+            TypedNode value = build(expression);
+            return value.type() == returnType ? returnValue(value) : evaluate(value);
+        }
+        StatementNode node = buildStatement(statement);
+        if (returnType != PrimitiveType.NONE && statement instanceof DeclarationStatement declaration &&
+                declaration.type() == returnType) {
+            StatementNode returned = returnValue(new TypedNode(returnType, load(declaration.slot(), returnType)));
+            return frame -> {
+                node.execute(frame);
+                return returned.execute(frame);
+            };
+        }
+        return node;
+    }
+
+    private StatementNode buildStatement(Statement statement) throws Exception {
+        if (statement instanceof Expression expression) {
+            return evaluate(build(expression));
+        }
+        statement.accept(this);
+        return statementResult;
+    }
+
+    private TypedNode build(Expression expression) throws Exception {
+        expression.accept(this);
+        return expressionResult;
+    }
+
+    private TypedNode buildValue(Expression expression) throws Exception {
+        TypedNode value = build(expression);
+        if (value.type() == PrimitiveType.NONE) {
+            errorHandler.handleInterpreterError(new InvalidReturnValueError(
+                    "CANNOT ASSIGN A VALUE FROM FUNCTION WITHOUT A RETURN VALUE!"));
+        }
+        return value;
+    }
+
+    private BoolNode buildCondition(Expression condition) throws Exception {
+        TypedNode value = buildValue(condition);
+        if (value.type() != PrimitiveType.BOOL) {
+            errorHandler.handleInterpreterError(new InvalidBoolValueError(
+                    "EVALUATED EXPRESSION DOES NOT GIVE A BOOL VALUE!"));
+        }
+        return value.asBool();
+    }
+
+    private BoolNode buildLogicalOperand(Expression operand, String operator) throws Exception {
+        TypedNode value = buildValue(operand);
+        if (value.type() != PrimitiveType.BOOL) {
+            errorHandler.handleInterpreterError(new InvalidBoolValueError(operator + " STATEMENT CANNOT BE EVALUATED!"));
+        }
+        return value.asBool();
+    }
+
+    private BoolNode buildEquality(Expression leftExpression, Expression rightExpression) throws Exception {
+        TypedNode left = buildValue(leftExpression);
+        TypedNode right = buildValue(rightExpression);
+        return switch (comparedType(left, right, true)) {
+            case INTEGER -> {
+                IntNode l = left.asInt(), r = right.asInt();
+                yield frame -> l.execute(frame) == r.execute(frame);
+            }
+            case BOOL -> {
+                BoolNode l = left.asBool(), r = right.asBool();
+                yield frame -> l.execute(frame) == r.execute(frame);
+            }
+            case FLOAT -> {
+                FloatNode l = left.asFloat(), r = right.asFloat();
+                yield frame -> Double.valueOf(l.execute(frame)).equals(r.execute(frame));
+            }
+            case CURRENCY -> {
+                RefNode l = left.asRef(), r = right.asRef();
+                yield frame -> currencies.equal((CurrencyPrimitive) l.execute(frame), (CurrencyPrimitive) r.execute(frame));
+            }
+            default -> {
+                RefNode l = left.asRef(), r = right.asRef();
+                yield frame -> l.execute(frame).equals(r.execute(frame));
+            }
+        };
+    }
+
+    private RefNode buildCurrencyOperand(Expression operand, String nonCurrencyMessage) throws Exception {
+        TypedNode value = buildValue(operand);
+        if (value.type() != PrimitiveType.CURRENCY) {
+            errorHandler.handleInterpreterError(new IncompatibleTypesError(nonCurrencyMessage));
+        }
+        return value.asRef();
+    }
+
+    private RefNode buildTargetCurrency(Expression target) throws Exception {
+        if (target instanceof StringPrimitive name) {
+            errorHandler.handleInterpreterError(new InvalidCurrencyNameError("CURRENCY " +
+                    name.value() + " IS NOT CORRECT"));
+        }
+        TypedNode value = buildValue(target);
+        if (value.type() == PrimitiveType.STRING) {
+            // no string names a currency, the interpreter reports the value once it is computed
+            RefNode name = value.asRef();
+            return frame -> {
+                errorHandler.handleInterpreterError(new InvalidCurrencyNameError("CURRENCY " +
+                        name.execute(frame) + " IS NOT CORRECT"));
+                return null;
+            };
+        }
+        if (value.type() != PrimitiveType.CURRENCY) {
+            errorHandler.handleInterpreterError(new InvalidCurrencyNameError(
+                    "CONVERTION VALUE CANNOT BE OF TYPE " + value.type().name()));
+        }
+        return value.asRef();
+    }
+
+    private PrimitiveType comparedType(TypedNode left, TypedNode right, boolean equality) throws Exception {
+        PrimitiveType type = left.type();
+        boolean comparable = type == right.type() && (equality ||
+                type == PrimitiveType.INTEGER || type == PrimitiveType.FLOAT || type == PrimitiveType.CURRENCY);
+        if (!comparable) {
+            errorHandler.handleInterpreterError(new IncompatibleTypesError("TYPE " + left.type() +
+                    " CANNOT BE COMPARED WITH TYPE " + right.type() + "!"));
+        }
+        return type;
+    }
+
+    private PrimitiveType arithmeticType(TypedNode left, TypedNode right, boolean allowStrings,
+                                         String errorFormat) throws Exception {
+        PrimitiveType type = left.type();
+        boolean supported = type == PrimitiveType.INTEGER || type == PrimitiveType.FLOAT ||
+                type == PrimitiveType.CURRENCY || (allowStrings && type == PrimitiveType.STRING);
+        if (type != right.type() || !supported) {
+            errorHandler.handleInterpreterError(new IncompatibleTypesError(
+                    String.format(errorFormat, left.type().name(), right.type().name())));
+        }
+        return type;
+    }
+
+    // slot of a variable of this function, a name outside of its scope can still be live after inlining
+    private int variableSlot(IdentifierExpression identifier) {
+        if (identifier.slot() != VariableSlot.UNRESOLVED) {
+            return identifier.slot();
+        }
+        for (int slot = slotNames.length - 1; slot >= 0; slot--) {
+            if (identifier.name().equals(slotNames[slot])) {
+                return slot;
+            }
+        }
+        return VariableSlot.UNRESOLVED;
+    }
+
+    private PrimitiveType callerType(IdentifierExpression identifier) throws Exception {
+        Set<PrimitiveType> types = treeBuilder.getCallerVariables().typesOf(function.name(), identifier.name());
+        if (types.isEmpty()) {
+            errorHandler.handleInterpreterError(new VariableDoesNotExistError(
+                    "VARIABLE " + identifier.name() + " DOES NOT EXIST IN ANY CONTEXT!"));
+        }
+        if (types.size() > 1) {
+            errorHandler.handleInterpreterError(new InvalidVariableTypeError(
+                    "VARIABLE " + identifier.name() + " READ BY FUNCTION " + function.name() +
+                            " HAS DIFFERENT TYPES IN ITS CALLERS, THE NODES ENGINE CANNOT RUN IT!"));
+        }
+        return types.iterator().next();
+    }
+
+    // the innermost live slot of each of the names, as the interpreter finds them in a frame
+    private Map<String, Integer> liveSlots(Set<String> names) {
+        Map<String, Integer> slots = new LinkedHashMap<>();
+        for (int slot = slotNames.length - 1; slot >= 0; slot--) {
+            if (slotNames[slot] != null && names.contains(slotNames[slot])) {
+                slots.putIfAbsent(slotNames[slot], slot);
+            }
+        }
+        return slots.isEmpty() ? Map.of() : slots;
+    }
+
+    // the frame called by the nearest caller with a live variable of the name
+    private NodeFrame calledBy(NodeFrame frame, String name) throws Exception {
+        for (NodeFrame callee = frame; callee.caller != null; callee = callee.caller) {
+            if (callee.callerVariables.containsKey(name)) {
+                return callee;
+            }
+        }
+        errorHandler.handleInterpreterError(new VariableDoesNotExistError(
+                "VARIABLE " + name + " DOES NOT EXIST IN ANY CONTEXT!"));
+        return null;
+    }
+
+    private Object load(int slot, PrimitiveType type) {
+        return switch (type) {
+            case INTEGER -> (IntNode) frame -> frame.ints[slot];
+            case BOOL -> (BoolNode) frame -> frame.ints[slot] != 0;
+            case FLOAT -> (FloatNode) frame -> frame.floats[slot];
+            default -> (RefNode) frame -> frame.refs[slot];
+        };
+    }
+
+    private Object loadFromCaller(String name, PrimitiveType type) {
+        return switch (type) {
+            case INTEGER -> (IntNode) frame -> {
+                NodeFrame called = calledBy(frame, name);
+                return called.caller.ints[called.callerVariables.get(name)];
+            };
+            case BOOL -> (BoolNode) frame -> {
+                NodeFrame called = calledBy(frame, name);
+                return called.caller.ints[called.callerVariables.get(name)] != 0;
+            };
+            case FLOAT -> (FloatNode) frame -> {
+                NodeFrame called = calledBy(frame, name);
+                return called.caller.floats[called.callerVariables.get(name)];
+            };
+            default -> (RefNode) frame -> {
+                NodeFrame called = calledBy(frame, name);
+                return called.caller.refs[called.callerVariables.get(name)];
+            };
+        };
+    }
+
+    private StatementNode storeInCaller(String name, TypedNode value) {
+        return switch (value.type()) {
+            case INTEGER -> {
+                IntNode node = value.asInt();
+                yield frame -> {
+                    int result = node.execute(frame);
+                    NodeFrame called = calledBy(frame, name);
+                    called.caller.ints[called.callerVariables.get(name)] = result;
+                    return false;
+                };
+            }
+            case BOOL -> {
+                BoolNode node = value.asBool();
+                yield frame -> {
+                    int result = node.execute(frame) ? 1 : 0;
+                    NodeFrame called = calledBy(frame, name);
+                    called.caller.ints[called.callerVariables.get(name)] = result;
+                    return false;
+                };
+            }
+            case FLOAT -> {
+                FloatNode node = value.asFloat();
+                yield frame -> {
+                    double result = node.execute(frame);
+                    NodeFrame called = calledBy(frame, name);
+                    called.caller.floats[called.callerVariables.get(name)] = result;
+                    return false;
+                };
+            }
+            default -> {
+                RefNode node = value.asRef();
+                yield frame -> {
+                    Object result = node.execute(frame);
+                    NodeFrame called = calledBy(frame, name);
+                    called.caller.refs[called.callerVariables.get(name)] = result;
+                    return false;
+                };
+            }
+        };
+    }
+
+    private StatementNode returnValue(TypedNode value) {
+        return switch (function.returnType()) {
+            case INTEGER -> {
+                IntNode node = value.asInt();
+                yield frame -> {
+                    frame.returnInt = node.execute(frame);
+                    return true;
+                };
+            }
+            case BOOL -> {
+                BoolNode node = value.asBool();
+                yield frame -> {
+                    frame.returnInt = node.execute(frame) ? 1 : 0;
+                    return true;
+                };
+            }
+            case FLOAT -> {
+                FloatNode node = value.asFloat();
+                yield frame -> {
+                    frame.returnFloat = node.execute(frame);
+                    return true;
+                };
+            }
+            default -> {
+                RefNode node = value.asRef();
+                yield frame -> {
+                    frame.returnRef = node.execute(frame);
+                    return true;
+                };
+            }
+        };
+    }
+
+    private StatementNode store(int slot, TypedNode value) {
+        return switch (value.type()) {
+            case INTEGER -> {
+                IntNode node = value.asInt();
+                yield frame -> {
+                    frame.ints[slot] = node.execute(frame);
+                    return false;
+                };
+            }
+            case BOOL -> {
+                BoolNode node = value.asBool();
+                yield frame -> {
+                    frame.ints[slot] = node.execute(frame) ? 1 : 0;
+                    return false;
+                };
+            }
+            case FLOAT -> {
+                FloatNode node = value.asFloat();
+                yield frame -> {
+                    frame.floats[slot] = node.execute(frame);
+                    return false;
+                };
+            }
+            default -> {
+                RefNode node = value.asRef();
+                yield frame -> {
+                    frame.refs[slot] = node.execute(frame);
+                    return false;
+                };
+            }
+        };
+    }
+
+    private ArgumentNode pass(int slot, TypedNode value) {
+        return switch (value.type()) {
+            case INTEGER -> {
+                IntNode node = value.asInt();
+                yield (caller, callee) -> callee.ints[slot] = node.execute(caller);
+            }
+            case BOOL -> {
+                BoolNode node = value.asBool();
+                yield (caller, callee) -> callee.ints[slot] = node.execute(caller) ? 1 : 0;
+            }
+            case FLOAT -> {
+                FloatNode node = value.asFloat();
+                yield (caller, callee) -> callee.floats[slot] = node.execute(caller);
+            }
+            default -> {
+                RefNode node = value.asRef();
+                yield (caller, callee) -> callee.refs[slot] = node.execute(caller);
+            }
+        };
+    }
+
+    private StatementNode evaluate(TypedNode value) {
+        return switch (value.type()) {
+            case INTEGER -> {
+                IntNode node = value.asInt();
+                yield frame -> {
+                    node.execute(frame);
+                    return false;
+                };
+            }
+            case BOOL -> {
+                BoolNode node = value.asBool();
+                yield frame -> {
+                    node.execute(frame);
+                    return false;
+                };
+            }
+            case FLOAT -> {
+                FloatNode node = value.asFloat();
+                yield frame -> {
+                    node.execute(frame);
+                    return false;
+                };
+            }
+            default -> {
+                RefNode node = value.asRef();
+                yield frame -> {
+                    node.execute(frame);
+                    return false;
+                };
+            }
+        };
+    }
+
+    private RefNode toText(TypedNode value) {
+        return switch (value.type()) {
+            case INTEGER -> {
+                IntNode node = value.asInt();
+                yield frame -> Integer.toString(node.execute(frame));
+            }
+            case BOOL -> {
+                BoolNode node = value.asBool();
+                yield frame -> Boolean.toString(node.execute(frame));
+            }
+            case FLOAT -> {
+                FloatNode node = value.asFloat();
+                yield frame -> Double.toString(node.execute(frame));
+            }
+            default -> {
+                RefNode node = value.asRef();
+                yield frame -> node.execute(frame).toString();
+            }
+        };
+    }
+
+    private void setResult(PrimitiveType type, Object node) {
+        expressionResult = new TypedNode(type, node);
+    }
+
+    private int addIntegers(int left, int right) throws Exception {
+        if (CurrexLimits.INTEGER_MAX_VALUE - left < right) {
+            errorHandler.handleInterpreterError(OverflowError.INTEGER_TOO_BIG);
+        }
+        return left + right;
+    }
+
+    private int multiplyIntegers(int left, int right) throws Exception {
+        if (left != 0 && CurrexLimits.INTEGER_MAX_VALUE / left < right) {
+            errorHandler.handleInterpreterError(OverflowError.INTEGER_TOO_BIG);
+        }
+        return left * right;
+    }
+
+    private int divideIntegers(int left, int right) throws Exception {
+        if (right == 0) {
+            errorHandler.handleInterpreterError(ZeroDivisionError.DIVISION_BY_ZERO);
+        }
+        return left / right;
+    }
+
+    private double divideFloats(double left, double right) throws Exception {
+        if (right == 0.0) {
+            errorHandler.handleInterpreterError(ZeroDivisionError.DIVISION_BY_ZERO);
+        }
+        return left / right;
+    }
+
+    private int compareCurrencies(Object left, Object right) throws Exception {
+        return currencies.compare((CurrencyPrimitive) left, (CurrencyPrimitive) right);
+    }
+
+    private static String concatenate(String left, String right) {
+        return left.substring(0, left.length() - 1) + right.substring(1);
+    }
+
+    private static PrimitiveType parameterType(Parameter parameter) {
+        // untyped parameters receive the printed form of their argument
+        return parameter.type() == PrimitiveType.NONE ? PrimitiveType.STRING : parameter.type();
+    }
+}
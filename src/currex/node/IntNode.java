@@ -0,0 +1,7 @@
+package currex.node;
+
+@FunctionalInterface
+public interface IntNode {
+
+    int execute(NodeFrame frame) throws Exception;
+}
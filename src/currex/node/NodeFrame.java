@@ -0,0 +1,23 @@
+package currex.node;
+
+import java.util.Map;
+
+// Variables of a single call, stored in the bank of their type under their resolved slot.
+// BOOL values are kept in the int bank as 0 and 1.
+public class NodeFrame {
+    final int[] ints;
+    final double[] floats;
+    final Object[] refs;
+    int returnInt;
+    double returnFloat;
+    Object returnRef;
+    // the calling frame and the slots of its variables live at the call, which callees read by name
+    NodeFrame caller;
+    Map<String, Integer> callerVariables = Map.of();
+
+    public NodeFrame(int size) {
+        this.ints = new int[size];
+        this.floats = new double[size];
+        this.refs = new Object[size];
+    }
+}
@@ -0,0 +1,55 @@
+package currex.node;
+
+import currex.interpreter.CurrencyArithmetic;
+import currex.interpreter.Interpretable;
+import currex.interpreter.builtin.ConversionTable;
+import currex.interpreter.error.ErrorHandler;
+import currex.interpreter.error.InterpreterErrorHandler;
+import currex.optimizer.Optimizer;
+import currex.output.OutputSink;
+import currex.output.PrintStreamSink;
+import currex.resolver.ProgramResolver;
+import currex.structure.components.Program;
+
+import java.io.PrintStream;
+
+// Builds the program into a tree of typed executable nodes once and runs it from main
+public class NodeInterpreter implements Interpretable {
+    private final ConversionTable conversionTable;
+    private final OutputSink printer;
+    private final CurrencyArithmetic currencies;
+    private final ErrorHandler errorHandler;
+    private final boolean optimizing;
+
+    public NodeInterpreter(ConversionTable conversionTable, PrintStream printer) {
+        this(conversionTable, printer, new CurrencyArithmetic(conversionTable));
+    }
+
+    public NodeInterpreter(ConversionTable conversionTable, PrintStream printer, CurrencyArithmetic currencies) {
+        this(conversionTable, new PrintStreamSink(printer), currencies, new InterpreterErrorHandler(), true);
+    }
+
+    public NodeInterpreter(ConversionTable conversionTable, OutputSink printer, CurrencyArithmetic currencies,
+                           ErrorHandler errorHandler, boolean optimizing) {
+        this.conversionTable = conversionTable;
+        this.printer = printer;
+        this.currencies = currencies;
+        this.errorHandler = errorHandler;
+        this.optimizing = optimizing;
+    }
+
+    @Override
+    public void run(Program program) throws Exception {
+        try {
+            Program resolvedProgram = new ProgramResolver(conversionTable, errorHandler).resolve(program);
+            if (optimizing) {
+                resolvedProgram = new Optimizer(conversionTable, currencies.isFixedPoint(),
+                        currencies.isFusedRounding()).optimize(resolvedProgram);
+            }
+            FunctionNode main = new NodeTreeBuilder(currencies, printer, errorHandler).build(resolvedProgram);
+            main.call(main.newFrame());
+        } finally {
+            printer.flush();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package currex.node;
+
+import currex.interpreter.CurrencyArithmetic;
+import currex.interpreter.error.ErrorHandler;
+import currex.interpreter.error.InterpreterErrorHandler;
+import currex.interpreter.error.InvalidFunctionCallError;
+import currex.interpreter.error.MainFunctionNotDefinedError;
+import currex.output.OutputSink;
+import currex.resolver.CallerVariables;
+import currex.structure.components.FunctionDefinition;
+import currex.structure.components.Program;
+import currex.utils.CurrexConfig;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Turns a resolved program into executable nodes. Like currex.compiler.Compiler it builds functions
+// depth first from main, the first time a call to them is built.
+public class NodeTreeBuilder {
+    private final CurrencyArithmetic currencies;
+    private final OutputSink printer;
+    private final ErrorHandler errorHandler;
+    private final Map<String, FunctionDefinition> functionDefinitions = new HashMap<>();
+    private final Map<String, FunctionNode> functions = new HashMap<>();
+    private CallerVariables callerVariables;
+
+    public NodeTreeBuilder(CurrencyArithmetic currencies, OutputSink printer) {
+        this(currencies, printer, new InterpreterErrorHandler());
+    }
+
+    public NodeTreeBuilder(CurrencyArithmetic currencies, OutputSink printer, ErrorHandler errorHandler) {
+        this.currencies = currencies;
+        this.printer = printer;
+        this.errorHandler = errorHandler;
+    }
+
+    public FunctionNode build(Program program) throws Exception {
+        functionDefinitions.putAll(program.functionDefinitions());
+        callerVariables = new CallerVariables(program);
+        FunctionDefinition main = functionDefinitions.get(CurrexConfig.MAIN_FUNCTION_NAME);
+        if (main == null) {
+            errorHandler.handleInterpreterError(new MainFunctionNotDefinedError("MAIN FUNCTION WAS NOT DEFINED!"));
+        }
+        else if (!main.parameters().isEmpty()) {
+            errorHandler.handleInterpreterError(new InvalidFunctionCallError(
+                    "INVALID NUMBER OF ARGUMENTS FOR FUNCTION " + main.name() +
+                            " EXPECTED: " + main.parameters().size() + " BUT RECEIVED: 0!"));
+        }
+        return function(main);
+    }
+
+    FunctionDefinition getFunctionDefinition(String name) {
+        return functionDefinitions.get(name);
+    }
+
+    FunctionNode function(FunctionDefinition functionDefinition) throws Exception {
+        FunctionNode function = functions.get(functionDefinition.name());
+        if (function == null) {
+            function = new FunctionNode(functionDefinition.name(), functionDefinition.returnType(),
+                    Math.max(functionDefinition.frameSize(), functionDefinition.parameters().size()), errorHandler);
+            functions.put(functionDefinition.name(), function);
+            function.setBody(new FunctionNodeBuilder(this, functionDefinition).build());
+        }
+        return function;
+    }
+
+    CallerVariables getCallerVariables() {
+        return callerVariables;
+    }
+
+    CurrencyArithmetic getCurrencies() {
+        return currencies;
+    }
+
+    ErrorHandler getErrorHandler() {
+        return errorHandler;
+    }
+
+    OutputSink getPrinter() {
+        return printer;
+    }
+}
@@ -0,0 +1,7 @@
+package currex.node;
+
+@FunctionalInterface
+public interface RefNode {
+
+    Object execute(NodeFrame frame) throws Exception;
+}
@@ -0,0 +1,8 @@
+package currex.node;
+
+@FunctionalInterface
+public interface StatementNode {
+
+    // returns true when a return statement was executed and the function has to exit
+    boolean execute(NodeFrame frame) throws Exception;
+}
@@ -0,0 +1,24 @@
+package currex.node;
+
+import currex.structure.primitives.PrimitiveType;
+
+// An expression node together with its static type, node is an IntNode for INTEGER, a BoolNode for BOOL,
+// a FloatNode for FLOAT and a RefNode for STRING, CURRENCY and calls of functions without a return value
+record TypedNode(PrimitiveType type, Object node) {
+
+    IntNode asInt() {
+        return (IntNode) node;
+    }
+
+    FloatNode asFloat() {
+        return (FloatNode) node;
+    }
+
+    BoolNode asBool() {
+        return (BoolNode) node;
+    }
+
+    RefNode asRef() {
+        return (RefNode) node;
+    }
+}
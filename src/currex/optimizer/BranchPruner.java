@@ -0,0 +1,73 @@
+package currex.optimizer;
+
+import currex.structure.components.Block;
+import currex.structure.primitives.BoolPrimitive;
+import currex.structure.statements.ElseStatement;
+import currex.structure.statements.IfStatement;
+import currex.structure.statements.ReturnStatement;
+import currex.structure.statements.Statement;
+import currex.structure.statements.WhileStatement;
+import currex.visitor.RewritingVisitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Removes code which can never run once conditions are folded: branches whose condition is false, the
+// branches after one whose condition is true, loops whose condition is false and the statements after a
+// return in the same block. A return without a value does not end a block in the interpreter, so only
+// returns of a value cut a block short. A true branch stays a block of its own, keeping its scope.
+public class BranchPruner extends RewritingVisitor {
+
+    @Override
+    public void visit(Block block) throws Exception {
+        List<Statement> statements = new ArrayList<>(block.statementList().size());
+        for (Statement statement : block.statementList()) {
+            Statement rewritten = rewrite(statement);
+            if (rewritten != null) {
+                statements.add(rewritten);
+            }
+            if (rewritten instanceof ReturnStatement returnStatement && returnStatement.expression() != null) {
+                break;
+            }
+        }
+        setResult(new Block(statements, block.scopeStart(), block.scopeEnd()));
+    }
+
+    @Override
+    public void visit(IfStatement ifStatement) throws Exception {
+        List<ElseStatement> elseStatements = ifStatement.conditionalStatements();
+        List<ElseStatement> branches = new ArrayList<>(elseStatements.size());
+        for (int i = 0; i < elseStatements.size(); i++) {
+            ElseStatement elseStatement = elseStatements.get(i);
+            if (elseStatement.expression() == null) {
+                // a condition-less branch only runs when it is the last one
+                if (i == elseStatements.size() - 1) {
+                    branches.add(new ElseStatement(null, rewrite(elseStatement.block())));
+                }
+                continue;
+            }
+            ElseStatement rewritten = new ElseStatement(rewrite(elseStatement.expression()),
+                    rewrite(elseStatement.block()));
+            if (!(rewritten.expression() instanceof BoolPrimitive condition)) {
+                branches.add(rewritten);
+            }
+            else if (condition.value()) {
+                branches.add(new ElseStatement(null, rewritten.block()));
+                break;
+            }
+        }
+        setResult(branches.isEmpty() ? null : new IfStatement(branches));
+    }
+
+    @Override
+    public void visit(WhileStatement whileStatement) throws Exception {
+        WhileStatement rewritten = new WhileStatement(rewrite(whileStatement.expression()),
+                rewrite(whileStatement.block()));
+        if (rewritten.expression() instanceof BoolPrimitive condition && !condition.value()) {
+            setResult(null);
+        }
+        else {
+            setResult(rewritten);
+        }
+    }
+}
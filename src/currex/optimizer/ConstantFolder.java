@@ -0,0 +1,305 @@
+package currex.optimizer;
+
+import currex.interpreter.CurrencyArithmetic;
+import currex.structure.expressions.*;
+import currex.structure.primitives.*;
+import currex.utils.CurrexLimits;
+import currex.visitor.RewritingVisitor;
+
+// Replaces operators whose operands are all literals with the literal they evaluate to, computed exactly
+// as the engines compute it, currencies with the CurrencyArithmetic of the run. Operations which fail at
+// runtime (overflow, division by zero, unknown currencies) are left in place so they fail when executed,
+// and so are float comparisons of NaN and signed zeros, where the engines disagree.
+public class ConstantFolder extends RewritingVisitor {
+    private final CurrencyArithmetic currencies;
+
+    // currencies reports nothing, a failed operation only keeps the expression
+    public ConstantFolder(CurrencyArithmetic currencies) {
+        this.currencies = currencies;
+    }
+
+    @Override
+    public void visit(OrExpression orExpression) throws Exception {
+        Expression left = rewrite(orExpression.left());
+        Expression right = rewrite(orExpression.right());
+        if (left instanceof BoolPrimitive leftBool && (leftBool.value() || right instanceof BoolPrimitive)) {
+            setResult(leftBool.value() ? leftBool : right);
+        }
+        else {
+            setResult(new OrExpression(left, right));
+        }
+    }
+
+    @Override
+    public void visit(AndExpression andExpression) throws Exception {
+        Expression left = rewrite(andExpression.left());
+        Expression right = rewrite(andExpression.right());
+        if (left instanceof BoolPrimitive leftBool && (!leftBool.value() || right instanceof BoolPrimitive)) {
+            setResult(leftBool.value() ? right : leftBool);
+        }
+        else {
+            setResult(new AndExpression(left, right));
+        }
+    }
+
+    @Override
+    public void visit(NegationExpression negationExpression) throws Exception {
+        Expression expression = rewrite(negationExpression.expression());
+        if (expression instanceof BoolPrimitive bool) {
+            setResult(new BoolPrimitive(!bool.value()));
+        }
+        else {
+            setResult(new NegationExpression(expression));
+        }
+    }
+
+    @Override
+    public void visit(MinusExpression minusExpression) throws Exception {
+        Expression expression = rewrite(minusExpression.expression());
+        if (expression instanceof IntPrimitive value) {
+            setResult(new IntPrimitive(-value.value()));
+        }
+        else if (expression instanceof FloatPrimitive value) {
+            setResult(new FloatPrimitive(-value.value()));
+        }
+        else if (expression instanceof CurrencyPrimitive value) {
+            setResult(currencies.negate(value));
+        }
+        else {
+            setResult(new MinusExpression(expression, minusExpression.operandType()));
+        }
+    }
+
+    @Override
+    public void visit(EqualExpression equalExpression) throws Exception {
+        Expression left = rewrite(equalExpression.left());
+        Expression right = rewrite(equalExpression.right());
+        Boolean equal = areEqual(left, right);
+        setResult(equal != null ? new BoolPrimitive(equal) :
+                new EqualExpression(left, right, equalExpression.operandType()));
+    }
+
+    @Override
+    public void visit(NotEqualExpression notEqualExpression) throws Exception {
+        Expression left = rewrite(notEqualExpression.left());
+        Expression right = rewrite(notEqualExpression.right());
+        Boolean equal = areEqual(left, right);
+        setResult(equal != null ? new BoolPrimitive(!equal) :
+                new NotEqualExpression(left, right, notEqualExpression.operandType()));
+    }
+
+    @Override
+    public void visit(GreaterExpression greaterExpression) throws Exception {
+        Expression left = rewrite(greaterExpression.left());
+        Expression right = rewrite(greaterExpression.right());
+        Integer comparison = compare(left, right);
+        setResult(comparison != null ? new BoolPrimitive(comparison > 0) :
+                new GreaterExpression(left, right, greaterExpression.operandType()));
+    }
+
+    @Override
+    public void visit(LesserExpression lesserExpression) throws Exception {
+        Expression left = rewrite(lesserExpression.left());
+        Expression right = rewrite(lesserExpression.right());
+        Integer comparison = compare(left, right);
+        setResult(comparison != null ? new BoolPrimitive(comparison < 0) :
+                new LesserExpression(left, right, lesserExpression.operandType()));
+    }
+
+    @Override
+    public void visit(GreaterOrEqualExpression greaterOrEqualExpression) throws Exception {
+        Expression left = rewrite(greaterOrEqualExpression.left());
+        Expression right = rewrite(greaterOrEqualExpression.right());
+        Integer comparison = compare(left, right);
+        setResult(comparison != null ? new BoolPrimitive(comparison >= 0) :
+                new GreaterOrEqualExpression(left, right, greaterOrEqualExpression.operandType()));
+    }
+
+    @Override
+    public void visit(LesserOrEqualExpression lesserOrEqualExpression) throws Exception {
+        Expression left = rewrite(lesserOrEqualExpression.left());
+        Expression right = rewrite(lesserOrEqualExpression.right());
+        Integer comparison = compare(left, right);
+        setResult(comparison != null ? new BoolPrimitive(comparison <= 0) :
+                new LesserOrEqualExpression(left, right, lesserOrEqualExpression.operandType()));
+    }
+
+    @Override
+    public void visit(AdditionExpression additionExpression) throws Exception {
+        Expression left = rewrite(additionExpression.left());
+        Expression right = rewrite(additionExpression.right());
+        Primitive result = null;
+        if (left instanceof IntPrimitive leftInt && right instanceof IntPrimitive rightInt) {
+            if (CurrexLimits.INTEGER_MAX_VALUE - leftInt.value() >= rightInt.value()) {
+                result = new IntPrimitive(leftInt.value() + rightInt.value());
+            }
+        }
+        else if (left instanceof FloatPrimitive leftFloat && right instanceof FloatPrimitive rightFloat) {
+            result = new FloatPrimitive(leftFloat.value() + rightFloat.value());
+        }
+        else if (left instanceof StringPrimitive leftString && right instanceof StringPrimitive rightString) {
+            String leftValue = leftString.value();
+            result = new StringPrimitive(leftValue.substring(0, leftValue.length() - 1) + rightString.value().substring(1));
+        }
+        else if (left instanceof CurrencyPrimitive leftCurrency && right instanceof CurrencyPrimitive rightCurrency) {
+            try {
+                result = currencies.add(leftCurrency, rightCurrency);
+            } catch (Exception ignored) {
+            }
+        }
+        setResult(result != null ? result : new AdditionExpression(left, right, additionExpression.operandType()));
+    }
+
+    @Override
+    public void visit(SubtractionExpression subtractionExpression) throws Exception {
+        Expression left = rewrite(subtractionExpression.left());
+        Expression right = rewrite(subtractionExpression.right());
+        Primitive result = null;
+        if (left instanceof IntPrimitive leftInt && right instanceof IntPrimitive rightInt) {
+            result = new IntPrimitive(leftInt.value() - rightInt.value());
+        }
+        else if (left instanceof FloatPrimitive leftFloat && right instanceof FloatPrimitive rightFloat) {
+            result = new FloatPrimitive(leftFloat.value() - rightFloat.value());
+        }
+        else if (left instanceof CurrencyPrimitive leftCurrency && right instanceof CurrencyPrimitive rightCurrency) {
+            try {
+                result = currencies.subtract(leftCurrency, rightCurrency);
+            } catch (Exception ignored) {
+            }
+        }
+        setResult(result != null ? result : new SubtractionExpression(left, right, subtractionExpression.operandType()));
+    }
+
+    @Override
+    public void visit(MultiplicationExpression multiplicationExpression) throws Exception {
+        Expression left = rewrite(multiplicationExpression.left());
+        Expression right = rewrite(multiplicationExpression.right());
+        Primitive result = null;
+        if (left instanceof IntPrimitive leftInt && right instanceof IntPrimitive rightInt) {
+            int leftValue = leftInt.value();
+            int rightValue = rightInt.value();
+            if (leftValue == 0 || CurrexLimits.INTEGER_MAX_VALUE / leftValue >= rightValue) {
+                result = new IntPrimitive(leftValue * rightValue);
+            }
+        }
+        else if (left instanceof FloatPrimitive leftFloat && right instanceof FloatPrimitive rightFloat) {
+            result = new FloatPrimitive(leftFloat.value() * rightFloat.value());
+        }
+        else if (left instanceof CurrencyPrimitive leftCurrency && right instanceof CurrencyPrimitive rightCurrency) {
+            try {
+                result = currencies.multiply(leftCurrency, rightCurrency);
+            } catch (Exception ignored) {
+            }
+        }
+        setResult(result != null ? result :
+                new MultiplicationExpression(left, right, multiplicationExpression.operandType()));
+    }
+
+    @Override
+    public void visit(DivisionExpression divisionExpression) throws Exception {
+        Expression left = rewrite(divisionExpression.left());
+        Expression right = rewrite(divisionExpression.right());
+        Primitive result = null;
+        if (left instanceof IntPrimitive leftInt && right instanceof IntPrimitive rightInt) {
+            if (rightInt.value() != 0) {
+                result = new IntPrimitive(leftInt.value() / rightInt.value());
+            }
+        }
+        else if (left instanceof FloatPrimitive leftFloat && right instanceof FloatPrimitive rightFloat) {
+            if (rightFloat.value() != 0.0) {
+                result = new FloatPrimitive(leftFloat.value() / rightFloat.value());
+            }
+        }
+        else if (left instanceof CurrencyPrimitive leftCurrency && right instanceof CurrencyPrimitive rightCurrency) {
+            try {
+                result = currencies.divide(leftCurrency, rightCurrency);
+            } catch (Exception ignored) {
+            }
+        }
+        setResult(result != null ? result : new DivisionExpression(left, right, divisionExpression.operandType()));
+    }
+
+    @Override
+    public void visit(CurrencyCastExpression currencyCastExpression) throws Exception {
+        Expression left = rewrite(currencyCastExpression.left());
+        Expression right = rewrite(currencyCastExpression.right());
+        if (left instanceof CurrencyPrimitive value && right instanceof CurrencyPrimitive target
+                && target.getCurrency() != null) {
+            setResult(currencies.cast(value, target.getCurrency()));
+        }
+        else {
+            setResult(new CurrencyCastExpression(left, right));
+        }
+    }
+
+    @Override
+    public void visit(CurrencyConversionExpression currencyConversionExpression) throws Exception {
+        Expression left = rewrite(currencyConversionExpression.left());
+        Expression right = rewrite(currencyConversionExpression.right());
+        CurrencyPrimitive result = null;
+        if (left instanceof CurrencyPrimitive value && right instanceof CurrencyPrimitive target
+                && target.getCurrency() != null) {
+            try {
+                result = currencies.convert(value, target.getCurrency());
+            } catch (Exception ignored) {
+            }
+        }
+        setResult(result != null ? result : new CurrencyConversionExpression(left, right));
+    }
+
+    @Override
+    public void visit(ConversionChainExpression conversionChainExpression) throws Exception {
+        Expression left = rewrite(conversionChainExpression.left());
+        CurrencyPrimitive result = null;
+        if (left instanceof CurrencyPrimitive value) {
+            try {
+                result = currencies.convert(value, conversionChainExpression.chain());
+            } catch (Exception ignored) {
+            }
+        }
+        setResult(result != null ? result : new ConversionChainExpression(left, conversionChainExpression.chain()));
+    }
+
+    // null when the engines could give another answer or fail
+    private Boolean areEqual(Expression left, Expression right) {
+        if (left instanceof IntPrimitive leftInt && right instanceof IntPrimitive rightInt) {
+            return leftInt.value().equals(rightInt.value());
+        }
+        if (left instanceof BoolPrimitive leftBool && right instanceof BoolPrimitive rightBool) {
+            return leftBool.value().equals(rightBool.value());
+        }
+        if (left instanceof FloatPrimitive leftFloat && right instanceof FloatPrimitive rightFloat
+                && isComparable(leftFloat.value()) && isComparable(rightFloat.value())) {
+            return leftFloat.value().equals(rightFloat.value());
+        }
+        if (left instanceof StringPrimitive leftString && right instanceof StringPrimitive rightString) {
+            return leftString.value().equals(rightString.value());
+        }
+        if (left instanceof CurrencyPrimitive leftCurrency && right instanceof CurrencyPrimitive rightCurrency) {
+            return currencies.equal(leftCurrency, rightCurrency);
+        }
+        return null;
+    }
+
+    private Integer compare(Expression left, Expression right) {
+        if (left instanceof IntPrimitive leftInt && right instanceof IntPrimitive rightInt) {
+            return Integer.compare(leftInt.value(), rightInt.value());
+        }
+        if (left instanceof FloatPrimitive leftFloat && right instanceof FloatPrimitive rightFloat
+                && isComparable(leftFloat.value()) && isComparable(rightFloat.value())) {
+            return Double.compare(leftFloat.value(), rightFloat.value());
+        }
+        if (left instanceof CurrencyPrimitive leftCurrency && right instanceof CurrencyPrimitive rightCurrency) {
+            try {
+                return currencies.compare(leftCurrency, rightCurrency);
+            } catch (Exception ignored) {
+            }
+        }
+        return null;
+    }
+
+    // Double.equals and == agree on everything else
+    private static boolean isComparable(double value) {
+        return !Double.isNaN(value) && value != 0.0;
+    }
+}
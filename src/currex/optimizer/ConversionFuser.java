@@ -0,0 +1,98 @@
+package currex.optimizer;
+
+import currex.interpreter.builtin.ConversionChain;
+import currex.interpreter.builtin.ConversionTable;
+import currex.interpreter.builtin.Currency;
+import currex.structure.expressions.ConversionChainExpression;
+import currex.structure.expressions.CurrencyCastExpression;
+import currex.structure.expressions.CurrencyConversionExpression;
+import currex.structure.expressions.Expression;
+import currex.structure.primitives.CurrencyPrimitive;
+import currex.visitor.RewritingVisitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Joins nested conversions to currency literals into one ConversionChainExpression and removes the steps
+// which cannot change a value: a conversion to the currency the previous conversion already produced
+// (its rate is 1 and the value already has the scale of a conversion), a cast to that currency and a cast
+// of a value which is cast again. Chains the table has no rate for are left to fail when they run.
+public class ConversionFuser extends RewritingVisitor {
+    private final ConversionTable conversionTable;
+
+    public ConversionFuser(ConversionTable conversionTable) {
+        this.conversionTable = conversionTable;
+    }
+
+    @Override
+    public void visit(CurrencyConversionExpression currencyConversionExpression) throws Exception {
+        Expression left = rewrite(currencyConversionExpression.left());
+        Expression right = rewrite(currencyConversionExpression.right());
+        Currency target = literalCurrency(right);
+        Expression source = conversionSource(left);
+        List<Currency> targets = conversionTargets(left);
+        if (target == null || targets == null) {
+            setResult(new CurrencyConversionExpression(left, right));
+            return;
+        }
+        Currency previous = targets.get(targets.size() - 1);
+        if (previous == target && conversionTable.rate(target, target) == 1.0) {
+            setResult(left);
+            return;
+        }
+        List<Currency> chainTargets = new ArrayList<>(targets);
+        chainTargets.add(target);
+        ConversionChain chain = conversionTable.chain(chainTargets);
+        setResult(chain != null ? new ConversionChainExpression(source, chain) :
+                new CurrencyConversionExpression(left, right));
+    }
+
+    @Override
+    public void visit(CurrencyCastExpression currencyCastExpression) throws Exception {
+        Expression left = rewrite(currencyCastExpression.left());
+        Expression right = rewrite(currencyCastExpression.right());
+        Currency target = literalCurrency(right);
+        if (target == null) {
+            setResult(new CurrencyCastExpression(left, right));
+            return;
+        }
+        List<Currency> targets = conversionTargets(left);
+        if (targets != null && targets.get(targets.size() - 1) == target) {
+            setResult(left);
+        }
+        else if (left instanceof CurrencyCastExpression cast && literalCurrency(cast.right()) != null) {
+            setResult(new CurrencyCastExpression(cast.left(), right));
+        }
+        else {
+            setResult(new CurrencyCastExpression(left, right));
+        }
+    }
+
+    // the currencies a conversion of a known target goes through, null for any other expression
+    private static List<Currency> conversionTargets(Expression expression) {
+        if (expression instanceof ConversionChainExpression chain) {
+            return chain.chain().targets();
+        }
+        if (expression instanceof CurrencyConversionExpression conversion) {
+            Currency target = literalCurrency(conversion.right());
+            return target != null ? List.of(target) : null;
+        }
+        return null;
+    }
+
+    private static Expression conversionSource(Expression expression) {
+        if (expression instanceof ConversionChainExpression chain) {
+            return chain.left();
+        }
+        return expression instanceof CurrencyConversionExpression conversion ? conversion.left() : null;
+    }
+
+    // only currencies of the table, the others cannot be converted to
+    private static Currency literalCurrency(Expression expression) {
+        if (expression instanceof CurrencyPrimitive literal && literal.getCurrency() != null
+                && literal.getCurrency().isBound()) {
+            return literal.getCurrency();
+        }
+        return null;
+    }
+}
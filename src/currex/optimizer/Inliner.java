@@ -0,0 +1,231 @@
+package currex.optimizer;
+
+import currex.structure.components.FunctionDefinition;
+import currex.structure.components.Parameter;
+import currex.structure.components.Program;
+import currex.structure.components.VariableSlot;
+import currex.structure.expressions.*;
+import currex.structure.primitives.Primitive;
+import currex.structure.primitives.PrimitiveType;
+import currex.structure.statements.DeclarationStatement;
+import currex.structure.statements.ReturnStatement;
+import currex.structure.statements.Statement;
+import currex.visitor.RewritingVisitor;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Replaces calls bound by the type checker with the body of the called function when that body is a few
+// declarations followed by a return of a value, so the call becomes one expression over the arguments.
+// A callee may only read its own parameters and variables, and every function it calls has to be
+// inlined as well, so no frame a function could look a name up in goes missing. Recursive calls are not
+// inlined, neither are calls nested deeper than maxDepth or bodies of more than maxSize expressions.
+// Arguments and initializers are substituted for the variables holding them. Anything but a literal or a
+// variable has to be read exactly once and before any other operation completes, outside the right side
+// of && and ||, so everything is evaluated once and in the order of the call, failures included.
+// A variable passed as an argument is only read in place before any other argument is evaluated,
+// as such an argument may call a function assigning the variable through the frame of the caller.
+// Calls which are statements of their own are left alone.
+public class Inliner extends RewritingVisitor {
+    public static final int DEFAULT_MAX_SIZE = 24;
+    public static final int DEFAULT_MAX_DEPTH = 3;
+
+    private final int maxSize;
+    private final int maxDepth;
+    private final Set<String> inlining = new HashSet<>();
+    private Map<String, FunctionDefinition> functionDefinitions = Map.of();
+    private int depth;
+    // set when a call inside an inlined body has to stay a call
+    private boolean blocked;
+
+    public Inliner() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_MAX_DEPTH);
+    }
+
+    public Inliner(int maxSize, int maxDepth) {
+        this.maxSize = maxSize;
+        this.maxDepth = maxDepth;
+    }
+
+    @Override
+    public void visit(Program program) throws Exception {
+        functionDefinitions = program.functionDefinitions();
+        super.visit(program);
+    }
+
+    @Override
+    protected Statement rewrite(Statement statement) throws Exception {
+        if (statement instanceof FunctionCallExpression call) {
+            return new FunctionCallExpression(call.name(), rewrite(call.arguments()), call.function());
+        }
+        return super.rewrite(statement);
+    }
+
+    @Override
+    public void visit(FunctionCallExpression functionCallExpression) throws Exception {
+        List<Expression> arguments = rewrite(functionCallExpression.arguments());
+        Expression inlined = inline(functionCallExpression, arguments);
+        if (inlined != null) {
+            setResult(inlined);
+        }
+        else {
+            blocked = true;
+            setResult(new FunctionCallExpression(functionCallExpression.name(), arguments,
+                    functionCallExpression.function()));
+        }
+    }
+
+    @Override
+    public void visit(AccessExpression accessExpression) throws Exception {
+        Expression left = rewrite(accessExpression.left());
+        // methods of the program run in a frame of their own
+        if (accessExpression.right() instanceof FunctionCallExpression method
+                && functionDefinitions.containsKey(method.name())) {
+            blocked = true;
+        }
+        setResult(new AccessExpression(left, accessExpression.right()));
+    }
+
+    // null when the call has to stay a call
+    private Expression inline(FunctionCallExpression call, List<Expression> arguments) throws Exception {
+        if (call.function() == VariableSlot.UNRESOLVED || depth >= maxDepth) {
+            return null;
+        }
+        FunctionDefinition function = functionDefinitions.get(call.name());
+        if (function == null || function.returnType() == PrimitiveType.NONE || !inlining.add(function.name())) {
+            return null;
+        }
+        boolean outerBlocked = blocked;
+        blocked = false;
+        depth++;
+        try {
+            return inlineBody(function, arguments);
+        } finally {
+            depth--;
+            blocked = outerBlocked;
+            inlining.remove(function.name());
+        }
+    }
+
+    private Expression inlineBody(FunctionDefinition function, List<Expression> arguments) throws Exception {
+        List<Statement> statements = function.block().statementList();
+        if (statements.isEmpty() || !(statements.get(statements.size() - 1) instanceof ReturnStatement returnStatement)
+                || returnStatement.expression() == null) {
+            return null;
+        }
+        Map<Integer, Binding> bindings = new HashMap<>();
+        for (int i = 0; i < arguments.size(); i++) {
+            Parameter parameter = function.parameters().get(i);
+            if (parameter.type() == PrimitiveType.NONE) {
+                return null;
+            }
+            bindings.put(parameter.slot(), new Binding(arguments.get(i), false));
+        }
+        for (Statement statement : statements.subList(0, statements.size() - 1)) {
+            if (!(statement instanceof DeclarationStatement declaration) || declaration.expression() == null) {
+                return null;
+            }
+            bindings.put(declaration.slot(), new Binding(rewrite(declaration.expression()), true));
+        }
+        Expression result = rewrite(returnStatement.expression());
+        if (blocked) {
+            return null;
+        }
+        Substitution substitution = new Substitution(bindings);
+        Expression substituted = substitution.rewrite(result);
+        return substitution.isValid() && substitution.size <= maxSize ? substituted : null;
+    }
+
+    // local is true for the variables of the callee, whose values are expressions of the callee as well
+    private record Binding(Expression value, boolean local) {
+        boolean isTrivial() {
+            return value instanceof Primitive ||
+                    value instanceof IdentifierExpression identifier && identifier.slot() != VariableSlot.UNRESOLVED;
+        }
+    }
+
+    // Puts the bound values in place of the variables of the callee, walking the expression
+    // in the order the engines evaluate it.
+    private static class Substitution extends RewritingVisitor {
+        private final Map<Integer, Binding> bindings;
+        private final Map<Integer, Integer> reads = new HashMap<>();
+        private boolean valid = true;
+        // nothing but literals and variables evaluated so far
+        private boolean pure = true;
+        // set once an argument other than a literal or a variable was substituted
+        private boolean argumentEvaluated;
+        private int conditional;
+        private int size;
+
+        Substitution(Map<Integer, Binding> bindings) {
+            this.bindings = bindings;
+        }
+
+        @Override
+        protected Expression rewrite(Expression expression) throws Exception {
+            size++;
+            Expression rewritten = super.rewrite(expression);
+            if (!(expression instanceof Primitive) && !(expression instanceof IdentifierExpression)) {
+                pure = false;
+            }
+            return rewritten;
+        }
+
+        @Override
+        public void visit(IdentifierExpression identifierExpression) throws Exception {
+            Binding binding = bindings.get(identifierExpression.slot());
+            if (binding == null) {
+                valid = false;
+                setResult(identifierExpression);
+                return;
+            }
+            if (!binding.isTrivial()) {
+                int count = reads.merge(identifierExpression.slot(), 1, Integer::sum);
+                valid &= count == 1 && pure && conditional == 0;
+            }
+            if (binding.local()) {
+                setResult(rewrite(binding.value()));
+            }
+            else {
+                valid &= !(binding.value() instanceof IdentifierExpression) || !argumentEvaluated;
+                pure &= binding.isTrivial();
+                argumentEvaluated |= !binding.isTrivial();
+                setResult(binding.value());
+            }
+        }
+
+        @Override
+        public void visit(AndExpression andExpression) throws Exception {
+            Expression left = rewrite(andExpression.left());
+            conditional++;
+            Expression right = rewrite(andExpression.right());
+            conditional--;
+            setResult(new AndExpression(left, right));
+        }
+
+        @Override
+        public void visit(OrExpression orExpression) throws Exception {
+            Expression left = rewrite(orExpression.left());
+            conditional++;
+            Expression right = rewrite(orExpression.right());
+            conditional--;
+            setResult(new OrExpression(left, right));
+        }
+
+        // every value which is not a literal or a variable is read exactly once
+        boolean isValid() {
+            if (!valid) {
+                return false;
+            }
+            for (Map.Entry<Integer, Binding> entry : bindings.entrySet()) {
+                if (!entry.getValue().isTrivial() && !reads.containsKey(entry.getKey())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package currex.optimizer;
+
+import currex.interpreter.builtin.ConversionTable;
+import currex.interpreter.builtin.Currency;
+import currex.structure.components.Block;
+import currex.structure.components.FunctionDefinition;
+import currex.structure.components.Parameter;
+import currex.structure.components.Program;
+import currex.structure.components.VariableSlot;
+import currex.structure.expressions.*;
+import currex.structure.primitives.*;
+import currex.structure.statements.AssignmentStatement;
+import currex.structure.statements.DeclarationStatement;
+import currex.structure.statements.ElseStatement;
+import currex.structure.statements.IfStatement;
+import currex.structure.statements.Statement;
+import currex.structure.statements.WhileStatement;
+import currex.visitor.RewritingVisitor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Moves expressions of a while loop which give the same value on every iteration in front of the loop.
+// An expression is hoisted when it reads only variables the loop never declares or assigns and cannot fail
+// or print, so evaluating it once, even for a loop which never runs, changes nothing but the work done.
+// Conversions qualify when the currency of the converted value is known and the table has its rate.
+// A variable is also written by any call in the loop when some function assigns its name without declaring
+// it, which the interpreter resolves in the calling frames. Hoisted values get fresh slots past the end of
+// the frame and the loop is wrapped in a block declaring them, so they are gone once the loop ends.
+// Outer loops are handled first, so an expression leaves all the loops it does not depend on at once.
+public class LoopInvariantHoister extends RewritingVisitor {
+    private final ConversionTable conversionTable;
+    // names assigned through the calling frames anywhere in the program
+    private Set<String> dynamicNames = Set.of();
+    // types of the variables in scope, by slot
+    private final Map<Integer, PrimitiveType> slotTypes = new HashMap<>();
+    // the currency every value ever stored in a slot of the function has
+    private final Map<Integer, Currency> slotCurrencies = new HashMap<>();
+    private int nextSlot;
+
+    public LoopInvariantHoister(ConversionTable conversionTable) {
+        this.conversionTable = conversionTable;
+    }
+
+    @Override
+    public void visit(Program program) throws Exception {
+        Writes writes = new Writes();
+        writes.rewrite(program);
+        dynamicNames = writes.names;
+        super.visit(program);
+    }
+
+    @Override
+    public void visit(FunctionDefinition functionDefinition) throws Exception {
+        slotTypes.clear();
+        slotCurrencies.clear();
+        nextSlot = Math.max(functionDefinition.frameSize(), functionDefinition.parameters().size());
+        for (Parameter parameter : functionDefinition.parameters()) {
+            slotTypes.put(parameter.slot(), parameter.type());
+        }
+        resolveCurrencies(functionDefinition);
+        Block block = rewrite(functionDefinition.block());
+        setResult(new FunctionDefinition(functionDefinition.returnType(), functionDefinition.name(),
+                functionDefinition.parameters(), block, nextSlot));
+    }
+
+    @Override
+    public void visit(DeclarationStatement declarationStatement) throws Exception {
+        slotTypes.put(declarationStatement.slot(), declarationStatement.type());
+        setResult(declarationStatement);
+    }
+
+    @Override
+    public void visit(WhileStatement whileStatement) throws Exception {
+        Writes writes = new Writes();
+        writes.rewrite(whileStatement);
+        Set<String> writtenNames = new HashSet<>(writes.names);
+        if (writes.calls) {
+            writtenNames.addAll(dynamicNames);
+        }
+        Hoisting hoisting = new Hoisting(writes.expressions.keySet(), writtenNames);
+        WhileStatement hoisted = hoisting.hoist(whileStatement);
+        WhileStatement loop = new WhileStatement(hoisted.expression(), rewrite(hoisted.block()));
+        if (hoisting.declarations.isEmpty()) {
+            setResult(loop);
+            return;
+        }
+        List<Statement> statements = new ArrayList<>(hoisting.declarations);
+        statements.add(loop);
+        int scopeStart = hoisting.declarations.get(0).slot();
+        Block block = new Block(statements, scopeStart, scopeStart + hoisting.declarations.size());
+        setResult(new IfStatement(List.of(new ElseStatement(null, block))));
+    }
+
+    // Finds the currency of every slot all of its values share. Slots whose values come from other slots
+    // are settled once those are, slots of parameters and of names assigned from other functions never are.
+    private void resolveCurrencies(FunctionDefinition functionDefinition) throws Exception {
+        Writes writes = new Writes();
+        writes.rewrite(functionDefinition);
+        Set<Integer> unknown = new HashSet<>(writes.dynamicSlots(dynamicNames));
+        for (Parameter parameter : functionDefinition.parameters()) {
+            unknown.add(parameter.slot());
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Map.Entry<Integer, List<Expression>> entry : writes.expressions.entrySet()) {
+                if (unknown.contains(entry.getKey()) || slotCurrencies.containsKey(entry.getKey())) {
+                    continue;
+                }
+                Currency shared = null;
+                for (Expression expression : entry.getValue()) {
+                    Currency currency = currency(expression);
+                    if (currency == null || shared != null && shared != currency) {
+                        shared = null;
+                        break;
+                    }
+                    shared = currency;
+                }
+                if (shared != null) {
+                    slotCurrencies.put(entry.getKey(), shared);
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    // the currency of every value the expression can give, null when it is not known
+    private Currency currency(Expression expression) {
+        if (expression instanceof CurrencyPrimitive literal) {
+            return boundCurrency(literal);
+        }
+        if (expression instanceof IdentifierExpression identifier) {
+            return slotCurrencies.get(identifier.slot());
+        }
+        if (expression instanceof CurrencyCastExpression cast) {
+            return boundCurrency(cast.right());
+        }
+        if (expression instanceof CurrencyConversionExpression conversion) {
+            return boundCurrency(conversion.right());
+        }
+        if (expression instanceof ConversionChainExpression conversion) {
+            return conversion.chain().target();
+        }
+        if (expression instanceof MinusExpression minus) {
+            return currency(minus.expression());
+        }
+        // arithmetic keeps the currency of the left operand
+        if (expression instanceof AdditionExpression addition) {
+            return currency(addition.left());
+        }
+        if (expression instanceof SubtractionExpression subtraction) {
+            return currency(subtraction.left());
+        }
+        if (expression instanceof MultiplicationExpression multiplication) {
+            return currency(multiplication.left());
+        }
+        if (expression instanceof DivisionExpression division) {
+            return currency(division.left());
+        }
+        return null;
+    }
+
+    private static Currency boundCurrency(Expression expression) {
+        if (expression instanceof CurrencyPrimitive literal && literal.getCurrency() != null
+                && literal.getCurrency().isBound()) {
+            return literal.getCurrency();
+        }
+        return null;
+    }
+
+    private static boolean isNonZero(Expression expression) {
+        if (expression instanceof IntPrimitive value) {
+            return value.value() != 0;
+        }
+        if (expression instanceof FloatPrimitive value) {
+            return value.value() != 0.0;
+        }
+        return expression instanceof CurrencyPrimitive value && value.getValue().signum() != 0;
+    }
+
+    // Replaces the invariant expressions of one loop with variables declared in front of it,
+    // the same expression hoisted twice shares its variable.
+    private class Hoisting extends RewritingVisitor {
+        private final Set<Integer> writtenSlots;
+        private final Set<String> writtenNames;
+        private final Map<Expression, IdentifierExpression> hoisted = new LinkedHashMap<>();
+        private final List<DeclarationStatement> declarations = new ArrayList<>();
+
+        Hoisting(Set<Integer> writtenSlots, Set<String> writtenNames) {
+            this.writtenSlots = writtenSlots;
+            this.writtenNames = writtenNames;
+        }
+
+        @Override
+        protected Expression rewrite(Expression expression) throws Exception {
+            if (expression == null || expression instanceof Primitive || expression instanceof IdentifierExpression) {
+                return super.rewrite(expression);
+            }
+            PrimitiveType type = type(expression);
+            if (type == null) {
+                return super.rewrite(expression);
+            }
+            IdentifierExpression variable = hoisted.get(expression);
+            if (variable == null) {
+                int slot = nextSlot++;
+                variable = new IdentifierExpression("$invariant" + slot, slot);
+                hoisted.put(expression, variable);
+                declarations.add(new DeclarationStatement(type, variable.name(), expression, slot));
+                slotTypes.put(slot, type);
+                Currency currency = currency(expression);
+                if (currency != null) {
+                    slotCurrencies.put(slot, currency);
+                }
+            }
+            return variable;
+        }
+
+        WhileStatement hoist(WhileStatement whileStatement) throws Exception {
+            return new WhileStatement(rewrite(whileStatement.expression()), rewrite(whileStatement.block()));
+        }
+
+        @Override
+        public void visit(AssignmentStatement assignmentStatement) throws Exception {
+            setResult(new AssignmentStatement(assignmentStatement.left(), rewrite(assignmentStatement.right())));
+        }
+
+        // the type of the value of an expression which may be hoisted, null for any other
+        private PrimitiveType type(Expression expression) {
+            if (expression instanceof Primitive primitive) {
+                return primitiveType(primitive);
+            }
+            if (expression instanceof IdentifierExpression identifier) {
+                if (identifier.slot() == VariableSlot.UNRESOLVED || writtenSlots.contains(identifier.slot())
+                        || writtenNames.contains(identifier.name())) {
+                    return null;
+                }
+                return slotTypes.get(identifier.slot());
+            }
+            if (expression instanceof AndExpression and) {
+                return boolType(type(and.left()) == PrimitiveType.BOOL && type(and.right()) == PrimitiveType.BOOL);
+            }
+            if (expression instanceof OrExpression or) {
+                return boolType(type(or.left()) == PrimitiveType.BOOL && type(or.right()) == PrimitiveType.BOOL);
+            }
+            if (expression instanceof NegationExpression negation) {
+                return boolType(type(negation.expression()) == PrimitiveType.BOOL);
+            }
+            if (expression instanceof EqualExpression equal) {
+                return boolType(operands(equal.left(), equal.right(), equal.operandType()));
+            }
+            if (expression instanceof NotEqualExpression notEqual) {
+                return boolType(operands(notEqual.left(), notEqual.right(), notEqual.operandType()));
+            }
+            if (expression instanceof GreaterExpression greater) {
+                return boolType(ordered(greater.left(), greater.right(), greater.operandType()));
+            }
+            if (expression instanceof LesserExpression lesser) {
+                return boolType(ordered(lesser.left(), lesser.right(), lesser.operandType()));
+            }
+            if (expression instanceof GreaterOrEqualExpression greaterOrEqual) {
+                return boolType(ordered(greaterOrEqual.left(), greaterOrEqual.right(), greaterOrEqual.operandType()));
+            }
+            if (expression instanceof LesserOrEqualExpression lesserOrEqual) {
+                return boolType(ordered(lesserOrEqual.left(), lesserOrEqual.right(), lesserOrEqual.operandType()));
+            }
+            // integer addition and multiplication report overflows, subtraction wraps around
+            if (expression instanceof AdditionExpression addition) {
+                PrimitiveType type = addition.operandType();
+                return arithmetic(addition.left(), addition.right(), type, type == PrimitiveType.FLOAT
+                        || type == PrimitiveType.STRING || type == PrimitiveType.CURRENCY);
+            }
+            if (expression instanceof SubtractionExpression subtraction) {
+                PrimitiveType type = subtraction.operandType();
+                return arithmetic(subtraction.left(), subtraction.right(), type, type == PrimitiveType.INTEGER
+                        || type == PrimitiveType.FLOAT || type == PrimitiveType.CURRENCY);
+            }
+            if (expression instanceof MultiplicationExpression multiplication) {
+                PrimitiveType type = multiplication.operandType();
+                return arithmetic(multiplication.left(), multiplication.right(), type,
+                        type == PrimitiveType.FLOAT || type == PrimitiveType.CURRENCY);
+            }
+            if (expression instanceof DivisionExpression division) {
+                return arithmetic(division.left(), division.right(), division.operandType(),
+                        isNonZero(division.right()));
+            }
+            if (expression instanceof MinusExpression minus) {
+                PrimitiveType type = minus.operandType();
+                return type != null && type != PrimitiveType.BOOL && type != PrimitiveType.STRING
+                        && type(minus.expression()) == type ? type : null;
+            }
+            if (expression instanceof CurrencyCastExpression cast) {
+                return currencyType(type(cast.left()) == PrimitiveType.CURRENCY && cast.right() instanceof CurrencyPrimitive);
+            }
+            if (expression instanceof CurrencyConversionExpression conversion) {
+                Currency target = boundCurrency(conversion.right());
+                return currencyType(target != null && convertible(conversion.left())
+                        && !Double.isNaN(conversionTable.rate(currency(conversion.left()), target)));
+            }
+            if (expression instanceof ConversionChainExpression conversion) {
+                return currencyType(convertible(conversion.left())
+                        && conversion.chain().compositeRate(currency(conversion.left())) != null);
+            }
+            return null;
+        }
+
+        private boolean operands(Expression left, Expression right, PrimitiveType operandType) {
+            return operandType != null && type(left) == operandType && type(right) == operandType;
+        }
+
+        // currencies are only ordered within one currency
+        private boolean ordered(Expression left, Expression right, PrimitiveType operandType) {
+            if (operandType == PrimitiveType.CURRENCY) {
+                return sameCurrency(left, right);
+            }
+            return (operandType == PrimitiveType.INTEGER || operandType == PrimitiveType.FLOAT)
+                    && operands(left, right, operandType);
+        }
+
+        // safe tells whether the operation cannot fail for values of its operand type,
+        // currencies are combined only when they are the same
+        private PrimitiveType arithmetic(Expression left, Expression right, PrimitiveType operandType, boolean safe) {
+            if (operandType == PrimitiveType.CURRENCY) {
+                return safe && sameCurrency(left, right) ? operandType : null;
+            }
+            return safe && operands(left, right, operandType) ? operandType : null;
+        }
+
+        private boolean sameCurrency(Expression left, Expression right) {
+            return operands(left, right, PrimitiveType.CURRENCY) && currency(left) != null
+                    && currency(left) == currency(right);
+        }
+
+        private boolean convertible(Expression expression) {
+            return type(expression) == PrimitiveType.CURRENCY && currency(expression) != null;
+        }
+
+        private PrimitiveType boolType(boolean hoistable) {
+            return hoistable ? PrimitiveType.BOOL : null;
+        }
+
+        private PrimitiveType currencyType(boolean hoistable) {
+            return hoistable ? PrimitiveType.CURRENCY : null;
+        }
+    }
+
+    private static PrimitiveType primitiveType(Primitive primitive) {
+        if (primitive instanceof IntPrimitive) {
+            return PrimitiveType.INTEGER;
+        }
+        if (primitive instanceof FloatPrimitive) {
+            return PrimitiveType.FLOAT;
+        }
+        if (primitive instanceof BoolPrimitive) {
+            return PrimitiveType.BOOL;
+        }
+        if (primitive instanceof StringPrimitive) {
+            return PrimitiveType.STRING;
+        }
+        return primitive instanceof CurrencyPrimitive ? PrimitiveType.CURRENCY : null;
+    }
+
+    // Collects what a part of a program writes: the expressions stored in every slot, the names assigned
+    // through the calling frames and whether it calls functions, which may assign those names.
+    private static class Writes extends RewritingVisitor {
+        private final Map<Integer, List<Expression>> expressions = new HashMap<>();
+        private final Map<Integer, Set<String>> slotNames = new HashMap<>();
+        private final Set<String> names = new HashSet<>();
+        private boolean calls;
+
+        void rewrite(WhileStatement whileStatement) throws Exception {
+            super.rewrite(whileStatement);
+        }
+
+        Set<Integer> dynamicSlots(Set<String> dynamicNames) {
+            Set<Integer> slots = new HashSet<>();
+            for (Map.Entry<Integer, Set<String>> entry : slotNames.entrySet()) {
+                for (String name : entry.getValue()) {
+                    if (dynamicNames.contains(name)) {
+                        slots.add(entry.getKey());
+                    }
+                }
+            }
+            return slots;
+        }
+
+        @Override
+        public void visit(DeclarationStatement declarationStatement) throws Exception {
+            expressions.computeIfAbsent(declarationStatement.slot(), slot -> new ArrayList<>())
+                    .add(declarationStatement.expression());
+            slotNames.computeIfAbsent(declarationStatement.slot(), slot -> new HashSet<>())
+                    .add(declarationStatement.name());
+            super.visit(declarationStatement);
+        }
+
+        @Override
+        public void visit(AssignmentStatement assignmentStatement) throws Exception {
+            if (assignmentStatement.left() instanceof IdentifierExpression identifier) {
+                if (identifier.slot() == VariableSlot.UNRESOLVED) {
+                    names.add(identifier.name());
+                }
+                else {
+                    expressions.computeIfAbsent(identifier.slot(), slot -> new ArrayList<>())
+                            .add(assignmentStatement.right());
+                }
+            }
+            super.visit(assignmentStatement);
+        }
+
+        @Override
+        public void visit(FunctionCallExpression functionCallExpression) throws Exception {
+            calls = true;
+            super.visit(functionCallExpression);
+        }
+
+        @Override
+        public void visit(AccessExpression accessExpression) throws Exception {
+            calls = true;
+            super.visit(accessExpression);
+        }
+    }
+}
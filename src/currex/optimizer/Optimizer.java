@@ -0,0 +1,45 @@
+package currex.optimizer;
+
+import currex.interpreter.CurrencyArithmetic;
+import currex.interpreter.builtin.ConversionTable;
+import currex.interpreter.error.InterpreterErrorHandler;
+import currex.structure.components.Program;
+import currex.visitor.RewritingVisitor;
+
+import java.util.List;
+
+// Rewrites a resolved and type checked program into one which prints the same and does less work when run.
+// The passes run in order over the whole program, after every static error has been reported, so removing
+// code never hides one. Engines skip it when created with optimizing off.
+public class Optimizer {
+    private final ConversionTable conversionTable;
+    private final CurrencyArithmetic currencies;
+
+    public Optimizer(ConversionTable conversionTable, boolean fixedPoint) {
+        this(conversionTable, fixedPoint, false);
+    }
+
+    // folded conversion chains are rounded the way the engines round them
+    public Optimizer(ConversionTable conversionTable, boolean fixedPoint, boolean fusedRounding) {
+        this.conversionTable = conversionTable;
+        this.currencies = new CurrencyArithmetic(conversionTable, fixedPoint, fusedRounding,
+                new InterpreterErrorHandler(false));
+    }
+
+    public Program optimize(Program program) throws Exception {
+        Program optimized = program;
+        for (RewritingVisitor pass : passes()) {
+            optimized = pass.rewrite(optimized);
+        }
+        return optimized;
+    }
+
+    private List<RewritingVisitor> passes() {
+        // chains are joined first, so a chain of literals is folded with a single rounding when it is fused.
+        // Bodies are inlined once they are folded, and what they bring to the call site is folded after.
+        // Loops give up their invariants last, when those are as small as folding makes them.
+        return List.of(new ConversionFuser(conversionTable), new ConstantFolder(currencies), new BranchPruner(),
+                new Inliner(), new ConversionFuser(conversionTable), new ConstantFolder(currencies), new BranchPruner(),
+                new LoopInvariantHoister(conversionTable));
+    }
+}
@@ -0,0 +1,51 @@
+package currex.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+// Collects lines in a buffer and writes them out once it holds threshold characters or the run ends.
+// Nothing is synchronized, a sink belongs to a single run.
+public class BufferedSink implements OutputSink {
+    public static final int DEFAULT_THRESHOLD = 8192;
+
+    private final Writer writer;
+    private final int threshold;
+    private final StringBuilder buffer;
+
+    public BufferedSink(OutputStream output) {
+        this(output, DEFAULT_THRESHOLD);
+    }
+
+    public BufferedSink(OutputStream output, int threshold) {
+        this.writer = new OutputStreamWriter(output, Charset.defaultCharset());
+        this.threshold = threshold;
+        this.buffer = new StringBuilder(threshold + 64);
+    }
+
+    @Override
+    public void println(String line) {
+        buffer.append(line).append(System.lineSeparator());
+        if (buffer.length() >= threshold) {
+            write();
+        }
+    }
+
+    @Override
+    public void flush() {
+        write();
+    }
+
+    private void write() {
+        try {
+            writer.append(buffer);
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.setLength(0);
+    }
+}
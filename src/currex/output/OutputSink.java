@@ -0,0 +1,10 @@
+package currex.output;
+
+// Where the engines write what a program prints, one line per call to print
+public interface OutputSink {
+
+    void println(String line);
+
+    // called at the end of every run, lines may be held back until then
+    void flush();
+}
@@ -0,0 +1,22 @@
+package currex.output;
+
+import java.io.PrintStream;
+
+// Writes every line to the stream as soon as it is printed
+public class PrintStreamSink implements OutputSink {
+    private final PrintStream printer;
+
+    public PrintStreamSink(PrintStream printer) {
+        this.printer = printer;
+    }
+
+    @Override
+    public void println(String line) {
+        printer.println(line);
+    }
+
+    @Override
+    public void flush() {
+        printer.flush();
+    }
+}
@@ -0,0 +1,11 @@
+package currex.parser;
+
+import currex.structure.components.FunctionDefinition;
+
+// Characters [start, end) of the source hold the function, the closing bracket is at endRow and endColumn
+public record FunctionSpan(FunctionDefinition function, int start, int end, int endRow, int endColumn) {
+
+    public FunctionSpan moved(int offsetDelta, int rowDelta) {
+        return new FunctionSpan(function, start + offsetDelta, end + offsetDelta, endRow + rowDelta, endColumn);
+    }
+}
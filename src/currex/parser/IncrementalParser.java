@@ -0,0 +1,136 @@
+package currex.parser;
+
+import currex.lexer.Lexer;
+import currex.source.Source;
+import currex.structure.components.FunctionDefinition;
+import currex.structure.components.Program;
+import currex.token.Position;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+// Keeps the text of a script and where each of its functions lies. An edit re-lexes and re-parses only
+// the functions it touches, together with the whitespace and comments around them, and every other
+// FunctionDefinition is reused. Comments end with their line, so the damage reaches the end of the edited line.
+// Errors are reported from the re-parsed region, where an unclosed function ends at the region instead of
+// running into the next one. After an error the next edit parses the whole script, so does an edit which
+// declares a function again, so that the duplicate is reported like in a full parse.
+public class IncrementalParser {
+    private char[] text;
+    private List<FunctionSpan> spans;
+    private Program program;
+
+    public IncrementalParser(String text) throws Exception {
+        this.text = text.toCharArray();
+        parseAll();
+    }
+
+    public Program getProgram() {
+        return program;
+    }
+
+    public String getText() {
+        return new String(text);
+    }
+
+    public Program edit(int offset, int removedLength, String insertedText) throws Exception {
+        Objects.checkFromIndexSize(offset, removedLength, text.length);
+        int rowDelta = countRows(insertedText.toCharArray(), 0, insertedText.length())
+                - countRows(text, offset, offset + removedLength);
+        int offsetDelta = insertedText.length() - removedLength;
+        char[] edited = new char[text.length + offsetDelta];
+        System.arraycopy(text, 0, edited, 0, offset);
+        insertedText.getChars(0, insertedText.length(), edited, offset);
+        System.arraycopy(text, offset + removedLength, edited, offset + insertedText.length(),
+                text.length - offset - removedLength);
+        text = edited;
+
+        if (spans == null) {
+            parseAll();
+            return program;
+        }
+        int damageEnd = offset + insertedText.length();
+        while (damageEnd < text.length && text[damageEnd] != '\n') {
+            damageEnd++;
+        }
+        // spans are still in the coordinates of the text before the edit
+        int oldDamageEnd = damageEnd - offsetDelta;
+        int firstDamaged = 0;
+        while (firstDamaged < spans.size() && spans.get(firstDamaged).end() < offset) {
+            firstDamaged++;
+        }
+        int firstAfter = firstDamaged;
+        while (firstAfter < spans.size() && spans.get(firstAfter).start() <= oldDamageEnd) {
+            firstAfter++;
+        }
+
+        FunctionSpan before = firstDamaged > 0 ? spans.get(firstDamaged - 1) : null;
+        int regionStart = before != null ? before.end() : 0;
+        int regionEnd = firstAfter < spans.size() ? spans.get(firstAfter).start() + offsetDelta : text.length;
+        Position startPosition = before != null ? new Position(before.endRow(), before.endColumn()) : new Position();
+        List<FunctionSpan> reparsed;
+        try {
+            Parser parser = new Parser(new Lexer(new Source(text, regionStart, regionEnd, startPosition)));
+            parser.parse();
+            reparsed = parser.getFunctionSpans();
+        } catch (Exception e) {
+            spans = null;
+            throw e;
+        }
+
+        List<FunctionSpan> updated = new ArrayList<>(spans.size() - (firstAfter - firstDamaged) + reparsed.size());
+        Set<String> reusedNames = new HashSet<>();
+        for (FunctionSpan span : spans.subList(0, firstDamaged)) {
+            updated.add(span);
+            reusedNames.add(span.function().name());
+        }
+        for (FunctionSpan span : reparsed) {
+            updated.add(span.moved(regionStart, 0));
+        }
+        for (FunctionSpan span : spans.subList(firstAfter, spans.size())) {
+            updated.add(span.moved(offsetDelta, rowDelta));
+            reusedNames.add(span.function().name());
+        }
+        for (FunctionSpan span : reparsed) {
+            if (reusedNames.contains(span.function().name())) {
+                // the full parse reports the duplicate where it is declared
+                parseAll();
+                return program;
+            }
+        }
+        spans = updated;
+        program = toProgram(updated);
+        return program;
+    }
+
+    private void parseAll() throws Exception {
+        spans = null;
+        Parser parser = new Parser(new Lexer(new Source(text)));
+        program = parser.parse();
+        spans = new ArrayList<>(parser.getFunctionSpans());
+    }
+
+    // the same map the parser builds, so the functions are visited in the same order
+    private static Program toProgram(List<FunctionSpan> spans) {
+        Map<String, FunctionDefinition> functionDefinitions = new HashMap<>();
+        for (FunctionSpan span : spans) {
+            functionDefinitions.put(span.function().name(), span.function());
+        }
+        return new Program(functionDefinitions);
+    }
+
+    private static int countRows(char[] chars, int start, int end) {
+        int rows = 0;
+        for (int i = start; i < end; i++) {
+            if (chars[i] == '\n') {
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
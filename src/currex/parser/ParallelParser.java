@@ -0,0 +1,155 @@
+package currex.parser;
+
+import currex.lexer.Lexer;
+import currex.lexer.TokenStream;
+import currex.lexer.error.LexerErrorHandler;
+import currex.parser.error.ParserErrorHandler;
+import currex.source.Source;
+import currex.structure.components.FunctionDefinition;
+import currex.structure.components.Program;
+import currex.token.TokenType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Lexes the whole program, splits the tokens after every closing bracket of a function body and parses
+// ranges of functions on a ForkJoinPool, merging them in source order. Nothing is reported while doing so.
+// If any range fails or a function is declared twice, the program is parsed again by a single Parser,
+// which reports the first error, a DuplicateDeclaration included, exactly like before.
+public class ParallelParser {
+    // ranges with fewer tokens are parsed by one task
+    private static final int TOKENS_PER_TASK = 4096;
+
+    private final ForkJoinPool pool;
+
+    public ParallelParser() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelParser(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public Program parse(char[] chars) throws Exception {
+        List<FunctionDefinition> functions = parseFunctions(chars);
+        if (functions == null) {
+            return new Parser(new Lexer(new Source(chars))).parse();
+        }
+        Map<String, FunctionDefinition> functionDefinitions = new HashMap<>();
+        for (FunctionDefinition function : functions) {
+            functionDefinitions.put(function.name(), function);
+        }
+        return new Program(functionDefinitions);
+    }
+
+    // null when the program has to be parsed sequentially
+    private List<FunctionDefinition> parseFunctions(char[] chars) {
+        TokenStream tokens = new TokenStream();
+        try {
+            Lexer lexer = new Lexer(new Source(chars), tokens.symbols(), new LexerErrorHandler(false));
+            int index = lexer.fetchTokenInto(tokens);
+            while (tokens.type(index) != TokenType.EOF) {
+                index = lexer.fetchTokenInto(tokens);
+            }
+        } catch (Exception e) {
+            return null;
+        }
+        int[] boundaries = splitFunctions(tokens);
+        if (boundaries == null) {
+            return null;
+        }
+        FunctionsTask task = new FunctionsTask(tokens, boundaries, 0, boundaries.length - 1);
+        List<FunctionDefinition> functions = tokens.size() < TOKENS_PER_TASK ? task.compute() : pool.invoke(task);
+        if (functions == null) {
+            return null;
+        }
+        Map<String, FunctionDefinition> declared = new HashMap<>();
+        for (FunctionDefinition function : functions) {
+            if (declared.putIfAbsent(function.name(), function) != null) {
+                return null;
+            }
+        }
+        return functions;
+    }
+
+    // token indices where functions start, the last one is the EOF token
+    private static int[] splitFunctions(TokenStream tokens) {
+        int[] boundaries = new int[16];
+        int count = 1;
+        int depth = 0;
+        int eof = tokens.size() - 1;
+        for (int i = 0; i < eof; i++) {
+            TokenType type = tokens.type(i);
+            if (type == TokenType.LEFT_CURLY_BRACKET) {
+                depth++;
+            } else if (type == TokenType.RIGHT_CURLY_BRACKET && --depth <= 0) {
+                if (depth < 0) {
+                    return null;
+                }
+                if (count == boundaries.length) {
+                    boundaries = Arrays.copyOf(boundaries, count * 2);
+                }
+                boundaries[count++] = i + 1;
+            }
+        }
+        if (boundaries[count - 1] != eof) {
+            if (count == boundaries.length) {
+                boundaries = Arrays.copyOf(boundaries, count + 1);
+            }
+            boundaries[count++] = eof;
+        }
+        return Arrays.copyOf(boundaries, count);
+    }
+
+    // parses the functions between boundaries[from] and boundaries[to]
+    private static class FunctionsTask extends RecursiveTask<List<FunctionDefinition>> {
+        private final TokenStream tokens;
+        private final int[] boundaries;
+        private final int from;
+        private final int to;
+
+        FunctionsTask(TokenStream tokens, int[] boundaries, int from, int to) {
+            this.tokens = tokens;
+            this.boundaries = boundaries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<FunctionDefinition> compute() {
+            if (to - from == 1 || boundaries[to] - boundaries[from] < TOKENS_PER_TASK) {
+                return parseRange();
+            }
+            int middle = (from + to) >>> 1;
+            FunctionsTask left = new FunctionsTask(tokens, boundaries, from, middle);
+            FunctionsTask right = new FunctionsTask(tokens, boundaries, middle, to);
+            left.fork();
+            List<FunctionDefinition> rightFunctions = right.compute();
+            List<FunctionDefinition> leftFunctions = left.join();
+            if (leftFunctions == null || rightFunctions == null) {
+                return null;
+            }
+            leftFunctions.addAll(rightFunctions);
+            return leftFunctions;
+        }
+
+        private List<FunctionDefinition> parseRange() {
+            try {
+                Parser parser = new Parser(tokens, boundaries[from], boundaries[to], new ParserErrorHandler(false));
+                parser.parse();
+                List<FunctionDefinition> functions = new ArrayList<>(parser.getFunctionSpans().size());
+                for (FunctionSpan span : parser.getFunctionSpans()) {
+                    functions.add(span.function());
+                }
+                return functions;
+            } catch (Exception | StackOverflowError e) {
+                return null;
+            }
+        }
+    }
+}
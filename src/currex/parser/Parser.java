@@ -1,6 +1,8 @@
 package currex.parser;
 
+import currex.diagnostic.Diagnostic;
 import currex.lexer.Lexer;
+import currex.lexer.TokenStream;
 import currex.parser.error.*;
 import currex.structure.components.Block;
 import currex.structure.components.FunctionDefinition;
@@ -13,40 +15,111 @@ import currex.token.*;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class Parser {
+    private static final int OR_PRECEDENCE = 1;
+    private static final int COMPARISON_PRECEDENCE = 3;
+    // binary operators by how tightly they bind, the right operand of a cast or conversion is a unary expression
+    private static final Map<TokenType, Integer> PRECEDENCE = new EnumMap<>(Map.ofEntries(
+            Map.entry(TokenType.OR, OR_PRECEDENCE),
+            Map.entry(TokenType.AND, 2),
+            Map.entry(TokenType.GREATER, COMPARISON_PRECEDENCE),
+            Map.entry(TokenType.GREATER_OR_EQUAL, COMPARISON_PRECEDENCE),
+            Map.entry(TokenType.LESSER, COMPARISON_PRECEDENCE),
+            Map.entry(TokenType.LESSER_OR_EQUAL, COMPARISON_PRECEDENCE),
+            Map.entry(TokenType.EQUALITY, COMPARISON_PRECEDENCE),
+            Map.entry(TokenType.INEQUALITY, COMPARISON_PRECEDENCE),
+            Map.entry(TokenType.PLUS, 4),
+            Map.entry(TokenType.MINUS, 4),
+            Map.entry(TokenType.ASTERISK, 5),
+            Map.entry(TokenType.SLASH, 5),
+            Map.entry(TokenType.AT, 6),
+            Map.entry(TokenType.ARROW, 6)));
+
     private final Lexer lexer;
-    private Token currentToken;
+    private final TokenStream tokens;
+    // without a lexer the parser reads tokens [current + 1, end) of an already lexed stream, then its EOF
+    private final int end;
+    // index of the current token in tokens
+    private int current = -1;
+    // index of the last consumed token which is not a comment
+    private int previous = -1;
+    private final List<FunctionSpan> functionSpans = new ArrayList<>();
     private final ParserErrorHandler errorHandler;
+    // a recovering parser collects its errors, skips what it could not parse and returns the rest of the program
+    private final boolean recovering;
 
     public Parser(final Lexer lexer) throws Exception {
+        this(lexer, new ParserErrorHandler(), false);
+    }
+
+    // Recovering mode, a failed statement is skipped up to its ";" or the end of its block and a failed function
+    // up to its closing bracket. Lexer errors are collected too when the lexer has a handler collecting into
+    // the same list, error tokens are then skipped.
+    public Parser(final Lexer lexer, List<Diagnostic> diagnostics) throws Exception {
+        this(lexer, new ParserErrorHandler(diagnostics), true);
+    }
+
+    private Parser(Lexer lexer, ParserErrorHandler errorHandler, boolean recovering) throws Exception {
         this.lexer = lexer;
-        this.errorHandler = new ParserErrorHandler();
+        this.tokens = new TokenStream();
+        this.end = -1;
+        this.errorHandler = errorHandler;
+        this.recovering = recovering;
+        consumeToken();
+    }
+
+    // parses the functions in tokens [start, end), the last token of tokens must be EOF
+    Parser(TokenStream tokens, int start, int end, ParserErrorHandler errorHandler) throws Exception {
+        this.lexer = null;
+        this.tokens = tokens;
+        this.end = end;
+        this.current = start - 1;
+        this.errorHandler = errorHandler;
+        this.recovering = false;
         consumeToken();
     }
 
     // program = {definicja_funkcji};
     public Program parse() throws Exception {
         Map<String, FunctionDefinition> functionDefinitions = new HashMap<>();
-        FunctionDefinition newFunction = parseFunctionDefinition(functionDefinitions);
+        int start = tokens.start(current);
+        FunctionDefinition newFunction = parseFunctionOrRecover(functionDefinitions);
         while (newFunction != null) {
             functionDefinitions.put(newFunction.name(), newFunction);
-            newFunction = parseFunctionDefinition(functionDefinitions);
+            functionSpans.add(new FunctionSpan(newFunction, start, tokens.start(previous) + tokens.length(previous),
+                    tokens.row(previous), tokens.column(previous)));
+            start = tokens.start(current);
+            newFunction = parseFunctionOrRecover(functionDefinitions);
         }
         if (!checkTokenType(TokenType.EOF)) {
             errorHandler.handleParserError(new NotEndOfStreamException("EXPECTED END OF STREAM!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
             return null;
         }
         return new Program(functionDefinitions);
     }
 
+    private FunctionDefinition parseFunctionOrRecover(Map<String, FunctionDefinition> functionDefinitions) throws Exception {
+        while (true) {
+            try {
+                return parseFunctionDefinition(functionDefinitions);
+            } catch (Exception e) {
+                if (!recovering || !errorHandler.isCollected(e)) {
+                    throw e;
+                }
+                skipToClosingBracket();
+            }
+        }
+    }
+
     // definicja_funkcji  = [typ], nazwa_funkcji, "(", [lista_parametrów], ")", blok;
     private FunctionDefinition parseFunctionDefinition(Map<String, FunctionDefinition> functionDefinitions) throws Exception {
-        PrimitiveType functionReturnType = checkPrimitiveType(currentToken.getTokenType());
+        PrimitiveType functionReturnType = checkPrimitiveType(tokens.type(current));
         if (functionReturnType != PrimitiveType.NONE) {
             consumeToken();
         }
@@ -55,22 +128,22 @@ public class Parser {
         }
         if (!checkTokenType(TokenType.IDENTIFIER)) {
             errorHandler.handleParserError(new InvalidIdentifierError("INVALID FUNCTION NAME!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
-        String name = (String) currentToken.getValue();
+        String name = tokens.text(current);
         if (functionDefinitions.containsKey(name)) {
             errorHandler.handleParserError(new DuplicateDeclaration("FUNCTION WITH THIS NAME WAS ALREADY DEFINED!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
         consumeToken();
         if (!consumeIf(TokenType.LEFT_PARENTHESIS)) {
             errorHandler.handleParserError(new MissingParenthesisError("MISSING OPENING PARENTHESIS!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
         List<Parameter> functionParameters = parseParameterList();
         if (!consumeIf(TokenType.RIGHT_PARENTHESIS)) {
             errorHandler.handleParserError(new MissingParenthesisError("MISSING CLOSING PARENTHESIS!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
         Block block = parseBlock();
         return new FunctionDefinition(functionReturnType, name, functionParameters, block);
@@ -90,10 +163,10 @@ public class Parser {
             Parameter parameter = parseParameter();
             if (parameter == null) {
                 errorHandler.handleParserError(new InvalidIdentifierError("INVALID PARAMETER NAME!"),
-                        new Position(currentToken.getPosition()));
+                        tokens.position(current));
             } else if (parameterNames.contains(parameter.name())) {
                 errorHandler.handleParserError(new DuplicateDeclaration("PARAMETER WITH THIS NAME WAS ALREADY DEFINED!"),
-                        new Position(currentToken.getPosition()));
+                        tokens.position(current));
             } else {
                 parameterList.add(parameter);
                 parameterNames.add(parameter.name());
@@ -107,15 +180,15 @@ public class Parser {
         if (checkTokenType(TokenType.RIGHT_PARENTHESIS)) {
             return null;
         }
-        PrimitiveType type = checkPrimitiveType(currentToken.getTokenType());
+        PrimitiveType type = checkPrimitiveType(tokens.type(current));
         consumeToken();
         if (checkTokenType(TokenType.IDENTIFIER)) {
-            String parameterName = (String) currentToken.getValue();
+            String parameterName = tokens.text(current);
             consumeToken();
             return new Parameter(type, parameterName);
         }
         errorHandler.handleParserError(new InvalidIdentifierError("INVALID PARAMETER NAME!"),
-                new Position(currentToken.getPosition()));
+                tokens.position(current));
         return null;
     }
 
@@ -123,70 +196,116 @@ public class Parser {
     private Block parseBlock() throws Exception {
         if (!consumeIf(TokenType.LEFT_CURLY_BRACKET)) {
             errorHandler.handleParserError(new MissingBracketError("MISSING OPENING BRACKET!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
         List<Statement> statements = new ArrayList<>();
-        Statement currentStatement = parseStatement();
+        Statement currentStatement = parseStatementOrRecover();
         while (currentStatement != null) {
             statements.add(currentStatement);
-            currentStatement = parseStatement();
+            currentStatement = parseStatementOrRecover();
         }
         if (!consumeIf(TokenType.RIGHT_CURLY_BRACKET)) {
             errorHandler.handleParserError(new MissingBracketError("MISSING CLOSING BRACKET!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
         return new Block(statements);
     }
 
-    // instrukcja = (deklaracja | przypisanie | return), ";" | wyrażenie_if | wyrażenie_while;
-    private Statement parseStatement() throws Exception {
-        Statement statement = parseDeclaration();
-        if (statement != null) {
-            return statement;
-        }
-        statement = parseAssignment();
-        if (statement != null) {
-            return statement;
+    private Statement parseStatementOrRecover() throws Exception {
+        while (true) {
+            try {
+                Statement statement = parseStatement();
+                // only the end of the block may follow the statements, the plain parser reports it after the loop
+                if (statement == null && recovering && !checkTokenType(TokenType.RIGHT_CURLY_BRACKET)
+                        && !checkTokenType(TokenType.EOF)) {
+                    errorHandler.handleParserError(new MissingBracketError("MISSING CLOSING BRACKET!"),
+                            tokens.position(current));
+                }
+                return statement;
+            } catch (Exception e) {
+                if (!recovering || !errorHandler.isCollected(e)) {
+                    throw e;
+                }
+                skipStatement();
+            }
         }
-        statement = parseIf();
-        if (statement != null) {
-            return statement;
+    }
+
+    // stops after a ";" or the block of an if or while, or before the bracket closing the enclosing block
+    private void skipStatement() throws Exception {
+        int depth = 0;
+        while (!checkTokenType(TokenType.EOF)) {
+            if (checkTokenType(TokenType.SEMICOLON) && depth == 0) {
+                consumeToken();
+                return;
+            }
+            if (checkTokenType(TokenType.LEFT_CURLY_BRACKET)) {
+                depth++;
+            } else if (checkTokenType(TokenType.RIGHT_CURLY_BRACKET)) {
+                if (depth == 0) {
+                    return;
+                }
+                if (--depth == 0) {
+                    consumeToken();
+                    return;
+                }
+            }
+            consumeToken();
         }
-        statement = parseWhile();
-        if (statement != null) {
-            return statement;
+    }
+
+    // stops after the bracket closing the block the parser is in, or the next block when it is in none
+    private void skipToClosingBracket() throws Exception {
+        int depth = 0;
+        while (!checkTokenType(TokenType.EOF)) {
+            if (checkTokenType(TokenType.LEFT_CURLY_BRACKET)) {
+                depth++;
+            } else if (checkTokenType(TokenType.RIGHT_CURLY_BRACKET) && --depth <= 0) {
+                consumeToken();
+                return;
+            }
+            consumeToken();
         }
-        statement = parseReturn();
-        return statement;
-        // jeżeli null -> wyrzuć błąd
+    }
+
+    // instrukcja = (deklaracja | przypisanie | return), ";" | wyrażenie_if | wyrażenie_while;
+    // the first token decides the statement, anything else is left to the assignment, which may find none
+    private Statement parseStatement() throws Exception {
+        return switch (tokens.type(current)) {
+            case INTEGER, FLOAT, BOOL, STRING, CURRENCY -> parseDeclaration();
+            case IF -> parseIf();
+            case WHILE -> parseWhile();
+            case RETURN -> parseReturn();
+            default -> parseAssignment();
+        };
     }
 
     // deklaracja = typ, identyfikator, [operator_przypisania, wyrażenie];
     private DeclarationStatement parseDeclaration() throws Exception {
-        PrimitiveType type = checkPrimitiveType(currentToken.getTokenType());
+        PrimitiveType type = checkPrimitiveType(tokens.type(current));
         if (type == PrimitiveType.NONE) {
             return null;
         }
         consumeToken();
         if (!checkTokenType(TokenType.IDENTIFIER)) {
             errorHandler.handleParserError(new InvalidIdentifierError("INVALID IDENTIFIER NAME!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
-        String variableName = (String) currentToken.getValue();
+        String variableName = tokens.text(current);
         consumeToken();
         if (!consumeIf(TokenType.EQUALS)) {
             errorHandler.handleParserError(new InvalidIdentifierError("INVALID ASSIGNMENT OPERATOR!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
         Expression expression = parseExpression();
         if (expression == null) {
             errorHandler.handleParserError(new InvalidIdentifierError("INVALID VARIABLE DECLARATION!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
         DeclarationStatement declaration = new DeclarationStatement(type, variableName, expression);
         if (!consumeIf(TokenType.SEMICOLON)) {
             errorHandler.handleParserError(new MissingSemicolonError("MISSING SEMICOLON AT THE END OF THE LINE!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
         return declaration;
     }
@@ -202,13 +321,13 @@ public class Parser {
             Expression rightExpression = parseExpression();
             if (rightExpression == null) {
                 errorHandler.handleParserError(new MissingExpressionError("MISSING SECOND EXPRESSION!"),
-                        new Position(currentToken.getPosition()));
+                        tokens.position(current));
             }
             assignment = new AssignmentStatement(leftExpression, rightExpression);
         }
         if (!consumeIf(TokenType.SEMICOLON)) {
             errorHandler.handleParserError(new MissingSemicolonError("MISSING SEMICOLON AT THE END OF THE LINE!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
         return assignment;
     }
@@ -220,17 +339,17 @@ public class Parser {
         }
         if (!consumeIf(TokenType.LEFT_PARENTHESIS)) {
             errorHandler.handleParserError(new MissingParenthesisError("MISSING OPENING PARENTHESIS!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
         Expression expression = parseExpression();
         if (!consumeIf(TokenType.RIGHT_PARENTHESIS)) {
             errorHandler.handleParserError(new MissingParenthesisError("MISSING CLOSING PARENTHESIS!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
         Block block = parseBlock();
         if (block.statementList().isEmpty()) {
             errorHandler.handleParserError(new EmptyWhileBlockError("EMPTY WHILE BLOCK!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
         return new WhileStatement(expression, block);
     }
@@ -244,17 +363,17 @@ public class Parser {
         }
         if (!consumeIf(TokenType.LEFT_PARENTHESIS)) {
             errorHandler.handleParserError(new MissingParenthesisError("MISSING OPENING PARENTHESIS!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
         Expression ifCondition = parseExpression();
         if (!consumeIf(TokenType.RIGHT_PARENTHESIS)) {
             errorHandler.handleParserError(new MissingParenthesisError("MISSING CLOSING PARENTHESIS!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
         Block ifBlock = parseBlock();
         if (ifBlock.statementList().isEmpty()) {
             errorHandler.handleParserError(new EmptyIfElseBlockError("EMPTY IF BLOCK!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
         ElseStatement ifStatementCondition = new ElseStatement(ifCondition, ifBlock);
         conditionalStatements.add(ifStatementCondition);
@@ -263,7 +382,7 @@ public class Parser {
             Block elseBlock = parseBlock();
             if (elseBlock.statementList().isEmpty()) {
                 errorHandler.handleParserError(new EmptyIfElseBlockError("EMPTY ELSE BLOCK!"),
-                        new Position(currentToken.getPosition()));
+                        tokens.position(current));
             }
             ElseStatement elseStatement = new ElseStatement(elseCondition, elseBlock);
             conditionalStatements.add(elseStatement);
@@ -278,12 +397,12 @@ public class Parser {
         }
         if (!consumeIf(TokenType.LEFT_PARENTHESIS)) {
             errorHandler.handleParserError(new MissingParenthesisError("MISSING OPENING PARENTHESIS!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
         Expression expression = parseExpression();
         if (!consumeIf(TokenType.RIGHT_PARENTHESIS)) {
             errorHandler.handleParserError(new MissingParenthesisError("MISSING CLOSING PARENTHESIS!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
         return expression;
     }
@@ -296,137 +415,51 @@ public class Parser {
         Expression expression = parseExpression();
         if (!consumeIf(TokenType.SEMICOLON)) {
             errorHandler.handleParserError(new MissingSemicolonError("MISSING SEMICOLON AT THE END OF THE LINE!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
         return new ReturnStatement(expression);
     }
 
     // wyrażenie = wyrażenie_or;
     private Expression parseExpression() throws Exception {
-        return parseOrExpression();
+        return parseBinaryExpression(OR_PRECEDENCE);
     }
 
     // wyrażenie_or = wyrażenie_and, {operator_or, wyrażenie_and};
-    private Expression parseOrExpression() throws Exception {
-        Expression leftExpression = parseAndExpression();
-        if (leftExpression == null) {
-            return null;
-        }
-        while (consumeIf(TokenType.OR)) {
-            Expression rightExpression = parseAndExpression();
-            if (rightExpression == null) {
-                errorHandler.handleParserError(new MissingExpressionError("MISSING SECOND EXPRESSION!"),
-                        new Position(currentToken.getPosition()));
-            }
-            leftExpression = new OrExpression(leftExpression, rightExpression);
-        }
-        return leftExpression;
-    }
-
     // wyrażenie_and = porównanie, {operator_and, porównanie};
-    private Expression parseAndExpression() throws Exception {
-        Expression leftExpression = parseComparisonExpression();
-        if (leftExpression == null) {
-            return null;
-        }
-        while (consumeIf(TokenType.AND)) {
-            Expression rightExpression = parseComparisonExpression();
-            if (rightExpression == null) {
-                errorHandler.handleParserError(new MissingExpressionError("MISSING SECOND EXPRESSION!"),
-                        new Position(currentToken.getPosition()));
-            }
-            leftExpression = new AndExpression(leftExpression, rightExpression);
-        }
-        return leftExpression;
-    }
-
     // porównanie = wyrażenie_dodania, [przyrównanie, wyrażenie_dodania];
-    private Expression parseComparisonExpression() throws Exception {
-        Expression leftExpression = parseAdditionExpression();
-        if (leftExpression == null) {
-            return null;
-        }
-        TokenType tokenType;
-        if (checkTokenType(TokenType.GREATER) || checkTokenType(TokenType.GREATER_OR_EQUAL) ||
-                checkTokenType(TokenType.LESSER) || checkTokenType(TokenType.LESSER_OR_EQUAL) ||
-                checkTokenType(TokenType.EQUALITY) || checkTokenType(TokenType.INEQUALITY)) {
-            tokenType = currentToken.getTokenType();
-            consumeToken();
-            Expression rightExpression = parseAdditionExpression();
-            if (rightExpression == null) {
-                errorHandler.handleParserError(new MissingExpressionError("MISSING SECOND EXPRESSION!"),
-                        new Position(currentToken.getPosition()));
-            }
-            return checkOperator(tokenType, leftExpression, rightExpression);
-        }
-        return leftExpression;
-    }
-
     // wyrażenie_dodania = wyrażenie_mnożenia, {operator_addytywny, wyrażenie_mnożenia};
-    private Expression parseAdditionExpression() throws Exception {
-        Expression leftExpression = parseMultiplicationExpression();
-        if (leftExpression == null) {
-            return null;
-        }
-        TokenType tokenType;
-        while (checkTokenType(TokenType.PLUS) || checkTokenType(TokenType.MINUS)) {
-            tokenType = currentToken.getTokenType();
-            consumeToken();
-            Expression rightExpression = parseMultiplicationExpression();
-            if (rightExpression == null) {
-                errorHandler.handleParserError(new MissingExpressionError("MISSING SECOND EXPRESSION!"),
-                        new Position(currentToken.getPosition()));
-            }
-            leftExpression = checkOperator(tokenType, leftExpression, rightExpression);
-        }
-        return leftExpression;
-    }
-
     // wyrażenie_mnożenia = wyrażenie_rzutu, {multiplikacje, wyrażenie_rzutu};
-    private Expression parseMultiplicationExpression() throws Exception {
-        Expression leftExpression = parseCurrencyCastExpression();
-        if (leftExpression == null) {
-            return null;
-        }
-        TokenType tokenType;
-        while (checkTokenType(TokenType.ASTERISK) || checkTokenType(TokenType.SLASH)) {
-            tokenType = currentToken.getTokenType();
-            consumeToken();
-            Expression rightExpression = parseCurrencyCastExpression();
-            if (rightExpression == null) {
-                errorHandler.handleParserError(new MissingExpressionError("MISSING SECOND EXPRESSION!"),
-                        new Position(currentToken.getPosition()));
-            }
-            leftExpression = checkOperator(tokenType, leftExpression, rightExpression);
-        }
-        return leftExpression;
-    }
-
     // wyrażenie_rzutu = wyrażenie_unarne, {(operator_rzutu | operator_wymiany), nazwa_waluty}
-    private Expression parseCurrencyCastExpression() throws Exception {
+    // Precedence climbing over PRECEDENCE: operators of at least minPrecedence are joined to the left, the right
+    // operand takes only tighter ones. maxPrecedence stops a comparison from taking a second comparison.
+    private Expression parseBinaryExpression(int minPrecedence) throws Exception {
         Expression leftExpression = parseUnaryExpression();
         if (leftExpression == null) {
             return null;
         }
-        TokenType tokenType;
-        while (checkTokenType(TokenType.AT) || checkTokenType(TokenType.ARROW)) {
-            tokenType = currentToken.getTokenType();
+        int maxPrecedence = Integer.MAX_VALUE;
+        while (true) {
+            TokenType tokenType = tokens.type(current);
+            int precedence = PRECEDENCE.getOrDefault(tokenType, 0);
+            if (precedence < minPrecedence || precedence > maxPrecedence) {
+                return leftExpression;
+            }
             consumeToken();
-//            Expression rightExpression = parseIdentifierOrFunctionCall();
-            Expression rightExpression = parseUnaryExpression();
+            Expression rightExpression = parseBinaryExpression(precedence + 1);
             if (rightExpression == null) {
                 errorHandler.handleParserError(new MissingExpressionError("MISSING SECOND EXPRESSION!"),
-                        new Position(currentToken.getPosition()));
+                        tokens.position(current));
             }
             leftExpression = checkOperator(tokenType, leftExpression, rightExpression);
+            maxPrecedence = precedence == COMPARISON_PRECEDENCE ? precedence - 1 : precedence;
         }
-        return leftExpression;
     }
 
     // wyrażenie_unarne = [operator_unarny], (wyrażenie_dostępu | literał);
     private Expression parseUnaryExpression() throws Exception {
         if (checkTokenType(TokenType.MINUS) || checkTokenType(TokenType.EXCLAMATION)) {
-            TokenType tokenType = currentToken.getTokenType();
+            TokenType tokenType = tokens.type(current);
             consumeToken();
             Expression expression = parseAccessExpression();
             switch (tokenType) {
@@ -449,7 +482,7 @@ public class Parser {
             Expression rightExpression = parseIdentifierOrFunctionCall();
             if (rightExpression == null) {
                 errorHandler.handleParserError(new MissingExpressionError("MISSING SECOND EXPRESSION!"),
-                        new Position(currentToken.getPosition()));
+                        tokens.position(current));
             }
             leftExpression = new AccessExpression(leftExpression, rightExpression);
         }
@@ -472,11 +505,11 @@ public class Parser {
         expression = parseExpression();
         if (expression == null) {
             errorHandler.handleParserError(new MissingExpressionError("MISSING SECOND EXPRESSION!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
         if (!consumeIf(TokenType.RIGHT_PARENTHESIS)) {
             errorHandler.handleParserError(new MissingParenthesisError("MISSING CLOSING PARENTHESIS!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
         return expression;
     }
@@ -486,7 +519,7 @@ public class Parser {
         if (!checkTokenType(TokenType.IDENTIFIER)) {
             return null;
         }
-        String name = (String) currentToken.getValue();
+        String name = tokens.text(current);
         consumeToken();
         List<Expression> functionArguments = parseArguments();
         if (functionArguments == null) {
@@ -508,14 +541,14 @@ public class Parser {
                 arg = parseExpression();
                 if (arg == null) {
                     errorHandler.handleParserError(new InvalidArgumentError("INVALID OR MISSING ARGUMENT!"),
-                            new Position(currentToken.getPosition()));
+                            tokens.position(current));
                 }
                 arguments.add(arg);
             }
         }
         if (!consumeIf(TokenType.RIGHT_PARENTHESIS)) {
             errorHandler.handleParserError(new MissingParenthesisError("MISSING CLOSING PARENTHESIS!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
         return arguments;
     }
@@ -523,7 +556,7 @@ public class Parser {
     // literał = boolean | ((liczba | float), [nazwa_waluty]) | string;
     private Primitive parsePrimitive() throws Exception {
         if (checkTokenType(TokenType.STRING_VALUE)) {
-            String value = (String) currentToken.getValue();
+            String value = tokens.text(current);
             consumeToken();
             return new StringPrimitive(value);
         }
@@ -538,35 +571,54 @@ public class Parser {
     // currency_value = float, identifier;
     private Primitive parseCurrency() throws Exception {
         Integer integerValue = null;
-        Double floatValue = null;
+        int floatToken = -1;
         if (checkTokenType(TokenType.INTEGER_VALUE)) {
-            integerValue = (Integer) currentToken.getValue();
+            integerValue = tokens.intValue(current);
             consumeToken();
         }
         if (checkTokenType(TokenType.FLOAT_VALUE)) {
-            floatValue = (Double) currentToken.getValue();
+            floatToken = current;
             consumeToken();
         }
-        if (checkTokenType(TokenType.IDENTIFIER) && (integerValue != null || floatValue != null)) {
-            String currency = (String) currentToken.getValue();
+        if (checkTokenType(TokenType.IDENTIFIER) && (integerValue != null || floatToken != -1)) {
+            String currency = tokens.text(current);
             consumeToken();
-            Double castedValue = integerValue == null ? floatValue : Double.valueOf(integerValue);
-            BigDecimal value = BigDecimal.valueOf(castedValue);
+            // integer amounts get one decimal place, like float literals without a fraction
+            BigDecimal value = integerValue == null ?
+                    tokens.decimalValue(floatToken) : BigDecimal.valueOf(integerValue * 10L, 1);
             return new CurrencyPrimitive(value, currency);
         }
         if (integerValue != null) {
             return new IntPrimitive(integerValue);
-        } else if (floatValue != null) {
-            return new FloatPrimitive(floatValue);
+        } else if (floatToken != -1) {
+            return new FloatPrimitive(tokens.floatValue(floatToken));
         }
         return null;
     }
 
+    // where each function of the last parse() lies in the source, in source order
+    public List<FunctionSpan> getFunctionSpans() {
+        return functionSpans;
+    }
+
     private void consumeToken() throws Exception {
-        currentToken = lexer.fetchToken();
-        while (currentToken.getTokenType() == TokenType.COMMENT) {
-            currentToken = lexer.fetchToken();
+        previous = current;
+        current = nextToken();
+        while (tokens.type(current) == TokenType.COMMENT || recovering && isErrorToken(tokens.type(current))) {
+            current = nextToken();
+        }
+    }
+
+    private int nextToken() throws Exception {
+        if (lexer != null) {
+            return lexer.fetchTokenInto(tokens);
         }
+        return current + 1 < end ? current + 1 : tokens.size() - 1;
+    }
+
+    // the lexer has collected the error already
+    private static boolean isErrorToken(TokenType tokenType) {
+        return tokenType.compareTo(TokenType.UNKNOWN) >= 0;
     }
 
     private boolean consumeIf(TokenType tokenType) throws Exception {
@@ -578,7 +630,7 @@ public class Parser {
     }
 
     private boolean checkTokenType(TokenType tokenType) {
-        return currentToken.getTokenType() == tokenType;
+        return tokens.type(current) == tokenType;
     }
 
     private PrimitiveType checkPrimitiveType(TokenType tokenType) {
@@ -594,6 +646,8 @@ public class Parser {
 
     private Expression checkOperator(TokenType tokenType, Expression left, Expression right) {
         return switch(tokenType) {
+            case OR -> new OrExpression(left, right);
+            case AND -> new AndExpression(left, right);
             case AT -> new CurrencyCastExpression(left, right);
             case ARROW -> new CurrencyConversionExpression(left, right);
             case ASTERISK -> new MultiplicationExpression(left, right);
@@ -1,6 +1,8 @@
 package currex.parser;
 
+import currex.diagnostic.Diagnostic;
 import currex.lexer.Lexer;
+import currex.lexer.TokenStream;
 import currex.parser.error.*;
 import currex.structure.table.*;
 import currex.token.Position;
@@ -13,12 +15,26 @@ import java.util.List;
 
 public class TableParser {
     private final Lexer lexer;
-    private Token currentToken;
+    private final TokenStream tokens = new TokenStream();
+    // index of the current token in tokens
+    private int current = -1;
     private final ParserErrorHandler errorHandler;
+    private final boolean recovering;
 
     public TableParser(final Lexer lexer) throws Exception {
+        this(lexer, new ParserErrorHandler(), false);
+    }
+
+    // Recovering mode, a row which fails is skipped up to its ";" and every error is collected into diagnostics.
+    // The lexer should collect into the same list.
+    public TableParser(final Lexer lexer, List<Diagnostic> diagnostics) throws Exception {
+        this(lexer, new ParserErrorHandler(diagnostics), true);
+    }
+
+    private TableParser(Lexer lexer, ParserErrorHandler errorHandler, boolean recovering) throws Exception {
         this.lexer = lexer;
-        this.errorHandler = new ParserErrorHandler();
+        this.errorHandler = errorHandler;
+        this.recovering = recovering;
         consumeToken();
     }
 
@@ -31,89 +47,130 @@ public class TableParser {
         List<ConversionRowExpression> tableRows = new ArrayList<>();
         List<String> declaredRowCurrencies = new ArrayList<>();
         List<String> declaredHeaderCurrencies = new ArrayList<>();
-        CurrencyRowExpression currencyRow = parseCurrencyRow();
+        CurrencyRowExpression currencyRow = parseCurrencyRowOrRecover();
         for (CurrencyIdentifierExpression identifier : currencyRow.currencyNames()) {
             declaredHeaderCurrencies.add(identifier.name());
         }
-        ConversionRowExpression conversionRow = parseConversionRow();
+        ConversionRowExpression conversionRow = parseConversionRowOrRecover();
         while (conversionRow.currencyName() != null) {
             String currencyName = conversionRow.currencyName().name();
             if (declaredRowCurrencies.contains(currencyName)) {
-                errorHandler.handleParserError(new DuplicateCurrencyDeclarationError("CURRENCY " +
-                                currencyName + " IS ALREADY DEFINED IN A TABLE!"),
-                        new Position(currentToken.getPosition()));
+                report(new DuplicateCurrencyDeclarationError("CURRENCY " +
+                        currencyName + " IS ALREADY DEFINED IN A TABLE!"));
+            }
+            else if (!declaredHeaderCurrencies.contains(currencyName)) {
+                report(new CurrencyNotDeclaredError("CURRENCY " +
+                        currencyName + " WAS NOT DEFINED IN A TABLE HEADER!"));
             }
-            if (!declaredHeaderCurrencies.contains(currencyName)) {
-                errorHandler.handleParserError(new CurrencyNotDeclaredError("CURRENCY " +
-                                currencyName + " WAS NOT DEFINED IN A TABLE HEADER!"),
-                        new Position(currentToken.getPosition()));
+            else {
+                tableRows.add(conversionRow);
+                declaredRowCurrencies.add(currencyName);
             }
-            tableRows.add(conversionRow);
-            declaredRowCurrencies.add(currencyName);
-            conversionRow = parseConversionRow();
+            conversionRow = parseConversionRowOrRecover();
         }
         if (declaredHeaderCurrencies.size() != declaredRowCurrencies.size()) {
-            errorHandler.handleParserError(new InvalidCurrencyTableError("HEADER CURRENCIES COUNT OF " +
-                            declaredHeaderCurrencies.size() + " DOES NOT MATCH ROW CURRENCIES COUNT OF " +
-                            declaredRowCurrencies.size() + "!"),
-                    new Position(currentToken.getPosition()));
+            report(new InvalidCurrencyTableError("HEADER CURRENCIES COUNT OF " +
+                    declaredHeaderCurrencies.size() + " DOES NOT MATCH ROW CURRENCIES COUNT OF " +
+                    declaredRowCurrencies.size() + "!"));
         }
         if (!checkTokenType(TokenType.EOF)) {
-            errorHandler.handleParserError(new NotEndOfStreamException("EXPECTED END OF STREAM!"),
-                    new Position(currentToken.getPosition()));
-            return null;
+            report(new NotEndOfStreamException("EXPECTED END OF STREAM!"));
         }
         return new TableStatement(currencyRow, tableRows);
     }
 
-    // waluty = {identyfikator}, ";";
-    private CurrencyRowExpression parseCurrencyRow() throws Exception {
+    private CurrencyRowExpression parseCurrencyRowOrRecover() throws Exception {
         List<CurrencyIdentifierExpression> columnCurrencies = new ArrayList<>();
+        try {
+            parseCurrencyRow(columnCurrencies);
+        } catch (Exception e) {
+            if (!recovering || !errorHandler.isCollected(e)) {
+                throw e;
+            }
+            skipRow();
+        }
+        return new CurrencyRowExpression(columnCurrencies);
+    }
+
+    private ConversionRowExpression parseConversionRowOrRecover() throws Exception {
+        while (true) {
+            try {
+                return parseConversionRow();
+            } catch (Exception e) {
+                if (!recovering || !errorHandler.isCollected(e)) {
+                    throw e;
+                }
+                skipRow();
+            }
+        }
+    }
+
+    private void skipRow() throws Exception {
+        while (!checkTokenType(TokenType.EOF)) {
+            if (consumeIf(TokenType.SEMICOLON)) {
+                return;
+            }
+            consumeToken();
+        }
+    }
+
+    // for errors after which the parser can go on, a recovering parser only collects them
+    private void report(Exception error) throws Exception {
+        try {
+            errorHandler.handleParserError(error, tokens.position(current));
+        } catch (Exception e) {
+            if (!recovering || e != error) {
+                throw e;
+            }
+        }
+    }
+
+    // waluty = {identyfikator}, ";";
+    private void parseCurrencyRow(List<CurrencyIdentifierExpression> columnCurrencies) throws Exception {
         List<String> temporaryCurrencyList = new ArrayList<>();
-        while (currentToken.getTokenType() == TokenType.IDENTIFIER) {
+        while (tokens.type(current) == TokenType.IDENTIFIER) {
             CurrencyIdentifierExpression identifier = parseCurrencyIdentifier();
             if (temporaryCurrencyList.contains(identifier.name())) {
                 errorHandler.handleParserError(new DuplicateCurrencyDeclarationError("CURRENCY " +
                                 identifier.name() + " IS ALREADY DEFINED IN A TABLE!"),
-                        new Position(currentToken.getPosition()));
+                        tokens.position(current));
             }
             temporaryCurrencyList.add(identifier.name());
             columnCurrencies.add(identifier);
         }
         if (!consumeIf(TokenType.SEMICOLON)) {
             errorHandler.handleParserError(new MissingSemicolonError("MISSING SEMICOLON AT THE END OF THE LINE!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
-        return new CurrencyRowExpression(columnCurrencies);
     }
 
     // rząd_konwersji = identyfikator, {przelicznik}, ";";
     private ConversionRowExpression parseConversionRow() throws Exception {
         List<ConversionRateExpression> rowConversionRates = new ArrayList<>();
         CurrencyIdentifierExpression identifier = parseCurrencyIdentifier();
-        while (currentToken.getTokenType() == TokenType.INTEGER_VALUE ||
-                currentToken.getTokenType() == TokenType.FLOAT_VALUE ||
-                currentToken.getTokenType() == TokenType.MINUS) {
+        while (tokens.type(current) == TokenType.INTEGER_VALUE ||
+                tokens.type(current) == TokenType.FLOAT_VALUE ||
+                tokens.type(current) == TokenType.MINUS) {
             if (rowConversionRates.size() == CurrexConfig.MAX_CONVERSION_TABLE_SIZE) {
                 errorHandler.handleParserError(new TooManyCurrencyRatesError("TOO MANY CURRENCIES IN A ROW, " +
                                 "EXPECTED " + CurrexConfig.MAX_CONVERSION_TABLE_SIZE + " BUT RECEIVED" +
                                 (CurrexConfig.MAX_CONVERSION_TABLE_SIZE + 1) + "!"),
-                        new Position(currentToken.getPosition()));
+                        tokens.position(current));
             }
-            if (currentToken.getTokenType() == TokenType.MINUS) {
+            if (tokens.type(current) == TokenType.MINUS) {
                 errorHandler.handleParserError(new NegationNotAllowedError("NEGATION IS NOT ALLOWED!"),
-                        new Position(currentToken.getPosition()));
+                        tokens.position(current));
             }
             ConversionRateExpression conversionRate = parseConversionRate();
             rowConversionRates.add(conversionRate);
         }
-        if (currentToken.getTokenType() == TokenType.IDENTIFIER) {
-            errorHandler.handleParserError(new InvalidCurrencyRateError("INVALID CURRENCY RATE " + currentToken.getValue()),
-                    new Position(currentToken.getPosition()));
+        if (tokens.type(current) == TokenType.IDENTIFIER) {
+            errorHandler.handleParserError(new InvalidCurrencyRateError("INVALID CURRENCY RATE " + tokens.value(current)),
+                    tokens.position(current));
         }
         if (!consumeIf(TokenType.SEMICOLON) && !checkTokenType(TokenType.EOF)) {
             errorHandler.handleParserError(new MissingSemicolonError("MISSING SEMICOLON AT THE END OF THE LINE!"),
-                    new Position(currentToken.getPosition()));
+                    tokens.position(current));
         }
         return new ConversionRowExpression(identifier, rowConversionRates);
     }
@@ -121,17 +178,17 @@ public class TableParser {
     // przelicznik = float;
     private ConversionRateExpression parseConversionRate() throws Exception {
         if (checkTokenType(TokenType.FLOAT_VALUE)) {
-            Double floatValue = (Double) currentToken.getValue();
+            Double floatValue = tokens.floatValue(current);
             consumeToken();
             return new ConversionRateExpression(floatValue);
         }
         else if (checkTokenType(TokenType.INTEGER_VALUE)) {
-            Integer floatValue = (Integer) currentToken.getValue();
+            Integer floatValue = tokens.intValue(current);
             consumeToken();
             return new ConversionRateExpression(Double.valueOf(floatValue));
         }
-        errorHandler.handleParserError(new InvalidCurrencyRateError("INVALID CURRENCY RATE " + currentToken.getValue()),
-                new Position(currentToken.getPosition()));
+        errorHandler.handleParserError(new InvalidCurrencyRateError("INVALID CURRENCY RATE " + tokens.value(current)),
+                tokens.position(current));
         return null;
     }
 
@@ -139,15 +196,17 @@ public class TableParser {
         if (!checkTokenType(TokenType.IDENTIFIER)) {
             return null;
         }
-        String name = (String) currentToken.getValue();
+        String name = tokens.text(current);
         consumeToken();
         return new CurrencyIdentifierExpression(name);
     }
 
     private void consumeToken() throws Exception {
-        currentToken = lexer.fetchToken();
-        while (currentToken.getTokenType() == TokenType.COMMENT) {
-            currentToken = lexer.fetchToken();
+        current = lexer.fetchTokenInto(tokens);
+        // in the recovering mode the lexer has collected the error of an error token already
+        while (tokens.type(current) == TokenType.COMMENT
+                || recovering && tokens.type(current).compareTo(TokenType.UNKNOWN) >= 0) {
+            current = lexer.fetchTokenInto(tokens);
         }
     }
 
@@ -160,6 +219,6 @@ public class TableParser {
     }
 
     private boolean checkTokenType(TokenType tokenType) {
-        return currentToken.getTokenType() == tokenType;
+        return tokens.type(current) == tokenType;
     }
 }
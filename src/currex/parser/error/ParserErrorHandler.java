@@ -1,16 +1,42 @@
 package currex.parser.error;
 
+import currex.diagnostic.Diagnostic;
 import currex.token.Position;
 
+import java.util.List;
+
 public class ParserErrorHandler {
-    public ParserErrorHandler() {}
+    private final boolean reporting;
+    private final List<Diagnostic> diagnostics;
+
+    public ParserErrorHandler() {
+        this(true);
+    }
+
+    // without reporting the error is only thrown, for parses which are retried when they fail
+    public ParserErrorHandler(boolean reporting) {
+        this.reporting = reporting;
+        this.diagnostics = null;
+    }
+
+    // collects every error instead of printing it, a recovering parser catches the error and goes on
+    public ParserErrorHandler(List<Diagnostic> diagnostics) {
+        this.reporting = false;
+        this.diagnostics = diagnostics;
+    }
 
     public void handleParserError(Exception exception, Position position) throws Exception {
-        System.out.println("An error has occured in line "
-                + position.getRow()
-                + " in column "
-                + position.getColumn() + ":\n"
-                + exception.getMessage());
+        if (reporting) {
+            System.out.println(new Diagnostic(exception, position));
+        }
+        if (diagnostics != null) {
+            diagnostics.add(new Diagnostic(exception, position));
+        }
         throw exception;
     }
+
+    // whether the error went through this handler, anything else is not a syntax error
+    public boolean isCollected(Exception exception) {
+        return diagnostics != null && !diagnostics.isEmpty() && diagnostics.get(diagnostics.size() - 1).error() == exception;
+    }
 }
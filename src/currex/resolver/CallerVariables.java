@@ -0,0 +1,160 @@
+package currex.resolver;
+
+import currex.structure.components.Block;
+import currex.structure.components.FunctionDefinition;
+import currex.structure.components.Parameter;
+import currex.structure.components.Program;
+import currex.structure.components.VariableSlot;
+import currex.structure.expressions.AccessExpression;
+import currex.structure.expressions.FunctionCallExpression;
+import currex.structure.expressions.IdentifierExpression;
+import currex.structure.primitives.PrimitiveType;
+import currex.structure.statements.DeclarationStatement;
+import currex.utils.CurrexConfig;
+import currex.visitor.RewritingVisitor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Finds the types of the variables which functions of a resolved program read from the frames of their
+// callers. The tree-walking interpreter takes such a name from the innermost live variable of the nearest
+// frame holding one, engines with typed registers need its type up front, so it is collected from every
+// call reachable from main. A name gets more than one type when callers declare it differently.
+public class CallerVariables extends RewritingVisitor {
+    private final Map<String, FunctionDefinition> functionDefinitions = new HashMap<>();
+    private final Map<String, Set<String>> lookups = new HashMap<>();
+    private final List<CallSite> callSites = new ArrayList<>();
+    private final Map<String, Map<String, Set<PrimitiveType>>> types = new HashMap<>();
+    private final Set<String> names = new HashSet<>();
+    private String currentFunction;
+    private String[] slotNames;
+    private PrimitiveType[] slotTypes;
+
+    // variables live in the calling frame at the moment of the call, by name
+    private record CallSite(String caller, String callee, Map<String, PrimitiveType> variables) {}
+
+    public CallerVariables(Program program) throws Exception {
+        functionDefinitions.putAll(program.functionDefinitions());
+        Set<String> reached = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+        pending.add(CurrexConfig.MAIN_FUNCTION_NAME);
+        while (!pending.isEmpty()) {
+            String name = pending.poll();
+            FunctionDefinition function = functionDefinitions.get(name);
+            if (function != null && reached.add(name)) {
+                int callCount = callSites.size();
+                currentFunction = name;
+                rewrite(function);
+                for (CallSite callSite : callSites.subList(callCount, callSites.size())) {
+                    pending.add(callSite.callee());
+                }
+            }
+        }
+        for (Set<String> functionLookups : lookups.values()) {
+            names.addAll(functionLookups);
+        }
+        propagate();
+    }
+
+    // names some function reads from its callers
+    public Set<String> names() {
+        return names;
+    }
+
+    // types the name can have in the callers of the function, empty when no caller declares it
+    public Set<PrimitiveType> typesOf(String function, String name) {
+        return types.getOrDefault(function, Map.of()).getOrDefault(name, Set.of());
+    }
+
+    @Override
+    public void visit(FunctionDefinition functionDefinition) throws Exception {
+        List<Parameter> parameters = functionDefinition.parameters();
+        int frameSize = Math.max(functionDefinition.frameSize(), parameters.size());
+        slotNames = new String[frameSize];
+        slotTypes = new PrimitiveType[frameSize];
+        for (int i = 0; i < parameters.size(); i++) {
+            Parameter parameter = parameters.get(i);
+            int slot = parameter.slot() == VariableSlot.UNRESOLVED ? i : parameter.slot();
+            // untyped parameters receive the printed form of their argument
+            declare(slot, parameter.name(), parameter.type() == PrimitiveType.NONE ? PrimitiveType.STRING : parameter.type());
+        }
+        super.visit(functionDefinition);
+    }
+
+    @Override
+    public void visit(Block block) throws Exception {
+        super.visit(block);
+        for (int slot = block.scopeStart(); slot < block.scopeEnd(); slot++) {
+            slotNames[slot] = null;
+        }
+    }
+
+    @Override
+    public void visit(DeclarationStatement declarationStatement) throws Exception {
+        super.visit(declarationStatement);
+        declare(declarationStatement.slot(), declarationStatement.name(), declarationStatement.type());
+    }
+
+    @Override
+    public void visit(AccessExpression accessExpression) throws Exception {
+        // methods are not calls of program functions
+        setResult(new AccessExpression(rewrite(accessExpression.left()), accessExpression.right()));
+    }
+
+    @Override
+    public void visit(FunctionCallExpression functionCallExpression) throws Exception {
+        super.visit(functionCallExpression);
+        if (functionDefinitions.containsKey(functionCallExpression.name())) {
+            callSites.add(new CallSite(currentFunction, functionCallExpression.name(), liveVariables()));
+        }
+    }
+
+    @Override
+    public void visit(IdentifierExpression identifierExpression) {
+        String name = identifierExpression.name();
+        if (identifierExpression.slot() == VariableSlot.UNRESOLVED && !liveVariables().containsKey(name)) {
+            lookups.computeIfAbsent(currentFunction, function -> new HashSet<>()).add(name);
+        }
+        setResult(identifierExpression);
+    }
+
+    private void declare(int slot, String name, PrimitiveType type) {
+        slotNames[slot] = name;
+        slotTypes[slot] = type;
+    }
+
+    // the innermost slot wins, as in the frames of the interpreter
+    private Map<String, PrimitiveType> liveVariables() {
+        Map<String, PrimitiveType> variables = new LinkedHashMap<>();
+        for (int slot = slotNames.length - 1; slot >= 0; slot--) {
+            if (slotNames[slot] != null) {
+                variables.putIfAbsent(slotNames[slot], slotTypes[slot]);
+            }
+        }
+        return variables;
+    }
+
+    // a callee sees the variables live at its call, or whatever its caller sees, until nothing changes
+    private void propagate() {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (CallSite callSite : callSites) {
+                Map<String, Set<PrimitiveType>> calleeTypes =
+                        types.computeIfAbsent(callSite.callee(), function -> new HashMap<>());
+                for (String name : names) {
+                    PrimitiveType type = callSite.variables().get(name);
+                    Set<PrimitiveType> found = type != null ? Set.of(type) : typesOf(callSite.caller(), name);
+                    changed |= calleeTypes.computeIfAbsent(name, variable -> new HashSet<>()).addAll(found);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package currex.resolver;
+
+import currex.interpreter.builtin.ConversionTable;
+import currex.interpreter.builtin.Currency;
+import currex.structure.expressions.Expression;
+import currex.structure.expressions.IdentifierExpression;
+import currex.structure.primitives.CurrencyPrimitive;
+import currex.structure.statements.AssignmentStatement;
+import currex.visitor.RewritingVisitor;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+// Binds every currency name of a program to the Currency handle of the conversion table.
+// Identifiers naming a table currency become zero-valued currency literals, the same value
+// the interpreter used to produce for them at runtime.
+public class CurrencyResolver extends RewritingVisitor {
+    private final ConversionTable conversionTable;
+    private final Map<String, Currency> undeclaredCurrencies = new HashMap<>();
+
+    public CurrencyResolver(ConversionTable conversionTable) {
+        this.conversionTable = conversionTable;
+    }
+
+    public Currency resolve(String name) {
+        Currency currency = conversionTable.getCurrency(name);
+        if (currency != null) {
+            return currency;
+        }
+        return undeclaredCurrencies.computeIfAbsent(name, conversionTable::getOrCreateCurrency);
+    }
+
+    @Override
+    public void visit(AssignmentStatement assignmentStatement) throws Exception {
+        Expression left = assignmentStatement.left();
+        if (left.getClass() != IdentifierExpression.class) {
+            left = rewrite(left);
+        }
+        setResult(new AssignmentStatement(left, rewrite(assignmentStatement.right())));
+    }
+
+    @Override
+    public void visit(IdentifierExpression identifierExpression) {
+        Currency currency = conversionTable.getCurrency(identifierExpression.name());
+        if (currency != null) {
+            setResult(new CurrencyPrimitive(BigDecimal.valueOf(0.0), currency));
+        }
+        else {
+            setResult(identifierExpression);
+        }
+    }
+
+    @Override
+    public void visit(CurrencyPrimitive currencyPrimitive) {
+        setResult(new CurrencyPrimitive(currencyPrimitive.getValue(), resolve(currencyPrimitive.getName())));
+    }
+}
@@ -0,0 +1,27 @@
+package currex.resolver;
+
+import currex.interpreter.builtin.ConversionTable;
+import currex.interpreter.error.ErrorHandler;
+import currex.interpreter.error.InterpreterErrorHandler;
+import currex.structure.components.Program;
+
+// Runs the resolution and type checking passes every execution engine expects on a freshly parsed program
+public class ProgramResolver {
+    private final ConversionTable conversionTable;
+    private final ErrorHandler errorHandler;
+
+    public ProgramResolver(ConversionTable conversionTable) {
+        this(conversionTable, new InterpreterErrorHandler());
+    }
+
+    public ProgramResolver(ConversionTable conversionTable, ErrorHandler errorHandler) {
+        this.conversionTable = conversionTable;
+        this.errorHandler = errorHandler;
+    }
+
+    public Program resolve(Program program) throws Exception {
+        Program withCurrencies = new CurrencyResolver(conversionTable).rewrite(program);
+        Program withSlots = new ScopeResolver(errorHandler).rewrite(withCurrencies);
+        return new TypeChecker(errorHandler).rewrite(withSlots);
+    }
+}
@@ -0,0 +1,109 @@
+package currex.resolver;
+
+import currex.interpreter.error.ErrorHandler;
+import currex.interpreter.error.InterpreterErrorHandler;
+import currex.interpreter.error.VariableAlreadyExistsError;
+import currex.structure.components.Block;
+import currex.structure.components.FunctionDefinition;
+import currex.structure.components.Parameter;
+import currex.structure.expressions.Expression;
+import currex.structure.expressions.IdentifierExpression;
+import currex.structure.statements.DeclarationStatement;
+import currex.structure.statements.Statement;
+import currex.visitor.RewritingVisitor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Assigns every variable a slot in the frame of its function. Nested blocks reuse the slots
+// released by the blocks before them, so the frame size is the deepest nesting of live variables.
+// Names which are not declared in the enclosing function stay unresolved and are looked up
+// by name in the calling frames at runtime.
+public class ScopeResolver extends RewritingVisitor {
+    private final Deque<Map<String, Integer>> scopes = new ArrayDeque<>();
+    private final ErrorHandler errorHandler;
+    private int nextSlot;
+    private int frameSize;
+
+    public ScopeResolver() {
+        this(new InterpreterErrorHandler());
+    }
+
+    public ScopeResolver(ErrorHandler errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    @Override
+    public void visit(FunctionDefinition functionDefinition) throws Exception {
+        scopes.clear();
+        nextSlot = 0;
+        frameSize = 0;
+        scopes.push(new HashMap<>());
+        List<Parameter> parameters = new ArrayList<>();
+        for (Parameter parameter : functionDefinition.parameters()) {
+            parameters.add(new Parameter(parameter.type(), parameter.name(), declare(parameter.name())));
+        }
+        // the function body shares its scope with the parameters
+        Block body = functionDefinition.block();
+        int scopeStart = nextSlot;
+        List<Statement> statements = rewriteStatements(body);
+        Block block = new Block(statements, scopeStart, nextSlot);
+        scopes.pop();
+        setResult(new FunctionDefinition(functionDefinition.returnType(), functionDefinition.name(),
+                parameters, block, frameSize));
+    }
+
+    @Override
+    public void visit(Block block) throws Exception {
+        scopes.push(new HashMap<>());
+        int scopeStart = nextSlot;
+        List<Statement> statements = rewriteStatements(block);
+        int scopeEnd = nextSlot;
+        scopes.pop();
+        nextSlot = scopeStart;
+        setResult(new Block(statements, scopeStart, scopeEnd));
+    }
+
+    @Override
+    public void visit(DeclarationStatement declarationStatement) throws Exception {
+        Expression expression = rewrite(declarationStatement.expression());
+        int slot = declare(declarationStatement.name());
+        setResult(new DeclarationStatement(declarationStatement.type(), declarationStatement.name(), expression, slot));
+    }
+
+    @Override
+    public void visit(IdentifierExpression identifierExpression) {
+        for (Map<String, Integer> scope : scopes) {
+            Integer slot = scope.get(identifierExpression.name());
+            if (slot != null) {
+                setResult(new IdentifierExpression(identifierExpression.name(), slot));
+                return;
+            }
+        }
+        setResult(identifierExpression);
+    }
+
+    private List<Statement> rewriteStatements(Block block) throws Exception {
+        List<Statement> statements = new ArrayList<>(block.statementList().size());
+        for (Statement statement : block.statementList()) {
+            statements.add(rewrite(statement));
+        }
+        return statements;
+    }
+
+    private int declare(String name) throws Exception {
+        Map<String, Integer> scope = scopes.peek();
+        if (scope.containsKey(name)) {
+            errorHandler.handleInterpreterError(new VariableAlreadyExistsError(
+                    "VARIABLE " + name + " HAS BEEN ALREADY DEFINED!"));
+        }
+        int slot = nextSlot++;
+        frameSize = Math.max(frameSize, nextSlot);
+        scope.put(name, slot);
+        return slot;
+    }
+}
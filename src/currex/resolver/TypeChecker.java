@@ -0,0 +1,493 @@
+package currex.resolver;
+
+import currex.interpreter.builtin.Functions;
+import currex.interpreter.error.*;
+import currex.structure.components.FunctionDefinition;
+import currex.structure.components.Parameter;
+import currex.structure.components.Program;
+import currex.structure.components.VariableSlot;
+import currex.structure.expressions.*;
+import currex.structure.primitives.*;
+import currex.structure.statements.*;
+import currex.utils.CurrexConfig;
+import currex.visitor.RewritingVisitor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Infers the type of every expression of a scope-resolved program and reports type errors before
+// execution. Operators get the proven type of their operands in operandType, so engines pick the
+// operation once per node. Identifiers which are only found at runtime in a calling function have
+// no static type, operations on them keep a null operandType and are checked when executed.
+public class TypeChecker extends RewritingVisitor {
+    private final ErrorHandler errorHandler;
+    private final Map<Expression, PrimitiveType> expressionTypes = new IdentityHashMap<>();
+    private final Map<String, FunctionDefinition> functionDefinitions = new HashMap<>();
+    private final Map<String, FunctionDefinition> programFunctions = new HashMap<>();
+    private final Map<String, FunctionDefinition> checkedFunctions = new HashMap<>();
+    private final Map<String, Integer> functionPositions = new HashMap<>();
+    private final Set<String> startedFunctions = new HashSet<>();
+    private FunctionDefinition currentFunction;
+    private PrimitiveType[] slotTypes;
+
+    public TypeChecker() {
+        this(new InterpreterErrorHandler());
+    }
+
+    public TypeChecker(ErrorHandler errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    // returns null for expressions whose type is only known at runtime
+    public PrimitiveType typeOf(Expression expression) {
+        return expressionTypes.get(expression);
+    }
+
+    @Override
+    public void visit(Program program) throws Exception {
+        functionDefinitions.putAll(Functions.FUNCTIONS);
+        functionDefinitions.putAll(program.functionDefinitions());
+        programFunctions.putAll(program.functionDefinitions());
+        for (String name : program.functionDefinitions().keySet()) {
+            functionPositions.put(name, functionPositions.size());
+        }
+        // functions reachable from main are checked in call order, the rest afterwards by name
+        if (program.functionDefinitions().containsKey(CurrexConfig.MAIN_FUNCTION_NAME)) {
+            checkFunction(CurrexConfig.MAIN_FUNCTION_NAME);
+        }
+        List<String> names = new ArrayList<>(program.functionDefinitions().keySet());
+        names.sort(String::compareTo);
+        for (String name : names) {
+            checkFunction(name);
+        }
+        Map<String, FunctionDefinition> checked = new LinkedHashMap<>();
+        for (String name : program.functionDefinitions().keySet()) {
+            checked.put(name, checkedFunctions.get(name));
+        }
+        setResult(new Program(checked));
+    }
+
+    @Override
+    public void visit(FunctionDefinition functionDefinition) throws Exception {
+        List<Parameter> parameters = functionDefinition.parameters();
+        slotTypes = new PrimitiveType[Math.max(functionDefinition.frameSize(), parameters.size())];
+        for (int i = 0; i < parameters.size(); i++) {
+            // untyped parameters receive the printed form of their argument
+            PrimitiveType type = parameters.get(i).type();
+            slotTypes[i] = type == PrimitiveType.NONE ? PrimitiveType.STRING : type;
+        }
+        setResult(new FunctionDefinition(functionDefinition.returnType(), functionDefinition.name(),
+                parameters, rewrite(functionDefinition.block()), functionDefinition.frameSize()));
+    }
+
+    @Override
+    public void visit(DeclarationStatement declarationStatement) throws Exception {
+        Expression expression = rewrite(declarationStatement.expression());
+        PrimitiveType type = valueType(expression);
+        if (type != null && type != declarationStatement.type()) {
+            errorHandler.handleInterpreterError(new InvalidVariableTypeError("INVALID VARIABLE OF TYPE " +
+                    type.name() + "!"));
+        }
+        if (declarationStatement.slot() != VariableSlot.UNRESOLVED) {
+            slotTypes[declarationStatement.slot()] = declarationStatement.type();
+        }
+        setResult(new DeclarationStatement(declarationStatement.type(), declarationStatement.name(),
+                expression, declarationStatement.slot()));
+    }
+
+    @Override
+    public void visit(AssignmentStatement assignmentStatement) throws Exception {
+        Expression left = rewrite(assignmentStatement.left());
+        Expression right = rewrite(assignmentStatement.right());
+        PrimitiveType valueType = valueType(right);
+        PrimitiveType variableType = typeOf(left);
+        if (left instanceof IdentifierExpression identifier && variableType != null && valueType != null &&
+                variableType != valueType) {
+            errorHandler.handleInterpreterError(new InvalidVariableTypeError(
+                    "VARIABLE " + identifier.name() + " WITH TYPE " + variableType +
+                            " CANNOT BE ASSIGNED WITH VALUE OF TYPE " + valueType + "!"));
+        }
+        setResult(new AssignmentStatement(left, right));
+    }
+
+    @Override
+    public void visit(ReturnStatement returnStatement) throws Exception {
+        PrimitiveType returnType = currentFunction.returnType();
+        Expression expression = rewrite(returnStatement.expression());
+        if (expression == null && returnType != PrimitiveType.NONE) {
+            errorHandler.handleInterpreterError(InvalidReturnValueError.NO_RETURN_VALUE);
+        }
+        PrimitiveType type = expression == null ? null : typeOf(expression);
+        if (returnType != PrimitiveType.NONE && type != null && type != returnType) {
+            errorHandler.handleInterpreterError(new InvalidReturnValueError("INVALID RETURN TYPE, EXPECTED " +
+                    returnType.name() + " BUT GOT " + type.name() + " INSTEAD!"));
+        }
+        setResult(new ReturnStatement(expression));
+    }
+
+    @Override
+    public void visit(WhileStatement whileStatement) throws Exception {
+        Expression condition = rewrite(whileStatement.expression());
+        checkCondition(condition);
+        setResult(new WhileStatement(condition, rewrite(whileStatement.block())));
+    }
+
+    @Override
+    public void visit(ElseStatement elseStatement) throws Exception {
+        Expression condition = rewrite(elseStatement.expression());
+        if (condition != null) {
+            checkCondition(condition);
+        }
+        setResult(new ElseStatement(condition, rewrite(elseStatement.block())));
+    }
+
+    @Override
+    public void visit(OrExpression orExpression) throws Exception {
+        Expression left = rewrite(orExpression.left());
+        Expression right = rewrite(orExpression.right());
+        checkLogicalOperand(left, "OR");
+        checkLogicalOperand(right, "OR");
+        setResult(new OrExpression(left, right), PrimitiveType.BOOL);
+    }
+
+    @Override
+    public void visit(AndExpression andExpression) throws Exception {
+        Expression left = rewrite(andExpression.left());
+        Expression right = rewrite(andExpression.right());
+        checkLogicalOperand(left, "AND");
+        checkLogicalOperand(right, "AND");
+        setResult(new AndExpression(left, right), PrimitiveType.BOOL);
+    }
+
+    @Override
+    public void visit(GreaterExpression greaterExpression) throws Exception {
+        Expression left = rewrite(greaterExpression.left());
+        Expression right = rewrite(greaterExpression.right());
+        setResult(new GreaterExpression(left, right, comparedType(left, right, false)), PrimitiveType.BOOL);
+    }
+
+    @Override
+    public void visit(LesserExpression lesserExpression) throws Exception {
+        Expression left = rewrite(lesserExpression.left());
+        Expression right = rewrite(lesserExpression.right());
+        setResult(new LesserExpression(left, right, comparedType(left, right, false)), PrimitiveType.BOOL);
+    }
+
+    @Override
+    public void visit(EqualExpression equalExpression) throws Exception {
+        Expression left = rewrite(equalExpression.left());
+        Expression right = rewrite(equalExpression.right());
+        setResult(new EqualExpression(left, right, comparedType(left, right, true)), PrimitiveType.BOOL);
+    }
+
+    @Override
+    public void visit(NotEqualExpression notEqualExpression) throws Exception {
+        Expression left = rewrite(notEqualExpression.left());
+        Expression right = rewrite(notEqualExpression.right());
+        setResult(new NotEqualExpression(left, right, comparedType(left, right, true)), PrimitiveType.BOOL);
+    }
+
+    @Override
+    public void visit(GreaterOrEqualExpression greaterOrEqualExpression) throws Exception {
+        Expression left = rewrite(greaterOrEqualExpression.left());
+        Expression right = rewrite(greaterOrEqualExpression.right());
+        setResult(new GreaterOrEqualExpression(left, right, comparedType(left, right, false)), PrimitiveType.BOOL);
+    }
+
+    @Override
+    public void visit(LesserOrEqualExpression lesserOrEqualExpression) throws Exception {
+        Expression left = rewrite(lesserOrEqualExpression.left());
+        Expression right = rewrite(lesserOrEqualExpression.right());
+        setResult(new LesserOrEqualExpression(left, right, comparedType(left, right, false)), PrimitiveType.BOOL);
+    }
+
+    @Override
+    public void visit(AdditionExpression additionExpression) throws Exception {
+        Expression left = rewrite(additionExpression.left());
+        Expression right = rewrite(additionExpression.right());
+        PrimitiveType type = arithmeticType(left, right, true, "CANNOT ADD %s TO %s!");
+        setResult(new AdditionExpression(left, right, type), resultType(type, left, right));
+    }
+
+    @Override
+    public void visit(SubtractionExpression subtractionExpression) throws Exception {
+        Expression left = rewrite(subtractionExpression.left());
+        Expression right = rewrite(subtractionExpression.right());
+        PrimitiveType type = arithmeticType(left, right, false, "CANNOT SUBTRACT %s FROM %s!");
+        setResult(new SubtractionExpression(left, right, type), resultType(type, left, right));
+    }
+
+    @Override
+    public void visit(MultiplicationExpression multiplicationExpression) throws Exception {
+        Expression left = rewrite(multiplicationExpression.left());
+        Expression right = rewrite(multiplicationExpression.right());
+        PrimitiveType type = arithmeticType(left, right, false, "CANNOT MULTIPLY %s BY %s!");
+        setResult(new MultiplicationExpression(left, right, type), resultType(type, left, right));
+    }
+
+    @Override
+    public void visit(DivisionExpression divisionExpression) throws Exception {
+        Expression left = rewrite(divisionExpression.left());
+        Expression right = rewrite(divisionExpression.right());
+        PrimitiveType type = arithmeticType(left, right, false, "CANNOT DIVIDE %s BY %s!");
+        setResult(new DivisionExpression(left, right, type), resultType(type, left, right));
+    }
+
+    @Override
+    public void visit(CurrencyCastExpression currencyCastExpression) throws Exception {
+        Expression left = rewrite(currencyCastExpression.left());
+        Expression right = rewrite(currencyCastExpression.right());
+        checkCurrencyOperation(left, right, "CURRENCY CASTING CANNOT BE APPLIED TO NON-CURRENCY VALUES!");
+        setResult(new CurrencyCastExpression(left, right), PrimitiveType.CURRENCY);
+    }
+
+    @Override
+    public void visit(CurrencyConversionExpression currencyConversionExpression) throws Exception {
+        Expression left = rewrite(currencyConversionExpression.left());
+        Expression right = rewrite(currencyConversionExpression.right());
+        checkCurrencyOperation(left, right, "CURRENCY CONVERSION CANNOT BE APPLIED TO NON-CURRENCY VALUES!");
+        setResult(new CurrencyConversionExpression(left, right), PrimitiveType.CURRENCY);
+    }
+
+    @Override
+    public void visit(ConversionChainExpression conversionChainExpression) throws Exception {
+        Expression left = rewrite(conversionChainExpression.left());
+        PrimitiveType leftType = valueType(left);
+        if (leftType != null && leftType != PrimitiveType.CURRENCY) {
+            errorHandler.handleInterpreterError(new IncompatibleTypesError(
+                    "CURRENCY CONVERSION CANNOT BE APPLIED TO NON-CURRENCY VALUES!"));
+        }
+        setResult(new ConversionChainExpression(left, conversionChainExpression.chain()), PrimitiveType.CURRENCY);
+    }
+
+    @Override
+    public void visit(NegationExpression negationExpression) throws Exception {
+        Expression expression = rewrite(negationExpression.expression());
+        PrimitiveType type = valueType(expression);
+        if (type != null && type != PrimitiveType.BOOL) {
+            errorHandler.handleInterpreterError(new IncompatibleTypesError("NEGATION NOT POSSIBLE FOR TYPE" +
+                    type.name() + "!"));
+        }
+        setResult(new NegationExpression(expression), PrimitiveType.BOOL);
+    }
+
+    @Override
+    public void visit(MinusExpression minusExpression) throws Exception {
+        Expression expression = rewrite(minusExpression.expression());
+        PrimitiveType type = valueType(expression);
+        if (type != null && type != PrimitiveType.INTEGER && type != PrimitiveType.FLOAT &&
+                type != PrimitiveType.CURRENCY) {
+            errorHandler.handleInterpreterError(new IncompatibleTypesError("NEGATION NOT POSSIBLE FOR TYPE" +
+                    type.name() + "!"));
+        }
+        setResult(new MinusExpression(expression, type), type);
+    }
+
+    @Override
+    public void visit(AccessExpression accessExpression) throws Exception {
+        Expression left = rewrite(accessExpression.left());
+        PrimitiveType type = valueType(left);
+        if (type != null && type != PrimitiveType.CURRENCY) {
+            errorHandler.handleInterpreterError(new InvalidVariableTypeError("METHODS ARE NOT APPLICABLE TO NON-CURRENCY VALUES!"));
+        }
+        if (!(accessExpression.right() instanceof FunctionCallExpression method)) {
+            errorHandler.handleInterpreterError(new InvalidMethodCallError("ONLY METHOD CALLS ARE ALLOWED!"));
+            return;
+        }
+        PrimitiveType methodType = switch (method.name()) {
+            case "getBalance" -> PrimitiveType.FLOAT;
+            case "getCurrency" -> PrimitiveType.STRING;
+            default -> {
+                FunctionDefinition function = functionDefinitions.get(method.name());
+                if (function == null) {
+                    errorHandler.handleInterpreterError(new FunctionDoesNotExistError(
+                            "METHOD WITH NAME " + method.name() + " DOES NOT EXIST!"));
+                }
+                yield function.returnType();
+            }
+        };
+        FunctionCallExpression rewrittenMethod = new FunctionCallExpression(method.name(), rewrite(method.arguments()));
+        setResult(new AccessExpression(left, rewrittenMethod), methodType);
+    }
+
+    @Override
+    public void visit(FunctionCallExpression functionCallExpression) throws Exception {
+        FunctionDefinition callee = functionDefinitions.get(functionCallExpression.name());
+        if (callee == null) {
+            errorHandler.handleInterpreterError(new FunctionDoesNotExistError("NO FUNCTION WITH THIS NAME ERROR"));
+        }
+        List<Expression> arguments = functionCallExpression.arguments();
+        if (callee.parameters().size() != arguments.size()) {
+            errorHandler.handleInterpreterError(new InvalidFunctionCallError(
+                    "INVALID NUMBER OF ARGUMENTS FOR FUNCTION " +
+                            callee.name() +
+                            " EXPECTED: " + callee.parameters().size() +
+                            " BUT RECEIVED: " + arguments.size() + "!"
+            ));
+        }
+        List<Expression> rewrittenArguments = new ArrayList<>(arguments.size());
+        // bound only when every argument is known to have the type of its parameter
+        boolean matching = true;
+        for (int i = 0; i < arguments.size(); i++) {
+            Parameter parameter = callee.parameters().get(i);
+            Expression argument = rewrite(arguments.get(i));
+            PrimitiveType type = valueType(argument);
+            if (parameter.type() != PrimitiveType.NONE && type != null && type != parameter.type()) {
+                errorHandler.handleInterpreterError(new InvalidVariableTypeError("INVALID TYPE PROVIDED FOR PARAMETER " +
+                        parameter.name()));
+            }
+            matching &= parameter.type() == PrimitiveType.NONE || type == parameter.type();
+            rewrittenArguments.add(argument);
+        }
+        int function = VariableSlot.UNRESOLVED;
+        if (programFunctions.containsKey(callee.name())) {
+            checkFunction(callee.name());
+            if (matching) {
+                function = functionPositions.get(callee.name());
+            }
+        }
+        setResult(new FunctionCallExpression(functionCallExpression.name(), rewrittenArguments, function),
+                callee.returnType());
+    }
+
+    @Override
+    public void visit(IdentifierExpression identifierExpression) {
+        PrimitiveType type = null;
+        if (identifierExpression.slot() != VariableSlot.UNRESOLVED) {
+            type = slotTypes[identifierExpression.slot()];
+        }
+        setResult(identifierExpression, type);
+    }
+
+    @Override
+    public void visit(IntPrimitive intPrimitive) {
+        setResult(intPrimitive, PrimitiveType.INTEGER);
+    }
+
+    @Override
+    public void visit(FloatPrimitive floatPrimitive) {
+        setResult(floatPrimitive, PrimitiveType.FLOAT);
+    }
+
+    @Override
+    public void visit(StringPrimitive stringPrimitive) {
+        setResult(stringPrimitive, PrimitiveType.STRING);
+    }
+
+    @Override
+    public void visit(BoolPrimitive boolPrimitive) {
+        setResult(boolPrimitive, PrimitiveType.BOOL);
+    }
+
+    @Override
+    public void visit(CurrencyPrimitive currencyPrimitive) {
+        setResult(currencyPrimitive, PrimitiveType.CURRENCY);
+    }
+
+    private void checkFunction(String name) throws Exception {
+        if (!startedFunctions.add(name)) {
+            return;
+        }
+        FunctionDefinition callerFunction = currentFunction;
+        PrimitiveType[] callerSlotTypes = slotTypes;
+        currentFunction = functionDefinitions.get(name);
+        checkedFunctions.put(name, rewrite(currentFunction));
+        currentFunction = callerFunction;
+        slotTypes = callerSlotTypes;
+    }
+
+    private void setResult(Expression expression, PrimitiveType type) {
+        if (type != null) {
+            expressionTypes.put(expression, type);
+        }
+        setResult(expression);
+    }
+
+    // the type of an expression used as a value, calls of functions without a return value are rejected
+    private PrimitiveType valueType(Expression expression) throws Exception {
+        PrimitiveType type = typeOf(expression);
+        if (type == PrimitiveType.NONE) {
+            errorHandler.handleInterpreterError(new InvalidReturnValueError(
+                    "CANNOT ASSIGN A VALUE FROM FUNCTION WITHOUT A RETURN VALUE!"));
+        }
+        return type;
+    }
+
+    private void checkCondition(Expression condition) throws Exception {
+        PrimitiveType type = valueType(condition);
+        if (type != null && type != PrimitiveType.BOOL) {
+            errorHandler.handleInterpreterError(new InvalidBoolValueError(
+                    "EVALUATED EXPRESSION DOES NOT GIVE A BOOL VALUE!"));
+        }
+    }
+
+    private void checkLogicalOperand(Expression operand, String operator) throws Exception {
+        PrimitiveType type = valueType(operand);
+        if (type != null && type != PrimitiveType.BOOL) {
+            errorHandler.handleInterpreterError(new InvalidBoolValueError(operator + " STATEMENT CANNOT BE EVALUATED!"));
+        }
+    }
+
+    private PrimitiveType comparedType(Expression left, Expression right, boolean equality) throws Exception {
+        PrimitiveType leftType = valueType(left);
+        PrimitiveType rightType = valueType(right);
+        if (leftType == null || rightType == null) {
+            return null;
+        }
+        boolean comparable = leftType == rightType && (equality || leftType == PrimitiveType.INTEGER ||
+                leftType == PrimitiveType.FLOAT || leftType == PrimitiveType.CURRENCY);
+        if (!comparable) {
+            errorHandler.handleInterpreterError(new IncompatibleTypesError("TYPE " + leftType +
+                    " CANNOT BE COMPARED WITH TYPE " + rightType + "!"));
+        }
+        return leftType;
+    }
+
+    private PrimitiveType arithmeticType(Expression left, Expression right, boolean allowStrings,
+                                         String errorFormat) throws Exception {
+        PrimitiveType leftType = valueType(left);
+        PrimitiveType rightType = valueType(right);
+        if (leftType == null || rightType == null) {
+            return null;
+        }
+        boolean supported = leftType == PrimitiveType.INTEGER || leftType == PrimitiveType.FLOAT ||
+                leftType == PrimitiveType.CURRENCY || (allowStrings && leftType == PrimitiveType.STRING);
+        if (leftType != rightType || !supported) {
+            errorHandler.handleInterpreterError(new IncompatibleTypesError(
+                    String.format(errorFormat, leftType.name(), rightType.name())));
+        }
+        return leftType;
+    }
+
+    // with one operand of unknown type the result still has the type of the other one
+    private PrimitiveType resultType(PrimitiveType operandType, Expression left, Expression right) {
+        if (operandType != null) {
+            return operandType;
+        }
+        PrimitiveType leftType = typeOf(left);
+        return leftType != null ? leftType : typeOf(right);
+    }
+
+    private void checkCurrencyOperation(Expression left, Expression right, String nonCurrencyMessage) throws Exception {
+        PrimitiveType leftType = valueType(left);
+        if (leftType != null && leftType != PrimitiveType.CURRENCY) {
+            errorHandler.handleInterpreterError(new IncompatibleTypesError(nonCurrencyMessage));
+        }
+        if (right instanceof StringPrimitive name) {
+            errorHandler.handleInterpreterError(new InvalidCurrencyNameError("CURRENCY " +
+                    name.value() + " IS NOT CORRECT"));
+        }
+        // strings returned by getCurrency name the target currency
+        PrimitiveType rightType = valueType(right);
+        if (rightType != null && rightType != PrimitiveType.CURRENCY && rightType != PrimitiveType.STRING) {
+            errorHandler.handleInterpreterError(new InvalidCurrencyNameError(
+                    "CONVERTION VALUE CANNOT BE OF TYPE " + rightType.name()));
+        }
+    }
+}
@@ -2,58 +2,118 @@ package currex.source;
 
 import currex.token.Position;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 
+// Holds the whole input in one char array, so reading a character is an array access.
+// Past the end current() and peek(k) return EOF.
 public class Source {
-    private final Reader reader;
+    public static final char EOF = (char) -1;
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private final char[] chars;
+    private final int start;
+    private final int end;
     private final Position position;
-    private boolean isEOF;
-    private Character currentChar = null;
-    private Character nextChar;
+    private int index;
 
     public Source(Reader reader) throws IOException {
-        this.position = new Position();
-        this.reader = new BufferedReader(reader);
-        this.nextChar = this.readNextChar();
-        this.isEOF = false;
+        this(readAll(reader));
     }
 
-    public Character getCurrentChar() {
-        return currentChar;
+    public Source(char[] chars) {
+        this(chars, 0, chars.length);
     }
 
-    public Character Peek() {
-        return nextChar;
+    public Source(char[] chars, int start, int end) {
+        this(chars, start, end, new Position());
+    }
+
+    // position is where the character before start lies, when the range continues a larger text
+    public Source(char[] chars, int start, int end, Position position) {
+        this.chars = chars;
+        this.start = start;
+        this.end = end;
+        this.index = start - 1;
+        this.position = new Position(position);
+    }
+
+    // shares the array of heap buffers, other buffers are copied once
+    public Source(CharBuffer buffer) {
+        this(buffer.hasArray() ? buffer.array() : toArray(buffer),
+                buffer.hasArray() ? buffer.arrayOffset() + buffer.position() : 0,
+                buffer.hasArray() ? buffer.arrayOffset() + buffer.limit() : buffer.remaining());
     }
 
-    private char readNextChar() throws IOException {
-        int newChar = reader.read();
-        if (newChar == -1) {
-            isEOF = true;
+    // maps the file instead of reading it through a stream and decodes it in one pass
+    public static Source fromMappedFile(Path path, Charset charset) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new Source(charset.decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())));
         }
-        return (char) newChar;
+    }
+
+    public char current() {
+        return index >= start && index < end ? chars[index] : EOF;
+    }
+
+    public char peek(int offset) {
+        int peekIndex = index + offset;
+        return peekIndex >= start && peekIndex < end ? chars[peekIndex] : EOF;
+    }
+
+    // offset of the current character from the beginning of the input
+    public int offset() {
+        return index - start;
+    }
+
+    // null before the first readChar()
+    public Character getCurrentChar() {
+        return index < start ? null : current();
+    }
+
+    public Character Peek() {
+        return peek(1);
     }
 
     public void readChar() {
-        try {
-            currentChar = nextChar;
-            nextChar = readNextChar();
-            if (currentChar == '\n') {
-                position.moveToNextRow();
-            } else {
-                position.moveToNextColumn();
-            }
-        } catch (IOException ignored) {
+        index++;
+        if (current() == '\n') {
+            position.moveToNextRow();
+        } else {
+            position.moveToNextColumn();
         }
     }
 
     public boolean isStreamEnd() {
-        return isEOF;
+        return index + 1 >= end;
     }
 
     public Position getPosition() {
         return position;
     }
+
+    private static char[] readAll(Reader reader) throws IOException {
+        char[] buffer = new char[READ_BUFFER_SIZE];
+        int length = 0;
+        int read;
+        while ((read = reader.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        return length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
+    }
+
+    private static char[] toArray(CharBuffer buffer) {
+        char[] chars = new char[buffer.remaining()];
+        buffer.duplicate().get(chars);
+        return chars;
+    }
 }
@@ -6,7 +6,12 @@ import currex.visitor.Visitor;
 
 import java.util.List;
 
-public record Block(List<Statement> statementList) implements Visitable {
+// slots [scopeStart, scopeEnd) hold the variables declared directly in this block
+public record Block(List<Statement> statementList, int scopeStart, int scopeEnd) implements Visitable {
+
+    public Block(List<Statement> statementList) {
+        this(statementList, 0, 0);
+    }
 
     @Override
     public void accept(Visitor visitor) throws Exception {
@@ -7,7 +7,11 @@ import currex.visitor.Visitor;
 import java.util.List;
 
 public record FunctionDefinition(PrimitiveType returnType, String name,
-                                 List<Parameter> parameters, Block block) implements Visitable {
+                                 List<Parameter> parameters, Block block, int frameSize) implements Visitable {
+
+    public FunctionDefinition(PrimitiveType returnType, String name, List<Parameter> parameters, Block block) {
+        this(returnType, name, parameters, block, VariableSlot.UNRESOLVED);
+    }
 
     @Override
     public void accept(Visitor visitor) throws Exception {
@@ -4,7 +4,11 @@ import currex.structure.primitives.PrimitiveType;
 import currex.visitor.Visitable;
 import currex.visitor.Visitor;
 
-public record Parameter(PrimitiveType type, String name) implements Visitable {
+public record Parameter(PrimitiveType type, String name, int slot) implements Visitable {
+
+    public Parameter(PrimitiveType type, String name) {
+        this(type, name, VariableSlot.UNRESOLVED);
+    }
 
     @Override
     public void accept(Visitor visitor) {
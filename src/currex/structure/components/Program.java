@@ -3,10 +3,17 @@ package currex.structure.components;
 import currex.visitor.Visitable;
 import currex.visitor.Visitor;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+// read-only, so one parsed program can be run by many engines at the same time
 public record Program(Map<String, FunctionDefinition> functionDefinitions) implements Visitable {
 
+    public Program {
+        functionDefinitions = Collections.unmodifiableMap(new LinkedHashMap<>(functionDefinitions));
+    }
+
     @Override
     public void accept(Visitor visitor) throws Exception {
         visitor.visit(this);
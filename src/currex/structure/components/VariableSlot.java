@@ -0,0 +1,8 @@
+package currex.structure.components;
+
+// Frame slot addresses assigned by the scope resolution pass, also marks calls the type checker did not bind
+public final class VariableSlot {
+    public static final int UNRESOLVED = -1;
+
+    private VariableSlot() {}
+}
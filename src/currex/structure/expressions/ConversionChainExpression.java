@@ -0,0 +1,13 @@
+package currex.structure.expressions;
+
+import currex.interpreter.builtin.ConversionChain;
+import currex.visitor.Visitor;
+
+// Nested conversions to known currencies, built by the optimizer after the program is resolved
+public record ConversionChainExpression(Expression left, ConversionChain chain) implements Expression {
+
+    @Override
+    public void accept(Visitor visitor) throws Exception {
+        visitor.visit(this);
+    }
+}
@@ -1,8 +1,13 @@
 package currex.structure.expressions;
 
+import currex.structure.primitives.PrimitiveType;
 import currex.visitor.Visitor;
 
-public record DivisionExpression(Expression left, Expression right) implements Expression {
+public record DivisionExpression(Expression left, Expression right, PrimitiveType operandType) implements Expression {
+
+    public DivisionExpression(Expression left, Expression right) {
+        this(left, right, null);
+    }
 
     @Override
     public void accept(Visitor visitor) throws Exception {
@@ -1,10 +1,18 @@
 package currex.structure.expressions;
 
+import currex.structure.components.VariableSlot;
 import currex.visitor.Visitor;
 
 import java.util.List;
 
-public record FunctionCallExpression(String name, List<Expression> arguments) implements Expression {
+// function is the position of the called function in the program, set by the type checker
+// for calls whose arguments are known to match, so engines may skip checking them again
+public record FunctionCallExpression(String name, List<Expression> arguments, int function) implements Expression {
+
+    public FunctionCallExpression(String name, List<Expression> arguments) {
+        this(name, arguments, VariableSlot.UNRESOLVED);
+    }
+
     @Override
     public void accept(Visitor visitor) throws Exception {
         visitor.visit(this);
@@ -1,8 +1,13 @@
 package currex.structure.expressions;
 
+import currex.structure.components.VariableSlot;
 import currex.visitor.Visitor;
 
-public record IdentifierExpression(String name) implements Expression {
+public record IdentifierExpression(String name, int slot) implements Expression {
+
+    public IdentifierExpression(String name) {
+        this(name, VariableSlot.UNRESOLVED);
+    }
 
     @Override
     public void accept(Visitor visitor) throws Exception {
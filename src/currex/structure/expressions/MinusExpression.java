@@ -1,8 +1,13 @@
 package currex.structure.expressions;
 
+import currex.structure.primitives.PrimitiveType;
 import currex.visitor.Visitor;
 
-public record MinusExpression(Expression expression) implements Expression {
+public record MinusExpression(Expression expression, PrimitiveType operandType) implements Expression {
+
+    public MinusExpression(Expression expression) {
+        this(expression, null);
+    }
 
     @Override
     public void accept(Visitor visitor) throws Exception {
@@ -1,8 +1,13 @@
 package currex.structure.expressions;
 
+import currex.structure.primitives.PrimitiveType;
 import currex.visitor.Visitor;
 
-public record MultiplicationExpression(Expression left, Expression right) implements Expression {
+public record MultiplicationExpression(Expression left, Expression right, PrimitiveType operandType) implements Expression {
+
+    public MultiplicationExpression(Expression left, Expression right) {
+        this(left, right, null);
+    }
 
     @Override
     public void accept(Visitor visitor) throws Exception {
@@ -1,32 +1,118 @@
 package currex.structure.primitives;
 
+import currex.interpreter.FixedPoint;
+import currex.interpreter.builtin.Currency;
 import currex.visitor.Visitor;
 
 import java.math.BigDecimal;
 
 public class CurrencyPrimitive implements Primitive {
+    private static final byte UNITS_UNKNOWN = 0;
+    private static final byte UNITS_PRESENT = 1;
+    private static final byte UNITS_ABSENT = 2;
+
+    // null for fixed-point results until the value is first read
     private BigDecimal value;
-    private String name;
+    private final String name;
+    private final Currency currency;
+    private final boolean fixedPoint;
+    private long units;
+    // decimal values only, written after units, so threads sharing a program literal never see a stale units value
+    private volatile byte unitsState;
 
     public CurrencyPrimitive(BigDecimal value, String name) {
         this.value = value;
         this.name = name;
+        this.currency = null;
+        this.fixedPoint = false;
+    }
+
+    public CurrencyPrimitive(BigDecimal value, Currency currency) {
+        this.value = value;
+        this.name = currency.name();
+        this.currency = currency;
+        this.fixedPoint = false;
+    }
+
+    public CurrencyPrimitive(long units, Currency currency) {
+        this(units, currency.name(), currency);
+    }
+
+    private CurrencyPrimitive(long units, String name, Currency currency) {
+        this.units = units;
+        this.name = name;
+        this.currency = currency;
+        this.fixedPoint = true;
     }
 
     public BigDecimal getValue() {
+        if (value == null) {
+            value = FixedPoint.toDecimal(units);
+        }
         return value;
     }
 
+    // the value counted in FixedPoint units, computed once for decimal values
+    public boolean hasUnits() {
+        if (fixedPoint) {
+            return true;
+        }
+        byte state = unitsState;
+        if (state == UNITS_UNKNOWN) {
+            long converted = FixedPoint.fromDecimal(value);
+            if (converted != FixedPoint.OVERFLOW) {
+                units = converted;
+                state = UNITS_PRESENT;
+            }
+            else {
+                state = UNITS_ABSENT;
+            }
+            unitsState = state;
+        }
+        return state == UNITS_PRESENT;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    // the scale the value is printed with
+    public int getScale() {
+        return fixedPoint ? FixedPoint.SCALE : value.scale();
+    }
+
     public String getName() {
         return name;
     }
 
-    public void setValue(BigDecimal value) {
-        this.value = value;
+    // null until the currency name is bound by the resolution pass
+    public Currency getCurrency() {
+        return currency;
     }
 
-    public void setName(String name) {
-        this.name = name;
+    public CurrencyPrimitive withValue(BigDecimal value) {
+        if (currency != null) {
+            return new CurrencyPrimitive(value, currency);
+        }
+        return new CurrencyPrimitive(value, name);
+    }
+
+    public CurrencyPrimitive withUnits(long units) {
+        return new CurrencyPrimitive(units, name, currency);
+    }
+
+    public CurrencyPrimitive withCurrency(Currency currency) {
+        if (fixedPoint) {
+            return new CurrencyPrimitive(units, currency.name(), currency);
+        }
+        return new CurrencyPrimitive(value, currency);
+    }
+
+    public boolean hasSameCurrency(CurrencyPrimitive other) {
+        if (currency != null && currency == other.currency) {
+            return true;
+        }
+        return name.equals(other.name);
     }
 
     @Override
@@ -36,6 +122,6 @@ public class CurrencyPrimitive implements Primitive {
 
     @Override
     public String toString() {
-        return value + " " + name;
+        return getValue() + " " + name;
     }
 }
@@ -1,10 +1,15 @@
 package currex.structure.statements;
 
+import currex.structure.components.VariableSlot;
 import currex.structure.primitives.PrimitiveType;
 import currex.structure.expressions.Expression;
 import currex.visitor.Visitor;
 
-public record DeclarationStatement(PrimitiveType type, String name, Expression expression) implements Statement {
+public record DeclarationStatement(PrimitiveType type, String name, Expression expression, int slot) implements Statement {
+
+    public DeclarationStatement(PrimitiveType type, String name, Expression expression) {
+        this(type, name, expression, VariableSlot.UNRESOLVED);
+    }
 
     @Override
     public void accept(Visitor visitor) throws Exception {
@@ -1,24 +1,76 @@
 package currex.token;
 
+import java.math.BigDecimal;
+
+// The literal is kept exactly as an unscaled value and a scale, its double and BigDecimal forms are only
+// created when asked for.
 public class FloatToken extends Token {
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    // largest long which is exactly representable as a double
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
 
-    private final Double value;
+    private final long unscaledValue;
+    private final int scale;
+    private Double value;
+    private BigDecimal decimalValue;
 
-    public FloatToken(Position position, Double value) {
+    public FloatToken(Position position, long unscaledValue, int scale) {
         super(position, TokenType.FLOAT_VALUE);
-        this.value = value;
+        this.unscaledValue = unscaledValue;
+        this.scale = scale;
+    }
+
+    public FloatToken(Position position, Double value) {
+        this(position, normalize(BigDecimal.valueOf(value)));
+    }
+
+    private FloatToken(Position position, BigDecimal value) {
+        this(position, value.unscaledValue().longValueExact(), value.scale());
     }
 
     @Override
     public Double getValue() {
+        if (value == null) {
+            value = toDouble(unscaledValue, scale);
+        }
         return value;
     }
 
+    public long getUnscaledValue() {
+        return unscaledValue;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public BigDecimal getDecimalValue() {
+        if (decimalValue == null) {
+            decimalValue = BigDecimal.valueOf(unscaledValue, scale);
+        }
+        return decimalValue;
+    }
+
+    // the same rounding as parsing the decimal literal, without building a BigDecimal when the division is exact
+    public static double toDouble(long unscaledValue, int scale) {
+        if (Math.abs(unscaledValue) <= MAX_EXACT_DOUBLE && scale >= 0 && scale < POWERS_OF_TEN.length) {
+            return unscaledValue / POWERS_OF_TEN[scale];
+        }
+        return BigDecimal.valueOf(unscaledValue, scale).doubleValue();
+    }
+
+    // literals have no trailing zeros and at least one decimal place, like the lexer produces them
+    private static BigDecimal normalize(BigDecimal value) {
+        BigDecimal stripped = value.stripTrailingZeros();
+        return stripped.scale() < 1 ? stripped.setScale(1) : stripped;
+    }
+
     @Override
     public String toString() {
         return "FloatToken{" +
                 "tokenType=" + getTokenType() +
                 ", " + getPosition() +
-                ", value=" + value + "}";
+                ", value=" + getValue() + "}";
     }
 }
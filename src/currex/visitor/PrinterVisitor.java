@@ -265,6 +265,15 @@ public class PrinterVisitor implements Visitor {
         decreaseIdendation();
     }
 
+    @Override
+    public void visit(ConversionChainExpression conversionChainExpression) throws Exception {
+        increaseIdentation();
+        System.out.println(ident.repeat(identation) +
+                "<ConversionChainExpression> " + conversionChainExpression.chain());
+        conversionChainExpression.left().accept(this);
+        decreaseIdendation();
+    }
+
     @Override
     public void visit(NegationExpression negationExpression) throws Exception {
         increaseIdentation();
@@ -0,0 +1,299 @@
+package currex.visitor;
+
+import currex.interpreter.builtin.GetBalanceMethod;
+import currex.interpreter.builtin.GetCurrencyMethod;
+import currex.interpreter.builtin.PrintFunction;
+import currex.structure.components.Block;
+import currex.structure.components.FunctionDefinition;
+import currex.structure.components.Parameter;
+import currex.structure.components.Program;
+import currex.structure.expressions.*;
+import currex.structure.primitives.*;
+import currex.structure.statements.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Rebuilds the visited tree node by node, passes override only the nodes they change
+public abstract class RewritingVisitor implements Visitor {
+    private Visitable result;
+
+    public Program rewrite(Program program) throws Exception {
+        program.accept(this);
+        return (Program) takeResult();
+    }
+
+    public FunctionDefinition rewrite(FunctionDefinition functionDefinition) throws Exception {
+        functionDefinition.accept(this);
+        return (FunctionDefinition) takeResult();
+    }
+
+    protected Block rewrite(Block block) throws Exception {
+        block.accept(this);
+        return (Block) takeResult();
+    }
+
+    protected Statement rewrite(Statement statement) throws Exception {
+        if (statement == null) {
+            return null;
+        }
+        statement.accept(this);
+        return (Statement) takeResult();
+    }
+
+    protected Expression rewrite(Expression expression) throws Exception {
+        if (expression == null) {
+            return null;
+        }
+        expression.accept(this);
+        return (Expression) takeResult();
+    }
+
+    protected List<Expression> rewrite(List<Expression> expressions) throws Exception {
+        List<Expression> rewritten = new ArrayList<>(expressions.size());
+        for (Expression expression : expressions) {
+            rewritten.add(rewrite(expression));
+        }
+        return rewritten;
+    }
+
+    protected void setResult(Visitable result) {
+        this.result = result;
+    }
+
+    private Visitable takeResult() {
+        Visitable taken = result;
+        result = null;
+        return taken;
+    }
+
+    @Override
+    public void visit(Program program) throws Exception {
+        // in the same order, so positions of functions stay valid
+        Map<String, FunctionDefinition> functionDefinitions = new LinkedHashMap<>();
+        for (Map.Entry<String, FunctionDefinition> entry : program.functionDefinitions().entrySet()) {
+            functionDefinitions.put(entry.getKey(), rewrite(entry.getValue()));
+        }
+        setResult(new Program(functionDefinitions));
+    }
+
+    @Override
+    public void visit(Block block) throws Exception {
+        List<Statement> statements = new ArrayList<>(block.statementList().size());
+        for (Statement statement : block.statementList()) {
+            Statement rewritten = rewrite(statement);
+            if (rewritten != null) {
+                statements.add(rewritten);
+            }
+        }
+        setResult(new Block(statements, block.scopeStart(), block.scopeEnd()));
+    }
+
+    @Override
+    public void visit(FunctionDefinition functionDefinition) throws Exception {
+        setResult(new FunctionDefinition(functionDefinition.returnType(), functionDefinition.name(),
+                functionDefinition.parameters(), rewrite(functionDefinition.block()), functionDefinition.frameSize()));
+    }
+
+    @Override
+    public void visit(Parameter parameter) {
+        setResult(parameter);
+    }
+
+    @Override
+    public void visit(DeclarationStatement declarationStatement) throws Exception {
+        setResult(new DeclarationStatement(declarationStatement.type(), declarationStatement.name(),
+                rewrite(declarationStatement.expression()), declarationStatement.slot()));
+    }
+
+    @Override
+    public void visit(AssignmentStatement assignmentStatement) throws Exception {
+        setResult(new AssignmentStatement(rewrite(assignmentStatement.left()), rewrite(assignmentStatement.right())));
+    }
+
+    @Override
+    public void visit(ReturnStatement returnStatement) throws Exception {
+        setResult(new ReturnStatement(rewrite(returnStatement.expression())));
+    }
+
+    @Override
+    public void visit(WhileStatement whileStatement) throws Exception {
+        setResult(new WhileStatement(rewrite(whileStatement.expression()), rewrite(whileStatement.block())));
+    }
+
+    @Override
+    public void visit(IfStatement ifStatement) throws Exception {
+        List<ElseStatement> conditionalStatements = new ArrayList<>();
+        for (ElseStatement elseStatement : ifStatement.conditionalStatements()) {
+            elseStatement.accept(this);
+            conditionalStatements.add((ElseStatement) takeResult());
+        }
+        setResult(new IfStatement(conditionalStatements));
+    }
+
+    @Override
+    public void visit(ElseStatement elseStatement) throws Exception {
+        setResult(new ElseStatement(rewrite(elseStatement.expression()), rewrite(elseStatement.block())));
+    }
+
+    @Override
+    public void visit(OrExpression orExpression) throws Exception {
+        setResult(new OrExpression(rewrite(orExpression.left()), rewrite(orExpression.right())));
+    }
+
+    @Override
+    public void visit(AndExpression andExpression) throws Exception {
+        setResult(new AndExpression(rewrite(andExpression.left()), rewrite(andExpression.right())));
+    }
+
+    @Override
+    public void visit(GreaterExpression greaterExpression) throws Exception {
+        setResult(new GreaterExpression(rewrite(greaterExpression.left()), rewrite(greaterExpression.right()),
+                greaterExpression.operandType()));
+    }
+
+    @Override
+    public void visit(LesserExpression lesserExpression) throws Exception {
+        setResult(new LesserExpression(rewrite(lesserExpression.left()), rewrite(lesserExpression.right()),
+                lesserExpression.operandType()));
+    }
+
+    @Override
+    public void visit(EqualExpression equalExpression) throws Exception {
+        setResult(new EqualExpression(rewrite(equalExpression.left()), rewrite(equalExpression.right()),
+                equalExpression.operandType()));
+    }
+
+    @Override
+    public void visit(NotEqualExpression notEqualExpression) throws Exception {
+        setResult(new NotEqualExpression(rewrite(notEqualExpression.left()), rewrite(notEqualExpression.right()),
+                notEqualExpression.operandType()));
+    }
+
+    @Override
+    public void visit(GreaterOrEqualExpression greaterOrEqualExpression) throws Exception {
+        setResult(new GreaterOrEqualExpression(rewrite(greaterOrEqualExpression.left()),
+                rewrite(greaterOrEqualExpression.right()),
+                greaterOrEqualExpression.operandType()));
+    }
+
+    @Override
+    public void visit(LesserOrEqualExpression lesserOrEqualExpression) throws Exception {
+        setResult(new LesserOrEqualExpression(rewrite(lesserOrEqualExpression.left()),
+                rewrite(lesserOrEqualExpression.right()),
+                lesserOrEqualExpression.operandType()));
+    }
+
+    @Override
+    public void visit(AdditionExpression additionExpression) throws Exception {
+        setResult(new AdditionExpression(rewrite(additionExpression.left()), rewrite(additionExpression.right()),
+                additionExpression.operandType()));
+    }
+
+    @Override
+    public void visit(SubtractionExpression subtractionExpression) throws Exception {
+        setResult(new SubtractionExpression(rewrite(subtractionExpression.left()),
+                rewrite(subtractionExpression.right()),
+                subtractionExpression.operandType()));
+    }
+
+    @Override
+    public void visit(MultiplicationExpression multiplicationExpression) throws Exception {
+        setResult(new MultiplicationExpression(rewrite(multiplicationExpression.left()),
+                rewrite(multiplicationExpression.right()),
+                multiplicationExpression.operandType()));
+    }
+
+    @Override
+    public void visit(DivisionExpression divisionExpression) throws Exception {
+        setResult(new DivisionExpression(rewrite(divisionExpression.left()), rewrite(divisionExpression.right()),
+                divisionExpression.operandType()));
+    }
+
+    @Override
+    public void visit(CurrencyCastExpression currencyCastExpression) throws Exception {
+        setResult(new CurrencyCastExpression(rewrite(currencyCastExpression.left()),
+                rewrite(currencyCastExpression.right())));
+    }
+
+    @Override
+    public void visit(CurrencyConversionExpression currencyConversionExpression) throws Exception {
+        setResult(new CurrencyConversionExpression(rewrite(currencyConversionExpression.left()),
+                rewrite(currencyConversionExpression.right())));
+    }
+
+    @Override
+    public void visit(ConversionChainExpression conversionChainExpression) throws Exception {
+        setResult(new ConversionChainExpression(rewrite(conversionChainExpression.left()),
+                conversionChainExpression.chain()));
+    }
+
+    @Override
+    public void visit(NegationExpression negationExpression) throws Exception {
+        setResult(new NegationExpression(rewrite(negationExpression.expression())));
+    }
+
+    @Override
+    public void visit(MinusExpression minusExpression) throws Exception {
+        setResult(new MinusExpression(rewrite(minusExpression.expression()), minusExpression.operandType()));
+    }
+
+    @Override
+    public void visit(AccessExpression accessExpression) throws Exception {
+        setResult(new AccessExpression(rewrite(accessExpression.left()), rewrite(accessExpression.right())));
+    }
+
+    @Override
+    public void visit(FunctionCallExpression functionCallExpression) throws Exception {
+        setResult(new FunctionCallExpression(functionCallExpression.name(),
+                rewrite(functionCallExpression.arguments()), functionCallExpression.function()));
+    }
+
+    @Override
+    public void visit(IdentifierExpression identifierExpression) throws Exception {
+        setResult(identifierExpression);
+    }
+
+    @Override
+    public void visit(IntPrimitive intPrimitive) {
+        setResult(intPrimitive);
+    }
+
+    @Override
+    public void visit(FloatPrimitive floatPrimitive) {
+        setResult(floatPrimitive);
+    }
+
+    @Override
+    public void visit(StringPrimitive stringPrimitive) {
+        setResult(stringPrimitive);
+    }
+
+    @Override
+    public void visit(BoolPrimitive boolPrimitive) {
+        setResult(boolPrimitive);
+    }
+
+    @Override
+    public void visit(CurrencyPrimitive currencyPrimitive) {
+        setResult(currencyPrimitive);
+    }
+
+    @Override
+    public void visit(PrintFunction printFunction) throws Exception {
+        setResult(printFunction);
+    }
+
+    @Override
+    public void visit(GetBalanceMethod getBalanceMethod) throws Exception {
+        setResult(getBalanceMethod);
+    }
+
+    @Override
+    public void visit(GetCurrencyMethod getCurrencyMethod) throws Exception {
+        setResult(getCurrencyMethod);
+    }
+}
@@ -38,6 +38,7 @@ public interface Visitor {
     void visit(DivisionExpression divisionExpression) throws Exception;
     void visit(CurrencyCastExpression currencyCastExpression) throws Exception;
     void visit(CurrencyConversionExpression currencyConversionExpression) throws Exception;
+    void visit(ConversionChainExpression conversionChainExpression) throws Exception;
     void visit(NegationExpression negationExpression) throws Exception;
     void visit(MinusExpression minusExpression) throws Exception;
     void visit(AccessExpression accessExpression) throws Exception;
@@ -0,0 +1,280 @@
+package currex.vm;
+
+import currex.compiler.CompiledFunction;
+import currex.compiler.CompiledProgram;
+import currex.compiler.Compiler;
+import currex.compiler.Opcode;
+import currex.interpreter.CurrencyArithmetic;
+import currex.interpreter.Interpretable;
+import currex.interpreter.builtin.ConversionChain;
+import currex.interpreter.builtin.ConversionTable;
+import currex.interpreter.builtin.Currency;
+import currex.interpreter.error.*;
+import currex.optimizer.Optimizer;
+import currex.output.OutputSink;
+import currex.output.PrintStreamSink;
+import currex.resolver.ProgramResolver;
+import currex.structure.components.Program;
+import currex.structure.primitives.CurrencyPrimitive;
+import currex.utils.CurrexLimits;
+
+import java.io.PrintStream;
+
+// Executes programs compiled by currex.compiler.Compiler. Every call gets its own register banks,
+// the returned value is passed back through the return fields.
+public class VirtualMachine implements Interpretable {
+    // a function waiting for one of its calls, searched for the variables its callees read by name
+    private record CallerFrame(CompiledFunction function, int call, int[] ints, double[] floats, Object[] refs,
+                               CallerFrame caller) {
+        int slotOf(String name) {
+            return function.slotAt(call, name);
+        }
+    }
+
+    private final ConversionTable conversionTable;
+    private final CurrencyArithmetic currencies;
+    private final OutputSink printer;
+    private final ErrorHandler errorHandler;
+    private final boolean optimizing;
+    private CompiledProgram compiledProgram;
+    private int returnInt;
+    private double returnFloat;
+    private Object returnRef;
+
+    public VirtualMachine(ConversionTable conversionTable, PrintStream printer) {
+        this(conversionTable, printer, new CurrencyArithmetic(conversionTable));
+    }
+
+    public VirtualMachine(ConversionTable conversionTable, PrintStream printer, CurrencyArithmetic currencies) {
+        this(conversionTable, new PrintStreamSink(printer), currencies, new InterpreterErrorHandler(), true);
+    }
+
+    public VirtualMachine(ConversionTable conversionTable, OutputSink printer, CurrencyArithmetic currencies,
+                          ErrorHandler errorHandler, boolean optimizing) {
+        this.conversionTable = conversionTable;
+        this.currencies = currencies;
+        this.printer = printer;
+        this.errorHandler = errorHandler;
+        this.optimizing = optimizing;
+    }
+
+    @Override
+    public void run(Program program) throws Exception {
+        try {
+            Program resolvedProgram = new ProgramResolver(conversionTable, errorHandler).resolve(program);
+            if (optimizing) {
+                resolvedProgram = new Optimizer(conversionTable, currencies.isFixedPoint(),
+                        currencies.isFusedRounding()).optimize(resolvedProgram);
+            }
+            run(new Compiler(errorHandler).compile(resolvedProgram));
+        } finally {
+            printer.flush();
+        }
+    }
+
+    public void run(CompiledProgram compiledProgram) throws Exception {
+        this.compiledProgram = compiledProgram;
+        CompiledFunction main = compiledProgram.getMainFunction();
+        try {
+            execute(main, new int[main.registerCount()], new double[main.registerCount()], new Object[main.registerCount()],
+                    null);
+        } finally {
+            printer.flush();
+        }
+    }
+
+    private void execute(CompiledFunction function, int[] ints, double[] floats, Object[] refs,
+                         CallerFrame caller) throws Exception {
+        int[] code = function.code();
+        Object[] constants = compiledProgram.constants();
+        int pc = 0;
+        while (true) {
+            int opcode = code[pc];
+            int a = code[pc + 1];
+            int b = code[pc + 2];
+            int c = code[pc + 3];
+            pc += Opcode.WIDTH;
+            switch (opcode) {
+                case Opcode.LOAD_INT -> ints[a] = b;
+                case Opcode.LOAD_FLOAT -> floats[a] = (Double) constants[b];
+                case Opcode.LOAD_REF -> refs[a] = constants[b];
+                case Opcode.MOVE_INT -> ints[a] = ints[b];
+                case Opcode.MOVE_FLOAT -> floats[a] = floats[b];
+                case Opcode.MOVE_REF -> refs[a] = refs[b];
+                case Opcode.ADD_INT -> {
+                    if (CurrexLimits.INTEGER_MAX_VALUE - ints[b] < ints[c]) {
+                        errorHandler.handleInterpreterError(OverflowError.INTEGER_TOO_BIG);
+                    }
+                    ints[a] = ints[b] + ints[c];
+                }
+                case Opcode.SUB_INT -> ints[a] = ints[b] - ints[c];
+                case Opcode.MUL_INT -> {
+                    if (ints[b] != 0 && CurrexLimits.INTEGER_MAX_VALUE / ints[b] < ints[c]) {
+                        errorHandler.handleInterpreterError(OverflowError.INTEGER_TOO_BIG);
+                    }
+                    ints[a] = ints[b] * ints[c];
+                }
+                case Opcode.DIV_INT -> {
+                    if (ints[c] == 0) {
+                        errorHandler.handleInterpreterError(ZeroDivisionError.DIVISION_BY_ZERO);
+                    }
+                    ints[a] = ints[b] / ints[c];
+                }
+                case Opcode.ADD_FLOAT -> floats[a] = floats[b] + floats[c];
+                case Opcode.SUB_FLOAT -> floats[a] = floats[b] - floats[c];
+                case Opcode.MUL_FLOAT -> floats[a] = floats[b] * floats[c];
+                case Opcode.DIV_FLOAT -> {
+                    if (floats[c] == 0.0) {
+                        errorHandler.handleInterpreterError(ZeroDivisionError.DIVISION_BY_ZERO);
+                    }
+                    floats[a] = floats[b] / floats[c];
+                }
+                case Opcode.ADD_CUR -> refs[a] = currencies.add((CurrencyPrimitive) refs[b], (CurrencyPrimitive) refs[c]);
+                case Opcode.SUB_CUR -> refs[a] = currencies.subtract((CurrencyPrimitive) refs[b], (CurrencyPrimitive) refs[c]);
+                case Opcode.MUL_CUR -> refs[a] = currencies.multiply((CurrencyPrimitive) refs[b], (CurrencyPrimitive) refs[c]);
+                case Opcode.DIV_CUR -> refs[a] = currencies.divide((CurrencyPrimitive) refs[b], (CurrencyPrimitive) refs[c]);
+                case Opcode.CONCAT_STR -> {
+                    String left = (String) refs[b];
+                    refs[a] = left.substring(0, left.length() - 1) + ((String) refs[c]).substring(1);
+                }
+                case Opcode.NEG_INT -> ints[a] = -ints[b];
+                case Opcode.NEG_FLOAT -> floats[a] = -floats[b];
+                case Opcode.NEG_CUR -> refs[a] = currencies.negate((CurrencyPrimitive) refs[b]);
+                case Opcode.NOT -> ints[a] = ints[b] == 0 ? 1 : 0;
+                case Opcode.EQ_INT -> ints[a] = ints[b] == ints[c] ? 1 : 0;
+                case Opcode.NE_INT -> ints[a] = ints[b] != ints[c] ? 1 : 0;
+                case Opcode.GT_INT -> ints[a] = ints[b] > ints[c] ? 1 : 0;
+                case Opcode.LT_INT -> ints[a] = ints[b] < ints[c] ? 1 : 0;
+                case Opcode.GE_INT -> ints[a] = ints[b] >= ints[c] ? 1 : 0;
+                case Opcode.LE_INT -> ints[a] = ints[b] <= ints[c] ? 1 : 0;
+                case Opcode.EQ_FLOAT -> ints[a] = Double.valueOf(floats[b]).equals(floats[c]) ? 1 : 0;
+                case Opcode.NE_FLOAT -> ints[a] = Double.valueOf(floats[b]).equals(floats[c]) ? 0 : 1;
+                case Opcode.GT_FLOAT -> ints[a] = floats[b] > floats[c] ? 1 : 0;
+                case Opcode.LT_FLOAT -> ints[a] = floats[b] < floats[c] ? 1 : 0;
+                case Opcode.GE_FLOAT -> ints[a] = floats[b] >= floats[c] ? 1 : 0;
+                case Opcode.LE_FLOAT -> ints[a] = floats[b] <= floats[c] ? 1 : 0;
+                case Opcode.EQ_CUR -> ints[a] = currencies.equal((CurrencyPrimitive) refs[b], (CurrencyPrimitive) refs[c]) ? 1 : 0;
+                case Opcode.NE_CUR -> ints[a] = currencies.equal((CurrencyPrimitive) refs[b], (CurrencyPrimitive) refs[c]) ? 0 : 1;
+                case Opcode.GT_CUR -> ints[a] = currencies.compare((CurrencyPrimitive) refs[b], (CurrencyPrimitive) refs[c]) > 0 ? 1 : 0;
+                case Opcode.LT_CUR -> ints[a] = currencies.compare((CurrencyPrimitive) refs[b], (CurrencyPrimitive) refs[c]) < 0 ? 1 : 0;
+                case Opcode.GE_CUR -> ints[a] = currencies.compare((CurrencyPrimitive) refs[b], (CurrencyPrimitive) refs[c]) >= 0 ? 1 : 0;
+                case Opcode.LE_CUR -> ints[a] = currencies.compare((CurrencyPrimitive) refs[b], (CurrencyPrimitive) refs[c]) <= 0 ? 1 : 0;
+                case Opcode.EQ_STR -> ints[a] = refs[b].equals(refs[c]) ? 1 : 0;
+                case Opcode.NE_STR -> ints[a] = refs[b].equals(refs[c]) ? 0 : 1;
+                case Opcode.CAST -> refs[a] = currencies.cast((CurrencyPrimitive) refs[b], (Currency) constants[c]);
+                case Opcode.CONVERT -> refs[a] = currencies.convert((CurrencyPrimitive) refs[b], (Currency) constants[c]);
+                case Opcode.CAST_DYNAMIC -> refs[a] = currencies.cast((CurrencyPrimitive) refs[b],
+                        currencies.currencyOf((CurrencyPrimitive) refs[c]));
+                case Opcode.CONVERT_DYNAMIC -> refs[a] = currencies.convert((CurrencyPrimitive) refs[b],
+                        currencies.currencyOf((CurrencyPrimitive) refs[c]));
+                case Opcode.CONVERT_CHAIN -> refs[a] = currencies.convert((CurrencyPrimitive) refs[b],
+                        (ConversionChain) constants[c]);
+                case Opcode.BALANCE -> floats[a] = ((CurrencyPrimitive) refs[b]).getValue().doubleValue();
+                case Opcode.CURRENCY_NAME -> refs[a] = ((CurrencyPrimitive) refs[b]).getName();
+                case Opcode.INT_TO_STRING -> refs[a] = Integer.toString(ints[b]);
+                case Opcode.FLOAT_TO_STRING -> refs[a] = Double.toString(floats[b]);
+                case Opcode.BOOL_TO_STRING -> refs[a] = Boolean.toString(ints[b] != 0);
+                case Opcode.REF_TO_STRING -> refs[a] = refs[b].toString();
+                case Opcode.JUMP -> pc = a * Opcode.WIDTH;
+                case Opcode.JUMP_IF_FALSE -> {
+                    if (ints[a] == 0) {
+                        pc = b * Opcode.WIDTH;
+                    }
+                }
+                case Opcode.JUMP_IF_TRUE -> {
+                    if (ints[a] != 0) {
+                        pc = b * Opcode.WIDTH;
+                    }
+                }
+                case Opcode.CALL -> call(compiledProgram.functions()[b], a, c,
+                        new CallerFrame(function, pc / Opcode.WIDTH - 1, ints, floats, refs, caller));
+                case Opcode.RETURN_INT -> {
+                    returnInt = ints[a];
+                    return;
+                }
+                case Opcode.RETURN_FLOAT -> {
+                    returnFloat = floats[a];
+                    return;
+                }
+                case Opcode.RETURN_REF -> {
+                    returnRef = refs[a];
+                    return;
+                }
+                case Opcode.RETURN_VOID -> {
+                    return;
+                }
+                case Opcode.MISSING_RETURN -> errorHandler.handleInterpreterError(
+                        InvalidReturnValueError.NO_RETURN_VALUE);
+                case Opcode.PRINT -> printer.println(String.valueOf(refs[a]));
+                case Opcode.INVALID_CURRENCY -> errorHandler.handleInterpreterError(new InvalidCurrencyNameError(
+                        "CURRENCY " + refs[a] + " IS NOT CORRECT"));
+                case Opcode.LOAD_CALLER_INT -> {
+                    CallerFrame frame = findCaller(caller, (String) constants[b]);
+                    ints[a] = frame.ints()[frame.slotOf((String) constants[b])];
+                }
+                case Opcode.LOAD_CALLER_FLOAT -> {
+                    CallerFrame frame = findCaller(caller, (String) constants[b]);
+                    floats[a] = frame.floats()[frame.slotOf((String) constants[b])];
+                }
+                case Opcode.LOAD_CALLER_REF -> {
+                    CallerFrame frame = findCaller(caller, (String) constants[b]);
+                    refs[a] = frame.refs()[frame.slotOf((String) constants[b])];
+                }
+                case Opcode.STORE_CALLER_INT -> {
+                    CallerFrame frame = findCaller(caller, (String) constants[b]);
+                    frame.ints()[frame.slotOf((String) constants[b])] = ints[a];
+                }
+                case Opcode.STORE_CALLER_FLOAT -> {
+                    CallerFrame frame = findCaller(caller, (String) constants[b]);
+                    frame.floats()[frame.slotOf((String) constants[b])] = floats[a];
+                }
+                case Opcode.STORE_CALLER_REF -> {
+                    CallerFrame frame = findCaller(caller, (String) constants[b]);
+                    frame.refs()[frame.slotOf((String) constants[b])] = refs[a];
+                }
+                default -> throw new IllegalStateException("UNKNOWN OPCODE " + opcode + " IN " + function.name());
+            }
+        }
+    }
+
+    // the nearest caller with a live variable of the name, the compiler made sure they all have its type
+    private CallerFrame findCaller(CallerFrame caller, String name) throws Exception {
+        for (CallerFrame frame = caller; frame != null; frame = frame.caller()) {
+            if (frame.slotOf(name) != CompiledFunction.NOT_FOUND) {
+                return frame;
+            }
+        }
+        errorHandler.handleInterpreterError(new VariableDoesNotExistError(
+                "VARIABLE " + name + " DOES NOT EXIST IN ANY CONTEXT!"));
+        return null;
+    }
+
+    private void call(CompiledFunction callee, int destination, int firstArgument, CallerFrame frame) throws Exception {
+        int[] ints = frame.ints();
+        double[] floats = frame.floats();
+        Object[] refs = frame.refs();
+        int registerCount = callee.registerCount();
+        int[] calleeInts = new int[registerCount];
+        double[] calleeFloats = new double[registerCount];
+        Object[] calleeRefs = new Object[registerCount];
+        int[] parameterBanks = callee.parameterBanks();
+        for (int i = 0; i < parameterBanks.length; i++) {
+            switch (parameterBanks[i]) {
+                case Opcode.INT_BANK -> calleeInts[i] = ints[firstArgument + i];
+                case Opcode.FLOAT_BANK -> calleeFloats[i] = floats[firstArgument + i];
+                default -> calleeRefs[i] = refs[firstArgument + i];
+            }
+        }
+        execute(callee, calleeInts, calleeFloats, calleeRefs, frame);
+        switch (callee.returnBank()) {
+            case Opcode.INT_BANK -> ints[destination] = returnInt;
+            case Opcode.FLOAT_BANK -> floats[destination] = returnFloat;
+            case Opcode.REF_BANK -> {
+                refs[destination] = returnRef;
+                returnRef = null;
+            }
+            default -> {
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package currex;
+
+import currex.interpreter.Interpreter;
+import currex.interpreter.builtin.ConversionTable;
+import currex.lexer.Lexer;
+import currex.parser.Parser;
+import currex.parser.TableParser;
+import currex.source.Source;
+import currex.structure.components.Program;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileReader;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchExecutorTest {
+
+    private Program parse(String filename) throws Exception {
+        return new Parser(new Lexer(new Source(new FileReader(filename)))).parse();
+    }
+
+    private ConversionTable table(int snapshot) throws Exception {
+        String table = "EUR USD PLN;\n" +
+                "EUR 1 1." + snapshot + " 4.6" + snapshot + ";\n" +
+                "USD 0.9" + snapshot + " 1 4.3" + snapshot + ";\n" +
+                "PLN 0.1" + snapshot + " 0.2" + snapshot + " 1;";
+        return new ConversionTable(new TableParser(new Lexer(new Source(new StringReader(table)))).parse());
+    }
+
+    private String runInterpreter(Program program, ConversionTable table) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new Interpreter(table, new PrintStream(output)).run(program);
+        return output.toString();
+    }
+
+    private void assertSameOutputAsInterpreter(Engine engine) throws Exception {
+        Program program = parse("resources/vm/currency.txt");
+        List<ConversionTable> tables = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            tables.add(table(i % 10));
+        }
+        try (BatchExecutor executor = new BatchExecutor(engine, RunOptions.DEFAULT, 4)) {
+            List<BatchExecutor.Result> results = executor.run(program, tables);
+            Assert.assertEquals(tables.size(), results.size());
+            for (int i = 0; i < tables.size(); i++) {
+                Assert.assertSame(tables.get(i), results.get(i).conversionTable());
+                Assert.assertTrue(results.get(i).isSuccessful());
+                Assert.assertEquals(runInterpreter(program, tables.get(i)), results.get(i).output());
+            }
+        }
+    }
+
+    @Test
+    public void SameOutputAsInterpreter() throws Exception {
+        assertSameOutputAsInterpreter(Engine.INTERPRETER);
+    }
+
+    @Test
+    public void SameOutputWithVirtualMachine() throws Exception {
+        assertSameOutputAsInterpreter(Engine.VM);
+    }
+
+    @Test
+    public void SameOutputWithNodes() throws Exception {
+        assertSameOutputAsInterpreter(Engine.NODES);
+    }
+
+    @Test
+    public void RunWithOptionsOfRuntime() throws Exception {
+        Program program = parse("resources/optimizer/chain.txt");
+        ConversionTable precise = new CurrexRuntime().loadTable(Path.of("resources/optimizer/precise_table.txt"));
+        for (Engine engine : Engine.values()) {
+            try (BatchExecutor perHop = new BatchExecutor(engine, RunOptions.DEFAULT.withOptimizing(false));
+                 BatchExecutor fused = new BatchExecutor(engine, RunOptions.DEFAULT.withFusedRounding(true))) {
+                Assert.assertEquals("12.3398192178 PLN", perHop.run(program, List.of(precise)).get(0).output().strip());
+                Assert.assertEquals("12.3398192179 PLN", fused.run(program, List.of(precise)).get(0).output().strip());
+            }
+        }
+    }
+
+    @Test
+    public void KeepErrorsOfEveryRun() throws Exception {
+        Program program = parse("resources/vm/currency.txt");
+        String onlyPln = "PLN;\nPLN 1;";
+        ConversionTable broken = new ConversionTable(new TableParser(new Lexer(new Source(new StringReader(onlyPln)))).parse());
+        PrintStream standardOutput = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printed));
+        List<BatchExecutor.Result> results;
+        try (BatchExecutor executor = new BatchExecutor(Engine.INTERPRETER, RunOptions.DEFAULT.withFixedPoint(true))) {
+            results = executor.run(program, List.of(table(1), broken, table(2)));
+        }
+        finally {
+            System.setOut(standardOutput);
+        }
+        Assert.assertTrue(results.get(0).isSuccessful());
+        Assert.assertFalse(results.get(1).isSuccessful());
+        Assert.assertTrue(results.get(2).isSuccessful());
+        Assert.assertNotNull(results.get(1).error().getMessage());
+        Assert.assertTrue(results.get(1).output().endsWith(results.get(1).error().getMessage() + System.lineSeparator()));
+        Assert.assertEquals("", printed.toString());
+    }
+}
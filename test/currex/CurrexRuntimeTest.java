@@ -0,0 +1,127 @@
+package currex;
+
+import currex.diagnostic.Diagnostic;
+import currex.interpreter.builtin.ConversionTable;
+import currex.interpreter.error.ErrorHandler;
+import currex.interpreter.error.InterpreterErrorHandler;
+import currex.interpreter.error.ZeroDivisionError;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CurrexRuntimeTest {
+    private static final Path TABLE = Path.of("resources/interpreter/currency_table.txt");
+
+    private String run(CurrexRuntime.Script script, ConversionTable table) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        script.run(table, new PrintStream(output));
+        return output.toString();
+    }
+
+    @Test
+    public void RunLoadedProgramManyTimes() throws Exception {
+        CurrexRuntime runtime = new CurrexRuntime();
+        CurrexRuntime.Script script = runtime.load(Path.of("resources/vm/currency.txt"));
+        ConversionTable table = runtime.loadTable(TABLE);
+        String first = run(script, table);
+        Assert.assertFalse(first.isEmpty());
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(first, run(script, table));
+        }
+    }
+
+    @Test
+    public void ReuseParsedFiles() throws Exception {
+        CurrexRuntime runtime = new CurrexRuntime();
+        Path program = Path.of("resources/vm/arithmetic.txt");
+        Assert.assertSame(runtime.load(program).getProgram(), runtime.load(program).getProgram());
+        Assert.assertSame(runtime.loadTable(TABLE), runtime.loadTable(TABLE));
+    }
+
+    @Test
+    public void ShareProgramsWithSameContent() throws Exception {
+        Path first = Files.createTempFile("currex", ".txt");
+        Path second = Files.createTempFile("currex", ".txt");
+        try {
+            Files.copy(Path.of("resources/vm/arithmetic.txt"), first, StandardCopyOption.REPLACE_EXISTING);
+            Files.copy(Path.of("resources/vm/arithmetic.txt"), second, StandardCopyOption.REPLACE_EXISTING);
+            CurrexRuntime runtime = new CurrexRuntime();
+            Assert.assertSame(runtime.load(first).getProgram(), runtime.load(second).getProgram());
+        }
+        finally {
+            Files.delete(first);
+            Files.delete(second);
+        }
+    }
+
+    @Test
+    public void ReloadChangedFile() throws Exception {
+        Path program = Files.createTempFile("currex", ".txt");
+        try {
+            Files.writeString(program, "main() { print(\"first\"); }");
+            Files.setLastModifiedTime(program, FileTime.fromMillis(1000));
+            CurrexRuntime runtime = new CurrexRuntime();
+            CurrexRuntime.Script script = runtime.load(program);
+            ConversionTable table = runtime.loadTable(TABLE);
+            Assert.assertEquals("\"first\"" + System.lineSeparator(), run(script, table));
+
+            Files.writeString(program, "main() { print(\"second\"); }");
+            Files.setLastModifiedTime(program, FileTime.fromMillis(2000));
+            Assert.assertEquals("\"second\"" + System.lineSeparator(), run(script, table));
+        }
+        finally {
+            Files.delete(program);
+        }
+    }
+
+    @Test
+    public void RunWithOtherEngine() throws Exception {
+        Path program = Path.of("resources/vm/functions.txt");
+        CurrexRuntime interpreter = new CurrexRuntime();
+        CurrexRuntime virtualMachine = new CurrexRuntime(Engine.VM, RunOptions.DEFAULT.withFixedPoint(true));
+        Assert.assertEquals(run(interpreter.load(program), interpreter.loadTable(TABLE)),
+                run(virtualMachine.load(program), virtualMachine.loadTable(TABLE)));
+    }
+
+    @Test
+    public void CollectRuntimeErrors() throws Exception {
+        for (Engine engine : Engine.values()) {
+            List<Diagnostic> diagnostics = new ArrayList<>();
+            CurrexRuntime runtime = new CurrexRuntime(engine, new InterpreterErrorHandler(diagnostics), RunOptions.DEFAULT);
+            CurrexRuntime.Script script = runtime.load(Path.of("resources/interpreter/zero_division.txt"));
+            ConversionTable table = runtime.loadTable(TABLE);
+            for (int i = 0; i < 3; i++) {
+                Assert.assertThrows(ZeroDivisionError.class, () -> run(script, table));
+            }
+            Assert.assertEquals(3, diagnostics.size());
+            Assert.assertSame(ZeroDivisionError.DIVISION_BY_ZERO, diagnostics.get(0).error());
+            Assert.assertEquals(0, diagnostics.get(0).error().getStackTrace().length);
+            Assert.assertEquals("UNHANDLED DIVISION BY ZERO!", diagnostics.get(2).toString());
+        }
+    }
+
+    @Test
+    public void PlugInErrorHandler() throws Exception {
+        for (Engine engine : Engine.values()) {
+            List<Exception> handled = new ArrayList<>();
+            ErrorHandler errorHandler = exception -> {
+                handled.add(exception);
+                throw new IllegalStateException(exception.getMessage(), exception);
+            };
+            CurrexRuntime runtime = new CurrexRuntime(engine, errorHandler, RunOptions.DEFAULT);
+            CurrexRuntime.Script script = runtime.load(Path.of("resources/interpreter/zero_division.txt"));
+            ConversionTable table = runtime.loadTable(TABLE);
+            IllegalStateException error = Assert.assertThrows(IllegalStateException.class, () -> run(script, table));
+            Assert.assertEquals(List.of(error.getCause()), handled);
+            Assert.assertEquals("UNHANDLED DIVISION BY ZERO!", error.getMessage());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package currex.interpreter;
+
+import currex.interpreter.builtin.ConversionTable;
+import currex.interpreter.builtin.Currency;
+import currex.interpreter.error.ZeroDivisionError;
+import currex.lexer.Lexer;
+import currex.parser.Parser;
+import currex.parser.TableParser;
+import currex.source.Source;
+import currex.structure.primitives.CurrencyPrimitive;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileReader;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.util.Random;
+
+public class CurrencyArithmeticTest {
+    private ConversionTable conversionTable;
+    private CurrencyArithmetic decimal;
+    private CurrencyArithmetic fixedPoint;
+    private Currency eur;
+    private final Random random = new Random(7);
+
+    @Before
+    public void setUp() throws Exception {
+        Source source = new Source(new FileReader("resources/interpreter/currency_table.txt"));
+        conversionTable = new ConversionTable(new TableParser(new Lexer(source)).parse());
+        decimal = new CurrencyArithmetic(conversionTable);
+        fixedPoint = new CurrencyArithmetic(conversionTable, true);
+        eur = conversionTable.getCurrency("EUR");
+    }
+
+    private CurrencyPrimitive randomValue() {
+        long unscaled = switch (random.nextInt(4)) {
+            case 0 -> random.nextInt(1000);
+            case 1 -> random.nextInt();
+            case 2 -> random.nextLong() % 1_000_000_000_000_000L;
+            default -> random.nextLong();
+        };
+        return new CurrencyPrimitive(BigDecimal.valueOf(unscaled, random.nextInt(12)), eur);
+    }
+
+    @Test
+    public void SameResultsAsBigDecimal() throws Exception {
+        for (int i = 0; i < 20000; i++) {
+            CurrencyPrimitive left = randomValue();
+            CurrencyPrimitive right = randomValue();
+            Assert.assertEquals(decimal.add(left, right).toString(), fixedPoint.add(left, right).toString());
+            Assert.assertEquals(decimal.subtract(left, right).toString(), fixedPoint.subtract(left, right).toString());
+            Assert.assertEquals(decimal.multiply(left, right).toString(), fixedPoint.multiply(left, right).toString());
+            if (right.getValue().signum() != 0) {
+                Assert.assertEquals(decimal.divide(left, right).toString(), fixedPoint.divide(left, right).toString());
+            }
+            Assert.assertEquals(decimal.negate(left).toString(), fixedPoint.negate(left).toString());
+            Assert.assertEquals(decimal.equal(left, right), fixedPoint.equal(left, right));
+            Assert.assertEquals(decimal.compare(left, right), fixedPoint.compare(left, right));
+            for (String target : new String[]{"EUR", "USD", "PLN"}) {
+                Currency currency = conversionTable.getCurrency(target);
+                Assert.assertEquals(decimal.convert(left, currency).toString(), fixedPoint.convert(left, currency).toString());
+            }
+        }
+    }
+
+    @Test
+    public void SameResultsForFixedPointOperands() throws Exception {
+        for (int i = 0; i < 20000; i++) {
+            CurrencyPrimitive left = fixedPoint.add(randomValue(), new CurrencyPrimitive(BigDecimal.ZERO, eur));
+            CurrencyPrimitive right = fixedPoint.multiply(randomValue(), randomValue());
+            Assert.assertEquals(decimal.multiply(left, right).toString(), fixedPoint.multiply(left, right).toString());
+            if (right.getValue().signum() != 0) {
+                Assert.assertEquals(decimal.divide(left, right).toString(), fixedPoint.divide(left, right).toString());
+            }
+            Assert.assertEquals(decimal.negate(left).toString(), fixedPoint.negate(left).toString());
+            Assert.assertEquals(decimal.equal(left, left.withValue(left.getValue())), fixedPoint.equal(left, left));
+        }
+    }
+
+    @Test
+    public void RoundHalfDown() throws Exception {
+        CurrencyPrimitive left = new CurrencyPrimitive(new BigDecimal("0.00003"), eur);
+        CurrencyPrimitive right = new CurrencyPrimitive(new BigDecimal("-0.000005"), eur);
+        Assert.assertEquals("-1E-10 EUR", fixedPoint.multiply(left, right).toString());
+        CurrencyPrimitive two = new CurrencyPrimitive(new BigDecimal("2.0"), eur);
+        CurrencyPrimitive three = new CurrencyPrimitive(new BigDecimal("3"), eur);
+        Assert.assertEquals("0.7000000000 EUR", fixedPoint.divide(two, three).toString());
+    }
+
+    @Test
+    public void FallBackToBigDecimalOnOverflow() throws Exception {
+        CurrencyPrimitive big = new CurrencyPrimitive(new BigDecimal("900000000.5"), eur);
+        CurrencyPrimitive sum = fixedPoint.add(big, big);
+        Assert.assertEquals("1800000001.0000000000 EUR", sum.toString());
+        Assert.assertEquals(decimal.multiply(sum, sum).toString(), fixedPoint.multiply(sum, sum).toString());
+    }
+
+    @Test
+    public void ThrowZeroDivisionError() {
+        CurrencyPrimitive value = new CurrencyPrimitive(BigDecimal.ONE, eur);
+        CurrencyPrimitive zero = new CurrencyPrimitive(new BigDecimal("0.00"), eur);
+        Assert.assertThrows(ZeroDivisionError.class, () -> fixedPoint.divide(value, zero));
+    }
+
+    @Test
+    public void SameProgramOutput() throws Exception {
+        String filename = "resources/vm/currency.txt";
+        ByteArrayOutputStream decimalOutput = new ByteArrayOutputStream();
+        new Interpreter(conversionTable, new PrintStream(decimalOutput))
+                .run(new Parser(new Lexer(new Source(new FileReader(filename)))).parse());
+        ByteArrayOutputStream fixedPointOutput = new ByteArrayOutputStream();
+        new Interpreter(conversionTable, new PrintStream(fixedPointOutput), fixedPoint)
+                .run(new Parser(new Lexer(new Source(new FileReader(filename)))).parse());
+        Assert.assertEquals(decimalOutput.toString(), fixedPointOutput.toString());
+    }
+}
@@ -0,0 +1,66 @@
+package currex.interpreter.builtin;
+
+import currex.structure.table.ConversionRateExpression;
+import currex.structure.table.ConversionRowExpression;
+import currex.structure.table.CurrencyIdentifierExpression;
+import currex.structure.table.CurrencyRowExpression;
+import currex.structure.table.TableStatement;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class ConversionTableTest {
+
+    // built directly, the table parser rejects incomplete tables before they get here
+    private ConversionTable conversionTable(List<String> header, ConversionRowExpression... rows) throws Exception {
+        CurrencyRowExpression currencyRow = new CurrencyRowExpression(
+                header.stream().map(CurrencyIdentifierExpression::new).toList());
+        return new ConversionTable(new TableStatement(currencyRow, List.of(rows)));
+    }
+
+    private ConversionRowExpression row(String currency, Double... rates) {
+        return new ConversionRowExpression(new CurrencyIdentifierExpression(currency),
+                List.of(rates).stream().map(ConversionRateExpression::new).toList());
+    }
+
+    @Test
+    public void ReadRatesByHeaderPosition() throws Exception {
+        ConversionTable table = conversionTable(List.of("EUR", "USD", "PLN"),
+                row("PLN", 0.18, 0.23, 1.0), row("EUR", 1.0, 1.08, 4.68), row("USD", 0.92, 1.0, 4.31));
+        Assert.assertEquals(3, table.size());
+        Assert.assertEquals(0, table.getCurrencyId("EUR"));
+        Assert.assertEquals(2, table.getCurrencyId("PLN"));
+        // rows are stored by the header position of their currency, not by their own position
+        Assert.assertEquals(4.68, table.rate(0, 2), 0.0);
+        Assert.assertEquals(0.23, table.rate(2, 1), 0.0);
+        Assert.assertEquals(1.08, table.rate(table.getCurrency("EUR"), table.getCurrency("USD")), 0.0);
+        Assert.assertEquals(List.of(0.18, 0.23, 1.0), table.getConversionTable().get(0));
+    }
+
+    @Test
+    public void ReturnNaNForMissingRates() throws Exception {
+        ConversionTable table = conversionTable(List.of("EUR", "USD", "PLN"),
+                row("EUR", 1.0, 1.08, 4.68), row("USD", 0.92));
+        Assert.assertTrue(Double.isNaN(table.rate(1, 2)));
+        Assert.assertTrue(Double.isNaN(table.rate(table.getCurrency("PLN"), table.getCurrency("EUR"))));
+        Assert.assertNull(table.chain(List.of(table.getCurrency("USD"), table.getCurrency("PLN"))));
+    }
+
+    @Test
+    public void KeepUnknownCurrenciesOutOfTheMatrix() throws Exception {
+        ConversionTable table = conversionTable(List.of("EUR", "USD"),
+                row("EUR", 1.0, 1.08), row("GBP", 1.17, 1.26));
+        Assert.assertEquals(ConversionTable.UNKNOWN_CURRENCY, table.getCurrencyId("GBP"));
+        Assert.assertNull(table.getCurrency("GBP"));
+        Currency gbp = table.getOrCreateCurrency("GBP");
+        Assert.assertFalse(gbp.isBound());
+        Assert.assertEquals("GBP", gbp.name());
+        Assert.assertSame(table.getCurrency("EUR"), table.getOrCreateCurrency("EUR"));
+        Assert.assertEquals(List.of("EUR", "GBP"), table.getRowCurrencies());
+        List<Double> gbpRow = table.getConversionTable().get(1);
+        Assert.assertEquals(2, gbpRow.size());
+        Assert.assertTrue(Double.isNaN(gbpRow.get(0)));
+        Assert.assertTrue(Double.isNaN(gbpRow.get(1)));
+    }
+}
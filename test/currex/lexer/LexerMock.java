@@ -24,4 +24,8 @@ public class LexerMock extends Lexer {
         }
         return new Token(new Position(), TokenType.EOF);
     }
+
+    public int fetchTokenInto(TokenStream tokens) {
+        return tokens.add(fetchToken());
+    }
 }
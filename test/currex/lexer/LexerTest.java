@@ -2,6 +2,7 @@ package currex.lexer;
 
 import currex.lexer.error.*;
 import currex.source.Source;
+import currex.token.FloatToken;
 import currex.token.Token;
 import currex.token.TokenType;
 import org.junit.Assert;
@@ -9,6 +10,7 @@ import org.junit.Test;
 
 import java.io.FileReader;
 import java.io.StringReader;
+import java.math.BigDecimal;
 
 public class LexerTest {
     @Test
@@ -666,6 +668,39 @@ public class LexerTest {
         MissingSecondCharacterError e = Assert.assertThrows(MissingSecondCharacterError.class, lexer::fetchToken);
         Assert.assertTrue(e.getMessage().contains("MISSING SECOND CHARACTER ERROR!"));
     }
-}
 
+    @Test
+    public void readKeywordPrefixesAsIdentifiersTest() throws Exception {
+        Source reader = new Source(new StringReader("whilex i els return_ floats true1 _false"));
+        Lexer lexer = new Lexer(reader);
 
+        for (String name : new String[]{"whilex", "i", "els", "return_", "floats", "true1", "_false"}) {
+            Token token = lexer.fetchToken();
+            Assert.assertEquals(TokenType.IDENTIFIER, token.getTokenType());
+            Assert.assertEquals(name, token.getValue());
+        }
+    }
+
+    @Test
+    public void readAllKeywordsTest() throws Exception {
+        for (var keyword : LexerMapping.keywordMap.entrySet()) {
+            Lexer lexer = new Lexer(new Source(new StringReader(keyword.getKey())));
+            Assert.assertEquals(keyword.getValue(), lexer.fetchToken().getTokenType());
+        }
+    }
+
+    @Test
+    public void readExactFloatTokensTest() throws Exception {
+        Source reader = new Source(new StringReader("4.40 123456789.1234567891 0.99999999999 0.000000000049 7."));
+        Lexer lexer = new Lexer(reader);
+
+        FloatToken amount = (FloatToken) lexer.fetchToken();
+        Assert.assertEquals(44, amount.getUnscaledValue());
+        Assert.assertEquals(1, amount.getScale());
+        Assert.assertEquals(4.4, amount.getValue(), 0);
+        Assert.assertEquals(new BigDecimal("123456789.1234567891"), ((FloatToken) lexer.fetchToken()).getDecimalValue());
+        Assert.assertEquals(new BigDecimal("1.0"), ((FloatToken) lexer.fetchToken()).getDecimalValue());
+        Assert.assertEquals(new BigDecimal("0.0"), ((FloatToken) lexer.fetchToken()).getDecimalValue());
+        Assert.assertEquals(new BigDecimal("7.0"), ((FloatToken) lexer.fetchToken()).getDecimalValue());
+    }
+}
@@ -0,0 +1,86 @@
+package currex.lexer;
+
+import currex.source.Source;
+import currex.token.Token;
+import currex.token.TokenType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.FileReader;
+
+public class TokenStreamTest {
+
+    private TokenStream lexAll(String filename) throws Exception {
+        Lexer lexer = new Lexer(new Source(new FileReader(filename)));
+        TokenStream tokens = new TokenStream();
+        int index = lexer.fetchTokenInto(tokens);
+        while (tokens.type(index) != TokenType.EOF) {
+            index = lexer.fetchTokenInto(tokens);
+        }
+        return tokens;
+    }
+
+    private void assertSameTokens(String filename) throws Exception {
+        Lexer lexer = new Lexer(new Source(new FileReader(filename)));
+        TokenStream tokens = lexAll(filename);
+        for (int i = 0; i < tokens.size(); i++) {
+            Token expected = lexer.fetchToken();
+            Token packed = tokens.toToken(i);
+            Assert.assertEquals(expected.getTokenType(), packed.getTokenType());
+            Assert.assertEquals(expected.getPosition().getRow(), packed.getPosition().getRow());
+            Assert.assertEquals(expected.getPosition().getColumn(), packed.getPosition().getColumn());
+            if (expected.getTokenType() != TokenType.COMMENT) {
+                Assert.assertEquals(expected.getValue(), packed.getValue());
+            }
+        }
+    }
+
+    @Test
+    public void SameTokensAsFetchToken() throws Exception {
+        assertSameTokens("resources/vm/functions.txt");
+        assertSameTokens("resources/vm/currency.txt");
+        assertSameTokens("resources/lexer/comment.txt");
+        assertSameTokens("resources/lexer/currency_table.txt");
+    }
+
+    @Test
+    public void InternIdentifiers() throws Exception {
+        TokenStream tokens = lexAll("resources/vm/functions.txt");
+        int fib = tokens.symbols().intern("fib");
+        int occurrences = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.type(i) == TokenType.IDENTIFIER && tokens.symbol(i) == fib) {
+                occurrences++;
+            }
+        }
+        Assert.assertEquals(4, occurrences);
+        Assert.assertEquals("fib", tokens.symbols().name(fib));
+    }
+
+    @Test
+    public void StoreOffsetsAndLengths() throws Exception {
+        TokenStream tokens = lexAll("resources/vm/currency.txt");
+        Assert.assertEquals(TokenType.IDENTIFIER, tokens.type(0));
+        Assert.assertEquals(0, tokens.start(0));
+        Assert.assertEquals(4, tokens.length(0));
+        Assert.assertEquals(TokenType.LEFT_PARENTHESIS, tokens.type(1));
+        Assert.assertEquals(4, tokens.start(1));
+        Assert.assertEquals(1, tokens.length(1));
+        Assert.assertEquals(TokenType.CURRENCY, tokens.type(4));
+        Assert.assertEquals(2, tokens.row(4));
+        Assert.assertEquals(8, tokens.length(4));
+    }
+
+    @Test
+    public void GrowSymbolTable() {
+        SymbolTable symbols = new SymbolTable();
+        int first = symbols.intern("name0");
+        for (int i = 1; i < 1000; i++) {
+            symbols.intern("name" + i);
+        }
+        Assert.assertEquals(first, symbols.intern("name0"));
+        Assert.assertEquals("name999", symbols.name(symbols.intern("name999")));
+        Assert.assertEquals(TokenType.WHILE, symbols.keyword(symbols.intern("while")));
+        Assert.assertNull(symbols.keyword(first));
+    }
+}
@@ -0,0 +1,136 @@
+package currex.node;
+
+import currex.Engine;
+import currex.interpreter.Interpretable;
+import currex.interpreter.builtin.ConversionTable;
+import currex.interpreter.error.*;
+import currex.lexer.Lexer;
+import currex.parser.Parser;
+import currex.parser.TableParser;
+import currex.source.Source;
+import currex.structure.components.Program;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileReader;
+import java.io.PrintStream;
+
+public class NodeInterpreterTest {
+
+    private Program parse(String filename) throws Exception {
+        Source source = new Source(new FileReader(filename));
+        Lexer lexer = new Lexer(source);
+        Parser parser = new Parser(lexer);
+        return parser.parse();
+    }
+
+    private ConversionTable conversionTable() throws Exception {
+        Source source = new Source(new FileReader("resources/interpreter/currency_table.txt"));
+        Lexer lexer = new Lexer(source);
+        TableParser tableParser = new TableParser(lexer);
+        return new ConversionTable(tableParser.parse());
+    }
+
+    private String run(Engine engine, String filename) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        engine.create(conversionTable(), new PrintStream(output)).run(parse(filename));
+        return output.toString();
+    }
+
+    private void assertSameOutput(String filename) throws Exception {
+        String expected = run(Engine.INTERPRETER, filename);
+        Assert.assertEquals(expected, run(Engine.NODES, filename));
+        Assert.assertEquals(expected, run(Engine.VM, filename));
+    }
+
+    private <T extends Throwable> void assertThrowsInNodeInterpreter(Class<T> errorClass, String filename) throws Exception {
+        Program program = parse(filename);
+        Interpretable interpreter = Engine.NODES.create(conversionTable(), new PrintStream(new ByteArrayOutputStream()));
+        Assert.assertThrows(errorClass, () -> interpreter.run(program));
+    }
+
+    @Test
+    public void SameOutputForArithmetic() throws Exception {
+        assertSameOutput("resources/vm/arithmetic.txt");
+    }
+
+    @Test
+    public void SameOutputForCurrencies() throws Exception {
+        assertSameOutput("resources/vm/currency.txt");
+    }
+
+    @Test
+    public void SameOutputForFunctions() throws Exception {
+        assertSameOutput("resources/vm/functions.txt");
+    }
+
+    @Test
+    public void SameOutputForControlFlow() throws Exception {
+        assertSameOutput("resources/vm/control_flow.txt");
+    }
+
+    @Test
+    public void SameOutputForCodeExamples() throws Exception {
+        assertSameOutput("resources/code_examples/currency.txt");
+        assertSameOutput("resources/code_examples/if_statement.txt");
+        assertSameOutput("resources/code_examples/while_statement.txt");
+    }
+
+    @Test
+    public void SameOutputForCallerVariables() throws Exception {
+        assertSameOutput("resources/vm/caller_variable.txt");
+        assertSameOutput("resources/optimizer/called_loop.txt");
+    }
+
+    @Test
+    public void SameOutputForReturnsInsideBlocks() throws Exception {
+        assertSameOutput("resources/vm/block_return.txt");
+    }
+
+    @Test
+    public void RejectCallerVariablesOfDifferentTypes() throws Exception {
+        assertThrowsInNodeInterpreter(InvalidVariableTypeError.class, "resources/vm/caller_variable_types.txt");
+    }
+
+    @Test
+    public void EngineIsSelectedByName() {
+        Assert.assertEquals(Engine.NODES, Engine.fromName("nodes"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> Engine.fromName("jit"));
+    }
+
+    @Test
+    public void MainFunctionNotFoundError() throws Exception {
+        assertThrowsInNodeInterpreter(MainFunctionNotDefinedError.class, "resources/interpreter/main_not_found.txt");
+    }
+
+    @Test
+    public void InvalidVariableTypeError() throws Exception {
+        assertThrowsInNodeInterpreter(InvalidVariableTypeError.class, "resources/interpreter/invalid_variable_type.txt");
+    }
+
+    @Test
+    public void VariableDoesNotExistError() throws Exception {
+        assertThrowsInNodeInterpreter(VariableDoesNotExistError.class, "resources/interpreter/var_not_exist.txt");
+    }
+
+    @Test
+    public void InvalidReturnValueError() throws Exception {
+        assertThrowsInNodeInterpreter(InvalidReturnValueError.class, "resources/interpreter/invalid_return.txt");
+    }
+
+    @Test
+    public void InvalidBoolValueError() throws Exception {
+        assertThrowsInNodeInterpreter(InvalidBoolValueError.class, "resources/interpreter/invalid_bool.txt");
+    }
+
+    @Test
+    public void InvalidCurrencyNameError() throws Exception {
+        assertThrowsInNodeInterpreter(InvalidCurrencyNameError.class, "resources/interpreter/currency_comparison.txt");
+    }
+
+    @Test
+    public void ZeroDivisionError() throws Exception {
+        assertThrowsInNodeInterpreter(ZeroDivisionError.class, "resources/interpreter/zero_division.txt");
+    }
+}
@@ -0,0 +1,187 @@
+package currex.optimizer;
+
+import currex.Engine;
+import currex.RunOptions;
+import currex.interpreter.builtin.ConversionTable;
+import currex.interpreter.error.InterpreterErrorHandler;
+import currex.lexer.Lexer;
+import currex.output.PrintStreamSink;
+import currex.parser.Parser;
+import currex.parser.TableParser;
+import currex.resolver.ProgramResolver;
+import currex.source.Source;
+import currex.structure.components.Block;
+import currex.structure.components.Program;
+import currex.structure.primitives.CurrencyPrimitive;
+import currex.structure.primitives.IntPrimitive;
+import currex.structure.statements.DeclarationStatement;
+import currex.structure.statements.IfStatement;
+import currex.structure.statements.ReturnStatement;
+import currex.structure.statements.Statement;
+import currex.structure.statements.WhileStatement;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileReader;
+import java.io.PrintStream;
+import java.util.List;
+
+public class OptimizerTest {
+    private static final String[] PROGRAMS = {"resources/optimizer/constants.txt", "resources/vm/arithmetic.txt",
+            "resources/vm/control_flow.txt", "resources/vm/currency.txt", "resources/vm/functions.txt",
+            "resources/optimizer/conversions.txt", "resources/optimizer/functions.txt",
+            "resources/optimizer/loops.txt"};
+
+    private Program parse(String filename) throws Exception {
+        return new Parser(new Lexer(new Source(new FileReader(filename)))).parse();
+    }
+
+    private ConversionTable conversionTable() throws Exception {
+        return conversionTable("resources/interpreter/currency_table.txt");
+    }
+
+    private ConversionTable conversionTable(String filename) throws Exception {
+        Source source = new Source(new FileReader(filename));
+        return new ConversionTable(new TableParser(new Lexer(source)).parse());
+    }
+
+    private Program optimize(String filename) throws Exception {
+        ConversionTable conversionTable = conversionTable();
+        Program resolved = new ProgramResolver(conversionTable).resolve(parse(filename));
+        return new Optimizer(conversionTable, false).optimize(resolved);
+    }
+
+    private String run(Engine engine, String filename, boolean optimizing) throws Exception {
+        return run(engine, filename, conversionTable(), RunOptions.DEFAULT.withOptimizing(optimizing));
+    }
+
+    private String run(Engine engine, String filename, ConversionTable conversionTable, RunOptions options)
+            throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        engine.create(conversionTable, new PrintStreamSink(new PrintStream(output)), new InterpreterErrorHandler(),
+                options).run(parse(filename));
+        return output.toString();
+    }
+
+    @Test
+    public void FoldConstants() throws Exception {
+        Block main = optimize("resources/optimizer/constants.txt").functionDefinitions().get("main").block();
+        DeclarationStatement seconds = (DeclarationStatement) main.statementList().get(0);
+        Assert.assertEquals(new IntPrimitive(86400), seconds.expression());
+        DeclarationStatement fee = (DeclarationStatement) main.statementList().get(6);
+        Assert.assertEquals("6.0000000000 PLN", ((CurrencyPrimitive) fee.expression()).toString());
+    }
+
+    @Test
+    public void RemoveDeadCode() throws Exception {
+        Program program = optimize("resources/optimizer/constants.txt");
+        Block main = program.functionDefinitions().get("main").block();
+        // the if with a false condition and the loop are gone, only the true branch is left of the first if
+        Assert.assertEquals(13, main.statementList().size());
+        IfStatement first = (IfStatement) main.statementList().get(10);
+        Assert.assertEquals(1, first.conditionalStatements().size());
+        Assert.assertNull(first.conditionalStatements().get(0).expression());
+        Assert.assertEquals(1, ((IfStatement) main.statementList().get(11)).conditionalStatements().size());
+        Block scale = program.functionDefinitions().get("scale").block();
+        Assert.assertEquals(3, scale.statementList().size());
+        Assert.assertTrue(scale.statementList().get(2) instanceof ReturnStatement);
+    }
+
+    @Test
+    public void SameOutputWithoutOptimizing() throws Exception {
+        for (Engine engine : Engine.values()) {
+            for (String filename : PROGRAMS) {
+                Assert.assertEquals(run(engine, filename, false), run(engine, filename, true));
+            }
+        }
+    }
+
+    @Test
+    public void FuseConversionChains() throws Exception {
+        Block main = optimize("resources/optimizer/conversions.txt").functionDefinitions().get("main").block();
+        Assert.assertTrue(main.statementList().get(1).toString().contains("chain=EUR -> USD]"));
+        Assert.assertTrue(main.statementList().get(2).toString().contains("chain=EUR -> USD -> PLN]"));
+        // converting to EUR again and casting to the currency of the conversion change nothing
+        Assert.assertTrue(main.statementList().get(3).toString().contains("chain=EUR -> USD]"));
+        Assert.assertFalse(main.statementList().get(4).toString().contains("CurrencyCastExpression"));
+        // the dynamic target splits the chain
+        Assert.assertTrue(main.statementList().get(7).toString().contains("CurrencyConversionExpression"));
+    }
+
+    @Test
+    public void RoundFusedChainsOnce() throws Exception {
+        ConversionTable conversionTable = conversionTable("resources/optimizer/precise_table.txt");
+        String filename = "resources/optimizer/chain.txt";
+        for (Engine engine : Engine.values()) {
+            String perHop = run(engine, filename, conversionTable, RunOptions.DEFAULT.withOptimizing(false));
+            Assert.assertEquals(perHop, run(engine, filename, conversionTable, RunOptions.DEFAULT));
+            Assert.assertEquals("12.3398192178 PLN", perHop.strip());
+            RunOptions fused = RunOptions.DEFAULT.withFusedRounding(true);
+            Assert.assertEquals("12.3398192179 PLN", run(engine, filename, conversionTable, fused).strip());
+        }
+    }
+
+    @Test
+    public void InlineSmallFunctions() throws Exception {
+        List<Statement> main = optimize("resources/optimizer/functions.txt").functionDefinitions().get("main")
+                .block().statementList();
+        Assert.assertFalse(main.get(1).toString().contains("name=convert"));
+        Assert.assertTrue(main.get(2).toString().contains("arguments=[14]"));
+        Assert.assertFalse(main.get(5).toString().contains("name=safeDiv"));
+        // recursive, evaluated out of order, reading an argument twice, nested too deep
+        Assert.assertTrue(main.get(6).toString().contains("name=fact"));
+        Assert.assertTrue(main.get(10).toString().contains("name=ordered"));
+        Assert.assertTrue(main.get(12).toString().contains("name=useTwice"));
+        Assert.assertTrue(main.get(13).toString().contains("name=deep1"));
+    }
+
+    @Test
+    public void InlineUpToMaxDepth() throws Exception {
+        ConversionTable conversionTable = conversionTable();
+        Program resolved = new ProgramResolver(conversionTable).resolve(parse("resources/optimizer/functions.txt"));
+        List<Statement> main = new Inliner(Inliner.DEFAULT_MAX_SIZE, 4).rewrite(resolved).functionDefinitions()
+                .get("main").block().statementList();
+        Assert.assertFalse(main.get(13).toString().contains("name=deep"));
+        main = new Inliner(2, Inliner.DEFAULT_MAX_DEPTH).rewrite(resolved).functionDefinitions()
+                .get("main").block().statementList();
+        Assert.assertTrue(main.get(1).toString().contains("name=convert"));
+    }
+
+    @Test
+    public void HoistLoopInvariants() throws Exception {
+        Program program = optimize("resources/optimizer/loops.txt");
+        List<Statement> main = program.functionDefinitions().get("main").block().statementList();
+        // the conversion, the float and string arithmetic and the bool of the inner loop leave the outer one
+        Block outer = ((IfStatement) main.get(5)).conditionalStatements().get(0).block();
+        Assert.assertEquals(5, outer.statementList().size());
+        Assert.assertTrue(outer.statementList().get(0).toString().contains("ConversionChainExpression"));
+        Assert.assertTrue(outer.statementList().get(4) instanceof WhileStatement);
+        // integer multiplication may overflow and the division by a variable may fail
+        Block second = ((IfStatement) main.get(9)).conditionalStatements().get(0).block();
+        Assert.assertEquals(2, second.statementList().size());
+        Assert.assertTrue(second.statementList().get(0).toString().contains("right=3"));
+        // the currency of a parameter is not known
+        Assert.assertTrue(program.functionDefinitions().get("convertAll").block().statementList().get(0)
+                instanceof WhileStatement);
+    }
+
+    @Test
+    public void KeepVariablesCallsAssign() throws Exception {
+        String filename = "resources/optimizer/called_loop.txt";
+        Assert.assertEquals(run(Engine.INTERPRETER, filename, false), run(Engine.INTERPRETER, filename, true));
+        List<Statement> main = optimize(filename).functionDefinitions().get("main").block().statementList();
+        List<Statement> hoisted = ((IfStatement) main.get(3)).conditionalStatements().get(0).block().statementList();
+        Assert.assertEquals(2, hoisted.size());
+        Assert.assertTrue(hoisted.get(0).toString().contains("name=g"));
+    }
+
+    @Test
+    public void ReadVariableArgumentsBeforeCallsAssignThem() throws Exception {
+        String filename = "resources/optimizer/caller_write.txt";
+        for (Engine engine : Engine.values()) {
+            Assert.assertEquals("101" + System.lineSeparator(), run(engine, filename, true));
+            Assert.assertEquals(run(engine, filename, false), run(engine, filename, true));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package currex.output;
+
+import currex.CurrexRuntime;
+import currex.Engine;
+import currex.RunOptions;
+import currex.interpreter.builtin.ConversionTable;
+import currex.interpreter.error.InterpreterErrorHandler;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+
+public class BufferedSinkTest {
+    private static final Path TABLE = Path.of("resources/interpreter/currency_table.txt");
+
+    @Test
+    public void WriteWhenThresholdReached() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BufferedSink sink = new BufferedSink(output, 16);
+        sink.println("first");
+        Assert.assertEquals(0, output.size());
+        sink.println("second line");
+        Assert.assertEquals("first" + System.lineSeparator() + "second line" + System.lineSeparator(), output.toString());
+        sink.println("third");
+        sink.flush();
+        Assert.assertTrue(output.toString().endsWith("third" + System.lineSeparator()));
+    }
+
+    @Test
+    public void SameOutputAsPrintStream() throws Exception {
+        for (Engine engine : Engine.values()) {
+            for (String program : new String[]{"resources/vm/functions.txt", "resources/interpreter/zero_division.txt"}) {
+                ByteArrayOutputStream expected = new ByteArrayOutputStream();
+                PrintStreamSink printer = new PrintStreamSink(new PrintStream(expected));
+                run(engine, program, printer);
+                ByteArrayOutputStream buffered = new ByteArrayOutputStream();
+                run(engine, program, new BufferedSink(buffered));
+                Assert.assertEquals(expected.toString(), buffered.toString());
+            }
+        }
+    }
+
+    // errors go through the sink, so they stay after the lines printed before them
+    private static void run(Engine engine, String program, OutputSink printer) throws Exception {
+        CurrexRuntime runtime = new CurrexRuntime(engine, new InterpreterErrorHandler(printer), RunOptions.DEFAULT);
+        ConversionTable table = runtime.loadTable(TABLE);
+        try {
+            runtime.load(Path.of(program)).run(table, printer);
+        } catch (Exception ignored) {
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package currex.parser;
+
+import currex.lexer.Lexer;
+import currex.parser.error.DuplicateDeclaration;
+import currex.source.Source;
+import currex.structure.components.Program;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class IncrementalParserTest {
+
+    private static Program parse(String text) throws Exception {
+        return new Parser(new Lexer(new Source(text.toCharArray()))).parse();
+    }
+
+    private static String read() throws Exception {
+        return Files.readString(Path.of("resources/vm/functions.txt"));
+    }
+
+    private static void assertSameAsFullParse(IncrementalParser parser) throws Exception {
+        Program expected = parse(parser.getText());
+        // currency literals have no equals, their text is compared instead
+        Assert.assertEquals(expected.functionDefinitions().toString(), parser.getProgram().functionDefinitions().toString());
+    }
+
+    @Test
+    public void ReuseUntouchedFunctions() throws Exception {
+        String text = read();
+        IncrementalParser parser = new IncrementalParser(text);
+        Program before = parser.getProgram();
+        int offset = text.indexOf("total + i");
+        parser.edit(offset, "total".length(), "total * 2");
+        assertSameAsFullParse(parser);
+        Program after = parser.getProgram();
+        Assert.assertNotSame(before.functionDefinitions().get("sum"), after.functionDefinitions().get("sum"));
+        Assert.assertSame(before.functionDefinitions().get("fib"), after.functionDefinitions().get("fib"));
+        Assert.assertSame(before.functionDefinitions().get("greet"), after.functionDefinitions().get("greet"));
+    }
+
+    @Test
+    public void SameProgramAfterEdits() throws Exception {
+        String text = read();
+        IncrementalParser parser = new IncrementalParser(text);
+        // a new function between two others, then edits on both sides of it
+        parser.edit(text.indexOf("int sum"), 0, "float half(float x) {\n    return x / 2.0;\n}\n\n");
+        assertSameAsFullParse(parser);
+        parser.edit(parser.getText().indexOf("fib(15)"), "fib(15)".length(), "half(3.0)");
+        assertSameAsFullParse(parser);
+        parser.edit(parser.getText().indexOf("print(name)"), 0, "string suffix = \"?\";\n    ");
+        assertSameAsFullParse(parser);
+        // joining a comment with the next line comments out the header of greet
+        parser.edit(parser.getText().indexOf("greet(string"), 0, "// greeting\n");
+        assertSameAsFullParse(parser);
+        int newline = parser.getText().indexOf("// greeting") + "// greeting".length();
+        Assert.assertThrows(Exception.class, () -> parser.edit(newline, 1, " "));
+        parser.edit(newline, 1, "\n");
+        assertSameAsFullParse(parser);
+        // removing a function together with the blank line after it
+        int start = parser.getText().indexOf("float half");
+        int end = parser.getText().indexOf("int sum");
+        parser.edit(start, end - start, "");
+        assertSameAsFullParse(parser);
+    }
+
+    @Test
+    public void SameProgramAfterRandomWhitespaceAndComments() throws Exception {
+        String[] insertions = {" ", "\n", "\n\n", "// note\n", "\t"};
+        IncrementalParser parser = new IncrementalParser(read());
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            String text = parser.getText();
+            int offset = random.nextInt(text.length() + 1);
+            // only next to whitespace and outside comments, so the program stays valid
+            if (offset > 0 && offset < text.length() && !Character.isWhitespace(text.charAt(offset))
+                    && !Character.isWhitespace(text.charAt(offset - 1))) {
+                continue;
+            }
+            if (text.substring(text.lastIndexOf('\n', offset - 1) + 1, offset).contains("//")) {
+                continue;
+            }
+            String insertion = insertions[random.nextInt(insertions.length)];
+            if (insertion.startsWith("//") && (offset == 0 || text.charAt(offset - 1) != '\n')) {
+                insertion = "\n" + insertion;
+            }
+            parser.edit(offset, 0, insertion);
+            assertSameAsFullParse(parser);
+        }
+    }
+
+    @Test
+    public void ThrowDuplicateDeclarationForReusedName() throws Exception {
+        String text = read();
+        IncrementalParser parser = new IncrementalParser(text);
+        int offset = text.indexOf("greet(string");
+        Assert.assertThrows(DuplicateDeclaration.class,
+                () -> parser.edit(offset, "greet".length(), "fib"));
+        parser.edit(offset, "fib".length(), "greet");
+        assertSameAsFullParse(parser);
+    }
+}
@@ -0,0 +1,65 @@
+package currex.parser;
+
+import currex.lexer.Lexer;
+import currex.parser.error.DuplicateDeclaration;
+import currex.parser.error.MissingSemicolonError;
+import currex.source.Source;
+import currex.structure.components.Program;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelParserTest {
+
+    // enough functions to be split into several tasks
+    private static String generate(int size) {
+        StringBuilder builder = new StringBuilder("main() {\n    print(function0(1));\n}\n\n");
+        for (int i = 0; i < size; i++) {
+            builder.append("// function ").append(i).append("\n")
+                    .append("int function").append(i).append("(int n) {\n")
+                    .append("    int result = n * 2 + ").append(i).append(";\n")
+                    .append("    if (result > 10 && n != 0) {\n")
+                    .append("        currency amount = 4.40 EUR;\n")
+                    .append("        while (result > 0) { result = result - 1; }\n")
+                    .append("    }\n")
+                    .append("    return result;\n")
+                    .append("}\n\n");
+        }
+        return builder.toString();
+    }
+
+    private static void assertSameAsParser(String text) throws Exception {
+        Program expected = new Parser(new Lexer(new Source(text.toCharArray()))).parse();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Program program = new ParallelParser(pool).parse(text.toCharArray());
+            // currency literals have no equals, their text is compared instead
+            Assert.assertEquals(expected.functionDefinitions().toString(), program.functionDefinitions().toString());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void SameProgramAsParser() throws Exception {
+        assertSameAsParser(generate(2000));
+        assertSameAsParser(Files.readString(Path.of("resources/vm/functions.txt")));
+        assertSameAsParser(Files.readString(Path.of("resources/parser/empty_file.txt")));
+    }
+
+    @Test
+    public void ThrowDuplicateDeclaration() {
+        String text = generate(2000) + "int function1500() {\n    return 1;\n}\n";
+        Assert.assertThrows(DuplicateDeclaration.class, () -> new ParallelParser().parse(text.toCharArray()));
+    }
+
+    @Test
+    public void ThrowFirstError() {
+        String text = generate(2000).replace("int result = n * 2 + 1500;", "int result = n * 2 + 1500")
+                .replace("return result;\n}\n\n// function 1900", "return result;\n}\n}\n// function 1900");
+        Assert.assertThrows(MissingSemicolonError.class, () -> new ParallelParser().parse(text.toCharArray()));
+    }
+}
@@ -1,6 +1,11 @@
 package currex.parser;
 
+import currex.diagnostic.Diagnostic;
 import currex.lexer.Lexer;
+import currex.lexer.SymbolTable;
+import currex.lexer.error.LexerErrorHandler;
+import currex.lexer.error.UnknownTokenError;
+import currex.parser.error.*;
 import currex.source.Source;
 import currex.structure.components.Block;
 import currex.structure.components.FunctionDefinition;
@@ -17,6 +22,9 @@ import org.junit.Test;
 
 import java.io.FileReader;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 public class ParserIntegrationTest {
 
@@ -82,4 +90,22 @@ public class ParserIntegrationTest {
         Program program = parser.parse();
         Assert.assertEquals(0, program.functionDefinitions().size());
     }
+
+    @Test
+    public void collectAllErrorsTest() throws Exception {
+        List<Diagnostic> diagnostics = new ArrayList<>();
+        Source source = new Source(new FileReader("resources/parser/multiple_errors.txt"));
+        Lexer lexer = new Lexer(source, new SymbolTable(), new LexerErrorHandler(diagnostics));
+        Parser parser = new Parser(lexer, diagnostics);
+        Program program = parser.parse();
+
+        Assert.assertEquals(Set.of("main", "twice", "last"), program.functionDefinitions().keySet());
+        Assert.assertEquals(2, program.functionDefinitions().get("main").block().statementList().size());
+        Assert.assertEquals(List.of(InvalidIdentifierError.class, MissingExpressionError.class,
+                        MissingSemicolonError.class, InvalidIdentifierError.class, UnknownTokenError.class,
+                        MissingSemicolonError.class, DuplicateDeclaration.class),
+                diagnostics.stream().map(diagnostic -> diagnostic.error().getClass()).toList());
+        Assert.assertEquals(3, diagnostics.get(0).position().getRow());
+        Assert.assertEquals(21, diagnostics.get(6).position().getRow());
+    }
 }
@@ -1400,4 +1400,66 @@ public class ParserTest {
         Parser parser = new Parser(lexer);
         MissingParenthesisError e = Assert.assertThrows(MissingParenthesisError.class, parser::parse);
     }
+
+    @Test
+    public void parseOperatorPrecedenceTest() throws Exception {
+        // result = a || b && c < d + e * f -> EUR;
+        List<Token> tokenList = new ArrayList<>(
+                List.of(new StringToken(new Position(), "functionDef", TokenType.IDENTIFIER),
+                        new Token(new Position(), TokenType.LEFT_PARENTHESIS),
+                        new Token(new Position(), TokenType.RIGHT_PARENTHESIS),
+                        new Token(new Position(), TokenType.LEFT_CURLY_BRACKET),
+                        new StringToken(new Position(), "result", TokenType.IDENTIFIER),
+                        new Token(new Position(), TokenType.EQUALS),
+                        new StringToken(new Position(), "a", TokenType.IDENTIFIER),
+                        new Token(new Position(), TokenType.OR),
+                        new StringToken(new Position(), "b", TokenType.IDENTIFIER),
+                        new Token(new Position(), TokenType.AND),
+                        new StringToken(new Position(), "c", TokenType.IDENTIFIER),
+                        new Token(new Position(), TokenType.LESSER),
+                        new StringToken(new Position(), "d", TokenType.IDENTIFIER),
+                        new Token(new Position(), TokenType.PLUS),
+                        new StringToken(new Position(), "e", TokenType.IDENTIFIER),
+                        new Token(new Position(), TokenType.ASTERISK),
+                        new StringToken(new Position(), "f", TokenType.IDENTIFIER),
+                        new Token(new Position(), TokenType.ARROW),
+                        new StringToken(new Position(), "EUR", TokenType.IDENTIFIER),
+                        new Token(new Position(), TokenType.SEMICOLON),
+                        new Token(new Position(), TokenType.RIGHT_CURLY_BRACKET))
+        );
+        LexerMock lexer = new LexerMock(tokenList);
+        Parser parser = new Parser(lexer);
+        Program program = parser.parse();
+        AssignmentStatement statement = (AssignmentStatement) program.functionDefinitions().get("functionDef")
+                .block().statementList().get(0);
+        OrExpression or = (OrExpression) statement.right();
+        AndExpression and = (AndExpression) or.right();
+        LesserExpression lesser = (LesserExpression) and.right();
+        AdditionExpression addition = (AdditionExpression) lesser.right();
+        MultiplicationExpression multiplication = (MultiplicationExpression) addition.right();
+        Assert.assertEquals(CurrencyConversionExpression.class, multiplication.right().getClass());
+    }
+
+    @Test
+    public void chainedComparisonErrorTest() throws Exception {
+        // result = a < b < c;
+        List<Token> tokenList = new ArrayList<>(
+                List.of(new StringToken(new Position(), "functionDef", TokenType.IDENTIFIER),
+                        new Token(new Position(), TokenType.LEFT_PARENTHESIS),
+                        new Token(new Position(), TokenType.RIGHT_PARENTHESIS),
+                        new Token(new Position(), TokenType.LEFT_CURLY_BRACKET),
+                        new StringToken(new Position(), "result", TokenType.IDENTIFIER),
+                        new Token(new Position(), TokenType.EQUALS),
+                        new StringToken(new Position(), "a", TokenType.IDENTIFIER),
+                        new Token(new Position(), TokenType.LESSER),
+                        new StringToken(new Position(), "b", TokenType.IDENTIFIER),
+                        new Token(new Position(), TokenType.LESSER),
+                        new StringToken(new Position(), "c", TokenType.IDENTIFIER),
+                        new Token(new Position(), TokenType.SEMICOLON),
+                        new Token(new Position(), TokenType.RIGHT_CURLY_BRACKET))
+        );
+        LexerMock lexer = new LexerMock(tokenList);
+        Parser parser = new Parser(lexer);
+        MissingSemicolonError e = Assert.assertThrows(MissingSemicolonError.class, parser::parse);
+    }
 }
@@ -0,0 +1,175 @@
+package currex.resolver;
+
+import currex.interpreter.Interpreter;
+import currex.interpreter.builtin.ConversionTable;
+import currex.interpreter.error.InterpreterErrorHandler;
+import currex.interpreter.error.VariableAlreadyExistsError;
+import currex.lexer.Lexer;
+import currex.parser.Parser;
+import currex.parser.TableParser;
+import currex.source.Source;
+import currex.structure.components.Block;
+import currex.structure.components.FunctionDefinition;
+import currex.structure.components.Program;
+import currex.structure.components.VariableSlot;
+import currex.structure.expressions.AdditionExpression;
+import currex.structure.expressions.FunctionCallExpression;
+import currex.structure.expressions.IdentifierExpression;
+import currex.structure.statements.AssignmentStatement;
+import currex.structure.statements.DeclarationStatement;
+import currex.structure.statements.IfStatement;
+import currex.structure.statements.ReturnStatement;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileReader;
+import java.io.PrintStream;
+import java.io.StringReader;
+
+public class ScopeResolverTest {
+
+    private Program parse(String program) throws Exception {
+        return new Parser(new Lexer(new Source(new StringReader(program)))).parse();
+    }
+
+    private FunctionDefinition resolve(String program, String function) throws Exception {
+        return new ScopeResolver(new InterpreterErrorHandler(false)).rewrite(parse(program))
+                .functionDefinitions().get(function);
+    }
+
+    private Block branch(IfStatement ifStatement, int index) {
+        return ifStatement.conditionalStatements().get(index).block();
+    }
+
+    @Test
+    public void ReuseSlotsOfSiblingBlocks() throws Exception {
+        FunctionDefinition main = resolve("""
+                main() {
+                    int a = 1;
+                    if (a > 0) {
+                        int b = 2;
+                        int c = 3;
+                    }
+                    else {
+                        int d = 4;
+                    }
+                    int e = 5;
+                }
+                """, "main");
+        IfStatement ifStatement = (IfStatement) main.block().statementList().get(1);
+        Block first = branch(ifStatement, 0);
+        Block second = branch(ifStatement, 1);
+        Assert.assertEquals(1, ((DeclarationStatement) first.statementList().get(0)).slot());
+        Assert.assertEquals(2, ((DeclarationStatement) first.statementList().get(1)).slot());
+        Assert.assertEquals(1, ((DeclarationStatement) second.statementList().get(0)).slot());
+        Assert.assertEquals(1, first.scopeStart());
+        Assert.assertEquals(3, first.scopeEnd());
+        Assert.assertEquals(1, second.scopeStart());
+        Assert.assertEquals(2, second.scopeEnd());
+        // the slots released by the blocks are taken by the next variable of the function
+        Assert.assertEquals(1, ((DeclarationStatement) main.block().statementList().get(2)).slot());
+        Assert.assertEquals(3, main.frameSize());
+    }
+
+    @Test
+    public void ShadowVariablesOfEnclosingBlocks() throws Exception {
+        FunctionDefinition main = resolve("""
+                main() {
+                    int a = 1;
+                    if (a > 0) {
+                        int a = a + 1;
+                        a = 3;
+                    }
+                    a = 4;
+                }
+                """, "main");
+        Block inner = branch((IfStatement) main.block().statementList().get(1), 0);
+        DeclarationStatement shadowing = (DeclarationStatement) inner.statementList().get(0);
+        Assert.assertEquals(1, shadowing.slot());
+        // the initializer still reads the outer variable
+        AdditionExpression initializer = (AdditionExpression) shadowing.expression();
+        Assert.assertEquals(0, ((IdentifierExpression) initializer.left()).slot());
+        Assert.assertEquals(1, ((IdentifierExpression) ((AssignmentStatement) inner.statementList().get(1)).left())
+                .slot());
+        Assert.assertEquals(0, ((IdentifierExpression) ((AssignmentStatement) main.block().statementList().get(2))
+                .left()).slot());
+    }
+
+    @Test
+    public void ThrowVariableAlreadyExistsError() throws Exception {
+        Program program = parse("""
+                main() {
+                    int a = 1;
+                    float a = 2.0;
+                }
+                """);
+        Assert.assertThrows(VariableAlreadyExistsError.class,
+                () -> new ScopeResolver(new InterpreterErrorHandler(false)).rewrite(program));
+        // a parameter shares the scope of the function body
+        Program redeclaredParameter = parse("""
+                main() {
+                }
+
+                int f(int n) {
+                    int n = 2;
+                    return n;
+                }
+                """);
+        Assert.assertThrows(VariableAlreadyExistsError.class,
+                () -> new ScopeResolver(new InterpreterErrorHandler(false)).rewrite(redeclaredParameter));
+    }
+
+    @Test
+    public void PutParametersInTheFirstSlots() throws Exception {
+        FunctionDefinition f = resolve("""
+                main() {
+                }
+
+                int f(int a, float b, int c) {
+                    int d = a + c;
+                    return d;
+                }
+                """, "f");
+        Assert.assertEquals(0, f.parameters().get(0).slot());
+        Assert.assertEquals(1, f.parameters().get(1).slot());
+        Assert.assertEquals(2, f.parameters().get(2).slot());
+        Assert.assertEquals(3, ((DeclarationStatement) f.block().statementList().get(0)).slot());
+        Assert.assertEquals(3, f.block().scopeStart());
+        Assert.assertEquals(4, f.block().scopeEnd());
+        Assert.assertEquals(4, f.frameSize());
+        ReturnStatement returnStatement = (ReturnStatement) f.block().statementList().get(1);
+        Assert.assertEquals(3, ((IdentifierExpression) returnStatement.expression()).slot());
+    }
+
+    @Test
+    public void LeaveCallerVariablesUnresolved() throws Exception {
+        String source = """
+                main() {
+                    int x = 1;
+                    bump();
+                    print(x);
+                }
+
+                bump() {
+                    x = x + 10;
+                }
+                """;
+        FunctionDefinition bump = resolve(source, "bump");
+        AssignmentStatement assignment = (AssignmentStatement) bump.block().statementList().get(0);
+        Assert.assertEquals(VariableSlot.UNRESOLVED, ((IdentifierExpression) assignment.left()).slot());
+        Assert.assertEquals(VariableSlot.UNRESOLVED,
+                ((IdentifierExpression) ((AdditionExpression) assignment.right()).left()).slot());
+        FunctionDefinition main = resolve(source, "main");
+        Assert.assertEquals(FunctionCallExpression.class, main.block().statementList().get(1).getClass());
+        // at runtime the name is found in the frame of the caller
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new Interpreter(conversionTable(), new PrintStream(output)).run(parse(source));
+        Assert.assertEquals("11", output.toString().strip());
+    }
+
+    private ConversionTable conversionTable() throws Exception {
+        Source source = new Source(new FileReader("resources/interpreter/currency_table.txt"));
+        return new ConversionTable(new TableParser(new Lexer(source)).parse());
+    }
+}
@@ -0,0 +1,132 @@
+package currex.resolver;
+
+import currex.interpreter.Interpreter;
+import currex.interpreter.builtin.ConversionTable;
+import currex.interpreter.error.IncompatibleTypesError;
+import currex.lexer.Lexer;
+import currex.parser.Parser;
+import currex.parser.TableParser;
+import currex.source.Source;
+import currex.structure.components.Block;
+import currex.structure.components.FunctionDefinition;
+import currex.structure.components.Parameter;
+import currex.structure.components.Program;
+import currex.structure.components.VariableSlot;
+import currex.structure.expressions.AdditionExpression;
+import currex.structure.expressions.FunctionCallExpression;
+import currex.structure.expressions.GreaterExpression;
+import currex.structure.expressions.IdentifierExpression;
+import currex.structure.primitives.FloatPrimitive;
+import currex.structure.primitives.IntPrimitive;
+import currex.structure.primitives.PrimitiveType;
+import currex.structure.statements.DeclarationStatement;
+import currex.structure.statements.ReturnStatement;
+import currex.structure.statements.Statement;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileReader;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TypeCheckerTest {
+
+    private Program parse(String filename) throws Exception {
+        Source source = new Source(new FileReader(filename));
+        Lexer lexer = new Lexer(source);
+        Parser parser = new Parser(lexer);
+        return parser.parse();
+    }
+
+    private ConversionTable conversionTable() throws Exception {
+        Source source = new Source(new FileReader("resources/interpreter/currency_table.txt"));
+        Lexer lexer = new Lexer(source);
+        TableParser tableParser = new TableParser(lexer);
+        return new ConversionTable(tableParser.parse());
+    }
+
+    private Program mainWith(DeclarationStatement... statements) {
+        return new Program(Map.of("main", new FunctionDefinition(PrimitiveType.NONE, "main", List.of(),
+                new Block(List.of(statements)))));
+    }
+
+    @Test
+    public void AnnotatesOperandTypes() throws Exception {
+        Program program = new ScopeResolver().rewrite(mainWith(
+                new DeclarationStatement(PrimitiveType.INTEGER, "a", new IntPrimitive(1)),
+                new DeclarationStatement(PrimitiveType.BOOL, "b",
+                        new GreaterExpression(new IdentifierExpression("a"), new IntPrimitive(2)))
+        ));
+        TypeChecker typeChecker = new TypeChecker();
+        Program checked = typeChecker.rewrite(program);
+        DeclarationStatement declaration = (DeclarationStatement) checked.functionDefinitions().get("main")
+                .block().statementList().get(1);
+        GreaterExpression greater = (GreaterExpression) declaration.expression();
+        Assert.assertEquals(PrimitiveType.INTEGER, greater.operandType());
+        Assert.assertEquals(PrimitiveType.BOOL, typeChecker.typeOf(greater));
+        Assert.assertEquals(PrimitiveType.INTEGER, typeChecker.typeOf(greater.left()));
+    }
+
+    @Test
+    public void LeavesCallerVariablesUntyped() throws Exception {
+        Program program = new ScopeResolver().rewrite(mainWith(
+                new DeclarationStatement(PrimitiveType.INTEGER, "a",
+                        new AdditionExpression(new IdentifierExpression("x"), new IntPrimitive(2)))
+        ));
+        TypeChecker typeChecker = new TypeChecker();
+        Program checked = typeChecker.rewrite(program);
+        DeclarationStatement declaration = (DeclarationStatement) checked.functionDefinitions().get("main")
+                .block().statementList().get(0);
+        AdditionExpression addition = (AdditionExpression) declaration.expression();
+        Assert.assertNull(addition.operandType());
+        Assert.assertNull(typeChecker.typeOf(addition.left()));
+        Assert.assertEquals(PrimitiveType.INTEGER, typeChecker.typeOf(addition));
+    }
+
+    @Test
+    public void BindCallsWithMatchingArguments() throws Exception {
+        Map<String, FunctionDefinition> functions = new LinkedHashMap<>();
+        functions.put("main", new FunctionDefinition(PrimitiveType.NONE, "main", List.of(), new Block(List.of(
+                new DeclarationStatement(PrimitiveType.INTEGER, "a",
+                        new FunctionCallExpression("twice", List.of(new IntPrimitive(1)))),
+                new DeclarationStatement(PrimitiveType.INTEGER, "b",
+                        new FunctionCallExpression("twice", List.of(new IdentifierExpression("x"))))))));
+        functions.put("twice", new FunctionDefinition(PrimitiveType.INTEGER, "twice",
+                List.of(new Parameter(PrimitiveType.INTEGER, "v")), new Block(List.of(new ReturnStatement(
+                        new AdditionExpression(new IdentifierExpression("v"), new IdentifierExpression("v")))))));
+        Program checked = new TypeChecker().rewrite(new ScopeResolver().rewrite(new Program(functions)));
+        List<Statement> statements = checked.functionDefinitions().get("main").block().statementList();
+        Assert.assertEquals(1, ((FunctionCallExpression) ((DeclarationStatement) statements.get(0)).expression()).function());
+        // the type of a caller variable is only known at runtime
+        Assert.assertEquals(VariableSlot.UNRESOLVED,
+                ((FunctionCallExpression) ((DeclarationStatement) statements.get(1)).expression()).function());
+    }
+
+    @Test
+    public void ThrowIncompatibleTypesError() throws Exception {
+        Program program = new ScopeResolver().rewrite(mainWith(
+                new DeclarationStatement(PrimitiveType.FLOAT, "a",
+                        new AdditionExpression(new IntPrimitive(1), new FloatPrimitive(2.0)))
+        ));
+        Assert.assertThrows(IncompatibleTypesError.class, () -> new TypeChecker().rewrite(program));
+    }
+
+    @Test
+    public void ReportsErrorsBeforeExecution() throws Exception {
+        Program program = parse("resources/resolver/late_type_error.txt");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Interpreter interpreter = new Interpreter(conversionTable(), new PrintStream(output));
+        Assert.assertThrows(IncompatibleTypesError.class, () -> interpreter.run(program));
+        Assert.assertEquals("", output.toString());
+    }
+
+    @Test
+    public void ChecksFunctionsWhichAreNeverCalled() throws Exception {
+        Program program = parse("resources/resolver/unused_function_error.txt");
+        Interpreter interpreter = new Interpreter(conversionTable(), new PrintStream(new ByteArrayOutputStream()));
+        Assert.assertThrows(IncompatibleTypesError.class, () -> interpreter.run(program));
+    }
+}
@@ -4,6 +4,9 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.*;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 
 public class SourceTest {
 
@@ -145,4 +148,51 @@ public class SourceTest {
         Assert.assertEquals(source.getCurrentChar().charValue(), 'F');
         Assert.assertEquals(source.Peek().charValue(), (char)(-1));
     }
+
+    @Test
+    public void readCharArrayTest() {
+        Source source = new Source("Lorem".toCharArray());
+        Assert.assertEquals(source.current(), Source.EOF);
+        Assert.assertEquals(source.peek(1), 'L');
+        Assert.assertEquals(source.peek(3), 'r');
+        source.readChar();
+        Assert.assertEquals(source.current(), 'L');
+        Assert.assertEquals(source.peek(4), 'm');
+        Assert.assertEquals(source.peek(5), Source.EOF);
+    }
+
+    @Test
+    public void readCharBufferTest() {
+        CharBuffer buffer = CharBuffer.wrap("xx=1;".toCharArray());
+        buffer.position(2);
+        Source source = new Source(buffer);
+        source.readChar();
+        Assert.assertEquals(source.current(), '=');
+        source.readChar();
+        source.readChar();
+        Assert.assertEquals(source.current(), ';');
+        Assert.assertTrue(source.isStreamEnd());
+        Assert.assertEquals(source.peek(1), Source.EOF);
+    }
+
+    @Test
+    public void readReadOnlyCharBufferTest() {
+        Source source = new Source(CharBuffer.wrap("ab"));
+        source.readChar();
+        Assert.assertEquals(source.current(), 'a');
+        Assert.assertEquals(source.peek(1), 'b');
+    }
+
+    @Test
+    public void readMappedFileTest() throws IOException {
+        Source source = Source.fromMappedFile(Path.of("resources/source/source_test.txt"), StandardCharsets.UTF_8);
+        Source readerSource = new Source(new FileReader("resources/source/source_test.txt", StandardCharsets.UTF_8));
+        while (!readerSource.isStreamEnd()) {
+            readerSource.readChar();
+            source.readChar();
+            Assert.assertEquals(readerSource.current(), source.current());
+        }
+        Assert.assertTrue(source.isStreamEnd());
+        Assert.assertEquals(readerSource.getPosition().getRow(), source.getPosition().getRow());
+    }
 }
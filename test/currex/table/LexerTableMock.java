@@ -1,6 +1,7 @@
 package currex.table;
 
 import currex.lexer.Lexer;
+import currex.lexer.TokenStream;
 import currex.source.Source;
 import currex.token.Position;
 import currex.token.Token;
@@ -25,4 +26,8 @@ public class LexerTableMock extends Lexer {
         }
         return new Token(new Position(), TokenType.EOF);
     }
+
+    public int fetchTokenInto(TokenStream tokens) {
+        return tokens.add(fetchToken());
+    }
 }
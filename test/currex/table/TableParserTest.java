@@ -1,14 +1,20 @@
 package currex.table;
 
+import currex.diagnostic.Diagnostic;
 import currex.interpreter.builtin.ConversionTable;
+import currex.lexer.Lexer;
 import currex.lexer.LexerMock;
+import currex.lexer.SymbolTable;
+import currex.lexer.error.LexerErrorHandler;
 import currex.parser.TableParser;
 import currex.parser.error.*;
+import currex.source.Source;
 import currex.structure.table.TableStatement;
 import currex.token.*;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.FileReader;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -293,4 +299,19 @@ public class TableParserTest {
         InvalidCurrencyRateError e = Assert.assertThrows(InvalidCurrencyRateError.class,
                 () -> new ConversionTable(tableStatement));
     }
+
+    @Test
+    public void CollectAllErrors() throws Exception {
+        List<Diagnostic> diagnostics = new ArrayList<>();
+        Source source = new Source(new FileReader("resources/parser/table_errors.txt"));
+        Lexer lexer = new Lexer(source, new SymbolTable(), new LexerErrorHandler(diagnostics));
+        TableStatement tableStatement = new TableParser(lexer, diagnostics).parse();
+
+        Assert.assertEquals(3, tableStatement.currencyRow().currencyNames().size());
+        Assert.assertEquals(2, tableStatement.conversionRows().size());
+        Assert.assertEquals(List.of(NegationNotAllowedError.class, CurrencyNotDeclaredError.class,
+                        InvalidCurrencyTableError.class),
+                diagnostics.stream().map(diagnostic -> diagnostic.error().getClass()).toList());
+        Assert.assertEquals(3, diagnostics.get(0).position().getRow());
+    }
 }
@@ -0,0 +1,187 @@
+package currex.vm;
+
+import currex.Engine;
+import currex.interpreter.CurrencyArithmetic;
+import currex.interpreter.Interpretable;
+import currex.interpreter.Interpreter;
+import currex.interpreter.builtin.ConversionTable;
+import currex.interpreter.error.*;
+import currex.lexer.Lexer;
+import currex.output.OutputSink;
+import currex.output.PrintStreamSink;
+import currex.parser.Parser;
+import currex.parser.TableParser;
+import currex.source.Source;
+import currex.structure.components.Program;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileReader;
+import java.io.PrintStream;
+
+public class VirtualMachineTest {
+
+    private Program parse(String filename) throws Exception {
+        Source source = new Source(new FileReader(filename));
+        Lexer lexer = new Lexer(source);
+        Parser parser = new Parser(lexer);
+        return parser.parse();
+    }
+
+    private ConversionTable conversionTable() throws Exception {
+        Source source = new Source(new FileReader("resources/interpreter/currency_table.txt"));
+        Lexer lexer = new Lexer(source);
+        TableParser tableParser = new TableParser(lexer);
+        return new ConversionTable(tableParser.parse());
+    }
+
+    private String runInterpreter(String filename) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new Interpreter(conversionTable(), new PrintStream(output)).run(parse(filename));
+        return output.toString();
+    }
+
+    private String runVirtualMachine(String filename) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new VirtualMachine(conversionTable(), new PrintStream(output)).run(parse(filename));
+        return output.toString();
+    }
+
+    private void assertSameOutput(String filename) throws Exception {
+        Assert.assertEquals(runInterpreter(filename), runVirtualMachine(filename));
+    }
+
+    // everything printed, the message of the error which stopped the run included
+    private String runReportingErrors(Engine engine, String filename) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        OutputSink printer = new PrintStreamSink(new PrintStream(output));
+        ConversionTable conversionTable = conversionTable();
+        try {
+            engine.create(conversionTable, printer, new CurrencyArithmetic(conversionTable),
+                    new InterpreterErrorHandler(printer)).run(parse(filename));
+        }
+        catch (InterpreterError ignored) {
+        }
+        return output.toString();
+    }
+
+    private void assertSameErrorOutput(String filename) throws Exception {
+        String expected = runReportingErrors(Engine.INTERPRETER, filename);
+        Assert.assertEquals(expected, runReportingErrors(Engine.VM, filename));
+        Assert.assertEquals(expected, runReportingErrors(Engine.NODES, filename));
+    }
+
+    private <T extends Throwable> void assertThrowsInVirtualMachine(Class<T> errorClass, String filename) throws Exception {
+        Program program = parse(filename);
+        Interpretable virtualMachine = new VirtualMachine(conversionTable(), new PrintStream(new ByteArrayOutputStream()));
+        Assert.assertThrows(errorClass, () -> virtualMachine.run(program));
+    }
+
+    @Test
+    public void SameOutputForArithmetic() throws Exception {
+        assertSameOutput("resources/vm/arithmetic.txt");
+    }
+
+    @Test
+    public void SameOutputForCurrencies() throws Exception {
+        assertSameOutput("resources/vm/currency.txt");
+    }
+
+    @Test
+    public void SameOutputForFunctions() throws Exception {
+        assertSameOutput("resources/vm/functions.txt");
+    }
+
+    @Test
+    public void SameOutputForControlFlow() throws Exception {
+        assertSameOutput("resources/vm/control_flow.txt");
+    }
+
+    @Test
+    public void SameOutputForCodeExamples() throws Exception {
+        assertSameOutput("resources/code_examples/currency.txt");
+        assertSameOutput("resources/code_examples/if_statement.txt");
+        assertSameOutput("resources/code_examples/while_statement.txt");
+    }
+
+    @Test
+    public void PrintsFunctionResults() throws Exception {
+        Assert.assertEquals(String.join(System.lineSeparator(), "610", "5050", "0.9335106383 PLN", "\"world!\"", ""),
+                runVirtualMachine("resources/vm/functions.txt"));
+    }
+
+    @Test
+    public void SameOutputForCallerVariables() throws Exception {
+        assertSameOutput("resources/vm/caller_variable.txt");
+        assertSameOutput("resources/optimizer/called_loop.txt");
+    }
+
+    @Test
+    public void RejectCallerVariablesOfDifferentTypes() throws Exception {
+        assertThrowsInVirtualMachine(InvalidVariableTypeError.class, "resources/vm/caller_variable_types.txt");
+    }
+
+    @Test
+    public void SameErrorForStringTargetCurrencies() throws Exception {
+        assertSameErrorOutput("resources/vm/string_target.txt");
+        assertSameErrorOutput("resources/interpreter/invalid_currency_cast.txt");
+        assertSameErrorOutput("resources/interpreter/invalid_currency_conversion.txt");
+    }
+
+    @Test
+    public void SameOutputForReturnsInsideBlocks() throws Exception {
+        assertSameOutput("resources/vm/block_return.txt");
+    }
+
+    @Test
+    public void MainFunctionNotFoundError() throws Exception {
+        assertThrowsInVirtualMachine(MainFunctionNotDefinedError.class, "resources/interpreter/main_not_found.txt");
+    }
+
+    @Test
+    public void InvalidVariableTypeError() throws Exception {
+        assertThrowsInVirtualMachine(InvalidVariableTypeError.class, "resources/interpreter/invalid_variable_type.txt");
+    }
+
+    @Test
+    public void VariableAlreadyDeclaredError() throws Exception {
+        assertThrowsInVirtualMachine(VariableAlreadyExistsError.class, "resources/interpreter/var_already_declared.txt");
+    }
+
+    @Test
+    public void VariableDoesNotExistError() throws Exception {
+        assertThrowsInVirtualMachine(VariableDoesNotExistError.class, "resources/interpreter/var_not_exist.txt");
+    }
+
+    @Test
+    public void InvalidReturnValueError() throws Exception {
+        assertThrowsInVirtualMachine(InvalidReturnValueError.class, "resources/interpreter/invalid_return.txt");
+    }
+
+    @Test
+    public void InvalidFunctionCallError() throws Exception {
+        assertThrowsInVirtualMachine(InvalidFunctionCallError.class, "resources/interpreter/invalid_func_call.txt");
+    }
+
+    @Test
+    public void InvalidBoolValueError() throws Exception {
+        assertThrowsInVirtualMachine(InvalidBoolValueError.class, "resources/interpreter/invalid_bool.txt");
+    }
+
+    @Test
+    public void InvalidCurrencyNameError() throws Exception {
+        assertThrowsInVirtualMachine(InvalidCurrencyNameError.class, "resources/interpreter/invalid_currency_conversion.txt");
+        assertThrowsInVirtualMachine(InvalidCurrencyNameError.class, "resources/interpreter/currency_comparison.txt");
+    }
+
+    @Test
+    public void IncompatibleTypesError() throws Exception {
+        assertThrowsInVirtualMachine(IncompatibleTypesError.class, "resources/interpreter/invalid_negation_minus.txt");
+    }
+
+    @Test
+    public void ZeroDivisionError() throws Exception {
+        assertThrowsInVirtualMachine(ZeroDivisionError.class, "resources/interpreter/zero_division.txt");
+    }
+}